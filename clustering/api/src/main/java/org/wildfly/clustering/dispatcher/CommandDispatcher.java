@@ -22,6 +22,9 @@
 package org.wildfly.clustering.dispatcher;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 import org.wildfly.clustering.group.Node;
@@ -78,6 +81,47 @@ public interface CommandDispatcher<C> extends AutoCloseable {
      */
     <R> Map<Node, Future<R>> submitOnCluster(Command<R, C> command, Node... excludedNodes) throws Exception;
 
+    /**
+     * Asynchronously executes the specified command on the specified node.
+     * Unlike {@link #submitOnNode(Command, Node)}, the caller need not block a thread waiting for the result.
+     * The default implementation executes the command synchronously via {@link #executeOnNode(Command, Node)}.
+     *
+     * @param <R>     the return value type
+     * @param command the command to execute
+     * @param node    the node to execute the command on
+     * @return a stage that completes with the result of the command execution, or exceptionally if the command could not be sent or failed to execute
+     */
+    default <R> CompletionStage<R> executeOnNodeAsync(Command<R, C> command, Node node) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        try {
+            result.complete(this.executeOnNode(command, node).get());
+        } catch (ExecutionException e) {
+            result.completeExceptionally(e.getCause());
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Asynchronously executes the specified command on all nodes in the group, excluding the specified nodes.
+     * The default implementation executes the command synchronously via {@link #executeOnCluster(Command, Node...)}.
+     *
+     * @param <R>           the return value type
+     * @param command       the command to execute
+     * @param excludedNodes the set of nodes to exclude
+     * @return a stage that completes with a map of command execution results per node, or exceptionally if the command could not be broadcast
+     */
+    default <R> CompletionStage<Map<Node, CommandResponse<R>>> executeOnClusterAsync(Command<R, C> command, Node... excludedNodes) {
+        CompletableFuture<Map<Node, CommandResponse<R>>> result = new CompletableFuture<>();
+        try {
+            result.complete(this.executeOnCluster(command, excludedNodes));
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
     /**
      * Closes any resources used by this dispatcher.
      * Once closed, a dispatcher can no longer execute commands.
@@ -21,7 +21,7 @@
  */
 package org.wildfly.clustering.ejb.infinispan;
 
-import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.BatchableCommand;
 import org.wildfly.clustering.ee.Batch;
 import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
 
@@ -29,7 +29,7 @@ import org.wildfly.clustering.ejb.infinispan.logging.InfinispanEjbLogger;
  * Command that evicts a bean.
  * @author Paul Ferraro
  */
-public class BeanEvictionCommand<I> implements Command<Void, BeanEvictionContext<I>> {
+public class BeanEvictionCommand<I> implements BatchableCommand<Void, BeanEvictionContext<I>> {
     private static final long serialVersionUID = -6593293772761100784L;
 
     private final I id;
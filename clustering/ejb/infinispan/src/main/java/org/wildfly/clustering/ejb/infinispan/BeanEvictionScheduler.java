@@ -95,12 +95,17 @@ public class BeanEvictionScheduler<I> implements Scheduler<I>, BeanEvictionConte
             if (this.evictionQueue.size() > this.config.getConfiguration().getMaxSize()) {
                 Iterator<I> beans = this.evictionQueue.iterator();
                 I bean = beans.next();
-                try {
-                    this.dispatcher.submitOnCluster(new BeanEvictionCommand<>(bean));
-                    beans.remove();
-                } catch (Exception e) {
-                    InfinispanEjbLogger.ROOT_LOGGER.failedToPassivateBean(e, bean);
-                }
+                beans.remove();
+                // Dispatch asynchronously, allowing the dispatcher to coalesce bursts of evictions
+                this.dispatcher.executeOnClusterAsync(new BeanEvictionCommand<>(bean)).whenComplete((responses, e) -> {
+                    if (e != null) {
+                        InfinispanEjbLogger.ROOT_LOGGER.failedToPassivateBean(e, bean);
+                        // Requeue bean, so that its eviction is retried
+                        synchronized (this.evictionQueue) {
+                            this.evictionQueue.add(bean);
+                        }
+                    }
+                });
             }
         }
     }
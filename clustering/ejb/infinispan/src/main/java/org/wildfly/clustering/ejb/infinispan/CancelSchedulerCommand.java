@@ -21,13 +21,13 @@
  */
 package org.wildfly.clustering.ejb.infinispan;
 
-import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.BatchableCommand;
 
 /**
  * Command that cancels the scheduling of a session.
  * @author Paul Ferraro
  */
-public class CancelSchedulerCommand<I> implements Command<Void, Scheduler<I>> {
+public class CancelSchedulerCommand<I> implements BatchableCommand<Void, Scheduler<I>> {
     private static final long serialVersionUID = -3526890046903297231L;
 
     private final I id;
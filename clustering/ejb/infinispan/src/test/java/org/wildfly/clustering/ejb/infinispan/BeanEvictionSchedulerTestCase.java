@@ -24,16 +24,22 @@ package org.wildfly.clustering.ejb.infinispan;
 import static org.mockito.Mockito.*;
 import static org.junit.Assert.*;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
+import org.wildfly.clustering.dispatcher.CommandResponse;
 import org.wildfly.clustering.ee.Batcher;
 import org.wildfly.clustering.ee.infinispan.Evictor;
 import org.wildfly.clustering.ee.infinispan.TransactionBatch;
 import org.wildfly.clustering.ejb.Bean;
 import org.wildfly.clustering.ejb.BeanPassivationConfiguration;
+import org.wildfly.clustering.group.Node;
 
 public class BeanEvictionSchedulerTestCase {
     @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -55,6 +61,7 @@ public class BeanEvictionSchedulerTestCase {
         when(dispatcherFactory.createCommandDispatcher(same(name), (BeanEvictionContext<String>) capturedContext.capture())).thenReturn(dispatcher);
         when(config.getConfiguration()).thenReturn(passivationConfig);
         when(passivationConfig.getMaxSize()).thenReturn(1);
+        when(dispatcher.executeOnClusterAsync(any(Command.class))).thenReturn(CompletableFuture.completedFuture(Collections.emptyMap()));
 
         try (Scheduler<String> scheduler = new BeanEvictionScheduler<>(name, batcher, evictor, dispatcherFactory, config)) {
             BeanEvictionContext<String> context = capturedContext.getValue();
@@ -67,7 +74,7 @@ public class BeanEvictionSchedulerTestCase {
 
             scheduler.schedule(activeBeanId);
 
-            verify(dispatcher).submitOnCluster(capturedCommand.capture());
+            verify(dispatcher).executeOnClusterAsync(capturedCommand.capture());
 
             when(batcher.createBatch()).thenReturn(batch);
 
@@ -80,4 +87,49 @@ public class BeanEvictionSchedulerTestCase {
 
         verify(dispatcher).close();
     }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void failure() throws Exception {
+        String name = "bean";
+        String evictedBeanId = "evicted";
+        String activeBeanId = "active";
+        String newBeanId = "new";
+        CommandDispatcherFactory dispatcherFactory = mock(CommandDispatcherFactory.class);
+        CommandDispatcher<BeanEvictionContext<String>> dispatcher = mock(CommandDispatcher.class);
+        Batcher<TransactionBatch> batcher = mock(Batcher.class);
+        Evictor<String> evictor = mock(Evictor.class);
+        PassivationConfiguration<Bean<Object, String, Object>> config = mock(PassivationConfiguration.class);
+        BeanPassivationConfiguration passivationConfig = mock(BeanPassivationConfiguration.class);
+        ArgumentCaptor<BeanEvictionCommand> capturedCommand = ArgumentCaptor.forClass(BeanEvictionCommand.class);
+        CompletableFuture<Map<Node, CommandResponse<Void>>> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new Exception());
+
+        when(dispatcherFactory.createCommandDispatcher(same(name), any(BeanEvictionContext.class))).thenReturn(dispatcher);
+        when(config.getConfiguration()).thenReturn(passivationConfig);
+        when(passivationConfig.getMaxSize()).thenReturn(1);
+        when(dispatcher.executeOnClusterAsync(any(Command.class))).thenReturn(failure).thenReturn(CompletableFuture.completedFuture(Collections.emptyMap()));
+
+        try (Scheduler<String> scheduler = new BeanEvictionScheduler<>(name, batcher, evictor, dispatcherFactory, config)) {
+            scheduler.schedule(evictedBeanId);
+            scheduler.schedule(activeBeanId);
+
+            // Bean whose eviction failed is requeued
+            scheduler.schedule(newBeanId);
+
+            verify(dispatcher, times(2)).executeOnClusterAsync(capturedCommand.capture());
+
+            BeanEvictionContext<String> context = mock(BeanEvictionContext.class);
+            when(context.getBatcher()).thenReturn(batcher);
+            when(context.getEvictor()).thenReturn(evictor);
+            when(batcher.createBatch()).thenReturn(mock(TransactionBatch.class));
+
+            capturedCommand.getAllValues().get(0).execute(context);
+            verify(evictor).evict(evictedBeanId);
+
+            capturedCommand.getAllValues().get(1).execute(context);
+            verify(evictor).evict(activeBeanId);
+            verify(evictor, never()).evict(newBeanId);
+        }
+    }
 }
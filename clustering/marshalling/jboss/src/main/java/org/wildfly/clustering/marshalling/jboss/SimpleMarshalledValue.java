@@ -22,12 +22,12 @@
 
 package org.wildfly.clustering.marshalling.jboss;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.Marshalling;
@@ -39,10 +39,13 @@ import org.wildfly.security.manager.WildFlySecurityManager;
 /**
  * A marshalled value that is lazily serialized and deserialized on demand.
  * This implementation does not preserve the hash code of its object in serialized form.
+ * Deserialization does not require locking; if multiple threads race to deserialize the same value, all threads observe the same object.
  * @author Paul Ferraro
  */
 public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingContext> {
     private static final long serialVersionUID = -8852566958387608376L;
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<SimpleMarshalledValue, Object> OBJECT_UPDATER = AtomicReferenceFieldUpdater.newUpdater(SimpleMarshalledValue.class, Object.class, "object");
 
     private transient volatile MarshallingContext context;
     private transient volatile T object;
@@ -65,21 +68,22 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
     byte[] getBytes() throws IOException {
         byte[] bytes = this.bytes;
         if (bytes != null) return bytes;
-        if (this.object == null) return null;
+        T object = this.object;
+        if (object == null) return null;
         int version = this.context.getCurrentVersion();
-        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        SizeEstimatingByteOutput output = new SizeEstimatingByteOutput(object);
         ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-        try (SimpleDataOutput data = new SimpleDataOutput(Marshalling.createByteOutput(output))) {
+        try (SimpleDataOutput data = new SimpleDataOutput(output)) {
             IndexExternalizer.VARIABLE.writeData(data, version);
             try (Marshaller marshaller = this.context.createMarshaller(version)) {
                 marshaller.start(data);
-                marshaller.writeObject(this.object);
+                marshaller.writeObject(object);
                 marshaller.finish();
-                return output.toByteArray();
             }
         } finally {
             setThreadContextClassLoader(loader);
         }
+        return output.getBytes();
     }
 
     /**
@@ -88,26 +92,31 @@ public class SimpleMarshalledValue<T> implements MarshalledValue<T, MarshallingC
      */
     @SuppressWarnings("unchecked")
     @Override
-    public synchronized T get(MarshallingContext context) throws IOException, ClassNotFoundException {
-        if (this.object == null) {
+    public T get(MarshallingContext context) throws IOException, ClassNotFoundException {
+        T object = this.object;
+        if (object == null) {
+            byte[] bytes = this.bytes;
+            // If bytes were already released, then object was already published
+            if (bytes == null) return this.object;
             this.context = context;
-            if (this.bytes != null) {
-                ByteArrayInputStream input = new ByteArrayInputStream(this.bytes);
-                ClassLoader loader = setThreadContextClassLoader(this.context.getClassLoader());
-                try (SimpleDataInput data = new SimpleDataInput(Marshalling.createByteInput(input))) {
-                    int version = IndexExternalizer.VARIABLE.readData(data);
-                    try (Unmarshaller unmarshaller = context.createUnmarshaller(version)) {
-                        unmarshaller.start(data);
-                        this.object = (T) unmarshaller.readObject();
-                        unmarshaller.finish();
-                        this.bytes = null; // Free up memory
-                    }
-                } finally {
-                    setThreadContextClassLoader(loader);
+            ClassLoader loader = setThreadContextClassLoader(context.getClassLoader());
+            try (SimpleDataInput data = new SimpleDataInput(Marshalling.createByteInput(ByteBuffer.wrap(bytes)))) {
+                int version = IndexExternalizer.VARIABLE.readData(data);
+                try (Unmarshaller unmarshaller = context.createUnmarshaller(version)) {
+                    unmarshaller.start(data);
+                    object = (T) unmarshaller.readObject();
+                    unmarshaller.finish();
                 }
+            } finally {
+                setThreadContextClassLoader(loader);
             }
+            // If another thread won the race, use its object instead
+            if (!OBJECT_UPDATER.compareAndSet(this, null, object)) {
+                object = this.object;
+            }
+            this.bytes = null; // Free up memory
         }
-        return this.object;
+        return object;
     }
 
     /**
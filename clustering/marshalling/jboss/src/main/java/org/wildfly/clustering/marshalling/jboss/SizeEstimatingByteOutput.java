@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.marshalling.jboss;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.jboss.marshalling.ByteOutput;
+
+/**
+ * Unsynchronized, growable {@link ByteOutput} whose initial capacity is derived from the marshalled size of previous, similar objects.
+ * Objects are considered similar if they share the same type and, for collections, maps, and arrays, the same order of magnitude of elements.
+ * When the estimate is accurate, the marshalled bytes are returned without resizing or copying the underlying buffer.
+ */
+class SizeEstimatingByteOutput implements ByteOutput {
+
+    private static final int MIN_ESTIMATE = 64;
+    // One bucket per possible bit length of an element count
+    private static final int BUCKETS = Integer.SIZE + 1;
+    // Associates size estimates with each marshalled type, without preventing class unloading
+    private static final ClassValue<AtomicIntegerArray> ESTIMATES = new ClassValue<AtomicIntegerArray>() {
+        @Override
+        protected AtomicIntegerArray computeValue(Class<?> targetClass) {
+            return new AtomicIntegerArray(BUCKETS);
+        }
+    };
+
+    private final AtomicIntegerArray estimates;
+    private final int bucket;
+    private byte[] buffer;
+    private int size = 0;
+
+    SizeEstimatingByteOutput(Object object) {
+        this.estimates = ESTIMATES.get(object.getClass());
+        this.bucket = bucket(object);
+        this.buffer = new byte[estimate(this.estimates, this.bucket)];
+    }
+
+    /**
+     * Returns the estimated marshalled size of the specified object.
+     * @param object an object to marshal
+     * @return an estimated size in bytes
+     */
+    static int estimate(Object object) {
+        return estimate(ESTIMATES.get(object.getClass()), bucket(object));
+    }
+
+    private static int estimate(AtomicIntegerArray estimates, int bucket) {
+        return Math.max(MIN_ESTIMATE, estimates.get(bucket));
+    }
+
+    private static int bucket(Object object) {
+        int elements = 0;
+        if (object instanceof Collection) {
+            elements = ((Collection<?>) object).size();
+        } else if (object instanceof Map) {
+            elements = ((Map<?, ?>) object).size();
+        } else if (object.getClass().isArray()) {
+            elements = Array.getLength(object);
+        }
+        return Integer.SIZE - Integer.numberOfLeadingZeros(elements);
+    }
+
+    @Override
+    public void write(int b) {
+        this.ensureCapacity(1);
+        this.buffer[this.size++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] bytes) {
+        this.write(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        this.ensureCapacity(length);
+        System.arraycopy(bytes, offset, this.buffer, this.size, length);
+        this.size += length;
+    }
+
+    private void ensureCapacity(int length) {
+        int capacity = this.size + length;
+        if (capacity > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(capacity, this.buffer.length << 1));
+        }
+    }
+
+    @Override
+    public void flush() {
+        // Nothing to flush
+    }
+
+    @Override
+    public void close() {
+        // Nothing to close
+    }
+
+    /**
+     * Returns the bytes written to this output, and records the resulting size for subsequent objects of the same type.
+     * @return a byte array
+     */
+    byte[] getBytes() {
+        int size = this.size;
+        // Grow estimate immediately, but shrink by half of the difference, so that an outlier is forgotten within a few objects
+        int estimate = estimate(this.estimates, this.bucket);
+        this.estimates.lazySet(this.bucket, (size >= estimate) ? size : Math.max(MIN_ESTIMATE, size + ((estimate - size) >> 1)));
+        return (size == this.buffer.length) ? this.buffer : Arrays.copyOf(this.buffer, size);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.marshalling.jboss;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SizeEstimatingByteOutput}.
+ */
+public class SizeEstimatingByteOutputTestCase {
+
+    @Test
+    public void test() {
+        byte[] expected = new byte[1000];
+        for (int i = 0; i < expected.length; ++i) {
+            expected[i] = (byte) i;
+        }
+        Object object = new Object() {};
+
+        SizeEstimatingByteOutput output = new SizeEstimatingByteOutput(object);
+        output.write(expected[0]);
+        output.write(expected, 1, expected.length - 1);
+        assertArrayEquals(expected, output.getBytes());
+
+        // Estimate should converge on the actual size
+        for (int i = 0; i < 100; ++i) {
+            output = new SizeEstimatingByteOutput(object);
+            output.write(expected);
+            assertArrayEquals(expected, output.getBytes());
+        }
+        output = new SizeEstimatingByteOutput(object);
+        output.write(expected);
+        assertSame(output.getBytes(), output.getBytes());
+    }
+
+    @Test
+    public void outlier() {
+        Object object = new Object() {};
+
+        SizeEstimatingByteOutput output = new SizeEstimatingByteOutput(object);
+        output.write(new byte[100]);
+        output.getBytes();
+        assertEquals(100, SizeEstimatingByteOutput.estimate(object));
+
+        output = new SizeEstimatingByteOutput(object);
+        output.write(new byte[100000]);
+        output.getBytes();
+        assertEquals(100000, SizeEstimatingByteOutput.estimate(object));
+
+        // A single outlier should be forgotten quickly
+        for (int i = 0; i < 20; ++i) {
+            output = new SizeEstimatingByteOutput(object);
+            output.write(new byte[100]);
+            output.getBytes();
+        }
+        assertEquals(100, SizeEstimatingByteOutput.estimate(object));
+    }
+
+    @Test
+    public void elements() {
+        List<Object> small = new ArrayList<>(Collections.nCopies(2, null));
+        List<Object> large = new ArrayList<>(Collections.nCopies(1000, null));
+
+        SizeEstimatingByteOutput output = new SizeEstimatingByteOutput(large);
+        output.write(new byte[100000]);
+        output.getBytes();
+
+        // Collections with fewer elements should not inherit the estimate of larger collections of the same type
+        assertEquals(100000, SizeEstimatingByteOutput.estimate(large));
+        assertTrue(SizeEstimatingByteOutput.estimate(small) < 100000);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.wildfly.clustering.dispatcher.Command;
+
+/**
+ * A command that executes a batch of commands against the same context.
+ * The failure of a given command does not prevent execution of subsequent commands.
+ * @param <C> command execution context
+ */
+public class BatchCommand<C> implements Command<Object[], C> {
+    private static final long serialVersionUID = 4307285016235497419L;
+
+    private final List<Command<?, C>> commands;
+
+    public BatchCommand(List<Command<?, C>> commands) {
+        this.commands = commands;
+    }
+
+    @Override
+    public Object[] execute(C context) {
+        Object[] results = new Object[this.commands.size()];
+        int index = 0;
+        for (Command<?, C> command : this.commands) {
+            try {
+                results[index] = command.execute(context);
+            } catch (Throwable e) {
+                results[index] = new Failure(e);
+            }
+            index += 1;
+        }
+        return results;
+    }
+
+    /**
+     * Encapsulates the exception thrown by a given command of a batch.
+     */
+    public static class Failure implements Serializable {
+        private static final long serialVersionUID = -1788617102917419335L;
+
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+
+        public Throwable getCause() {
+            return this.cause;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.wildfly.clustering.dispatcher.BatchableCommand;
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.CommandDispatcher;
+import org.wildfly.clustering.dispatcher.CommandResponse;
+import org.wildfly.clustering.group.Group;
+import org.wildfly.clustering.group.Node;
+
+/**
+ * {@link CommandDispatcher} decorator that coalesces {@link BatchableCommand}s destined for the same node(s) into a single {@link BatchCommand}.
+ * A batch is sent once it reaches a maximum size, or once the configured latency window elapses, whichever happens first.
+ * The results of a batch are demultiplexed to the caller of each individual command.
+ * Only asynchronous commands are batched, so that synchronous callers never wait for a batch window to elapse.
+ * Commands destined for the local node, and commands that are not batchable, are dispatched immediately.
+ * <p/>
+ * Members running a version that cannot execute a {@link BatchCommand} must still receive individual commands.
+ * So each remote member is first probed with an empty batch, and commands are only batched to members that executed it.
+ * Commands destined for a member whose probe has not yet completed are dispatched immediately.
+ * Broadcasts are only batched if every member to which they are sent can execute a batch.
+ * @param <C> command execution context
+ */
+public class BatchingCommandDispatcher<C> implements CommandDispatcher<C>, Group.Listener {
+
+    // Indicates, per remote member, whether it can execute a batch command
+    private final Map<Node, Boolean> capabilities = new ConcurrentHashMap<>();
+    private final Set<Node> probes = ConcurrentHashMap.newKeySet();
+    private final Map<Node, NodeBatch> nodeBatches = new ConcurrentHashMap<>();
+    private final Map<Set<Node>, ClusterBatch> clusterBatches = new ConcurrentHashMap<>();
+    private final CommandDispatcher<C> dispatcher;
+    private final Group group;
+    private final ScheduledExecutorService executor;
+    private final long window;
+    private final int maxSize;
+
+    /**
+     * Creates a new batching command dispatcher.
+     * @param dispatcher the decorated dispatcher
+     * @param group the group of the decorated dispatcher
+     * @param window the maximum duration for which a command is delayed
+     * @param maxSize the maximum number of commands per batch
+     * @param executor an executor for sending batches, whose lifecycle is managed by the caller
+     */
+    public BatchingCommandDispatcher(CommandDispatcher<C> dispatcher, Group group, Duration window, int maxSize, ScheduledExecutorService executor) {
+        this.dispatcher = dispatcher;
+        this.group = group;
+        this.window = window.toNanos();
+        this.maxSize = maxSize;
+        this.executor = executor;
+        this.group.addListener(this);
+        this.probe(this.group.getNodes());
+    }
+
+    @Override
+    public void membershipChanged(List<Node> previousMembers, List<Node> members, boolean merged) {
+        if (merged) {
+            // Members of a merged partition may have been upgraded in the meantime
+            this.capabilities.clear();
+        } else {
+            this.capabilities.keySet().retainAll(members);
+        }
+        this.probe(members);
+    }
+
+    private void probe(List<Node> members) {
+        Node localNode = this.group.getLocalNode();
+        for (Node member : members) {
+            if (!member.equals(localNode) && !this.capabilities.containsKey(member)) {
+                this.probe(member);
+            }
+        }
+    }
+
+    private void probe(Node member) {
+        if (this.probes.add(member)) {
+            try {
+                this.dispatcher.executeOnNodeAsync(new BatchCommand<>(Collections.<Command<?, C>>emptyList()), member).whenComplete((Object result, Throwable exception) -> {
+                    if (exception != null) {
+                        // e.g. member cannot unmarshal a batch command
+                        this.capabilities.put(member, Boolean.FALSE);
+                    } else if (result instanceof Object[]) {
+                        this.capabilities.put(member, Boolean.TRUE);
+                    }
+                    // Otherwise, the member does not (yet) provide this service, so probe again on next use
+                    this.probes.remove(member);
+                });
+            } catch (RuntimeException e) {
+                this.probes.remove(member);
+                throw e;
+            }
+        }
+    }
+
+    private boolean isBatchable(Node member) {
+        Boolean capable = this.capabilities.get(member);
+        if (capable == null) {
+            this.probe(member);
+            return false;
+        }
+        return capable;
+    }
+
+    private boolean isBatchable(Set<Node> excludedNodes) {
+        Node localNode = this.group.getLocalNode();
+        boolean batchable = true;
+        for (Node member : this.group.getNodes()) {
+            if (!member.equals(localNode) && !excludedNodes.contains(member)) {
+                // Probe each unknown member
+                batchable &= this.isBatchable(member);
+            }
+        }
+        return batchable;
+    }
+
+    @Override
+    public <R> CompletionStage<R> executeOnNodeAsync(Command<R, C> command, Node node) {
+        if (!(command instanceof BatchableCommand) || this.group.getLocalNode().equals(node) || !this.isBatchable(node)) {
+            return this.dispatcher.executeOnNodeAsync(command, node);
+        }
+        CompletableFuture<R> result = new CompletableFuture<>();
+        this.add(this.nodeBatches, node, key -> new NodeBatch(key), command, result);
+        return result;
+    }
+
+    @Override
+    public <R> CompletionStage<Map<Node, CommandResponse<R>>> executeOnClusterAsync(Command<R, C> command, Node... excludedNodes) {
+        if (!(command instanceof BatchableCommand)) {
+            return this.dispatcher.executeOnClusterAsync(command, excludedNodes);
+        }
+        Set<Node> excluded = ((excludedNodes != null) && (excludedNodes.length > 0)) ? new HashSet<>(Arrays.asList(excludedNodes)) : Collections.<Node>emptySet();
+        if (!this.isBatchable(excluded)) {
+            return this.dispatcher.executeOnClusterAsync(command, excludedNodes);
+        }
+        CompletableFuture<Map<Node, CommandResponse<R>>> result = new CompletableFuture<>();
+        this.add(this.clusterBatches, excluded, key -> new ClusterBatch(key), command, result);
+        return result;
+    }
+
+    private <K, B extends Batch<K>> void add(Map<K, B> batches, K key, Function<K, B> factory, Command<?, C> command, CompletableFuture<?> result) {
+        List<B> completed = new ArrayList<>(1);
+        try {
+            batches.compute(key, (k, batch) -> {
+                B currentBatch = batch;
+                if (currentBatch == null) {
+                    currentBatch = factory.apply(k);
+                    this.executor.schedule(currentBatch, this.window, TimeUnit.NANOSECONDS);
+                }
+                currentBatch.add(command, result);
+                if (currentBatch.size() < this.maxSize) {
+                    return currentBatch;
+                }
+                // Batch is full - send it now
+                completed.add(currentBatch);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            // e.g. executor was shutdown
+            result.completeExceptionally(e);
+        }
+        completed.forEach(Batch::send);
+    }
+
+    @Override
+    public <R> CommandResponse<R> executeOnNode(Command<R, C> command, Node node) throws Exception {
+        return this.dispatcher.executeOnNode(command, node);
+    }
+
+    @Override
+    public <R> Future<R> submitOnNode(Command<R, C> command, Node node) throws Exception {
+        return this.dispatcher.submitOnNode(command, node);
+    }
+
+    @Override
+    public <R> Map<Node, CommandResponse<R>> executeOnCluster(Command<R, C> command, Node... excludedNodes) throws Exception {
+        return this.dispatcher.executeOnCluster(command, excludedNodes);
+    }
+
+    @Override
+    public <R> Map<Node, Future<R>> submitOnCluster(Command<R, C> command, Node... excludedNodes) throws Exception {
+        return this.dispatcher.submitOnCluster(command, excludedNodes);
+    }
+
+    @Override
+    public void close() {
+        this.group.removeListener(this);
+        // Flush any pending batches
+        this.flush(this.nodeBatches);
+        this.flush(this.clusterBatches);
+        this.dispatcher.close();
+    }
+
+    private <K, B extends Batch<K>> void flush(Map<K, B> batches) {
+        for (K key : new ArrayList<>(batches.keySet())) {
+            B batch = batches.remove(key);
+            if (batch != null) {
+                batch.send();
+            }
+        }
+    }
+
+    static Throwable unwrap(Throwable exception) {
+        return ((exception instanceof CompletionException) && (exception.getCause() != null)) ? exception.getCause() : exception;
+    }
+
+    static <R> CommandResponse<R> createCommandResponse(Object value) {
+        @SuppressWarnings("unchecked")
+        CommandResponse<R> response = (value instanceof BatchCommand.Failure) ? new SimpleCommandResponse<>(((BatchCommand.Failure) value).getCause()) : new SimpleCommandResponse<>((R) value);
+        return response;
+    }
+
+    /**
+     * The pending commands destined for a given key.
+     * Commands are only added while holding the lock on the corresponding map entry.
+     */
+    private abstract class Batch<K> implements Runnable {
+        final K key;
+        final List<Command<?, C>> commands = new ArrayList<>();
+        final List<CompletableFuture<Object>> results = new ArrayList<>();
+
+        Batch(K key) {
+            this.key = key;
+        }
+
+        @SuppressWarnings("unchecked")
+        void add(Command<?, C> command, CompletableFuture<?> result) {
+            this.commands.add(command);
+            this.results.add((CompletableFuture<Object>) result);
+        }
+
+        int size() {
+            return this.commands.size();
+        }
+
+        abstract Map<K, ? extends Batch<K>> getBatches();
+
+        abstract void send();
+
+        @Override
+        public void run() {
+            // Send, unless batch was already sent due to size
+            if (this.getBatches().remove(this.key, this)) {
+                this.send();
+            }
+        }
+    }
+
+    private class NodeBatch extends Batch<Node> {
+
+        NodeBatch(Node node) {
+            super(node);
+        }
+
+        @Override
+        Map<Node, NodeBatch> getBatches() {
+            return BatchingCommandDispatcher.this.nodeBatches;
+        }
+
+        @Override
+        void send() {
+            CommandDispatcher<C> dispatcher = BatchingCommandDispatcher.this.dispatcher;
+            if (this.commands.size() == 1) {
+                // No need to wrap a single command
+                @SuppressWarnings("unchecked")
+                Command<Object, C> command = (Command<Object, C>) this.commands.get(0);
+                CompletableFuture<Object> result = this.results.get(0);
+                dispatcher.executeOnNodeAsync(command, this.key).whenComplete((value, exception) -> {
+                    if (exception != null) {
+                        result.completeExceptionally(unwrap(exception));
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            } else {
+                dispatcher.executeOnNodeAsync(new BatchCommand<>(this.commands), this.key).whenComplete((values, exception) -> {
+                    for (int i = 0; i < this.results.size(); ++i) {
+                        CompletableFuture<Object> result = this.results.get(i);
+                        if (exception != null) {
+                            result.completeExceptionally(unwrap(exception));
+                        } else if (values[i] instanceof BatchCommand.Failure) {
+                            result.completeExceptionally(((BatchCommand.Failure) values[i]).getCause());
+                        } else {
+                            result.complete(values[i]);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    private class ClusterBatch extends Batch<Set<Node>> {
+
+        ClusterBatch(Set<Node> excludedNodes) {
+            super(excludedNodes);
+        }
+
+        @Override
+        Map<Set<Node>, ClusterBatch> getBatches() {
+            return BatchingCommandDispatcher.this.clusterBatches;
+        }
+
+        @Override
+        void send() {
+            CommandDispatcher<C> dispatcher = BatchingCommandDispatcher.this.dispatcher;
+            Node[] excludedNodes = this.key.toArray(new Node[this.key.size()]);
+            if (this.commands.size() == 1) {
+                // No need to wrap a single command
+                @SuppressWarnings("unchecked")
+                Command<Object, C> command = (Command<Object, C>) this.commands.get(0);
+                CompletableFuture<Object> result = this.results.get(0);
+                dispatcher.executeOnClusterAsync(command, excludedNodes).whenComplete((responses, exception) -> {
+                    if (exception != null) {
+                        result.completeExceptionally(unwrap(exception));
+                    } else {
+                        result.complete(responses);
+                    }
+                });
+            } else {
+                dispatcher.executeOnClusterAsync(new BatchCommand<>(this.commands), excludedNodes).whenComplete((responses, exception) -> {
+                    for (int i = 0; i < this.results.size(); ++i) {
+                        CompletableFuture<Object> result = this.results.get(i);
+                        if (exception != null) {
+                            result.completeExceptionally(unwrap(exception));
+                        } else {
+                            Map<Node, CommandResponse<Object>> commandResponses = new HashMap<>();
+                            for (Map.Entry<Node, CommandResponse<Object[]>> entry : responses.entrySet()) {
+                                CommandResponse<Object> response;
+                                try {
+                                    response = createCommandResponse(entry.getValue().get()[i]);
+                                } catch (ExecutionException e) {
+                                    response = new SimpleCommandResponse<>(e.getCause());
+                                }
+                                commandResponses.put(entry.getKey(), response);
+                            }
+                            result.complete(commandResponses);
+                        }
+                    }
+                });
+            }
+        }
+    }
+}
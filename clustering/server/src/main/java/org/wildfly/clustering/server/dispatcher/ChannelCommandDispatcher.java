@@ -28,6 +28,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -39,7 +41,9 @@ import org.jgroups.blocks.MessageDispatcher;
 import org.jgroups.blocks.RequestOptions;
 import org.jgroups.blocks.ResponseMode;
 import org.jgroups.blocks.RspFilter;
+import org.jgroups.util.NotifyingFuture;
 import org.jgroups.util.Rsp;
+import org.jgroups.util.RspList;
 import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandResponse;
@@ -85,7 +89,31 @@ public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C
     public <R> Map<Node, CommandResponse<R>> executeOnCluster(Command<R, C> command, Node... excludedNodes) throws Exception {
         RequestOptions options = this.createRequestOptions(excludedNodes);
         Map<Address, Rsp<R>> responses = this.dispatcher.castMessage(null, this.createMessage(command), options);
+        return this.createCommandResponses(responses);
+    }
+
+    @Override
+    public <R> CompletionStage<Map<Node, CommandResponse<R>>> executeOnClusterAsync(Command<R, C> command, Node... excludedNodes) {
+        CompletableFuture<Map<Node, CommandResponse<R>>> result = new CompletableFuture<>();
+        try {
+            NotifyingFuture<RspList<R>> future = this.dispatcher.castMessageWithFuture(null, this.createMessage(command), this.createRequestOptions(excludedNodes));
+            future.setListener(responses -> {
+                try {
+                    result.complete(this.createCommandResponses(responses.get()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                } catch (Throwable e) {
+                    result.completeExceptionally((e instanceof ExecutionException) ? e.getCause() : e);
+                }
+            });
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
 
+    private <R> Map<Node, CommandResponse<R>> createCommandResponses(Map<Address, Rsp<R>> responses) {
         Map<Node, CommandResponse<R>> results = new HashMap<>();
         for (Map.Entry<Address, Rsp<R>> entry: responses.entrySet()) {
             Address address = entry.getKey();
@@ -94,7 +122,6 @@ public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C
                 results.put(this.factory.createNode(address), createCommandResponse(response));
             }
         }
-
         return results;
     }
 
@@ -165,6 +192,31 @@ public abstract class ChannelCommandDispatcher<C> implements CommandDispatcher<C
         return this.dispatcher.sendMessageWithFuture(this.createMessage(command, node), this.createRequestOptions());
     }
 
+    @Override
+    public <R> CompletionStage<R> executeOnNodeAsync(Command<R, C> command, Node node) {
+        // Bypass MessageDispatcher if target node is local
+        if (this.isLocal(node)) {
+            return this.localDispatcher.executeOnNodeAsync(command, node);
+        }
+        CompletableFuture<R> result = new CompletableFuture<>();
+        try {
+            NotifyingFuture<R> future = this.dispatcher.sendMessageWithFuture(this.createMessage(command, node), this.createRequestOptions());
+            future.setListener(response -> {
+                try {
+                    result.complete(response.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                } catch (Throwable e) {
+                    result.completeExceptionally((e instanceof ExecutionException) ? e.getCause() : e);
+                }
+            });
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
     private <R> Message createMessage(Command<R, C> command) {
         return this.createMessage(command, null);
     }
@@ -21,22 +21,30 @@
  */
 package org.wildfly.clustering.server.dispatcher;
 
+import static java.security.AccessController.doPrivileged;
+
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.security.PrivilegedAction;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.jboss.marshalling.Marshaller;
 import org.jboss.marshalling.Marshalling;
 import org.jboss.marshalling.Unmarshaller;
+import org.jboss.threads.JBossThreadFactory;
 import org.jgroups.Address;
 import org.jgroups.Channel;
 import org.jgroups.MembershipListener;
@@ -76,11 +84,18 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
     private final MessageDispatcher dispatcher;
     private final JGroupsNodeFactory nodeFactory;
     private final long timeout;
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+    // Sends pending command batches, if batching is enabled
+    private final ScheduledExecutorService batchExecutor;
 
     public ChannelCommandDispatcherFactory(ChannelCommandDispatcherFactoryConfiguration config) {
         this.nodeFactory = config.getNodeFactory();
         this.marshallingContext = config.getMarshallingContext();
         this.timeout = config.getTimeout();
+        this.batchWindow = config.getBatchWindow();
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.batchExecutor = (!this.batchWindow.isZero() && (this.maxBatchSize > 1)) ? createBatchExecutor() : null;
         final RpcDispatcher.Marshaller marshaller = new CommandResponseMarshaller(config);
         this.dispatcher = new MessageDispatcher() {
             @Override
@@ -98,9 +113,25 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
         this.view.compareAndSet(null, channel.getView());
     }
 
+    private static ScheduledExecutorService createBatchExecutor() {
+        ThreadFactory factory = doPrivileged(new PrivilegedAction<ThreadFactory>() {
+            @Override
+            public ThreadFactory run() {
+                return new JBossThreadFactory(new ThreadGroup(BatchingCommandDispatcher.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null);
+            }
+        });
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, factory);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
     @Override
     public void close() {
         this.executor.close(() -> {
+            if (this.batchExecutor != null) {
+                // Pending batches are still sent
+                this.batchExecutor.shutdown();
+            }
             this.dispatcher.stop();
             this.dispatcher.getChannel().setUpHandler(null);
         });
@@ -148,13 +179,14 @@ public class ChannelCommandDispatcherFactory implements CommandDispatcherFactory
         };
         this.contexts.put(id, new AtomicReference<Object>(context));
         final CommandDispatcher<C> localDispatcher = new LocalCommandDispatcher<>(this.getLocalNode(), context);
-        return new ChannelCommandDispatcher<C>(this.dispatcher, marshaller, this.nodeFactory, this.timeout, localDispatcher) {
+        CommandDispatcher<C> dispatcher = new ChannelCommandDispatcher<C>(this.dispatcher, marshaller, this.nodeFactory, this.timeout, localDispatcher) {
             @Override
             public void close() {
                 localDispatcher.close();
                 ChannelCommandDispatcherFactory.this.contexts.remove(id);
             }
         };
+        return (this.batchExecutor != null) ? new BatchingCommandDispatcher<>(dispatcher, this, this.batchWindow, this.maxBatchSize, this.batchExecutor) : dispatcher;
     }
 
     @Override
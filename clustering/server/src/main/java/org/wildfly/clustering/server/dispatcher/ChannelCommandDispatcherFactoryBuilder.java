@@ -21,6 +21,10 @@
  */
 package org.wildfly.clustering.server.dispatcher;
 
+import static java.security.AccessController.doPrivileged;
+
+import java.security.PrivilegedAction;
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
@@ -50,6 +54,7 @@ import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
 import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingConfigurationRepository;
 import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingContextFactory;
 import org.wildfly.clustering.server.group.JGroupsNodeFactory;
+import org.wildfly.clustering.server.logging.ClusteringServerLogger;
 import org.wildfly.clustering.service.AsynchronousServiceBuilder;
 import org.wildfly.clustering.service.Builder;
 import org.wildfly.clustering.spi.GroupServiceName;
@@ -84,6 +89,13 @@ public class ChannelCommandDispatcherFactoryBuilder extends CommandDispatcherFac
         static final MarshallingVersion CURRENT = VERSION_2;
     }
 
+    /** System property specifying the batch window of command dispatchers, in milliseconds, or 0, the default, to disable batching */
+    public static final String BATCH_WINDOW_PROPERTY = "org.wildfly.clustering.dispatcher.batch-window";
+    /** System property specifying the maximum number of commands per batch */
+    public static final String MAX_BATCH_SIZE_PROPERTY = "org.wildfly.clustering.dispatcher.max-batch-size";
+    private static final long DEFAULT_BATCH_WINDOW = 0;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 64;
+
     private final InjectedValue<ChannelFactory> channelFactory = new InjectedValue<>();
     private final InjectedValue<Channel> channel = new InjectedValue<>();
     private final InjectedValue<JGroupsNodeFactory> nodeFactory = new InjectedValue<>();
@@ -94,6 +106,8 @@ public class ChannelCommandDispatcherFactoryBuilder extends CommandDispatcherFac
     private volatile MarshallingContext marshallingContext = null;
     private volatile ChannelCommandDispatcherFactory factory = null;
     private volatile long timeout = TimeUnit.MINUTES.toMillis(1);
+    private volatile Duration batchWindow = Duration.ofMillis(parseProperty(BATCH_WINDOW_PROPERTY, DEFAULT_BATCH_WINDOW));
+    private volatile int maxBatchSize = (int) parseProperty(MAX_BATCH_SIZE_PROPERTY, DEFAULT_MAX_BATCH_SIZE);
 
     public ChannelCommandDispatcherFactoryBuilder(String group, ModuleIdentifier moduleId) {
         super(group);
@@ -116,6 +130,37 @@ public class ChannelCommandDispatcherFactoryBuilder extends CommandDispatcherFac
         return this;
     }
 
+    public ChannelCommandDispatcherFactoryBuilder batchWindow(long value, TimeUnit unit) {
+        this.batchWindow = Duration.ofNanos(unit.toNanos(value));
+        return this;
+    }
+
+    public ChannelCommandDispatcherFactoryBuilder maxBatchSize(int size) {
+        this.maxBatchSize = size;
+        return this;
+    }
+
+    static long parseProperty(String name, long defaultValue) {
+        String value = doPrivileged(new PrivilegedAction<String>() {
+            @Override
+            public String run() {
+                return System.getProperty(name);
+            }
+        });
+        if (value != null) {
+            try {
+                long result = Long.parseLong(value.trim());
+                if ((result >= 0) && (result <= Integer.MAX_VALUE)) {
+                    return result;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through
+            }
+            ClusteringServerLogger.ROOT_LOGGER.invalidSystemProperty(value, name, defaultValue);
+        }
+        return defaultValue;
+    }
+
     @Override
     public void start(StartContext context) throws StartException {
         try {
@@ -170,6 +215,16 @@ public class ChannelCommandDispatcherFactoryBuilder extends CommandDispatcherFac
         return this.timeout;
     }
 
+    @Override
+    public Duration getBatchWindow() {
+        return this.batchWindow;
+    }
+
+    @Override
+    public int getMaxBatchSize() {
+        return this.maxBatchSize;
+    }
+
     @Override
     public ChannelFactory getChannelFactory() {
         return this.channelFactory.getValue();
@@ -21,6 +21,8 @@
  */
 package org.wildfly.clustering.server.dispatcher;
 
+import java.time.Duration;
+
 import org.jgroups.Channel;
 import org.wildfly.clustering.jgroups.spi.ChannelFactory;
 import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
@@ -36,4 +38,16 @@ public interface ChannelCommandDispatcherFactoryConfiguration {
     JGroupsNodeFactory getNodeFactory();
     MarshallingContext getMarshallingContext();
     long getTimeout();
+
+    /**
+     * Returns the maximum duration for which a batchable command may be delayed in order to coalesce it with other commands destined for the same node(s).
+     * @return a duration, or {@link Duration#ZERO} if batching is disabled
+     */
+    Duration getBatchWindow();
+
+    /**
+     * Returns the maximum number of commands coalesced into a single message.
+     * @return a maximum batch size
+     */
+    int getMaxBatchSize();
 }
@@ -28,6 +28,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -112,6 +114,30 @@ public class LocalCommandDispatcher<C> implements CommandDispatcher<C> {
         return results;
     }
 
+    @Override
+    public <R> CompletionStage<R> executeOnNodeAsync(Command<R, C> command, Node node) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        if (!this.node.equals(node)) {
+            result.completeExceptionally(new UnreachableException((Address) null));
+            return result;
+        }
+        this.executor.execute(() -> {
+            try {
+                result.complete(command.execute(this.context));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public <R> CompletionStage<Map<Node, CommandResponse<R>>> executeOnClusterAsync(Command<R, C> command, Node... excludedNodes) {
+        CompletableFuture<Map<Node, CommandResponse<R>>> result = new CompletableFuture<>();
+        this.executor.execute(() -> result.complete(this.executeOnCluster(command, excludedNodes)));
+        return result;
+    }
+
     @Override
     public void close() {
         this.executor.shutdown();
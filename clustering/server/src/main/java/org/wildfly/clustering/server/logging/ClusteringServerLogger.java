@@ -98,4 +98,8 @@ public interface ClusteringServerLogger {
     @LogMessage(level = WARN)
     @Message(id = 12, value = "Failed to notify %s/%s service provider registration listener of new providers: %s")
     void serviceProviderRegistrationListenerFailed(@Cause Throwable e, String containerName, String cacheName, Set<Node> providers);
+
+    @LogMessage(level = WARN)
+    @Message(id = 13, value = "Ignoring invalid value '%s' of system property %s, using %s instead")
+    void invalidSystemProperty(String value, String property, Object defaultValue);
 }
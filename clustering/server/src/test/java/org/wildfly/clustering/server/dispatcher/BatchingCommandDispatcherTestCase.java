@@ -0,0 +1,345 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.wildfly.clustering.dispatcher.BatchableCommand;
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.CommandDispatcher;
+import org.wildfly.clustering.dispatcher.CommandResponse;
+import org.wildfly.clustering.group.Group;
+import org.wildfly.clustering.group.Node;
+
+/**
+ * Unit test for {@link BatchingCommandDispatcher}.
+ */
+public class BatchingCommandDispatcherTestCase {
+
+    @SuppressWarnings("unchecked")
+    private final CommandDispatcher<Object> dispatcher = mock(CommandDispatcher.class);
+    private final Group group = mock(Group.class);
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    private final Node localNode = mock(Node.class);
+    private final Node remoteNode = mock(Node.class);
+    private final BatchingCommandDispatcher<Object> subject;
+
+    @SuppressWarnings("unchecked")
+    public BatchingCommandDispatcherTestCase() {
+        when(this.group.getLocalNode()).thenReturn(this.localNode);
+        when(this.group.getNodes()).thenReturn(Arrays.asList(this.localNode, this.remoteNode));
+        // Remote member executes the probe
+        when(this.dispatcher.executeOnNodeAsync(isA(BatchCommand.class), same(this.remoteNode))).thenReturn(CompletableFuture.completedFuture(new Object[0]));
+        this.subject = new BatchingCommandDispatcher<>(this.dispatcher, this.group, Duration.ofMillis(1), 3, this.executor);
+        verify(this.group).addListener(this.subject);
+        verify(this.dispatcher).executeOnNodeAsync(isA(BatchCommand.class), same(this.remoteNode));
+        reset(this.dispatcher);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void window() throws Exception {
+        ArgumentCaptor<Runnable> capturedTask = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<BatchCommand<Object>> capturedCommand = ArgumentCaptor.forClass((Class<BatchCommand<Object>>) (Class<?>) BatchCommand.class);
+        CompletableFuture<Object[]> response = new CompletableFuture<>();
+        Exception exception = new Exception();
+
+        CompletionStage<String> result1 = this.subject.executeOnNodeAsync(new TestCommand("1"), this.remoteNode);
+        CompletionStage<String> result2 = this.subject.executeOnNodeAsync(new TestCommand("2"), this.remoteNode);
+
+        // Nothing is sent until the window elapses
+        verify(this.executor).schedule(capturedTask.capture(), eq(TimeUnit.MILLISECONDS.toNanos(1)), eq(TimeUnit.NANOSECONDS));
+        verifyZeroInteractions(this.dispatcher);
+
+        when(this.dispatcher.executeOnNodeAsync(capturedCommand.capture(), same(this.remoteNode))).thenReturn(response);
+
+        capturedTask.getValue().run();
+
+        assertFalse(result1.toCompletableFuture().isDone());
+        assertFalse(result2.toCompletableFuture().isDone());
+
+        // Results of the batch are demultiplexed
+        response.complete(capturedCommand.getValue().execute(null));
+
+        assertEquals("1", result1.toCompletableFuture().get());
+        assertEquals("2", result2.toCompletableFuture().get());
+
+        // A batch failure fails each command
+        response = new CompletableFuture<>();
+        reset(this.dispatcher, this.executor);
+        when(this.dispatcher.executeOnNodeAsync(isA(BatchCommand.class), same(this.remoteNode))).thenReturn(response);
+
+        result1 = this.subject.executeOnNodeAsync(new TestCommand("1"), this.remoteNode);
+        result2 = this.subject.executeOnNodeAsync(new TestCommand("2"), this.remoteNode);
+
+        verify(this.executor).schedule(capturedTask.capture(), anyLong(), any(TimeUnit.class));
+        capturedTask.getValue().run();
+
+        response.completeExceptionally(exception);
+
+        assertTrue(result1.toCompletableFuture().isCompletedExceptionally());
+        try {
+            result2.toCompletableFuture().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void maxSize() throws Exception {
+        ArgumentCaptor<Runnable> capturedTask = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<BatchCommand<Object>> capturedCommand = ArgumentCaptor.forClass((Class<BatchCommand<Object>>) (Class<?>) BatchCommand.class);
+        CompletableFuture<Object[]> response = new CompletableFuture<>();
+
+        when(this.dispatcher.executeOnNodeAsync(capturedCommand.capture(), same(this.remoteNode))).thenReturn(response);
+
+        CompletionStage<String> result1 = this.subject.executeOnNodeAsync(new TestCommand("1"), this.remoteNode);
+        CompletionStage<String> result2 = this.subject.executeOnNodeAsync(new FailingCommand(), this.remoteNode);
+        verifyZeroInteractions(this.dispatcher);
+        CompletionStage<String> result3 = this.subject.executeOnNodeAsync(new TestCommand("3"), this.remoteNode);
+
+        // Batch is sent as soon as it is full
+        verify(this.dispatcher).executeOnNodeAsync(isA(BatchCommand.class), same(this.remoteNode));
+
+        response.complete(capturedCommand.getValue().execute(null));
+
+        assertEquals("1", result1.toCompletableFuture().get());
+        assertTrue(result2.toCompletableFuture().isCompletedExceptionally());
+        assertEquals("3", result3.toCompletableFuture().get());
+
+        // Expiration of window for a batch already sent is a no-op
+        verify(this.executor).schedule(capturedTask.capture(), anyLong(), any(TimeUnit.class));
+        capturedTask.getValue().run();
+
+        verify(this.dispatcher, times(1)).executeOnNodeAsync(any(Command.class), any(Node.class));
+    }
+
+    @Test
+    public void synchronous() throws Exception {
+        TestCommand command = new TestCommand("1");
+        CommandResponse<String> response = new SimpleCommandResponse<>("1");
+        Future<String> future = CompletableFuture.completedFuture("1");
+
+        // Synchronous callers must not wait for a batch window to elapse
+        when(this.dispatcher.executeOnNode(command, this.remoteNode)).thenReturn(response);
+        when(this.dispatcher.submitOnNode(command, this.remoteNode)).thenReturn(future);
+
+        assertSame(response, this.subject.executeOnNode(command, this.remoteNode));
+        assertSame(future, this.subject.submitOnNode(command, this.remoteNode));
+
+        verifyZeroInteractions(this.executor);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void incapableMember() throws Exception {
+        Node legacyNode = mock(Node.class);
+        TestCommand command = new TestCommand("1");
+        CompletableFuture<Object[]> probe = new CompletableFuture<>();
+        CompletableFuture<String> response = CompletableFuture.completedFuture("1");
+        CompletableFuture<Map<Node, CommandResponse<String>>> clusterResponse = CompletableFuture.completedFuture(Collections.<Node, CommandResponse<String>>emptyMap());
+
+        when(this.dispatcher.executeOnNodeAsync(isA(BatchCommand.class), same(legacyNode))).thenReturn(probe);
+        when(this.dispatcher.executeOnNodeAsync(command, legacyNode)).thenReturn(response);
+        when(this.dispatcher.executeOnClusterAsync(command)).thenReturn(clusterResponse);
+
+        // New member is probed when it joins
+        this.subject.membershipChanged(Arrays.asList(this.localNode, this.remoteNode), Arrays.asList(this.localNode, this.remoteNode, legacyNode), false);
+        verify(this.dispatcher).executeOnNodeAsync(isA(BatchCommand.class), same(legacyNode));
+        when(this.group.getNodes()).thenReturn(Arrays.asList(this.localNode, this.remoteNode, legacyNode));
+
+        // Commands are not batched while the probe is pending
+        assertSame(response, this.subject.executeOnNodeAsync(command, legacyNode));
+        assertSame(clusterResponse, this.subject.executeOnClusterAsync(command));
+
+        // Member running a version without batch commands fails to execute the probe
+        probe.completeExceptionally(new ClassNotFoundException(BatchCommand.class.getName()));
+
+        assertSame(response, this.subject.executeOnNodeAsync(command, legacyNode));
+        assertSame(clusterResponse, this.subject.executeOnClusterAsync(command));
+        // Broadcasts excluding that member can still be batched
+        this.subject.executeOnClusterAsync(command, legacyNode);
+
+        // Failed probe is not repeated
+        verify(this.dispatcher, times(1)).executeOnNodeAsync(isA(BatchCommand.class), same(legacyNode));
+        verify(this.executor, times(1)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+        // Commands to other members are still batched
+        this.subject.executeOnNodeAsync(command, this.remoteNode);
+        verify(this.executor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void unavailableService() throws Exception {
+        Node node = mock(Node.class);
+        TestCommand command = new TestCommand("1");
+        CompletableFuture<String> response = CompletableFuture.completedFuture("1");
+
+        // Member does not yet provide this service
+        when(this.dispatcher.executeOnNodeAsync(isA(BatchCommand.class), same(node))).thenReturn(CompletableFuture.completedFuture(NoSuchService.INSTANCE));
+        when(this.dispatcher.executeOnNodeAsync(command, node)).thenReturn(response);
+
+        assertSame(response, this.subject.executeOnNodeAsync(command, node));
+        verify(this.dispatcher, times(1)).executeOnNodeAsync(isA(BatchCommand.class), same(node));
+
+        // Member is probed again on next use
+        when(this.dispatcher.executeOnNodeAsync(isA(BatchCommand.class), same(node))).thenReturn(CompletableFuture.completedFuture(new Object[0]));
+        assertSame(response, this.subject.executeOnNodeAsync(command, node));
+        verify(this.dispatcher, times(2)).executeOnNodeAsync(isA(BatchCommand.class), same(node));
+        verifyZeroInteractions(this.executor);
+
+        // Member now executes batches
+        assertNotSame(response, this.subject.executeOnNodeAsync(command, node));
+        verify(this.executor).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+
+        // Capabilities of departed members are forgotten
+        this.subject.membershipChanged(Arrays.asList(this.localNode, this.remoteNode, node), Arrays.asList(this.localNode, this.remoteNode), false);
+        this.subject.executeOnNodeAsync(command, node);
+        verify(this.dispatcher, times(3)).executeOnNodeAsync(isA(BatchCommand.class), same(node));
+    }
+
+    @Test
+    public void bypass() throws Exception {
+        TestCommand batchableCommand = new TestCommand("1");
+        @SuppressWarnings("unchecked")
+        Command<String, Object> command = mock(Command.class);
+        CompletableFuture<String> response = CompletableFuture.completedFuture("1");
+
+        // Commands for the local node are not batched
+        when(this.dispatcher.executeOnNodeAsync(batchableCommand, this.localNode)).thenReturn(response);
+        assertSame(response, this.subject.executeOnNodeAsync(batchableCommand, this.localNode));
+
+        // Non-batchable commands are not batched
+        when(this.dispatcher.executeOnNodeAsync(command, this.remoteNode)).thenReturn(response);
+        assertSame(response, this.subject.executeOnNodeAsync(command, this.remoteNode));
+
+        verifyZeroInteractions(this.executor);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void executeOnClusterAsync() throws Exception {
+        ArgumentCaptor<Runnable> capturedTask = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<BatchCommand<Object>> capturedCommand = ArgumentCaptor.forClass((Class<BatchCommand<Object>>) (Class<?>) BatchCommand.class);
+        CompletableFuture<Map<Node, CommandResponse<Object[]>>> response = new CompletableFuture<>();
+
+        CompletionStage<Map<Node, CommandResponse<String>>> result1 = this.subject.executeOnClusterAsync(new TestCommand("1"));
+        CompletionStage<Map<Node, CommandResponse<String>>> result2 = this.subject.executeOnClusterAsync(new FailingCommand());
+
+        verify(this.executor).schedule(capturedTask.capture(), anyLong(), any(TimeUnit.class));
+        verifyZeroInteractions(this.dispatcher);
+
+        when(this.dispatcher.executeOnClusterAsync(capturedCommand.capture())).thenReturn(response);
+
+        capturedTask.getValue().run();
+
+        Node failedNode = mock(Node.class);
+        Exception exception = new Exception();
+        Map<Node, CommandResponse<Object[]>> responses = new HashMap<>();
+        responses.put(this.localNode, new SimpleCommandResponse<>(capturedCommand.getValue().execute(null)));
+        responses.put(this.remoteNode, new SimpleCommandResponse<>(capturedCommand.getValue().execute(null)));
+        responses.put(failedNode, new SimpleCommandResponse<Object[]>(exception));
+        response.complete(responses);
+
+        Map<Node, CommandResponse<String>> results = result1.toCompletableFuture().get();
+        assertEquals(3, results.size());
+        assertEquals("1", results.get(this.localNode).get());
+        assertEquals("1", results.get(this.remoteNode).get());
+        // The cause of a failure must not be wrapped more than once
+        try {
+            results.get(failedNode).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+
+        results = result2.toCompletableFuture().get();
+        assertEquals(3, results.size());
+        try {
+            results.get(this.remoteNode).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void close() throws Exception {
+        CompletableFuture<String> response = CompletableFuture.completedFuture("1");
+        TestCommand command = new TestCommand("1");
+        when(this.dispatcher.executeOnNodeAsync(command, this.remoteNode)).thenReturn(response);
+        when(this.dispatcher.executeOnClusterAsync(command)).thenReturn(CompletableFuture.completedFuture(Collections.<Node, CommandResponse<String>>emptyMap()));
+
+        CompletionStage<String> result = this.subject.executeOnNodeAsync(command, this.remoteNode);
+        CompletionStage<Map<Node, CommandResponse<String>>> clusterResult = this.subject.executeOnClusterAsync(command);
+
+        // Pending batches are flushed on close
+        this.subject.close();
+        verify(this.group).removeListener(this.subject);
+
+        assertEquals("1", result.toCompletableFuture().get());
+        assertTrue(clusterResult.toCompletableFuture().get().isEmpty());
+        verify(this.dispatcher).close();
+    }
+
+    static class TestCommand implements BatchableCommand<String, Object> {
+        private static final long serialVersionUID = -4206102637766802337L;
+
+        private final String result;
+
+        TestCommand(String result) {
+            this.result = result;
+        }
+
+        @Override
+        public String execute(Object context) {
+            return this.result;
+        }
+    }
+
+    static class FailingCommand implements BatchableCommand<String, Object> {
+        private static final long serialVersionUID = 2713405404617366838L;
+
+        @Override
+        public String execute(Object context) {
+            throw new IllegalStateException();
+        }
+    }
+}
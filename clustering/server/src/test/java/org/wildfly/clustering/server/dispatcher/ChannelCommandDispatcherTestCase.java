@@ -0,0 +1,153 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+import org.jgroups.Address;
+import org.jgroups.Channel;
+import org.jgroups.Message;
+import org.jgroups.blocks.MessageDispatcher;
+import org.jgroups.blocks.RequestOptions;
+import org.jgroups.util.FutureListener;
+import org.jgroups.util.NotifyingFuture;
+import org.jgroups.util.Rsp;
+import org.jgroups.util.RspList;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.CommandDispatcher;
+import org.wildfly.clustering.dispatcher.CommandResponse;
+import org.wildfly.clustering.group.Node;
+import org.wildfly.clustering.group.NodeFactory;
+import org.wildfly.clustering.server.Addressable;
+
+/**
+ * Unit test for the asynchronous methods of {@link ChannelCommandDispatcher}.
+ */
+public class ChannelCommandDispatcherTestCase {
+
+    private final MessageDispatcher messageDispatcher = mock(MessageDispatcher.class);
+    @SuppressWarnings("unchecked")
+    private final CommandMarshaller<Object> marshaller = mock(CommandMarshaller.class);
+    @SuppressWarnings("unchecked")
+    private final NodeFactory<Address> factory = mock(NodeFactory.class);
+    @SuppressWarnings("unchecked")
+    private final CommandDispatcher<Object> localDispatcher = mock(CommandDispatcher.class);
+    private final Address localAddress = mock(Address.class);
+    private final Address remoteAddress = mock(Address.class);
+    private final Node localNode = mock(Node.class, withSettings().extraInterfaces(Addressable.class));
+    private final Node remoteNode = mock(Node.class, withSettings().extraInterfaces(Addressable.class));
+    @SuppressWarnings("unchecked")
+    private final Command<String, Object> command = mock(Command.class);
+
+    private final CommandDispatcher<Object> dispatcher = new ChannelCommandDispatcher<Object>(this.messageDispatcher, this.marshaller, this.factory, 1000L, this.localDispatcher) {
+        @Override
+        public void close() {
+        }
+    };
+
+    public ChannelCommandDispatcherTestCase() throws Exception {
+        Channel channel = mock(Channel.class);
+        when(this.messageDispatcher.getChannel()).thenReturn(channel);
+        when(channel.getAddress()).thenReturn(this.localAddress);
+        when(((Addressable) this.localNode).getAddress()).thenReturn(this.localAddress);
+        when(((Addressable) this.remoteNode).getAddress()).thenReturn(this.remoteAddress);
+        when(this.factory.createNode(this.localAddress)).thenReturn(this.localNode);
+        when(this.factory.createNode(this.remoteAddress)).thenReturn(this.remoteNode);
+        when(this.marshaller.marshal(this.command)).thenReturn(new byte[0]);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    public void executeOnNodeAsync() throws Exception {
+        NotifyingFuture<String> future = mock(NotifyingFuture.class);
+        ArgumentCaptor<FutureListener> capturedListener = ArgumentCaptor.forClass(FutureListener.class);
+        Exception exception = new Exception();
+
+        when(this.messageDispatcher.sendMessageWithFuture(any(Message.class), any(RequestOptions.class))).thenReturn((NotifyingFuture) future);
+        when(future.setListener(capturedListener.capture())).thenReturn(future);
+
+        CompletionStage<String> result = this.dispatcher.executeOnNodeAsync(this.command, this.remoteNode);
+
+        // Completion does not block the caller
+        assertFalse(result.toCompletableFuture().isDone());
+
+        when(future.get()).thenReturn("result");
+        capturedListener.getValue().futureDone(future);
+
+        assertEquals("result", result.toCompletableFuture().get());
+
+        result = this.dispatcher.executeOnNodeAsync(this.command, this.remoteNode);
+
+        when(future.get()).thenThrow(new ExecutionException(exception));
+        capturedListener.getValue().futureDone(future);
+
+        try {
+            result.toCompletableFuture().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void executeOnLocalNodeAsync() {
+        CompletionStage<String> result = mock(CompletionStage.class);
+
+        when(this.localDispatcher.executeOnNodeAsync(this.command, this.localNode)).thenReturn(result);
+
+        assertSame(result, this.dispatcher.executeOnNodeAsync(this.command, this.localNode));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Test
+    public void executeOnClusterAsync() throws Exception {
+        NotifyingFuture<RspList<String>> future = mock(NotifyingFuture.class);
+        ArgumentCaptor<FutureListener> capturedListener = ArgumentCaptor.forClass(FutureListener.class);
+        RspList<String> responses = new RspList<>();
+        responses.put(this.localAddress, new Rsp<>(this.localAddress, "local"));
+        responses.put(this.remoteAddress, new Rsp<>(this.remoteAddress, "remote"));
+
+        when(this.messageDispatcher.castMessageWithFuture((Collection<Address>) isNull(), any(Message.class), any(RequestOptions.class))).thenReturn((NotifyingFuture) future);
+        when(future.setListener(capturedListener.capture())).thenReturn(future);
+
+        CompletionStage<Map<Node, CommandResponse<String>>> result = this.dispatcher.executeOnClusterAsync(this.command);
+
+        assertFalse(result.toCompletableFuture().isDone());
+
+        when(future.get()).thenReturn(responses);
+        capturedListener.getValue().futureDone(future);
+
+        Map<Node, CommandResponse<String>> results = result.toCompletableFuture().get();
+        assertEquals(2, results.size());
+        assertEquals("local", results.get(this.localNode).get());
+        assertEquals("remote", results.get(this.remoteNode).get());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.server.dispatcher;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+import org.jgroups.UnreachableException;
+import org.junit.After;
+import org.junit.Test;
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.CommandResponse;
+import org.wildfly.clustering.group.Node;
+
+/**
+ * Unit test for the asynchronous methods of {@link LocalCommandDispatcher}.
+ */
+public class LocalCommandDispatcherTestCase {
+
+    private final Node node = mock(Node.class);
+    private final Object context = new Object();
+    private final LocalCommandDispatcher<Object> dispatcher = new LocalCommandDispatcher<>(this.node, this.context, Executors.newSingleThreadExecutor());
+
+    @After
+    public void destroy() {
+        this.dispatcher.close();
+    }
+
+    @Test
+    public void executeOnNodeAsync() throws Exception {
+        @SuppressWarnings("unchecked")
+        Command<String, Object> command = mock(Command.class);
+        Exception exception = new Exception();
+
+        when(command.execute(this.context)).thenReturn("result");
+
+        assertEquals("result", this.dispatcher.executeOnNodeAsync(command, this.node).toCompletableFuture().get());
+
+        when(command.execute(this.context)).thenThrow(exception);
+
+        try {
+            this.dispatcher.executeOnNodeAsync(command, this.node).toCompletableFuture().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+
+        try {
+            this.dispatcher.executeOnNodeAsync(command, mock(Node.class)).toCompletableFuture().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UnreachableException);
+        }
+    }
+
+    @Test
+    public void executeOnClusterAsync() throws Exception {
+        @SuppressWarnings("unchecked")
+        Command<String, Object> command = mock(Command.class);
+
+        when(command.execute(this.context)).thenReturn("result");
+
+        Map<Node, CommandResponse<String>> responses = this.dispatcher.executeOnClusterAsync(command).toCompletableFuture().get();
+        assertEquals(1, responses.size());
+        assertEquals("result", responses.get(this.node).get());
+
+        responses = this.dispatcher.executeOnClusterAsync(command, this.node).toCompletableFuture().get();
+        assertTrue(responses.isEmpty());
+    }
+}
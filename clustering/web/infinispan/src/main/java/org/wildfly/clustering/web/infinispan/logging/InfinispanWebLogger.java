@@ -23,6 +23,8 @@ package org.wildfly.clustering.web.infinispan.logging;
 
 import static org.jboss.logging.Logger.Level.WARN;
 
+import java.util.Collection;
+
 import org.jboss.logging.BasicLogger;
 import org.jboss.logging.Logger;
 import org.jboss.logging.annotations.Cause;
@@ -80,4 +82,11 @@ public interface InfinispanWebLogger extends BasicLogger {
     @LogMessage(level = WARN)
     @Message(id = 10, value = "Failed to activate authentication for single sign on %s")
     void failedToActivateAuthentication(@Cause Throwable cause, String ssoId);
+
+    @LogMessage(level = WARN)
+    @Message(id = 11, value = "Failed to expire sessions %s")
+    void failedToExpireSessions(@Cause Throwable cause, Collection<String> sessionIds);
+
+    @Message(id = 12, value = "Invalid session attribute persistence strategy '%s' specified via %s, expected one of %s")
+    IllegalArgumentException invalidAttributePersistenceStrategy(String strategy, String parameter, String strategies);
 }
@@ -21,13 +21,13 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
-import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.BatchableCommand;
 
 /**
  * Command that cancels the scheduling of a session.
  * @author Paul Ferraro
  */
-public class CancelSchedulerCommand implements Command<Void, Scheduler> {
+public class CancelSchedulerCommand implements BatchableCommand<Void, Scheduler> {
     private static final long serialVersionUID = -6060731427497057763L;
 
     private final String id;
@@ -25,6 +25,7 @@ import java.time.Instant;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.wildfly.clustering.ee.infinispan.Mutator;
 import org.wildfly.clustering.ee.infinispan.Remover;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
@@ -80,6 +81,10 @@ public class InfinispanSession<L> extends InfinispanImmutableSession implements
     @Override
     public void close() {
         if (this.valid.get()) {
+            // Flush any attribute modifications deferred until the end of the request
+            if (this.attributes instanceof Mutator) {
+                ((Mutator) this.attributes).mutate();
+            }
             this.metaData.setLastAccessedTime(Instant.now());
         }
     }
@@ -130,7 +130,7 @@ public class InfinispanSessionManager<MV, AV, L> implements SessionManager<L, Tr
         }
         this.identifierFactory.start();
         final List<Scheduler> schedulers = new ArrayList<>(2);
-        schedulers.add(new SessionExpirationScheduler(this.batcher, new ExpiredSessionRemover<>(this.factory, this.expirationListener)));
+        schedulers.add(SessionExpirationSchedulerType.forContext(this.context).createScheduler(this.batcher, new ExpiredSessionRemover<>(this.factory, this.expirationListener), this.factory));
         if (this.maxActiveSessions >= 0) {
             schedulers.add(new SessionEvictionScheduler(this.cache.getName() + ".eviction", this.factory, this.dispatcherFactory, this.maxActiveSessions));
         }
@@ -23,6 +23,8 @@ package org.wildfly.clustering.web.infinispan.session;
 
 import java.io.Externalizable;
 import java.io.Serializable;
+import java.util.EnumSet;
+import java.util.Locale;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -57,13 +59,16 @@ import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingContextFactory;
 import org.wildfly.clustering.web.IdentifierFactory;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.infinispan.AffinityIdentifierFactory;
+import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
 import org.wildfly.clustering.web.infinispan.session.coarse.CoarseSessionAttributesFactory;
+import org.wildfly.clustering.web.infinispan.session.delta.DeltaSessionAttributesFactory;
 import org.wildfly.clustering.web.infinispan.session.fine.FineSessionAttributesFactory;
 import org.wildfly.clustering.web.session.ImmutableSession;
 import org.wildfly.clustering.web.session.SessionExpirationListener;
 import org.wildfly.clustering.web.session.SessionManager;
 import org.wildfly.clustering.web.session.SessionManagerConfiguration;
 import org.wildfly.clustering.web.session.SessionManagerFactoryConfiguration;
+import org.wildfly.clustering.web.session.SessionManagerFactoryConfiguration.SessionAttributePersistenceStrategy;
 import org.wildfly.clustering.web.session.SessionManagerFactory;
 
 /**
@@ -72,6 +77,12 @@ import org.wildfly.clustering.web.session.SessionManagerFactory;
  */
 public class InfinispanSessionManagerFactory implements SessionManagerFactory<TransactionBatch> {
 
+    /**
+     * Servlet context parameter that overrides the attribute persistence strategy implied by the replication granularity of the deployment.
+     * @see SessionManagerFactoryConfiguration.SessionAttributePersistenceStrategy
+     */
+    public static final String ATTRIBUTE_PERSISTENCE_STRATEGY_PARAMETER = "org.wildfly.clustering.web.session.attribute-persistence-strategy";
+
     enum MarshallingVersion implements Function<Module, MarshallingConfiguration> {
         VERSION_1() {
             @Override
@@ -156,24 +167,37 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
                 return configuration.getInactiveSessionRecorder();
             }
         };
-        return new InfinispanSessionManager<>(this.createSessionFactory(configuration.getLocalContextFactory()), config);
+        return new InfinispanSessionManager<>(this.createSessionFactory(configuration.getLocalContextFactory(), this.getAttributePersistenceStrategy(configuration.getServletContext())), config);
+    }
+
+    private SessionAttributePersistenceStrategy getAttributePersistenceStrategy(ServletContext context) {
+        String strategy = (context != null) ? context.getInitParameter(ATTRIBUTE_PERSISTENCE_STRATEGY_PARAMETER) : null;
+        return (strategy != null) ? parseAttributePersistenceStrategy(strategy) : this.config.getSessionManagerFactoryConfiguration().getAttributePersistenceStrategy();
+    }
+
+    static SessionAttributePersistenceStrategy parseAttributePersistenceStrategy(String strategy) {
+        try {
+            return SessionAttributePersistenceStrategy.valueOf(strategy.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            throw InfinispanWebLogger.ROOT_LOGGER.invalidAttributePersistenceStrategy(strategy, ATTRIBUTE_PERSISTENCE_STRATEGY_PARAMETER, EnumSet.allOf(SessionAttributePersistenceStrategy.class).toString());
+        }
     }
 
-    private <L> SessionFactory<?, ?, L> createSessionFactory(LocalContextFactory<L> localContextFactory) {
+    private <L> SessionFactory<?, ?, L> createSessionFactory(LocalContextFactory<L> localContextFactory, SessionAttributePersistenceStrategy strategy) {
         Configuration config = this.config.getCache().getCacheConfiguration();
         boolean lockOnRead = config.transaction().transactionMode().isTransactional() && (config.transaction().lockingMode() == LockingMode.PESSIMISTIC) && config.locking().isolationLevel() == IsolationLevel.REPEATABLE_READ;
         boolean requireMarshallable = config.clustering().cacheMode().needsStateTransfer() || config.persistence().usingStores();
         SessionMetaDataFactory<InfinispanSessionMetaData<L>, L> metaDataFactory = new InfinispanSessionMetaDataFactory<>(this.config.getCache(), lockOnRead);
-        return new InfinispanSessionFactory<>(metaDataFactory, this.createSessionAttributesFactory(lockOnRead, requireMarshallable), localContextFactory);
+        return new InfinispanSessionFactory<>(metaDataFactory, this.createSessionAttributesFactory(strategy, lockOnRead, requireMarshallable), localContextFactory);
     }
 
-    private <L> SessionAttributesFactory<?> createSessionAttributesFactory(boolean lockOnRead, boolean requireMarshallable) {
+    private <L> SessionAttributesFactory<?> createSessionAttributesFactory(SessionAttributePersistenceStrategy strategy, boolean lockOnRead, boolean requireMarshallable) {
         SessionManagerFactoryConfiguration config = this.config.getSessionManagerFactoryConfiguration();
         Module module = config.getModule();
         MarshallingContext marshallingContext = new SimpleMarshallingContextFactory().createMarshallingContext(new SimpleMarshallingConfigurationRepository(MarshallingVersion.class, MarshallingVersion.CURRENT, module), module.getClassLoader());
         MarshalledValueFactory<MarshallingContext> factory = new SimpleMarshalledValueFactory(marshallingContext);
 
-        switch (this.config.getSessionManagerFactoryConfiguration().getAttributePersistenceStrategy()) {
+        switch (strategy) {
             case FINE: {
                 Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
                 return new FineSessionAttributesFactory(this.config.getCache(), marshaller, requireMarshallable);
@@ -182,6 +206,10 @@ public class InfinispanSessionManagerFactory implements SessionManagerFactory<Tr
                 Marshaller<Map<String, Object>, MarshalledValue<Map<String, Object>, MarshallingContext>, MarshallingContext> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
                 return new CoarseSessionAttributesFactory(this.config.getCache(), marshaller, lockOnRead, requireMarshallable);
             }
+            case DELTA: {
+                Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller = new MarshalledValueMarshaller<>(factory, marshallingContext);
+                return new DeltaSessionAttributesFactory(this.config.getCache(), marshaller, lockOnRead, requireMarshallable);
+            }
             default: {
                 // Impossible
                 throw new IllegalStateException();
@@ -25,14 +25,14 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 
-import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.BatchableCommand;
 import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 
 /**
  * Command that schedules a session.
  * @author Paul Ferraro
  */
-public class ScheduleSchedulerCommand implements Command<Void, Scheduler> {
+public class ScheduleSchedulerCommand implements BatchableCommand<Void, Scheduler> {
     private static final long serialVersionUID = -2606847692331278614L;
 
     private transient ImmutableSessionMetaData metaData;
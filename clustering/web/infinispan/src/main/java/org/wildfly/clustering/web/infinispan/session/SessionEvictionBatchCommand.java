@@ -0,0 +1,52 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+
+/**
+ * Command that evicts a batch of sessions.
+ * Nodes that do not recognize this command are instead sent a {@link SessionEvictionCommand} per session.
+ */
+public class SessionEvictionBatchCommand implements Command<Void, SessionEvictionContext> {
+    private static final long serialVersionUID = 1522342683627385307L;
+
+    private final String[] ids;
+
+    SessionEvictionBatchCommand(String... ids) {
+        this.ids = ids;
+    }
+
+    String[] getSessionIds() {
+        return this.ids;
+    }
+
+    @Override
+    public Void execute(SessionEvictionContext context) throws Exception {
+        for (String id : this.ids) {
+            InfinispanWebLogger.ROOT_LOGGER.tracef("Passivating session %s", id);
+            context.getEvictor().evict(id);
+        }
+        return null;
+    }
+}
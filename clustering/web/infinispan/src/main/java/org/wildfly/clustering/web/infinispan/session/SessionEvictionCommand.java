@@ -21,14 +21,14 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
-import org.wildfly.clustering.dispatcher.Command;
+import org.wildfly.clustering.dispatcher.BatchableCommand;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
 
 /**
  * Command that evicts a session.
  * @author Paul Ferraro
  */
-public class SessionEvictionCommand implements Command<Void, SessionEvictionContext> {
+public class SessionEvictionCommand implements BatchableCommand<Void, SessionEvictionContext> {
     private static final long serialVersionUID = -4778211331615647237L;
 
     private final String id;
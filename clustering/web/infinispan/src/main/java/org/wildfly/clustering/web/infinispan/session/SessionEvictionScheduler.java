@@ -21,33 +21,94 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.Set;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.ee.infinispan.Evictor;
+import org.wildfly.clustering.group.Node;
 import org.wildfly.clustering.infinispan.spi.distribution.Locality;
 import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
 import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 
 /**
- * Session eviction scheduler that eagerly evicts the oldest sessions when
+ * Session eviction scheduler that eagerly evicts the least recently used sessions when
  * the number of active sessions exceeds the configured maximum.
+ * Session accesses are recorded in a number of independently locked stripes, each ordered by access time,
+ * so that concurrent requests for different sessions rarely contend on the same lock.
+ * Eviction is performed asynchronously, by repeatedly selecting the stripe with the least recently used head,
+ * such that its cost is proportional to the number of evicted sessions, not to the number of active sessions.
+ * All sessions in excess of the configured maximum are evicted via a single cluster-wide command.
+ * Since stripes are only consulted via their heads, the eviction order is only approximately LRU.
  * @author Paul Ferraro
  */
-public class SessionEvictionScheduler implements Scheduler, SessionEvictionContext {
+public class SessionEvictionScheduler implements Scheduler, SessionEvictionContext, Runnable {
 
-    private final Set<String> evictionQueue = new LinkedHashSet<>();
+    private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors() * 2);
+
+    private static int stripes(int concurrency) {
+        int stripes = 1;
+        while (stripes < concurrency) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    // Each stripe maps session identifier to access time, in access order
+    private final Map<String, Long>[] stripes;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
     private final Evictor<String> evictor;
     private final CommandDispatcher<SessionEvictionContext> dispatcher;
+    private final ExecutorService executor;
     private final int maxSize;
 
     public SessionEvictionScheduler(String name, Evictor<String> evictor, CommandDispatcherFactory dispatcherFactory, int maxSize) {
+        this(name, evictor, dispatcherFactory, maxSize, Executors.newSingleThreadExecutor(createThreadFactory()));
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        return AccessController.doPrivileged(new PrivilegedAction<ThreadFactory>() {
+            @Override
+            public ThreadFactory run() {
+                return new JBossThreadFactory(new ThreadGroup(SessionEvictionScheduler.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public SessionEvictionScheduler(String name, Evictor<String> evictor, CommandDispatcherFactory dispatcherFactory, int maxSize, ExecutorService executor) {
         this.evictor = evictor;
         this.dispatcher = dispatcherFactory.<SessionEvictionContext>createCommandDispatcher(name, this);
         this.maxSize = maxSize;
+        this.executor = executor;
+        this.stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; ++i) {
+            this.stripes[i] = new LinkedHashMap<>(16, 0.75f, true);
+        }
+    }
+
+    private Map<String, Long> stripe(String sessionId) {
+        int hash = sessionId.hashCode();
+        return this.stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
     }
 
     @Override
@@ -57,23 +118,161 @@ public class SessionEvictionScheduler implements Scheduler, SessionEvictionConte
 
     @Override
     public void cancel(String sessionId) {
-        synchronized (this.evictionQueue) {
-            this.evictionQueue.remove(sessionId);
+        Map<String, Long> stripe = this.stripe(sessionId);
+        synchronized (stripe) {
+            if (stripe.remove(sessionId) != null) {
+                this.size.decrementAndGet();
+            }
         }
     }
 
     @Override
     public void schedule(String sessionId, ImmutableSessionMetaData metaData) {
-        synchronized (this.evictionQueue) {
-            this.evictionQueue.add(sessionId);
-            // Trigger eviction of oldest session if necessary
-            if (this.evictionQueue.size() > this.maxSize) {
-                Iterator<String> sessions = this.evictionQueue.iterator();
-                try {
-                    this.dispatcher.submitOnCluster(new SessionEvictionCommand(sessions.next()));
-                    sessions.remove();
-                } catch (Exception e) {
-                    InfinispanWebLogger.ROOT_LOGGER.failedToPassivateSession(e, sessionId);
+        this.record(sessionId, System.nanoTime());
+        // Trigger eviction of oldest sessions if necessary, unless already in progress
+        if ((this.size.get() > this.maxSize) && this.draining.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Scheduler was closed
+                this.draining.set(false);
+            }
+        }
+    }
+
+    private void record(String sessionId, long accessTime) {
+        Map<String, Long> stripe = this.stripe(sessionId);
+        synchronized (stripe) {
+            // Moves the session to the tail of its stripe
+            if (stripe.put(sessionId, accessTime) == null) {
+                this.size.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used sessions in excess of the configured maximum.
+     */
+    @Override
+    public void run() {
+        boolean evicted;
+        do {
+            try {
+                evicted = this.evict();
+            } finally {
+                this.draining.set(false);
+            }
+            // Re-drain if the maximum was exceeded while draining, unless eviction failed, in which case the next access will retry
+        } while (evicted && (this.size.get() > this.maxSize) && this.draining.compareAndSet(false, true));
+    }
+
+    private boolean evict() {
+        int excess = this.size.get() - this.maxSize;
+        if (excess <= 0) {
+            return true;
+        }
+        Map<String, Long> sessions = new LinkedHashMap<>();
+        while (sessions.size() < excess) {
+            Map.Entry<String, Long> eldest = this.poll();
+            if (eldest == null) {
+                // Sessions were concurrently canceled
+                break;
+            }
+            sessions.put(eldest.getKey(), eldest.getValue());
+        }
+        if (sessions.isEmpty()) {
+            return true;
+        }
+        List<String> sessionIds = new ArrayList<>(sessions.keySet());
+        // Preserve the original command for a single session
+        Command<Void, SessionEvictionContext> command = (sessionIds.size() == 1) ? new SessionEvictionCommand(sessionIds.get(0)) : new SessionEvictionBatchCommand(sessionIds.toArray(new String[sessionIds.size()]));
+        try {
+            Map<Node, Future<Void>> responses = this.dispatcher.submitOnCluster(command);
+            if (command instanceof SessionEvictionBatchCommand) {
+                for (Map.Entry<Node, Future<Void>> response : responses.entrySet()) {
+                    try {
+                        response.getValue().get();
+                    } catch (ExecutionException e) {
+                        // e.g. a member that does not recognize the batch command
+                        this.evict(sessionIds, response.getKey());
+                    }
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            sessionIds.forEach(sessionId -> InfinispanWebLogger.ROOT_LOGGER.failedToPassivateSession(e, sessionId));
+            this.restore(sessions);
+            return false;
+        }
+    }
+
+    /**
+     * Reschedules sessions whose eviction failed, so that it is retried, unless they were accessed in the meantime.
+     * @param sessions map of session identifier to access time, ordered from least to most recently used
+     */
+    private void restore(Map<String, Long> sessions) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(sessions.entrySet());
+        // Reinsert the most recently used first, since each is inserted at the head of its stripe
+        Collections.reverse(entries);
+        for (Map.Entry<String, Long> entry : entries) {
+            Map<String, Long> stripe = this.stripe(entry.getKey());
+            synchronized (stripe) {
+                if (!stripe.containsKey(entry.getKey())) {
+                    Map<String, Long> newer = new LinkedHashMap<>(stripe);
+                    stripe.clear();
+                    stripe.put(entry.getKey(), entry.getValue());
+                    stripe.putAll(newer);
+                    this.size.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void evict(List<String> sessionIds, Node node) {
+        for (String sessionId : sessionIds) {
+            try {
+                this.dispatcher.submitOnNode(new SessionEvictionCommand(sessionId), node);
+            } catch (Exception e) {
+                InfinispanWebLogger.ROOT_LOGGER.failedToPassivateSession(e, sessionId);
+            }
+        }
+    }
+
+    /**
+     * Removes the least recently used session among the heads of each stripe.
+     * @return the removed session identifier and access time, or null if there are no sessions
+     */
+    private Map.Entry<String, Long> poll() {
+        while (true) {
+            Map<String, Long> oldestStripe = null;
+            long oldestTime = 0;
+            for (Map<String, Long> stripe : this.stripes) {
+                synchronized (stripe) {
+                    Iterator<Long> accessTimes = stripe.values().iterator();
+                    if (accessTimes.hasNext()) {
+                        long accessTime = accessTimes.next();
+                        if ((oldestStripe == null) || (accessTime - oldestTime < 0)) {
+                            oldestStripe = stripe;
+                            oldestTime = accessTime;
+                        }
+                    }
+                }
+            }
+            if (oldestStripe == null) {
+                return null;
+            }
+            synchronized (oldestStripe) {
+                Iterator<Map.Entry<String, Long>> entries = oldestStripe.entrySet().iterator();
+                // Otherwise, the stripe was concurrently emptied, so try again
+                if (entries.hasNext()) {
+                    Map.Entry<String, Long> entry = entries.next();
+                    Map.Entry<String, Long> result = new AbstractMap.SimpleImmutableEntry<>(entry);
+                    entries.remove();
+                    this.size.decrementAndGet();
+                    return result;
                 }
             }
         }
@@ -81,12 +280,14 @@ public class SessionEvictionScheduler implements Scheduler, SessionEvictionConte
 
     @Override
     public void cancel(Locality locality) {
-        synchronized (this.evictionQueue) {
-            Iterator<String> sessions = this.evictionQueue.iterator();
-            while (sessions.hasNext()) {
-                String sessionId = sessions.next();
-                if (!locality.isLocal(sessionId)) {
-                    sessions.remove();
+        for (Map<String, Long> stripe : this.stripes) {
+            synchronized (stripe) {
+                Iterator<String> sessionIds = stripe.keySet().iterator();
+                while (sessionIds.hasNext()) {
+                    if (!locality.isLocal(sessionIds.next())) {
+                        sessionIds.remove();
+                        this.size.decrementAndGet();
+                    }
                 }
             }
         }
@@ -94,9 +295,13 @@ public class SessionEvictionScheduler implements Scheduler, SessionEvictionConte
 
     @Override
     public void close() {
-        synchronized (this.evictionQueue) {
-            this.evictionQueue.clear();
+        this.executor.shutdownNow();
+        for (Map<String, Long> stripe : this.stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
         }
+        this.size.set(0);
         this.dispatcher.close();
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import javax.servlet.ServletContext;
+
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.infinispan.Remover;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+
+/**
+ * Enumerates the available session expiration schedulers.
+ * A deployment selects a scheduler via the {@value #PARAMETER} servlet context parameter.
+ */
+public enum SessionExpirationSchedulerType {
+    /**
+     * Schedules a distinct task per session.
+     */
+    DEFAULT("default") {
+        @Override
+        public Scheduler createScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> purger) {
+            return new SessionExpirationScheduler(batcher, remover);
+        }
+    },
+    /**
+     * Expires sessions in bulk via a hashed timing wheel.
+     */
+    TIMING_WHEEL("timing-wheel") {
+        @Override
+        public Scheduler createScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> purger) {
+            return new TimingWheelSessionExpirationScheduler(batcher, remover, purger);
+        }
+    },
+    ;
+    public static final String PARAMETER = "org.wildfly.clustering.web.session.expiration-scheduler";
+
+    private final String name;
+
+    SessionExpirationSchedulerType(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the scheduler type selected by the specified servlet context.
+     * @param context a servlet context
+     * @return a scheduler type
+     */
+    public static SessionExpirationSchedulerType forContext(ServletContext context) {
+        String value = (context != null) ? context.getInitParameter(PARAMETER) : null;
+        if (value != null) {
+            for (SessionExpirationSchedulerType type : values()) {
+                if (type.name.equalsIgnoreCase(value.trim())) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException(value);
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Creates a session expiration scheduler.
+     * @param batcher a batcher
+     * @param remover removes an expired session, notifying its expiration listeners
+     * @param purger removes a session without notifying its expiration listeners
+     * @return a session expiration scheduler
+     */
+    public abstract Scheduler createScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> purger);
+}
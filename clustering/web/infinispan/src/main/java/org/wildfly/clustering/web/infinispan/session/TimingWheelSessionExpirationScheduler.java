@@ -0,0 +1,283 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.jboss.threads.JBossThreadFactory;
+import org.wildfly.clustering.ee.Batch;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.infinispan.Remover;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.infinispan.spi.distribution.Locality;
+import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
+
+/**
+ * Session expiration scheduler based on a hashed timing wheel.
+ * Unlike {@link SessionExpirationScheduler}, which maintains a scheduled future per session, this scheduler tracks only the expiration tick of each session.
+ * Scheduling and cancellation are O(1) and do not contend on a shared queue.
+ * A single task advances the wheel once per tick and removes all sessions expiring within that tick using a single batch.
+ * Sessions whose expiration lies beyond a full rotation of the wheel simply remain in their bucket until a subsequent rotation.
+ * If the removal of expired sessions is rolled back, sessions whose expiration listeners were already notified are removed again
+ * by a purger, which does not notify listeners.
+ */
+public class TimingWheelSessionExpirationScheduler implements Scheduler, Runnable {
+
+    static final Duration DEFAULT_TICK_DURATION = Duration.ofSeconds(1L);
+    // Default wheel covers slightly more than an hour, so that sessions using the default timeout expire within the first rotation
+    static final int DEFAULT_WHEEL_SIZE = 4096;
+    // Upper bound on how long close() waits for an in-progress tick
+    static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10L);
+
+    final Map<String, Long> expirationTicks = new ConcurrentHashMap<>();
+    private final Set<String>[] buckets;
+    private final int mask;
+    private final long tickMillis;
+    private final Batcher<TransactionBatch> batcher;
+    private final Remover<String> remover;
+    private final Remover<String> purger;
+    private final ScheduledExecutorService executor;
+    private final Supplier<Instant> clock;
+    private volatile long lastTick;
+
+    /**
+     * @param batcher a batcher
+     * @param remover removes an expired session, notifying its expiration listeners
+     * @param purger removes a session without notifying its expiration listeners
+     */
+    public TimingWheelSessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> purger) {
+        this(batcher, remover, purger, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    public TimingWheelSessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> purger, Duration tickDuration, int wheelSize) {
+        this(batcher, remover, purger, tickDuration, wheelSize, createScheduledExecutor(createThreadFactory()));
+    }
+
+    private static ThreadFactory createThreadFactory() {
+        return AccessController.doPrivileged(new PrivilegedAction<ThreadFactory>() {
+            @Override
+            public ThreadFactory run() {
+                return new JBossThreadFactory(new ThreadGroup(TimingWheelSessionExpirationScheduler.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null);
+            }
+        });
+    }
+
+    private static ScheduledExecutorService createScheduledExecutor(ThreadFactory factory) {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, factory);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    public TimingWheelSessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> purger, Duration tickDuration, int wheelSize, ScheduledExecutorService executor) {
+        this(batcher, remover, purger, tickDuration, wheelSize, executor, Instant::now);
+    }
+
+    @SuppressWarnings("unchecked")
+    TimingWheelSessionExpirationScheduler(Batcher<TransactionBatch> batcher, Remover<String> remover, Remover<String> purger, Duration tickDuration, int wheelSize, ScheduledExecutorService executor, Supplier<Instant> clock) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException(tickDuration.toString());
+        }
+        if ((wheelSize <= 0) || (Integer.bitCount(wheelSize) != 1)) {
+            throw new IllegalArgumentException(Integer.toString(wheelSize));
+        }
+        this.batcher = batcher;
+        this.remover = remover;
+        this.purger = purger;
+        this.tickMillis = tickDuration.toMillis();
+        this.mask = wheelSize - 1;
+        this.buckets = new Set[wheelSize];
+        for (int i = 0; i < wheelSize; ++i) {
+            this.buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.clock = clock;
+        this.lastTick = this.tick(clock.get());
+        this.executor = executor;
+        this.executor.scheduleWithFixedDelay(this, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private long tick(Instant instant) {
+        return instant.toEpochMilli() / this.tickMillis;
+    }
+
+    private Set<String> bucket(long tick) {
+        return this.buckets[(int) (tick & this.mask)];
+    }
+
+    @Override
+    public void schedule(String sessionId, ImmutableSessionMetaData metaData) {
+        Duration maxInactiveInterval = metaData.getMaxInactiveInterval();
+        if (!maxInactiveInterval.isZero()) {
+            Instant expiration = metaData.getLastAccessedTime().plus(maxInactiveInterval);
+            // Expire within the tick following the expiration time, or within the next tick, if already expired
+            long tick = Math.max(this.tick(expiration) + 1, this.lastTick + 1);
+            InfinispanWebLogger.ROOT_LOGGER.tracef("Session %s will expire at %s", sessionId, expiration);
+            Long previousTick = this.expirationTicks.put(sessionId, tick);
+            if (previousTick != null) {
+                Set<String> previousBucket = this.bucket(previousTick);
+                Set<String> bucket = this.bucket(tick);
+                if (previousBucket != bucket) {
+                    previousBucket.remove(sessionId);
+                    bucket.add(sessionId);
+                }
+            } else {
+                this.bucket(tick).add(sessionId);
+            }
+        }
+    }
+
+    @Override
+    public void cancel(String sessionId) {
+        Long tick = this.expirationTicks.remove(sessionId);
+        if (tick != null) {
+            this.bucket(tick).remove(sessionId);
+        }
+    }
+
+    @Override
+    public void cancel(Locality locality) {
+        this.expirationTicks.keySet().stream().filter(sessionId -> !locality.isLocal(sessionId)).forEach(sessionId -> this.cancel(sessionId));
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdown();
+        try {
+            // Wait for any in-progress tick to complete, but do not let a stuck removal block undeployment indefinitely
+            if (!this.executor.awaitTermination(CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        this.expirationTicks.clear();
+        for (Set<String> bucket : this.buckets) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * Advances the wheel to the current tick, expiring any sessions within the traversed buckets.
+     */
+    @Override
+    public void run() {
+        long currentTick = this.tick(this.clock.get());
+        long lastTick = this.lastTick;
+        // If we fell behind by more than a rotation, visit each bucket only once
+        long firstTick = Math.max(lastTick + 1, currentTick - this.mask);
+        List<String> expiredSessionIds = new ArrayList<>();
+        for (long tick = firstTick; tick <= currentTick; ++tick) {
+            this.collect(this.bucket(tick), currentTick, expiredSessionIds);
+        }
+        this.lastTick = currentTick;
+        if (!expiredSessionIds.isEmpty()) {
+            this.expire(expiredSessionIds);
+        }
+    }
+
+    private void collect(Set<String> bucket, long currentTick, List<String> expiredSessionIds) {
+        for (String sessionId : bucket) {
+            Long tick = this.expirationTicks.get(sessionId);
+            if (tick == null) {
+                // Stale entry following a concurrent cancellation
+                this.purge(bucket, sessionId);
+            } else if (tick <= currentTick) {
+                // Only expire if not concurrently rescheduled
+                if (this.expirationTicks.remove(sessionId, tick)) {
+                    this.purge(bucket, sessionId);
+                    expiredSessionIds.add(sessionId);
+                }
+            } else if (this.bucket(tick) != bucket) {
+                // Stale entry following a concurrent reschedule
+                this.purge(bucket, sessionId);
+            }
+        }
+    }
+
+    private void purge(Set<String> bucket, String sessionId) {
+        bucket.remove(sessionId);
+        // Restore entry if session was concurrently rescheduled into this bucket
+        Long tick = this.expirationTicks.get(sessionId);
+        if ((tick != null) && (this.bucket(tick) == bucket)) {
+            bucket.add(sessionId);
+        }
+    }
+
+    private void expire(List<String> sessionIds) {
+        InfinispanWebLogger.ROOT_LOGGER.tracef("Expiring sessions %s", sessionIds);
+        Batch batch = this.batcher.createBatch();
+        // Number of sessions passed to the remover, which notifies expiration listeners prior to removal
+        int processed = 0;
+        try {
+            for (String sessionId : sessionIds) {
+                processed += 1;
+                this.remover.remove(sessionId);
+            }
+        } catch (Throwable e) {
+            InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, sessionIds.get(processed - 1));
+            batch.discard();
+            // Listeners of the sessions preceding the failure were already notified, so remove them again without notification
+            sessionIds.subList(0, processed - 1).forEach(sessionId -> this.remove(this.purger, sessionId));
+            // Expire each remaining session within its own batch to isolate any further failure
+            sessionIds.subList(processed, sessionIds.size()).forEach(sessionId -> this.remove(this.remover, sessionId));
+            return;
+        }
+        try {
+            batch.close();
+        } catch (Throwable e) {
+            InfinispanWebLogger.ROOT_LOGGER.failedToExpireSessions(e, sessionIds);
+            // Listeners of all sessions were already notified, so remove them again without notification
+            sessionIds.forEach(sessionId -> this.remove(this.purger, sessionId));
+        }
+    }
+
+    private void remove(Remover<String> remover, String sessionId) {
+        Batch batch = this.batcher.createBatch();
+        boolean success = false;
+        try {
+            remover.remove(sessionId);
+            success = true;
+        } catch (Throwable e) {
+            InfinispanWebLogger.ROOT_LOGGER.failedToExpireSession(e, sessionId);
+        } finally {
+            if (success) {
+                batch.close();
+            } else {
+                batch.discard();
+            }
+        }
+    }
+}
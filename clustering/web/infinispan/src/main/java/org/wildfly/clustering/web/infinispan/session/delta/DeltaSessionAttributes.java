@@ -0,0 +1,132 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.delta;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.infinispan.commons.marshall.NotSerializableException;
+import org.wildfly.clustering.ee.infinispan.Mutator;
+import org.wildfly.clustering.marshalling.jboss.Marshaller;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.web.infinispan.session.MutableDetector;
+import org.wildfly.clustering.web.session.SessionAttributes;
+
+/**
+ * Exposes session attributes for delta granularity sessions.
+ * Like coarse granularity sessions, all attributes are stored within a single cache entry.
+ * Like fine granularity sessions, only modified attributes are marshalled and replicated.
+ * Modifications are collected for the duration of a request, and written via a single {@link #mutate()}.
+ */
+public class DeltaSessionAttributes<V> extends DeltaImmutableSessionAttributes<V> implements SessionAttributes, Mutator {
+    private final Map<String, V> attributes;
+    private final Marshaller<Object, V, MarshallingContext> marshaller;
+    private final boolean requireMarshallable;
+    // Names of attributes set, or possibly mutated, since the last mutation
+    private final Set<String> updates;
+    // Names of attributes removed since the last mutation
+    private final Set<String> removals;
+    // Writes a delta, given the current attributes
+    private final BiConsumer<Map<String, V>, SessionAttributesDelta<V>> mutator;
+
+    public DeltaSessionAttributes(String id, Map<String, V> attributes, BiConsumer<Map<String, V>, SessionAttributesDelta<V>> mutator, Marshaller<Object, V, MarshallingContext> marshaller, boolean lockOnRead, boolean requireMarshallable) {
+        // If the session is locked on read, it cannot be accessed concurrently
+        this(id, lockOnRead ? new HashMap<>(attributes) : new ConcurrentHashMap<>(attributes), lockOnRead ? new HashSet<>() : ConcurrentHashMap.newKeySet(), lockOnRead ? new HashSet<>() : ConcurrentHashMap.newKeySet(), mutator, marshaller, requireMarshallable);
+    }
+
+    private DeltaSessionAttributes(String id, Map<String, V> attributes, Set<String> updates, Set<String> removals, BiConsumer<Map<String, V>, SessionAttributesDelta<V>> mutator, Marshaller<Object, V, MarshallingContext> marshaller, boolean requireMarshallable) {
+        super(id, attributes, marshaller);
+        this.attributes = attributes;
+        this.updates = updates;
+        this.removals = removals;
+        this.mutator = mutator;
+        this.marshaller = marshaller;
+        this.requireMarshallable = requireMarshallable;
+    }
+
+    @Override
+    public Object removeAttribute(String name) {
+        V value = this.attributes.remove(name);
+        if (value == null) {
+            return null;
+        }
+        this.updates.remove(name);
+        this.removals.add(name);
+        return this.read(name, value);
+    }
+
+    @Override
+    public Object setAttribute(String name, Object attribute) {
+        if (attribute == null) {
+            return this.removeAttribute(name);
+        }
+        if (this.requireMarshallable && !this.marshaller.getContext().isMarshallable(attribute)) {
+            throw new IllegalArgumentException(new NotSerializableException(attribute.getClass().getName()));
+        }
+        V old = this.attributes.put(name, this.marshaller.write(attribute));
+        this.removals.remove(name);
+        this.updates.add(name);
+        return this.read(name, old);
+    }
+
+    @Override
+    public Object getAttribute(String name) {
+        Object attribute = this.read(name, this.attributes.get(name));
+        // If the object is mutable, we need to indicate that the attribute should be replicated
+        if ((attribute != null) && MutableDetector.isMutable(attribute)) {
+            this.updates.add(name);
+        }
+        return attribute;
+    }
+
+    /**
+     * Writes the attributes modified since the previous invocation, if any.
+     */
+    @Override
+    public void mutate() {
+        if (this.updates.isEmpty() && this.removals.isEmpty()) {
+            return;
+        }
+        Map<String, V> updates = new HashMap<>();
+        Iterator<String> names = this.updates.iterator();
+        while (names.hasNext()) {
+            String name = names.next();
+            names.remove();
+            V value = this.attributes.get(name);
+            if (value != null) {
+                updates.put(name, value);
+            }
+        }
+        Set<String> removals = new HashSet<>();
+        names = this.removals.iterator();
+        while (names.hasNext()) {
+            removals.add(names.next());
+            names.remove();
+        }
+        this.mutator.accept(this.attributes, new SessionAttributesDelta<>(updates, removals));
+    }
+}
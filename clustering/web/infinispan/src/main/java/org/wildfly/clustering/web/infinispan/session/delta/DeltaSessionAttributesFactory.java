@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.delta;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.infinispan.functional.impl.FunctionalMapImpl;
+import org.infinispan.functional.impl.ReadWriteMapImpl;
+import org.wildfly.clustering.infinispan.spi.distribution.Key;
+import org.wildfly.clustering.marshalling.jboss.InvalidSerializedFormException;
+import org.wildfly.clustering.marshalling.jboss.MarshalledValue;
+import org.wildfly.clustering.marshalling.jboss.Marshaller;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.web.infinispan.logging.InfinispanWebLogger;
+import org.wildfly.clustering.web.infinispan.session.SessionAttributesFactory;
+import org.wildfly.clustering.web.session.ImmutableSessionAttributes;
+import org.wildfly.clustering.web.session.SessionAttributes;
+
+/**
+ * {@link SessionAttributesFactory} for delta granularity sessions.
+ * All session attributes are stored in a single cache entry, but each attribute is marshalled independently.
+ * Modifications made during a request are written once, when the session is closed.
+ * For non-transactional caches, only a {@link SessionAttributesDelta} containing the modified attributes is replicated,
+ * which each owner merges with its copy of the cache entry.
+ * Transactional caches write the whole entry, but only the modified attributes are re-marshalled.
+ */
+public class DeltaSessionAttributesFactory implements SessionAttributesFactory<SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>>> {
+
+    private final Cache<DeltaSessionAttributesKey, Object> cache;
+    private final Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller;
+    private final boolean lockOnRead;
+    private final boolean requireMarshallable;
+    private final BiConsumer<String, SessionAttributesDelta<MarshalledValue<Object, MarshallingContext>>> deltaWriter;
+
+    @SuppressWarnings("unchecked")
+    public DeltaSessionAttributesFactory(Cache<? extends Key<String>, ?> cache, Marshaller<Object, MarshalledValue<Object, MarshallingContext>, MarshallingContext> marshaller, boolean lockOnRead, boolean requireMarshallable) {
+        this.cache = (Cache<DeltaSessionAttributesKey, Object>) cache;
+        this.marshaller = marshaller;
+        this.lockOnRead = lockOnRead;
+        this.requireMarshallable = requireMarshallable;
+        // Infinispan's functional API does not yet support transactions
+        if (!this.cache.getCacheConfiguration().transaction().transactionMode().isTransactional()) {
+            ReadWriteMapImpl<DeltaSessionAttributesKey, Object> map = ReadWriteMapImpl.create(FunctionalMapImpl.create(this.cache.getAdvancedCache()));
+            this.deltaWriter = (id, delta) -> map.eval(new DeltaSessionAttributesKey(id), delta).join();
+        } else {
+            this.deltaWriter = null;
+        }
+    }
+
+    @Override
+    public SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>> createValue(String id, Void context) {
+        DeltaSessionAttributesKey key = new DeltaSessionAttributesKey(id);
+        @SuppressWarnings("unchecked")
+        SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>> entry = (SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>>) this.cache.getAdvancedCache().withFlags(Flag.FORCE_SYNCHRONOUS).computeIfAbsent(key, k -> new SessionAttributesEntry<>(Collections.emptyMap()));
+        if (!this.validate(id, entry)) {
+            this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(key);
+            return this.createValue(id, context);
+        }
+        return entry;
+    }
+
+    @Override
+    public SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>> findValue(String id) {
+        @SuppressWarnings("unchecked")
+        SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>> entry = (SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>>) this.cache.get(new DeltaSessionAttributesKey(id));
+        if (entry != null) {
+            if (this.validate(id, entry)) {
+                return entry;
+            }
+            this.remove(id);
+        }
+        return null;
+    }
+
+    // Preemptively read all attributes to detect invalid session attributes
+    private boolean validate(String id, SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>> entry) {
+        for (Map.Entry<String, MarshalledValue<Object, MarshallingContext>> attribute : entry.getAttributes().entrySet()) {
+            try {
+                this.marshaller.read(attribute.getValue());
+            } catch (InvalidSerializedFormException e) {
+                InfinispanWebLogger.ROOT_LOGGER.failedToActivateSessionAttribute(e, id, attribute.getKey());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(String id) {
+        this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).remove(new DeltaSessionAttributesKey(id));
+        return true;
+    }
+
+    @Override
+    public void evict(String id) {
+        this.cache.evict(new DeltaSessionAttributesKey(id));
+    }
+
+    @Override
+    public SessionAttributes createSessionAttributes(String id, SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>> entry) {
+        return new DeltaSessionAttributes<>(id, entry.getAttributes(), (attributes, delta) -> this.write(id, attributes, delta), this.marshaller, this.lockOnRead, this.requireMarshallable);
+    }
+
+    private void write(String id, Map<String, MarshalledValue<Object, MarshallingContext>> attributes, SessionAttributesDelta<MarshalledValue<Object, MarshallingContext>> delta) {
+        if (this.deltaWriter != null) {
+            this.deltaWriter.accept(id, delta);
+        } else {
+            // Unmodified attributes retain their marshalled form, so only the modified attributes are re-marshalled
+            // Use FAIL_SILENTLY to prevent mutation from failing locally due to remote exceptions
+            this.cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES, Flag.FAIL_SILENTLY).put(new DeltaSessionAttributesKey(id), new SessionAttributesEntry<>(new HashMap<>(attributes)));
+        }
+    }
+
+    @Override
+    public ImmutableSessionAttributes createImmutableSessionAttributes(String id, SessionAttributesEntry<MarshalledValue<Object, MarshallingContext>> entry) {
+        return new DeltaImmutableSessionAttributes<>(id, entry.getAttributes(), this.marshaller);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.delta;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.infinispan.commons.api.functional.EntryView.ReadWriteEntryView;
+
+/**
+ * A set of changes to the attributes of a session.
+ * Only this delta is replicated to the owners of a session, where it is applied, via Infinispan's functional API,
+ * to the existing {@link SessionAttributesEntry}.
+ */
+public class SessionAttributesDelta<V> implements Function<ReadWriteEntryView<DeltaSessionAttributesKey, Object>, Void> {
+
+    private final Map<String, V> updates;
+    private final Set<String> removals;
+
+    public SessionAttributesDelta(Map<String, V> updates, Set<String> removals) {
+        this.updates = updates;
+        this.removals = removals;
+    }
+
+    public Map<String, V> getUpdates() {
+        return this.updates;
+    }
+
+    public Set<String> getRemovals() {
+        return this.removals;
+    }
+
+    /**
+     * Applies this delta to the specified entry.
+     * @param entry a session attributes entry, or null, if none exists
+     * @return a new session attributes entry
+     */
+    public SessionAttributesEntry<V> merge(SessionAttributesEntry<V> entry) {
+        Map<String, V> attributes = (entry != null) ? new HashMap<>(entry.getAttributes()) : new HashMap<>();
+        attributes.keySet().removeAll(this.removals);
+        attributes.putAll(this.updates);
+        return new SessionAttributesEntry<>(attributes);
+    }
+
+    /**
+     * Applies this delta to the entry of the specified view, if one exists.
+     * A missing entry indicates that the session was concurrently invalidated or expired, in which case the delta is discarded,
+     * since an entry recreated here would never be removed.
+     */
+    @Override
+    public Void apply(ReadWriteEntryView<DeltaSessionAttributesKey, Object> view) {
+        @SuppressWarnings("unchecked")
+        SessionAttributesEntry<V> entry = (SessionAttributesEntry<V>) view.find().orElse(null);
+        if (entry != null) {
+            view.set(this.merge(entry));
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("+%s -%s", this.updates.keySet(), this.removals);
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.delta;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Cache entry containing the individually marshalled attributes of a session.
+ * Instances are never modified once stored in the cache; applying a {@link SessionAttributesDelta} creates a new entry.
+ */
+public class SessionAttributesEntry<V> {
+
+    private final Map<String, V> attributes;
+
+    public SessionAttributesEntry(Map<String, V> attributes) {
+        this.attributes = attributes;
+    }
+
+    public Map<String, V> getAttributes() {
+        return Collections.unmodifiableMap(this.attributes);
+    }
+
+    @Override
+    public String toString() {
+        return this.attributes.keySet().toString();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.delta;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.wildfly.clustering.marshalling.Externalizer;
+import org.wildfly.clustering.marshalling.jboss.IndexExternalizer;
+
+/**
+ * Externalizer for {@link SessionAttributesEntry}.
+ */
+public class SessionAttributesEntryExternalizer implements Externalizer<SessionAttributesEntry<Object>> {
+
+    @Override
+    public void writeObject(ObjectOutput output, SessionAttributesEntry<Object> entry) throws IOException {
+        writeAttributes(output, entry.getAttributes());
+    }
+
+    @Override
+    public SessionAttributesEntry<Object> readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+        return new SessionAttributesEntry<>(readAttributes(input));
+    }
+
+    static void writeAttributes(ObjectOutput output, Map<String, Object> attributes) throws IOException {
+        IndexExternalizer.VARIABLE.writeData(output, attributes.size());
+        for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeObject(entry.getValue());
+        }
+    }
+
+    static Map<String, Object> readAttributes(ObjectInput input) throws IOException, ClassNotFoundException {
+        int size = IndexExternalizer.VARIABLE.readData(input);
+        Map<String, Object> attributes = new HashMap<>(size);
+        for (int i = 0; i < size; ++i) {
+            attributes.put(input.readUTF(), input.readObject());
+        }
+        return attributes;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    @Override
+    public Class getTargetClass() {
+        return SessionAttributesEntry.class;
+    }
+}
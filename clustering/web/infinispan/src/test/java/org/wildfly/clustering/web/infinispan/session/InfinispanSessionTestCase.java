@@ -32,11 +32,13 @@ import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 import java.time.Instant;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
+import org.wildfly.clustering.ee.infinispan.Mutator;
 import org.wildfly.clustering.ee.infinispan.Remover;
 import org.wildfly.clustering.web.LocalContextFactory;
 import org.wildfly.clustering.web.session.Session;
@@ -111,6 +113,24 @@ public class InfinispanSessionTestCase {
         verify(this.metaData, never()).setLastAccessedTime(any(Instant.class));
     }
 
+    @Test
+    public void closeMutator() {
+        SessionAttributes attributes = mock(SessionAttributes.class, withSettings().extraInterfaces(Mutator.class));
+        Session<Object> session = new InfinispanSession<>(this.id, this.metaData, attributes, this.localContextRef, this.localContextFactory, this.remover);
+
+        session.close();
+
+        verify((Mutator) attributes).mutate();
+
+        reset(attributes);
+
+        // Verify that deferred modifications are not written if invalid
+        session.invalidate();
+        session.close();
+
+        verify((Mutator) attributes, never()).mutate();
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void getLocalContext() {
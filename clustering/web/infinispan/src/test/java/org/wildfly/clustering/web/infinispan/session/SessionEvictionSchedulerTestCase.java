@@ -21,20 +21,36 @@
  */
 package org.wildfly.clustering.web.infinispan.session;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.wildfly.clustering.dispatcher.Command;
 import org.wildfly.clustering.dispatcher.CommandDispatcher;
 import org.wildfly.clustering.dispatcher.CommandDispatcherFactory;
 import org.wildfly.clustering.ee.infinispan.Evictor;
+import org.wildfly.clustering.group.Node;
 import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
 
 /**
@@ -55,10 +71,17 @@ public class SessionEvictionSchedulerTestCase {
         Evictor<String> evictor = mock(Evictor.class);
         ArgumentCaptor<Command> capturedCommand = ArgumentCaptor.forClass(Command.class);
         ArgumentCaptor<SessionEvictionContext> capturedContext = ArgumentCaptor.forClass(SessionEvictionContext.class);
+        ExecutorService executor = mock(ExecutorService.class);
+
+        // Drain evictions synchronously
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
 
         when(dispatcherFactory.createCommandDispatcher(same(name), capturedContext.capture())).thenReturn(dispatcher);
 
-        try (Scheduler scheduler = new SessionEvictionScheduler(name, evictor, dispatcherFactory, 1)) {
+        try (Scheduler scheduler = new SessionEvictionScheduler(name, evictor, dispatcherFactory, 1, executor)) {
             SessionEvictionContext context = capturedContext.getValue();
             
             assertSame(scheduler, context);
@@ -79,4 +102,89 @@ public class SessionEvictionSchedulerTestCase {
 
         verify(dispatcher).close();
     }
+
+    /**
+     * Verifies that sessions in excess of the maximum are evicted via a single batch command,
+     * and that members failing to execute the batch command are sent a command per session.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void batch() throws Exception {
+        String name = "cache";
+        ImmutableSessionMetaData metaData = mock(ImmutableSessionMetaData.class);
+        CommandDispatcherFactory dispatcherFactory = mock(CommandDispatcherFactory.class);
+        CommandDispatcher<SessionEvictionContext> dispatcher = mock(CommandDispatcher.class);
+        Evictor<String> evictor = mock(Evictor.class);
+        ExecutorService executor = mock(ExecutorService.class);
+        Node node = mock(Node.class);
+        Future<Void> response = mock(Future.class);
+        ArgumentCaptor<Runnable> capturedTask = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Command> capturedCommand = ArgumentCaptor.forClass(Command.class);
+
+        when(dispatcherFactory.createCommandDispatcher(same(name), any(SessionEvictionContext.class))).thenReturn(dispatcher);
+        when(dispatcher.submitOnCluster(capturedCommand.capture())).thenReturn((Map) Collections.singletonMap(node, response));
+        when(response.get()).thenThrow(new ExecutionException(new ClassNotFoundException(SessionEvictionBatchCommand.class.getName())));
+
+        try (SessionEvictionScheduler scheduler = new SessionEvictionScheduler(name, evictor, dispatcherFactory, 1, executor)) {
+            scheduler.schedule("oldest", metaData);
+            scheduler.schedule("older", metaData);
+            // Eviction is already pending, so this does not trigger another drain
+            scheduler.schedule("newest", metaData);
+            verify(executor).execute(capturedTask.capture());
+
+            capturedTask.getValue().run();
+
+            Command command = capturedCommand.getValue();
+            assertTrue(command instanceof SessionEvictionBatchCommand);
+            assertEquals(new HashSet<>(Arrays.asList("oldest", "older")), new HashSet<>(Arrays.asList(((SessionEvictionBatchCommand) command).getSessionIds())));
+
+            List<Command> fallback = capturedCommands(dispatcher, node, 2);
+            fallback.get(0).execute(scheduler);
+            fallback.get(1).execute(scheduler);
+            verify(evictor).evict("oldest");
+            verify(evictor).evict("older");
+            verify(evictor, never()).evict("newest");
+        }
+    }
+
+    /**
+     * Verifies that sessions are retried if the eviction command could not be sent.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Test
+    public void retry() throws Exception {
+        String name = "cache";
+        ImmutableSessionMetaData metaData = mock(ImmutableSessionMetaData.class);
+        CommandDispatcherFactory dispatcherFactory = mock(CommandDispatcherFactory.class);
+        CommandDispatcher<SessionEvictionContext> dispatcher = mock(CommandDispatcher.class);
+        Evictor<String> evictor = mock(Evictor.class);
+        ExecutorService executor = mock(ExecutorService.class);
+        ArgumentCaptor<Command> capturedCommand = ArgumentCaptor.forClass(Command.class);
+
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+        when(dispatcherFactory.createCommandDispatcher(same(name), any(SessionEvictionContext.class))).thenReturn(dispatcher);
+        doThrow(new IllegalStateException()).doReturn(Collections.emptyMap()).when(dispatcher).submitOnCluster(capturedCommand.capture());
+
+        try (SessionEvictionScheduler scheduler = new SessionEvictionScheduler(name, evictor, dispatcherFactory, 1, executor)) {
+            scheduler.schedule("evicted", metaData);
+            scheduler.schedule("active", metaData);
+            // The next access retries the failed eviction
+            scheduler.schedule("active", metaData);
+
+            verify(dispatcher, times(2)).submitOnCluster(any(Command.class));
+            capturedCommand.getValue().execute(scheduler);
+            verify(evictor).evict("evicted");
+            verify(evictor, never()).evict("active");
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static List<Command> capturedCommands(CommandDispatcher<SessionEvictionContext> dispatcher, Node node, int count) throws Exception {
+        ArgumentCaptor<Command> captor = ArgumentCaptor.forClass(Command.class);
+        verify(dispatcher, times(count)).submitOnNode(captor.capture(), same(node));
+        return captor.getAllValues();
+    }
 }
@@ -0,0 +1,213 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.clustering.ee.Batcher;
+import org.wildfly.clustering.ee.infinispan.Remover;
+import org.wildfly.clustering.ee.infinispan.TransactionBatch;
+import org.wildfly.clustering.web.session.ImmutableSessionMetaData;
+
+/**
+ * Unit test for {@link TimingWheelSessionExpirationScheduler}.
+ * Ticks are driven explicitly, using a controllable clock, rather than by the scheduled executor.
+ */
+public class TimingWheelSessionExpirationSchedulerTestCase {
+    private static final Duration TICK = Duration.ofMillis(100L);
+
+    private final Batcher<TransactionBatch> batcher = mock(Batcher.class);
+    private final TransactionBatch batch = mock(TransactionBatch.class);
+    private final Remover<String> remover = mock(Remover.class);
+    private final Remover<String> purger = mock(Remover.class);
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.ofEpochMilli(1000000L));
+
+    @Before
+    public void init() {
+        when(this.batcher.createBatch()).thenReturn(this.batch);
+    }
+
+    private TimingWheelSessionExpirationScheduler createScheduler() {
+        return new TimingWheelSessionExpirationScheduler(this.batcher, this.remover, this.purger, TICK, 16, this.executor, this.now::get);
+    }
+
+    private ImmutableSessionMetaData metaData(Duration maxInactiveInterval) {
+        ImmutableSessionMetaData metaData = mock(ImmutableSessionMetaData.class);
+        when(metaData.getMaxInactiveInterval()).thenReturn(maxInactiveInterval);
+        when(metaData.getLastAccessedTime()).thenReturn(this.now.get());
+        return metaData;
+    }
+
+    private void advance(Duration duration) {
+        this.now.set(this.now.get().plus(duration));
+    }
+
+    @Test
+    public void test() {
+        String immortalSessionId = "immortal";
+        String expiringSessionId = "expiring";
+        String canceledSessionId = "canceled";
+        ImmutableSessionMetaData canceledSessionMetaData = this.metaData(Duration.ofSeconds(100L));
+
+        try (Scheduler scheduler = this.createScheduler()) {
+            TimingWheelSessionExpirationScheduler wheel = (TimingWheelSessionExpirationScheduler) scheduler;
+            verify(this.executor).scheduleWithFixedDelay(wheel, TICK.toMillis(), TICK.toMillis(), TimeUnit.MILLISECONDS);
+
+            scheduler.schedule(immortalSessionId, this.metaData(Duration.ZERO));
+            scheduler.schedule(canceledSessionId, canceledSessionMetaData);
+            scheduler.schedule(expiringSessionId, this.metaData(Duration.ofMillis(1L)));
+
+            // Nothing expires within the current tick
+            wheel.run();
+            verify(this.remover, never()).remove(any());
+
+            this.advance(TICK.multipliedBy(2));
+            wheel.run();
+
+            scheduler.cancel(canceledSessionId);
+            scheduler.schedule(canceledSessionId, canceledSessionMetaData);
+
+            // Sessions beyond a full rotation of the wheel remain scheduled
+            this.advance(TICK.multipliedBy(20));
+            wheel.run();
+        }
+
+        verify(this.remover, never()).remove(immortalSessionId);
+        verify(this.remover).remove(expiringSessionId);
+        verify(this.remover, never()).remove(canceledSessionId);
+        verify(this.batch).close();
+    }
+
+    @Test
+    public void reschedule() {
+        String sessionId = "session";
+        try (Scheduler scheduler = this.createScheduler()) {
+            TimingWheelSessionExpirationScheduler wheel = (TimingWheelSessionExpirationScheduler) scheduler;
+            scheduler.schedule(sessionId, this.metaData(TICK));
+
+            // Access before expiration pushes the expiration out
+            this.advance(TICK);
+            scheduler.schedule(sessionId, this.metaData(TICK.multipliedBy(4)));
+            this.advance(TICK.multipliedBy(2));
+            wheel.run();
+            verify(this.remover, never()).remove(sessionId);
+
+            this.advance(TICK.multipliedBy(4));
+            wheel.run();
+            verify(this.remover).remove(sessionId);
+        }
+    }
+
+    @Test
+    public void bulkFailure() {
+        String[] sessionIds = new String[] { "a", "b", "c", "d", "e" };
+        String failingSessionId = "c";
+        List<String> removed = new ArrayList<>();
+        doAnswer(invocation -> {
+            String sessionId = (String) invocation.getArguments()[0];
+            removed.add(sessionId);
+            if (sessionId.equals(failingSessionId)) {
+                throw new IllegalStateException();
+            }
+            return true;
+        }).when(this.remover).remove(any());
+
+        try (Scheduler scheduler = this.createScheduler()) {
+            TimingWheelSessionExpirationScheduler wheel = (TimingWheelSessionExpirationScheduler) scheduler;
+            for (String sessionId : sessionIds) {
+                scheduler.schedule(sessionId, this.metaData(Duration.ofMillis(1L)));
+            }
+            this.advance(TICK.multipliedBy(2));
+            wheel.run();
+        }
+
+        // Each session is passed to the remover, and therefore its listeners notified, exactly once
+        assertEquals(sessionIds.length, removed.size());
+        assertEquals(new HashSet<>(Arrays.asList(sessionIds)), new HashSet<>(removed));
+        // The bulk batch is discarded, so the sessions preceding the failure are removed again, without notification
+        int preceding = removed.indexOf(failingSessionId);
+        for (String sessionId : removed.subList(0, preceding)) {
+            verify(this.purger).remove(sessionId);
+        }
+        verify(this.purger, times(preceding)).remove(any());
+        // Each session is removed within its own batch following the failure
+        int remaining = sessionIds.length - preceding - 1;
+        verify(this.batch).discard();
+        verify(this.batch, times(preceding + remaining)).close();
+        verify(this.batcher, times(1 + preceding + remaining)).createBatch();
+    }
+
+    @Test
+    public void bulkCommitFailure() {
+        String[] sessionIds = new String[] { "a", "b", "c" };
+        doThrow(new IllegalStateException()).doNothing().when(this.batch).close();
+
+        try (Scheduler scheduler = this.createScheduler()) {
+            TimingWheelSessionExpirationScheduler wheel = (TimingWheelSessionExpirationScheduler) scheduler;
+            for (String sessionId : sessionIds) {
+                scheduler.schedule(sessionId, this.metaData(Duration.ofMillis(1L)));
+            }
+            this.advance(TICK.multipliedBy(2));
+            wheel.run();
+        }
+
+        // Listeners were notified once, and the rolled back removals are repeated without notification, each within its own batch
+        for (String sessionId : sessionIds) {
+            verify(this.remover).remove(sessionId);
+            verify(this.purger).remove(sessionId);
+        }
+        verify(this.batch, times(1 + sessionIds.length)).close();
+        verify(this.batcher, times(1 + sessionIds.length)).createBatch();
+    }
+
+    @Test
+    public void close() throws InterruptedException {
+        when(this.executor.awaitTermination(anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(false);
+        this.createScheduler().close();
+        verify(this.executor).shutdown();
+        verify(this.executor).awaitTermination(TimingWheelSessionExpirationScheduler.CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        verify(this.executor).shutdownNow();
+    }
+}
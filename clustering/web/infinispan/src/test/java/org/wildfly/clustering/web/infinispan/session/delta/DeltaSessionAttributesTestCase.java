@@ -0,0 +1,129 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.delta;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.junit.Test;
+import org.wildfly.clustering.marshalling.jboss.InvalidSerializedFormException;
+import org.wildfly.clustering.marshalling.jboss.Marshaller;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+
+/**
+ * Unit test for {@link DeltaSessionAttributes}.
+ */
+public class DeltaSessionAttributesTestCase {
+    private final List<SessionAttributesDelta<Object>> deltas = new ArrayList<>();
+    private final BiConsumer<Map<String, Object>, SessionAttributesDelta<Object>> mutator = (attributes, delta) -> this.deltas.add(delta);
+    @SuppressWarnings("unchecked")
+    private final Marshaller<Object, Object, MarshallingContext> marshaller = mock(Marshaller.class);
+
+    @Test
+    public void setAttribute() throws InvalidSerializedFormException {
+        Object value = new Object();
+        Object marshalledValue = new Object();
+        DeltaSessionAttributes<Object> attributes = new DeltaSessionAttributes<>("session", Collections.emptyMap(), this.mutator, this.marshaller, false, false);
+
+        when(this.marshaller.write(value)).thenReturn(marshalledValue);
+
+        attributes.setAttribute("a", value);
+        attributes.setAttribute("b", value);
+
+        // Modifications must not be written until mutation
+        assertTrue(this.deltas.isEmpty());
+
+        attributes.removeAttribute("b");
+
+        attributes.mutate();
+
+        assertEquals(1, this.deltas.size());
+        SessionAttributesDelta<Object> delta = this.deltas.get(0);
+        assertEquals(Collections.singletonMap("a", marshalledValue), delta.getUpdates());
+        assertEquals(Collections.singleton("b"), delta.getRemovals());
+
+        // Subsequent mutation should be a no-op
+        attributes.mutate();
+
+        assertEquals(1, this.deltas.size());
+    }
+
+    @Test
+    public void getMutableAttribute() throws InvalidSerializedFormException {
+        Object marshalledValue = new Object();
+        Object value = new ArrayList<>();
+        DeltaSessionAttributes<Object> attributes = new DeltaSessionAttributes<>("session", Collections.singletonMap("a", marshalledValue), this.mutator, this.marshaller, true, false);
+
+        when(this.marshaller.read(marshalledValue)).thenReturn(value);
+
+        assertSame(value, attributes.getAttribute("a"));
+        assertSame(value, attributes.getAttribute("a"));
+
+        attributes.mutate();
+
+        // A mutable attribute is replicated once, regardless of the number of reads
+        assertEquals(1, this.deltas.size());
+        assertEquals(Collections.singletonMap("a", marshalledValue), this.deltas.get(0).getUpdates());
+        assertTrue(this.deltas.get(0).getRemovals().isEmpty());
+    }
+
+    @Test
+    public void getImmutableAttribute() throws InvalidSerializedFormException {
+        Object marshalledValue = new Object();
+        Object value = "immutable";
+        DeltaSessionAttributes<Object> attributes = new DeltaSessionAttributes<>("session", Collections.singletonMap("a", marshalledValue), this.mutator, this.marshaller, false, false);
+
+        when(this.marshaller.read(marshalledValue)).thenReturn(value);
+
+        assertSame(value, attributes.getAttribute("a"));
+
+        attributes.mutate();
+
+        assertTrue(this.deltas.isEmpty());
+    }
+
+    @Test
+    public void removeMissingAttribute() throws InvalidSerializedFormException {
+        @SuppressWarnings("unchecked")
+        BiConsumer<Map<String, Object>, SessionAttributesDelta<Object>> mutator = mock(BiConsumer.class);
+        DeltaSessionAttributes<Object> attributes = new DeltaSessionAttributes<>("session", Collections.emptyMap(), mutator, this.marshaller, false, false);
+
+        attributes.removeAttribute("a");
+        attributes.mutate();
+
+        verify(this.marshaller, never()).read(any());
+        verifyZeroInteractions(mutator);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2015, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.clustering.web.infinispan.session.delta;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.infinispan.commons.api.functional.EntryView.ReadWriteEntryView;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Unit test for {@link SessionAttributesDelta}.
+ */
+public class SessionAttributesDeltaTestCase {
+
+    @Test
+    public void merge() {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("a", 1);
+        attributes.put("b", 2);
+        SessionAttributesEntry<Object> entry = new SessionAttributesEntry<>(attributes);
+
+        Map<String, Object> merged = new SessionAttributesDelta<>(Collections.<String, Object>singletonMap("c", 3), Collections.singleton("a")).merge(entry).getAttributes();
+
+        assertEquals(2, merged.size());
+        assertEquals(2, merged.get("b"));
+        assertEquals(3, merged.get("c"));
+
+        // Original entry must remain unmodified
+        assertEquals(2, entry.getAttributes().size());
+        assertEquals(1, entry.getAttributes().get("a"));
+    }
+
+    @Test
+    public void mergeAbsent() {
+        Map<String, Object> merged = new SessionAttributesDelta<>(Collections.<String, Object>singletonMap("a", 1), Collections.<String>emptySet()).merge(null).getAttributes();
+
+        assertEquals(Collections.singletonMap("a", 1), merged);
+    }
+
+    @Test
+    public void apply() {
+        @SuppressWarnings("unchecked")
+        ReadWriteEntryView<DeltaSessionAttributesKey, Object> view = mock(ReadWriteEntryView.class);
+        when(view.find()).thenReturn(Optional.<Object>of(new SessionAttributesEntry<>(Collections.<String, Object>singletonMap("a", 1))));
+
+        new SessionAttributesDelta<>(Collections.<String, Object>singletonMap("b", 2), Collections.singleton("a")).apply(view);
+
+        ArgumentCaptor<Object> capturedEntry = ArgumentCaptor.forClass(Object.class);
+        verify(view).set(capturedEntry.capture());
+        @SuppressWarnings("unchecked")
+        SessionAttributesEntry<Object> entry = (SessionAttributesEntry<Object>) capturedEntry.getValue();
+        assertEquals(Collections.singletonMap("b", 2), entry.getAttributes());
+    }
+
+    @Test
+    public void applyAbsent() {
+        @SuppressWarnings("unchecked")
+        ReadWriteEntryView<DeltaSessionAttributesKey, Object> view = mock(ReadWriteEntryView.class);
+        when(view.find()).thenReturn(Optional.empty());
+
+        new SessionAttributesDelta<>(Collections.<String, Object>singletonMap("a", 1), Collections.<String>emptySet()).apply(view);
+
+        // Entry of an invalidated or expired session must not be recreated
+        verify(view, never()).set(any());
+    }
+}
@@ -28,7 +28,15 @@ import org.jboss.modules.Module;
  * @author Paul Ferraro
  */
 public interface SessionManagerFactoryConfiguration {
-    enum SessionAttributePersistenceStrategy { COARSE, FINE }
+    /**
+     * Enumerates the strategies for persisting/replicating session attributes.
+     * <dl>
+     * <dt>COARSE</dt><dd>All attributes are marshalled and replicated as a single unit</dd>
+     * <dt>FINE</dt><dd>Each attribute is stored as a separate cache entry</dd>
+     * <dt>DELTA</dt><dd>All attributes are stored as a single cache entry, but only modified attributes are marshalled and replicated</dd>
+     * </dl>
+     */
+    enum SessionAttributePersistenceStrategy { COARSE, FINE, DELTA }
 
     int getMaxActiveSessions();
 
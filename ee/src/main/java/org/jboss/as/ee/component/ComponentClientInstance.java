@@ -3,6 +3,8 @@ package org.jboss.as.ee.component;
 import org.jboss.as.ee.logging.EeLogger;
 import org.jboss.invocation.InterceptorContext;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
@@ -26,6 +28,10 @@ public class ComponentClientInstance implements Serializable {
 
     private final Map<Object, Object> contextInformation = new HashMap<Object, Object>();
     private volatile boolean constructionComplete = false;
+    // Snapshot of the context information, taken on construction completion, so that invocations need not iterate over the map.
+    // Transient, and rebuilt on deserialization, so that the serialized form is unchanged.
+    private transient volatile Object[] keys;
+    private transient volatile Object[] values;
 
     public Object getViewInstanceData(final Object key) {
         return contextInformation.get(key);
@@ -39,13 +45,44 @@ public class ComponentClientInstance implements Serializable {
     }
 
     void prepareInterceptorContext(InterceptorContext interceptorContext){
-        for(Map.Entry<Object, Object> entry : contextInformation.entrySet()) {
-            interceptorContext.putPrivateData(entry.getKey(), entry.getValue());
+        final Object[] keys = this.keys;
+        final Object[] values = this.values;
+        if (keys == null) {
+            for(Map.Entry<Object, Object> entry : contextInformation.entrySet()) {
+                interceptorContext.putPrivateData(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        for (int i = 0; i < keys.length; ++i) {
+            interceptorContext.putPrivateData(keys[i], values[i]);
         }
     }
 
     void constructionComplete() {
+        snapshot();
         constructionComplete = true;
     }
 
+    private void snapshot() {
+        final int size = contextInformation.size();
+        final Object[] keys = new Object[size];
+        final Object[] values = new Object[size];
+        int i = 0;
+        for (Map.Entry<Object, Object> entry : contextInformation.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            ++i;
+        }
+        // Publish values before keys, since the latter indicates that the snapshot is ready
+        this.values = values;
+        this.keys = keys;
+    }
+
+    private void readObject(final ObjectInputStream input) throws IOException, ClassNotFoundException {
+        input.defaultReadObject();
+        if (constructionComplete) {
+            snapshot();
+        }
+    }
+
 }
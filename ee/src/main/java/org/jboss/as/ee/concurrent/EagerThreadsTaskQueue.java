@@ -0,0 +1,91 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.concurrent;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A task queue which makes a {@link ThreadPoolExecutor} create new threads, up to its maximum pool size, before queuing tasks.
+ * <p/>
+ * A {@link ThreadPoolExecutor} only creates threads beyond its core pool size once its queue is full, so with an unbounded
+ * (or large) queue, tasks which block wait behind each other even though the maximum pool size was not reached.
+ * This queue only accepts a task if more threads are idle, waiting for one, than tasks are queued. Otherwise the executor creates a new thread, and
+ * once the maximum pool size is reached, the task is queued by the {@link RejectedExecutionHandler} installed by
+ * {@link #attach(ThreadPoolExecutor)}, up to the capacity of this queue.
+ */
+public class EagerThreadsTaskQueue extends LinkedBlockingQueue<Runnable> {
+
+    private static final long serialVersionUID = -2594232101328917574L;
+
+    private final AtomicInteger idleThreads = new AtomicInteger();
+
+    public EagerThreadsTaskQueue(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Installs the rejection handler, of the executor using this queue, which queues tasks once no more threads may be created.
+     *
+     * @param executor the executor using this queue
+     */
+    void attach(final ThreadPoolExecutor executor) {
+        final RejectedExecutionHandler rejectedExecutionHandler = executor.getRejectedExecutionHandler();
+        executor.setRejectedExecutionHandler(new RejectedExecutionHandler() {
+            @Override
+            public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+                if (executor.isShutdown() || !EagerThreadsTaskQueue.super.offer(task)) {
+                    rejectedExecutionHandler.rejectedExecution(task, executor);
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean offer(Runnable task) {
+        // Only queue the task if an idle thread will pick it up, so that the executor otherwise creates a new thread
+        return (this.idleThreads.get() > this.size()) && super.offer(task);
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        this.idleThreads.incrementAndGet();
+        try {
+            return super.take();
+        } finally {
+            this.idleThreads.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        this.idleThreads.incrementAndGet();
+        try {
+            return super.poll(timeout, unit);
+        } finally {
+            this.idleThreads.decrementAndGet();
+        }
+    }
+}
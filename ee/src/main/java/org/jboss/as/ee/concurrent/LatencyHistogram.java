@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ee.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size, log-linear histogram of latencies, recorded with microsecond resolution.
+ * Each power of 2 is divided into 8 linear sub-buckets, so recorded values are accurate to within 12.5%.
+ * Each bucket is a striped counter, so concurrent recordings of similar latency, which land in the same bucket, do not contend.
+ * Buckets are created on first use, since most latencies fall within a narrow range;
+ * thereafter, recording a value allocates nothing, except when the striped counter expands under contention.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKETS - 1;
+    // Values beyond ~19 hours are recorded in the last bucket
+    private static final int MAX_EXPONENT = 35;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicReferenceArray<LongAdder> counts = new AtomicReferenceArray<>(index(MAX_VALUE) + 1);
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(value, 0L);
+        }
+        long boundedValue = Math.min(value, MAX_VALUE);
+        int exponent = 63 - Long.numberOfLeadingZeros(boundedValue);
+        int subBucket = (int) (boundedValue >>> (exponent - SUB_BUCKET_BITS)) & SUB_BUCKET_MASK;
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    /**
+     * Returns the highest value that would be recorded in the bucket with the specified index.
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >> SUB_BUCKET_BITS) - 1;
+        long lowestValue = ((long) (SUB_BUCKETS + (index & SUB_BUCKET_MASK))) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+
+    /**
+     * Records the specified latency.
+     * @param nanos a latency in nanoseconds
+     */
+    public void record(long nanos) {
+        int index = index(TimeUnit.NANOSECONDS.toMicros(nanos));
+        LongAdder count = this.counts.get(index);
+        if (count == null) {
+            LongAdder newCount = new LongAdder();
+            count = this.counts.compareAndSet(index, null, newCount) ? newCount : this.counts.get(index);
+        }
+        count.increment();
+    }
+
+    /**
+     * Returns the latency below which the specified fraction of recorded latencies fall.
+     * @param quantile a value between 0 and 1, e.g. 0.99
+     * @return a latency in milliseconds, or 0 if nothing was recorded.
+     */
+    public double getValueAtQuantile(double quantile) {
+        int length = this.counts.length();
+        long[] counts = new long[length];
+        long total = 0;
+        for (int i = 0; i < length; ++i) {
+            LongAdder count = this.counts.get(i);
+            if (count != null) {
+                counts[i] = count.sum();
+                total += counts[i];
+            }
+        }
+        if (total == 0) {
+            return 0d;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int i = 0; i < length; ++i) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return highestEquivalentValue(i) / 1000d;
+            }
+        }
+        return MAX_VALUE / 1000d;
+    }
+}
@@ -29,6 +29,7 @@ import org.wildfly.extension.requestcontroller.ControlPoint;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import static org.jboss.as.ee.concurrent.ControlPointUtils.doWrap;
@@ -39,34 +40,64 @@ import static org.jboss.as.ee.concurrent.ControlPointUtils.doWrap;
 public class ManagedExecutorServiceImpl extends org.glassfish.enterprise.concurrent.ManagedExecutorServiceImpl {
 
     private final ControlPoint controlPoint;
+    private final ManagedExecutorStatistics statistics;
 
     public ManagedExecutorServiceImpl(String name, ManagedThreadFactoryImpl managedThreadFactory, long hungTaskThreshold, boolean longRunningTasks, int corePoolSize, int maxPoolSize, long keepAliveTime, TimeUnit keepAliveTimeUnit, long threadLifeTime, ContextServiceImpl contextService, RejectPolicy rejectPolicy, BlockingQueue<Runnable> queue, ControlPoint controlPoint) {
         super(name, managedThreadFactory, hungTaskThreshold, longRunningTasks, corePoolSize, maxPoolSize, keepAliveTime, keepAliveTimeUnit, threadLifeTime, contextService, rejectPolicy, queue);
         this.controlPoint = controlPoint;
+        this.statistics = new ManagedExecutorStatistics(threadPoolExecutor, hungTaskThreshold);
+        if (queue instanceof EagerThreadsTaskQueue) {
+            ((EagerThreadsTaskQueue) queue).attach(threadPoolExecutor);
+        }
     }
 
     public ManagedExecutorServiceImpl(String name, ManagedThreadFactoryImpl managedThreadFactory, long hungTaskThreshold, boolean longRunningTasks, int corePoolSize, int maxPoolSize, long keepAliveTime, TimeUnit keepAliveTimeUnit, long threadLifeTime, int queueCapacity, ContextServiceImpl contextService, RejectPolicy rejectPolicy, ControlPoint controlPoint) {
         super(name, managedThreadFactory, hungTaskThreshold, longRunningTasks, corePoolSize, maxPoolSize, keepAliveTime, keepAliveTimeUnit, threadLifeTime, queueCapacity, contextService, rejectPolicy);
         this.controlPoint = controlPoint;
+        this.statistics = new ManagedExecutorStatistics(threadPoolExecutor, hungTaskThreshold);
+    }
+
+    public ManagedExecutorStatistics getStatistics() {
+        return statistics;
     }
 
     @Override
     public <T> Future<T> submit(Callable<T> task) {
-        return super.submit(doWrap(task, controlPoint));
+        try {
+            return super.submit(doWrap(statistics.wrap(task), controlPoint));
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public <T> Future<T> submit(Runnable task, T result) {
-        return super.submit(doWrap(task, controlPoint), result);
+        try {
+            return super.submit(doWrap(statistics.wrap(task), controlPoint), result);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public Future<?> submit(Runnable task) {
-        return super.submit(doWrap(task, controlPoint));
+        try {
+            return super.submit(doWrap(statistics.wrap(task), controlPoint));
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public void execute(Runnable command) {
-        super.execute(doWrap(command, controlPoint));
+        try {
+            super.execute(doWrap(statistics.wrap(command), controlPoint));
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 }
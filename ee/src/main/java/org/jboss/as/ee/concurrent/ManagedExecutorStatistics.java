@@ -0,0 +1,226 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.concurrent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.concurrent.ManagedTask;
+
+/**
+ * Runtime statistics of a managed executor service.
+ * <p/>
+ * Tasks are wrapped to record how long they waited in the executor's queue and how long they ran, into latency histograms.
+ * The tasks currently running, and the threads running them, are tracked as well, which is what hung threads are determined from,
+ * instead of scanning all threads created by the executor's thread factory.
+ */
+public class ManagedExecutorStatistics {
+
+    private final ThreadPoolExecutor executor;
+    private final long hungTaskThresholdNanos;
+
+    private final LongAdder rejectedTasks = new LongAdder();
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram runTimes = new LatencyHistogram();
+    private final Set<TrackedTask> runningTasks = Collections.newSetFromMap(new ConcurrentHashMap<TrackedTask, Boolean>());
+
+    /**
+     * @param executor the thread pool of the managed executor service
+     * @param hungTaskThreshold the runtime, in milliseconds, for tasks to be considered hung, or 0 if tasks are never considered hung
+     */
+    ManagedExecutorStatistics(ThreadPoolExecutor executor, long hungTaskThreshold) {
+        this.executor = executor;
+        this.hungTaskThresholdNanos = TimeUnit.MILLISECONDS.toNanos(hungTaskThreshold);
+    }
+
+    /**
+     * Wraps a task submitted for immediate execution, so that its queuing and running times are recorded.
+     */
+    Runnable wrap(Runnable task) {
+        return (task == null) ? null : managed(new TrackedRunnable(task, true), task);
+    }
+
+    <T> Callable<T> wrap(Callable<T> task) {
+        return (task == null) ? null : managed(new TrackedCallable<>(task, true), task);
+    }
+
+    /**
+     * Wraps a scheduled task, so that its running time is recorded. The delay of a scheduled task is not considered waiting.
+     */
+    Runnable wrapScheduled(Runnable task) {
+        return (task == null) ? null : managed(new TrackedRunnable(task, false), task);
+    }
+
+    <T> Callable<T> wrapScheduled(Callable<T> task) {
+        return (task == null) ? null : managed(new TrackedCallable<>(task, false), task);
+    }
+
+    void taskRejected() {
+        this.rejectedTasks.increment();
+    }
+
+    public int getActiveThreadCount() {
+        return this.executor.getActiveCount();
+    }
+
+    public int getThreadCount() {
+        return this.executor.getPoolSize();
+    }
+
+    public int getMaxThreadCount() {
+        return this.executor.getLargestPoolSize();
+    }
+
+    public int getCurrentQueueSize() {
+        return this.executor.getQueue().size();
+    }
+
+    public long getTaskCount() {
+        return this.executor.getTaskCount();
+    }
+
+    public long getCompletedTaskCount() {
+        return this.executor.getCompletedTaskCount();
+    }
+
+    public long getRejectedTaskCount() {
+        return this.rejectedTasks.sum();
+    }
+
+    /**
+     * @return the threads running a task whose runtime exceeds the hung task threshold
+     */
+    public Collection<Thread> getHungThreads() {
+        if (this.hungTaskThresholdNanos <= 0) {
+            return Collections.emptySet();
+        }
+        long now = System.nanoTime();
+        Set<Thread> threads = new HashSet<>();
+        for (TrackedTask task : this.runningTasks) {
+            if (now - task.started > this.hungTaskThresholdNanos) {
+                threads.add(task.thread);
+            }
+        }
+        return threads;
+    }
+
+    /**
+     * Returns the time tasks submitted for immediate execution waited in the queue before running, at the specified quantile.
+     * @param quantile a value between 0 and 1, e.g. 0.99
+     * @return a time in milliseconds, or 0 if no task ran yet
+     */
+    public double getWaitTime(double quantile) {
+        return this.waitTimes.getValueAtQuantile(quantile);
+    }
+
+    /**
+     * Returns the time tasks ran, at the specified quantile.
+     * @param quantile a value between 0 and 1, e.g. 0.99
+     * @return a time in milliseconds, or 0 if no task completed yet
+     */
+    public double getRunTime(double quantile) {
+        return this.runTimes.getValueAtQuantile(quantile);
+    }
+
+    /**
+     * Preserves the {@link ManagedTask} nature of a wrapped task, so that its listener and execution properties are honoured.
+     */
+    private static Runnable managed(Runnable tracked, Runnable task) {
+        return (task instanceof ManagedTask) ? new ControlPointUtils.ControlledManagedRunnable(tracked, (ManagedTask) task) : tracked;
+    }
+
+    private static <T> Callable<T> managed(Callable<T> tracked, Callable<T> task) {
+        return (task instanceof ManagedTask) ? new ControlPointUtils.ControlledManagedCallable<>(tracked, (ManagedTask) task) : tracked;
+    }
+
+    private abstract class TrackedTask {
+        private final boolean timeWait;
+        private final long submitted;
+        volatile long started;
+        volatile Thread thread;
+
+        TrackedTask(boolean timeWait) {
+            this.timeWait = timeWait;
+            this.submitted = timeWait ? System.nanoTime() : 0L;
+        }
+
+        void starting() {
+            long now = System.nanoTime();
+            this.started = now;
+            this.thread = Thread.currentThread();
+            if (this.timeWait) {
+                waitTimes.record(now - this.submitted);
+            }
+            runningTasks.add(this);
+        }
+
+        void done() {
+            runningTasks.remove(this);
+            runTimes.record(System.nanoTime() - this.started);
+        }
+    }
+
+    private class TrackedRunnable extends TrackedTask implements Runnable {
+        private final Runnable task;
+
+        TrackedRunnable(Runnable task, boolean timeWait) {
+            super(timeWait);
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            this.starting();
+            try {
+                this.task.run();
+            } finally {
+                this.done();
+            }
+        }
+    }
+
+    private class TrackedCallable<T> extends TrackedTask implements Callable<T> {
+        private final Callable<T> task;
+
+        TrackedCallable(Callable<T> task, boolean timeWait) {
+            super(timeWait);
+            this.task = task;
+        }
+
+        @Override
+        public T call() throws Exception {
+            this.starting();
+            try {
+                return this.task.call();
+            } finally {
+                this.done();
+            }
+        }
+    }
+}
@@ -30,6 +30,7 @@ import javax.enterprise.concurrent.Trigger;
 import java.util.Date;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -44,64 +45,120 @@ import static org.jboss.as.ee.concurrent.ControlPointUtils.doWrap;
 public class ManagedScheduledExecutorServiceImpl extends org.glassfish.enterprise.concurrent.ManagedScheduledExecutorServiceImpl {
 
     private final ControlPoint controlPoint;
+    private final ManagedExecutorStatistics statistics;
 
     public ManagedScheduledExecutorServiceImpl(String name, ManagedThreadFactoryImpl managedThreadFactory, long hungTaskThreshold, boolean longRunningTasks, int corePoolSize, long keepAliveTime, TimeUnit keepAliveTimeUnit, long threadLifeTime, ContextServiceImpl contextService, RejectPolicy rejectPolicy, ControlPoint controlPoint) {
         super(name, managedThreadFactory, hungTaskThreshold, longRunningTasks, corePoolSize, keepAliveTime, keepAliveTimeUnit, threadLifeTime, contextService, rejectPolicy);
         this.controlPoint = controlPoint;
+        this.statistics = new ManagedExecutorStatistics(threadPoolExecutor, hungTaskThreshold);
+    }
+
+    public ManagedExecutorStatistics getStatistics() {
+        return statistics;
     }
 
     @Override
     public void execute(Runnable command) {
-        super.execute(doWrap(command, controlPoint));
+        try {
+            super.execute(doWrap(statistics.wrap(command), controlPoint));
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public Future<?> submit(Runnable task) {
-        return super.submit(doWrap(task, controlPoint));
+        try {
+            return super.submit(doWrap(statistics.wrap(task), controlPoint));
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public <T> Future<T> submit(Runnable task, T result) {
-        return super.submit(doWrap(task, controlPoint), result);
+        try {
+            return super.submit(doWrap(statistics.wrap(task), controlPoint), result);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public <T> Future<T> submit(Callable<T> task) {
-        return super.submit(doWrap(task, controlPoint));
+        try {
+            return super.submit(doWrap(statistics.wrap(task), controlPoint));
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public ScheduledFuture<?> schedule(Runnable command, Trigger trigger) {
         final CancellableTrigger ctrigger = new CancellableTrigger(trigger);
-        ctrigger.future = super.schedule(doScheduledWrap(command, controlPoint), ctrigger);
+        try {
+            ctrigger.future = super.schedule(doScheduledWrap(statistics.wrapScheduled(command), controlPoint), ctrigger);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
         return ctrigger.future;
     }
 
     @Override
     public <V> ScheduledFuture<V> schedule(Callable<V> callable, Trigger trigger) {
         final CancellableTrigger ctrigger = new CancellableTrigger(trigger);
-        ctrigger.future = super.schedule(doScheduledWrap(callable, controlPoint), ctrigger);
+        try {
+            ctrigger.future = super.schedule(doScheduledWrap(statistics.wrapScheduled(callable), controlPoint), ctrigger);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
         return ctrigger.future;
     }
 
     @Override
     public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
-        return super.schedule(doScheduledWrap(command, controlPoint), delay, unit);
+        try {
+            return super.schedule(doScheduledWrap(statistics.wrapScheduled(command), controlPoint), delay, unit);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
-        return super.schedule(doScheduledWrap(callable, controlPoint), delay, unit);
+        try {
+            return super.schedule(doScheduledWrap(statistics.wrapScheduled(callable), controlPoint), delay, unit);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
-        return super.scheduleAtFixedRate(doScheduledWrap(command, controlPoint), initialDelay, period, unit);
+        try {
+            return super.scheduleAtFixedRate(doScheduledWrap(statistics.wrapScheduled(command), controlPoint), initialDelay, period, unit);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     @Override
     public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
-        return super.scheduleWithFixedDelay(doScheduledWrap(command, controlPoint), initialDelay, delay, unit);
+        try {
+            return super.scheduleWithFixedDelay(doScheduledWrap(statistics.wrapScheduled(command), controlPoint), initialDelay, delay, unit);
+        } catch (RejectedExecutionException e) {
+            statistics.taskRejected();
+            throw e;
+        }
     }
 
     /**
@@ -26,7 +26,9 @@ import org.glassfish.enterprise.concurrent.AbstractManagedExecutorService;
 import org.glassfish.enterprise.concurrent.ContextServiceImpl;
 import org.glassfish.enterprise.concurrent.ManagedExecutorServiceAdapter;
 import org.glassfish.enterprise.concurrent.ManagedThreadFactoryImpl;
+import org.jboss.as.ee.concurrent.EagerThreadsTaskQueue;
 import org.jboss.as.ee.concurrent.ManagedExecutorServiceImpl;
+import org.jboss.as.ee.concurrent.ManagedExecutorStatistics;
 import org.jboss.as.ee.logging.EeLogger;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.StartContext;
@@ -59,6 +61,7 @@ public class ManagedExecutorServiceService extends EEConcurrentAbstractService<M
     private final TimeUnit keepAliveTimeUnit;
     private final long threadLifeTime;
     private final int queueCapacity;
+    private final boolean eagerThreads;
     private final InjectedValue<ContextServiceImpl> contextService = new InjectedValue<>();
     private final AbstractManagedExecutorService.RejectPolicy rejectPolicy;
     private final InjectedValue<RequestController> requestController = new InjectedValue<>();
@@ -79,6 +82,25 @@ public class ManagedExecutorServiceService extends EEConcurrentAbstractService<M
      * @see ManagedExecutorServiceImpl#ManagedExecutorServiceImpl(String, org.glassfish.enterprise.concurrent.ManagedThreadFactoryImpl, long, boolean, int, int, long, java.util.concurrent.TimeUnit, long, int, org.glassfish.enterprise.concurrent.ContextServiceImpl, org.glassfish.enterprise.concurrent.AbstractManagedExecutorService.RejectPolicy, org.wildfly.extension.requestcontroller.ControlPoint)
      */
     public ManagedExecutorServiceService(String name, String jndiName, long hungTaskThreshold, boolean longRunningTasks, int corePoolSize, int maxPoolSize, long keepAliveTime, TimeUnit keepAliveTimeUnit, long threadLifeTime, int queueCapacity, AbstractManagedExecutorService.RejectPolicy rejectPolicy) {
+        this(name, jndiName, hungTaskThreshold, longRunningTasks, corePoolSize, maxPoolSize, keepAliveTime, keepAliveTimeUnit, threadLifeTime, queueCapacity, false, rejectPolicy);
+    }
+
+    /**
+     * @param name
+     * @param jndiName
+     * @param hungTaskThreshold
+     * @param longRunningTasks
+     * @param corePoolSize
+     * @param maxPoolSize
+     * @param keepAliveTime
+     * @param keepAliveTimeUnit
+     * @param threadLifeTime
+     * @param queueCapacity
+     * @param eagerThreads if true, threads are created up to maxPoolSize before tasks are queued
+     * @param rejectPolicy
+     * @see EagerThreadsTaskQueue
+     */
+    public ManagedExecutorServiceService(String name, String jndiName, long hungTaskThreshold, boolean longRunningTasks, int corePoolSize, int maxPoolSize, long keepAliveTime, TimeUnit keepAliveTimeUnit, long threadLifeTime, int queueCapacity, boolean eagerThreads, AbstractManagedExecutorService.RejectPolicy rejectPolicy) {
         super(jndiName);
         this.name = name;
         this.managedThreadFactoryInjectedValue = new InjectedValue<>();
@@ -90,6 +112,7 @@ public class ManagedExecutorServiceService extends EEConcurrentAbstractService<M
         this.keepAliveTimeUnit = keepAliveTimeUnit;
         this.threadLifeTime = threadLifeTime;
         this.queueCapacity = queueCapacity;
+        this.eagerThreads = eagerThreads;
         this.rejectPolicy = rejectPolicy;
     }
 
@@ -105,7 +128,12 @@ public class ManagedExecutorServiceService extends EEConcurrentAbstractService<M
         if(requestController.getOptionalValue() != null) {
             controlPoint = requestController.getValue().getControlPoint(name, "managed-executor-service");
         }
-        executorService = new ManagedExecutorServiceImpl(name, managedThreadFactory, hungTaskThreshold, longRunningTasks, corePoolSize, maxPoolSize, keepAliveTime, keepAliveTimeUnit, threadLifeTime, queueCapacity, contextService.getOptionalValue(), rejectPolicy, controlPoint);
+        if (eagerThreads && queueCapacity > 0) {
+            // a queue capacity of 0 means direct hand-off, which already creates threads eagerly
+            executorService = new ManagedExecutorServiceImpl(name, managedThreadFactory, hungTaskThreshold, longRunningTasks, corePoolSize, maxPoolSize, keepAliveTime, keepAliveTimeUnit, threadLifeTime, contextService.getOptionalValue(), rejectPolicy, new EagerThreadsTaskQueue(queueCapacity), controlPoint);
+        } else {
+            executorService = new ManagedExecutorServiceImpl(name, managedThreadFactory, hungTaskThreshold, longRunningTasks, corePoolSize, maxPoolSize, keepAliveTime, keepAliveTimeUnit, threadLifeTime, queueCapacity, contextService.getOptionalValue(), rejectPolicy, controlPoint);
+        }
 
     }
 
@@ -124,6 +152,14 @@ public class ManagedExecutorServiceService extends EEConcurrentAbstractService<M
         }
     }
 
+    /**
+     * @return the runtime statistics of the executor, or null if the service is not started
+     */
+    public ManagedExecutorStatistics getStatistics() {
+        final ManagedExecutorServiceImpl executorService = this.executorService;
+        return executorService != null ? executorService.getStatistics() : null;
+    }
+
     public ManagedExecutorServiceAdapter getValue() throws IllegalStateException {
         if (executorService == null) {
             throw EeLogger.ROOT_LOGGER.concurrentServiceValueUninitialized();
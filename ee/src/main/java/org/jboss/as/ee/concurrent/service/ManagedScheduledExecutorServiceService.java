@@ -26,6 +26,7 @@ import org.glassfish.enterprise.concurrent.AbstractManagedExecutorService;
 import org.glassfish.enterprise.concurrent.ContextServiceImpl;
 import org.glassfish.enterprise.concurrent.ManagedScheduledExecutorServiceAdapter;
 import org.glassfish.enterprise.concurrent.ManagedThreadFactoryImpl;
+import org.jboss.as.ee.concurrent.ManagedExecutorStatistics;
 import org.jboss.as.ee.concurrent.ManagedScheduledExecutorServiceImpl;
 import org.jboss.as.ee.logging.EeLogger;
 import org.jboss.msc.inject.Injector;
@@ -117,6 +118,14 @@ public class ManagedScheduledExecutorServiceService extends EEConcurrentAbstract
         }
     }
 
+    /**
+     * @return the runtime statistics of the executor, or null if the service is not started
+     */
+    public ManagedExecutorStatistics getStatistics() {
+        final ManagedScheduledExecutorServiceImpl executorService = this.executorService;
+        return executorService != null ? executorService.getStatistics() : null;
+    }
+
     public ManagedScheduledExecutorServiceAdapter getValue() throws IllegalStateException {
         if (executorService == null) {
             throw EeLogger.ROOT_LOGGER.concurrentServiceValueUninitialized();
@@ -1104,4 +1104,14 @@ public interface EeLogger extends BasicLogger {
      */
     @Message(id = 113, value = "The max-threads value %d cannot be less than the core-threads value %d.")
     OperationFailedException invalidMaxThreads(int maxThreads, int coreThreads);
+
+    /**
+     * Creates an exception indicating an unknown metric was requested.
+     *
+     * @param metric the name of the metric
+     *
+     * @return an {@link IllegalStateException} for the exception
+     */
+    @Message(id = 114, value = "Unknown metric %s")
+    IllegalStateException unknownMetric(String metric);
 }
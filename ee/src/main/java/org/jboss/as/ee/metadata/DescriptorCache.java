@@ -0,0 +1,354 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.metadata;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.AccessController;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.as.ee.logging.EeLogger;
+import org.jboss.as.server.ServerEnvironment;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * An on-disk cache of parsed deployment descriptors, so that unchanged descriptors are not re-parsed on every boot.
+ * <p/>
+ * Entries are keyed by a SHA-256 digest of the descriptor content, together with the version of the parsed metadata type,
+ * so an entry is implicitly invalidated whenever a descriptor changes, and identical descriptors of different deployments share a single entry.
+ * The version of a type is identified by its serialVersionUID and the location of the module resource from which it was loaded,
+ * since the implementation version of a package is rarely available for classes loaded by JBoss Modules.
+ * The parsed metadata is stored in Java serialized form beneath {@value #DIRECTORY} within the server data directory.
+ * An entry which cannot be read is simply replaced by parsing the descriptor again.
+ * <p/>
+ * Since entries are never invalidated explicitly, the least recently used entries are evicted once the cache holds more than
+ * {@value #MAX_ENTRIES_PROPERTY} entries, which is checked when the cache is first used, and again after as many entries have been written.
+ * <p/>
+ * The cache is disabled unless the {@value #ENABLED_PROPERTY} system property is set to true.
+ */
+public final class DescriptorCache {
+
+    public static final String ENABLED_PROPERTY = "org.jboss.as.ee.descriptor-cache";
+    public static final String MAX_ENTRIES_PROPERTY = "org.jboss.as.ee.descriptor-cache.max-entries";
+    static final String DIRECTORY = "descriptor-cache";
+    static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final String PROPERTY_EXPRESSION = "${";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final ClassValue<byte[]> VERSIONS = new ClassValue<byte[]>() {
+        @Override
+        protected byte[] computeValue(Class<?> type) {
+            return version(type);
+        }
+    };
+
+    private static final DescriptorCache INSTANCE = new DescriptorCache();
+
+    /**
+     * Parses the content of a descriptor.
+     *
+     * @param <T> the parsed metadata type
+     */
+    public interface Parser<T> {
+        T parse(InputStream input) throws XMLStreamException, IOException;
+    }
+
+    public static DescriptorCache getInstance() {
+        return INSTANCE;
+    }
+
+    private final Path directory;
+    private final int maxEntries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicBoolean pruned = new AtomicBoolean();
+    private final AtomicInteger writes = new AtomicInteger();
+
+    private DescriptorCache() {
+        this(directory(), maxEntries());
+    }
+
+    DescriptorCache(Path directory, int maxEntries) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+    }
+
+    private static Path directory() {
+        boolean enabled = Boolean.parseBoolean(WildFlySecurityManager.getPropertyPrivileged(ENABLED_PROPERTY, "false"));
+        String dataDir = WildFlySecurityManager.getPropertyPrivileged(ServerEnvironment.SERVER_DATA_DIR, null);
+        return (enabled && (dataDir != null)) ? Paths.get(dataDir, DIRECTORY) : null;
+    }
+
+    private static int maxEntries() {
+        String value = WildFlySecurityManager.getPropertyPrivileged(MAX_ENTRIES_PROPERTY, null);
+        if (value != null) {
+            try {
+                int maxEntries = Integer.parseInt(value.trim());
+                if (maxEntries > 0) {
+                    return maxEntries;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the default
+            }
+            EeLogger.ROOT_LOGGER.debugf("Ignoring invalid value %s of %s", value, MAX_ENTRIES_PROPERTY);
+        }
+        return DEFAULT_MAX_ENTRIES;
+    }
+
+    public boolean isEnabled() {
+        return this.directory != null;
+    }
+
+    /**
+     * @return the number of descriptors whose parsed metadata was read from the cache
+     */
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    /**
+     * @return the number of descriptors that were parsed while the cache was enabled
+     */
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns the parsed metadata of the specified descriptor content, parsing it only if not already cached.
+     *
+     * @param descriptor a name identifying the kind of descriptor, e.g. "web.xml"
+     * @param input the descriptor content, which is not closed by this method
+     * @param type the type of the parsed metadata
+     * @param propertyReplacement whether the parser applies property replacement, in which case content containing expressions is never cached
+     * @param parser the descriptor parser
+     * @return the parsed metadata
+     * @throws XMLStreamException if the descriptor could not be parsed
+     * @throws IOException if the descriptor could not be read
+     */
+    public <T extends Serializable> T parse(String descriptor, InputStream input, Class<T> type, boolean propertyReplacement, Parser<T> parser) throws XMLStreamException, IOException {
+        if (this.directory == null) {
+            return parser.parse(input);
+        }
+        if (this.pruned.compareAndSet(false, true)) {
+            // Evict entries left behind by previous boots
+            this.prune();
+        }
+        byte[] content = read(input);
+        if (propertyReplacement && new String(content, StandardCharsets.ISO_8859_1).contains(PROPERTY_EXPRESSION)) {
+            // The parsed metadata depends on the current value of properties
+            this.misses.increment();
+            return parser.parse(new ByteArrayInputStream(content));
+        }
+        Path file = this.directory.resolve(descriptor).resolve(digest(type, content));
+        if (Files.isRegularFile(file)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                T metaData = type.cast(new ClassLoaderObjectInputStream(in, type.getClassLoader()).readObject());
+                this.hits.increment();
+                touch(file);
+                return metaData;
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                // Fall through, overwriting the unreadable entry
+                EeLogger.ROOT_LOGGER.debugf(e, "Failed to read cached metadata of %s from %s", descriptor, file);
+            }
+        }
+        this.misses.increment();
+        T metaData = parser.parse(new ByteArrayInputStream(content));
+        this.write(file, metaData);
+        return metaData;
+    }
+
+    private void write(Path file, Object metaData) {
+        try {
+            Files.createDirectories(file.getParent());
+            // Write to a temporary file first, so that concurrent readers never see a partial entry
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), TEMP_SUFFIX);
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp)); ObjectOutputStream output = new ObjectOutputStream(out)) {
+                    output.writeObject(metaData);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            // e.g. metadata that is not fully serializable - the descriptor will just be parsed again next time
+            EeLogger.ROOT_LOGGER.debugf(e, "Failed to cache metadata in %s", file);
+            return;
+        }
+        if (this.writes.incrementAndGet() % this.maxEntries == 0) {
+            // Bound the size of the cache within a single boot too
+            this.prune();
+        }
+    }
+
+    /**
+     * Evicts the least recently used entries, such that no more than the maximum number of entries remain.
+     * The last modified time of an entry is updated whenever it is read, so it reflects when the entry was last used.
+     */
+    synchronized void prune() {
+        Map<Path, FileTime> entries = new HashMap<>();
+        try (DirectoryStream<Path> descriptors = Files.newDirectoryStream(this.directory)) {
+            for (Path descriptor : descriptors) {
+                if (!Files.isDirectory(descriptor)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(descriptor)) {
+                    for (Path file : files) {
+                        // Skip the temporary files of concurrent writers
+                        if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                            continue;
+                        }
+                        try {
+                            entries.put(file, Files.getLastModifiedTime(file));
+                        } catch (IOException e) {
+                            // Entry was removed concurrently
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // e.g. the cache directory does not exist yet
+            EeLogger.ROOT_LOGGER.debugf(e, "Failed to list entries of %s", this.directory);
+            return;
+        }
+        int excess = entries.size() - this.maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<Path, FileTime>> lru = new ArrayList<>(entries.entrySet());
+        Collections.sort(lru, Map.Entry.comparingByValue());
+        for (Map.Entry<Path, FileTime> entry : lru.subList(0, excess)) {
+            try {
+                Files.deleteIfExists(entry.getKey());
+            } catch (IOException e) {
+                EeLogger.ROOT_LOGGER.debugf(e, "Failed to evict %s", entry.getKey());
+            }
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Entry is just more likely to be evicted
+        }
+    }
+
+    private static String digest(Class<?> type, byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(type.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(VERSIONS.get(type));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(content);
+            char[] result = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; ++i) {
+                result[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+                result[2 * i + 1] = HEX[hash[i] & 0xF];
+            }
+            return new String(result);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Identifies the version of the specified metadata type.
+     * The location of its code source identifies the module resource, e.g. jboss-metadata-web-10.0.0.Final.jar, which changes whenever the module is upgraded or patched.
+     * Its serialVersionUID covers types loaded from elsewhere, and any structural change of a type without an explicit serialVersionUID.
+     */
+    private static byte[] version(Class<?> type) {
+        ObjectStreamClass description = ObjectStreamClass.lookup(type);
+        long serialVersionUID = (description != null) ? description.getSerialVersionUID() : 0L;
+        ProtectionDomain domain = WildFlySecurityManager.isChecking() ? AccessController.doPrivileged((PrivilegedAction<ProtectionDomain>) type::getProtectionDomain) : type.getProtectionDomain();
+        CodeSource source = (domain != null) ? domain.getCodeSource() : null;
+        URL location = (source != null) ? source.getLocation() : null;
+        byte[] locationBytes = (location != null) ? location.toExternalForm().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        return ByteBuffer.allocate(Long.BYTES + locationBytes.length).putLong(serialVersionUID).put(locationBytes).array();
+    }
+
+    private static byte[] read(InputStream input) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Resolves classes using the class loader of the parsed metadata type, rather than that of the caller.
+     */
+    private static class ClassLoaderObjectInputStream extends ObjectInputStream {
+        private final ClassLoader loader;
+
+        ClassLoaderObjectInputStream(InputStream input, ClassLoader loader) throws IOException {
+            super(input);
+            this.loader = loader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(description.getName(), false, this.loader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(description);
+            }
+        }
+    }
+}
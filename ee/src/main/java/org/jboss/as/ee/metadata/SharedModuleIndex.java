@@ -0,0 +1,128 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.metadata;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jboss.as.ee.logging.EeLogger;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Indexer;
+import org.jboss.modules.Module;
+import org.jboss.modules.ModuleClassLoader;
+import org.jboss.modules.ModuleLoader;
+
+/**
+ * An index of classes that are not part of any deployment, e.g. classes of static modules and of the JDK, shared by all deployments.
+ * <p/>
+ * Deployment annotation indexes only cover deployment content, so index based processing otherwise falls back to loading a class
+ * as soon as it reaches a type outside of the deployment, typically a superclass or annotation type provided by a shared module.
+ * Such types are instead indexed on demand, without loading them, and resolved from this index.
+ * <p/>
+ * The index is scoped to a module loader, and is discarded along with it. Within that scope, the class a name resolves to
+ * is cached per module, since different modules may see different classes of the same name. That class is located using the
+ * resource lookup of the module class loader, which follows the same module linkage as its class lookup.
+ * The parsed class file itself is keyed by its URL, since static module content is immutable for the lifetime of its module loader,
+ * so that modules that see the same class file share a single entry. Deployment content, i.e. class files served by VFS, is never indexed here,
+ * as it is already covered by the deployment's own index and may change across redeployments.
+ */
+public final class SharedModuleIndex {
+
+    private static final String CLASS_SUFFIX = ".class";
+    private static final String VFS_PROTOCOL = "vfs";
+
+    private static final Map<ModuleLoader, SharedModuleIndex> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Returns the index information of a class visible to the specified class loader, without loading the class.
+     *
+     * @param name the name of a class
+     * @param loader the class loader from which the class file is resolved
+     * @return the class information, or null if the class could not be found, is deployment content,
+     *         or the class loader is not a module class loader
+     */
+    public static ClassInfo getClassByName(DotName name, ClassLoader loader) {
+        if (!(loader instanceof ModuleClassLoader)) {
+            // The resources of an arbitrary class loader need not correspond to the classes it loads
+            return null;
+        }
+        final Module module = ((ModuleClassLoader) loader).getModule();
+        return INDEXES.computeIfAbsent(module.getModuleLoader(), key -> new SharedModuleIndex()).getClassByName(name, module, loader);
+    }
+
+    // Entries are discarded along with their module, e.g. on redeployment
+    private final Map<Module, Map<DotName, Optional<ClassInfo>>> modules = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<String, ClassInfo> classes = new ConcurrentHashMap<>();
+
+    private SharedModuleIndex() {
+    }
+
+    private ClassInfo getClassByName(DotName name, Module module, ClassLoader loader) {
+        final Map<DotName, Optional<ClassInfo>> resolved = this.modules.computeIfAbsent(module, key -> new ConcurrentHashMap<>());
+        Optional<ClassInfo> info = resolved.get(name);
+        if (info == null) {
+            info = Optional.ofNullable(this.resolve(name, loader));
+            final Optional<ClassInfo> existing = resolved.putIfAbsent(name, info);
+            if (existing != null) {
+                info = existing;
+            }
+        }
+        return info.orElse(null);
+    }
+
+    private ClassInfo resolve(DotName name, ClassLoader loader) {
+        final URL url = loader.getResource(name.toString().replace('.', '/') + CLASS_SUFFIX);
+        if (url == null || VFS_PROTOCOL.equals(url.getProtocol())) {
+            return null;
+        }
+        final String key = url.toExternalForm();
+        ClassInfo info = this.classes.get(key);
+        if (info == null) {
+            info = index(url);
+            // Guard against a class file that does not define the requested class
+            if (info == null || !info.name().toString().equals(name.toString())) {
+                return null;
+            }
+            final ClassInfo existing = this.classes.putIfAbsent(key, info);
+            if (existing != null) {
+                info = existing;
+            }
+        }
+        return info;
+    }
+
+    private static ClassInfo index(URL url) {
+        try (InputStream input = url.openStream()) {
+            return new Indexer().index(input);
+        } catch (IOException | RuntimeException e) {
+            EeLogger.ROOT_LOGGER.debugf(e, "Failed to index %s", url);
+            return null;
+        }
+    }
+}
@@ -25,12 +25,18 @@ package org.jboss.as.ee.structure;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.jboss.as.ee.logging.EeLogger;
 import org.jboss.as.server.deployment.Attachments;
@@ -52,9 +58,14 @@ import org.jboss.vfs.VFSUtils;
 import org.jboss.vfs.VirtualFile;
 import org.jboss.vfs.VisitorAttributes;
 import org.jboss.vfs.util.SuffixMatchFilter;
+import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
  * Deployment processor responsible for detecting EAR deployments and putting setting up the basic structure.
+ * <p/>
+ * Mounting the child archives of large EARs, and in particular expanding their web archives, can dominate the time spent in this
+ * processor. If the {@value #MOUNT_THREADS_PROPERTY} system property is greater than 1, child archives are mounted concurrently by
+ * a pool of that many threads. The resource roots themselves are still created in order, so the structure of the deployment is unchanged.
  *
  * @author John Bailey
  * @author Stuart Douglas
@@ -83,6 +94,30 @@ public class EarStructureProcessor implements DeploymentUnitProcessor {
 
     private static final String DEFAULT_LIB_DIR = "lib";
 
+    public static final String MOUNT_THREADS_PROPERTY = "org.jboss.as.ee.ear-mount-threads";
+    private static final int MOUNT_THREADS = mountThreads();
+
+    /**
+     * Lazily creates the pool shared by all EAR deployments, if concurrent mounting is enabled.
+     */
+    private static class MountPool {
+        static final ForkJoinPool INSTANCE = new ForkJoinPool(MOUNT_THREADS);
+    }
+
+    private static int mountThreads() {
+        final String value = WildFlySecurityManager.getPropertyPrivileged(MOUNT_THREADS_PROPERTY, "1");
+        try {
+            final int threads = Integer.parseInt(value.trim());
+            if (threads >= 1) {
+                return threads;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to sequential mounting
+        }
+        EeLogger.ROOT_LOGGER.debugf("Ignoring invalid value %s of %s, mounting sequentially", value, MOUNT_THREADS_PROPERTY);
+        return 1;
+    }
+
 
     public void deploy(final DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
         final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
@@ -113,6 +148,8 @@ public class EarStructureProcessor implements DeploymentUnitProcessor {
 
         // Process all the children
         Map<String, MountedDeploymentOverlay> overlays = deploymentUnit.getAttachment(Attachments.DEPLOYMENT_OVERLAY_LOCATIONS);
+        final Mounts mounts = new Mounts((MOUNT_THREADS > 1) ? MountPool.INSTANCE : null);
+        boolean mounted = false;
         try {
             final VirtualFile libDir;
             // process the lib directory
@@ -128,7 +165,7 @@ public class EarStructureProcessor implements DeploymentUnitProcessor {
                             overlay.remountAsZip(false);
                             mountHandle = new MountHandle(null);
                         } else {
-                            final Closeable closable = child.isFile() ? mount(child, false) : null;
+                            final Closeable closable = child.isFile() ? mounts.mount(() -> mount(child, false)) : null;
                             mountHandle = new MountHandle(closable);
                         }
                         final ResourceRoot childResource = new ResourceRoot(child, mountHandle);
@@ -170,7 +207,7 @@ public class EarStructureProcessor implements DeploymentUnitProcessor {
                 for (final VirtualFile child : childArchives) {
                     final boolean isWarFile = child.getName().toLowerCase(Locale.ENGLISH).endsWith(WAR_EXTENSION);
                     final boolean isRarFile = child.getName().toLowerCase(Locale.ENGLISH).endsWith(RAR_EXTENSION);
-                    this.createResourceRoot(deploymentUnit, child, isWarFile || isRarFile, isWarFile);
+                    this.createResourceRoot(deploymentUnit, mounts, child, isWarFile || isRarFile, isWarFile);
                 }
             } else {
                 final Set<VirtualFile> subDeploymentFiles = new HashSet<VirtualFile>();
@@ -199,7 +236,7 @@ public class EarStructureProcessor implements DeploymentUnitProcessor {
                     subDeploymentFiles.add(moduleFile);
 
                     final boolean webArchive = module.getType() == ModuleType.Web;
-                    final ResourceRoot childResource = this.createResourceRoot(deploymentUnit, moduleFile, true, webArchive);
+                    final ResourceRoot childResource = this.createResourceRoot(deploymentUnit, mounts, moduleFile, true, webArchive);
                     childResource.putAttachment(org.jboss.as.ee.structure.Attachments.MODULE_META_DATA, module);
 
                     if (!webArchive) {
@@ -238,13 +275,19 @@ public class EarStructureProcessor implements DeploymentUnitProcessor {
                     }
                     final String fileName = child.getName().toLowerCase(Locale.ENGLISH);
                     if (fileName.endsWith(SAR_EXTENSION) || fileName.endsWith(JAR_EXTENSION)) {
-                        this.createResourceRoot(deploymentUnit, child, false, false);
+                        this.createResourceRoot(deploymentUnit, mounts, child, false, false);
                     }
                 }
             }
-
+            mounts.await();
+            mounted = true;
         } catch (IOException e) {
             throw EeLogger.ROOT_LOGGER.failedToProcessChild(e, virtualFile);
+        } finally {
+            if (!mounted) {
+                // Don't leave behind any concurrent mounts of a failed deployment
+                mounts.close();
+            }
         }
     }
 
@@ -258,6 +301,7 @@ public class EarStructureProcessor implements DeploymentUnitProcessor {
      * in the {@link DeploymentUnit deploymentUnit}
      *
      * @param deploymentUnit      The deployment unit
+     * @param mounts              The mounts of the deployment unit
      * @param file                The file for which the resource root will be created
      * @param markAsSubDeployment If this is true, then the {@link ResourceRoot} that is created will be marked as a subdeployment
      *                            through a call to {@link SubDeploymentMarker#mark(org.jboss.as.server.deployment.module.ResourceRoot)}
@@ -266,9 +310,9 @@ public class EarStructureProcessor implements DeploymentUnitProcessor {
      * @return Returns the created {@link ResourceRoot}
      * @throws IOException
      */
-    private ResourceRoot createResourceRoot(final DeploymentUnit deploymentUnit, final VirtualFile file, final boolean markAsSubDeployment, final boolean explodeDuringMount) throws IOException {
+    private ResourceRoot createResourceRoot(final DeploymentUnit deploymentUnit, final Mounts mounts, final VirtualFile file, final boolean markAsSubDeployment, final boolean explodeDuringMount) throws IOException {
         final boolean war = file.getName().toLowerCase(Locale.ENGLISH).endsWith(WAR_EXTENSION);
-        final Closeable closable = file.isFile() ? mount(file, explodeDuringMount) : exportExplodedWar(war, file, deploymentUnit);
+        final Closeable closable = file.isFile() ? mounts.mount(() -> mount(file, explodeDuringMount)) : isExplodedWarInArchiveEar(war, file, deploymentUnit) ? mounts.mount(() -> exportExplodedWar(file)) : null;
         final MountHandle mountHandle = new MountHandle(closable);
         final ResourceRoot resourceRoot = new ResourceRoot(file, mountHandle);
         deploymentUnit.addToAttachmentList(Attachments.RESOURCE_ROOTS, resourceRoot);
@@ -281,19 +325,109 @@ public class EarStructureProcessor implements DeploymentUnitProcessor {
         return resourceRoot;
     }
 
-    private Closeable exportExplodedWar(final boolean war, final VirtualFile file, final DeploymentUnit deploymentUnit) throws IOException {
-        if (isExplodedWarInArchiveEar(war, file, deploymentUnit)) {
-            File warContent = file.getPhysicalFile();
-            VFSUtils.recursiveCopy(file, warContent.getParentFile());
-            return VFS.mountReal(warContent, file);
-        }
-        return null;
+    private static Closeable exportExplodedWar(final VirtualFile file) throws IOException {
+        File warContent = file.getPhysicalFile();
+        VFSUtils.recursiveCopy(file, warContent.getParentFile());
+        return VFS.mountReal(warContent, file);
     }
 
     private boolean isExplodedWarInArchiveEar(final boolean war, final VirtualFile file, final DeploymentUnit deploymentUnit) {
         return war && !file.isFile() && deploymentUnit.hasAttachment(Attachments.DEPLOYMENT_CONTENTS) && deploymentUnit.getAttachment(Attachments.DEPLOYMENT_CONTENTS).isFile();
     }
 
+    /**
+     * Tracks the child archive mounts of a deployment unit, which are established concurrently if an executor is provided.
+     */
+    static class Mounts implements Closeable {
+        private final ExecutorService executor;
+        private final List<DeferredMount> mounts = new ArrayList<>();
+
+        /**
+         * @param executor the executor of concurrent mounts, or null to mount sequentially
+         */
+        Mounts(final ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        Closeable mount(final Callable<Closeable> task) throws IOException {
+            if (this.executor == null) {
+                return call(task);
+            }
+            final DeferredMount mount = new DeferredMount(this.executor.submit(task));
+            this.mounts.add(mount);
+            return mount;
+        }
+
+        /**
+         * Waits for all mounts to complete
+         * @throws IOException if any mount failed
+         */
+        void await() throws IOException {
+            for (DeferredMount mount : this.mounts) {
+                mount.get();
+            }
+        }
+
+        @Override
+        public void close() {
+            for (DeferredMount mount : this.mounts) {
+                VFSUtils.safeClose(mount);
+            }
+        }
+
+        private static Closeable call(final Callable<Closeable> task) throws IOException {
+            try {
+                return task.call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * A mount handle whose mount may still be in progress.
+     */
+    static class DeferredMount implements Closeable {
+        private final Future<Closeable> future;
+
+        DeferredMount(final Future<Closeable> future) {
+            this.future = future;
+        }
+
+        Closeable get() throws IOException {
+            try {
+                return this.future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            final Closeable closeable;
+            try {
+                closeable = this.get();
+            } catch (IOException e) {
+                // Nothing was mounted
+                return;
+            }
+            if (closeable != null) {
+                closeable.close();
+            }
+        }
+    }
 
     public void undeploy(DeploymentUnit context) {
         final List<ResourceRoot> children = context.removeAttachment(Attachments.RESOURCE_ROOTS);
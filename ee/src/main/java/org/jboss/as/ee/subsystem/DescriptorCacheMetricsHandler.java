@@ -0,0 +1,81 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.subsystem;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.ee.logging.EeLogger;
+import org.jboss.as.ee.metadata.DescriptorCache;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Handler for the runtime metrics of the {@link DescriptorCache}.
+ */
+class DescriptorCacheMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    public static final String DESCRIPTOR_CACHE_HIT_COUNT = "descriptor-cache-hit-count";
+    public static final String DESCRIPTOR_CACHE_MISS_COUNT = "descriptor-cache-miss-count";
+
+    static final SimpleAttributeDefinition DESCRIPTOR_CACHE_HIT_COUNT_AD = metric(DESCRIPTOR_CACHE_HIT_COUNT);
+    static final SimpleAttributeDefinition DESCRIPTOR_CACHE_MISS_COUNT_AD = metric(DESCRIPTOR_CACHE_MISS_COUNT);
+
+    static final DescriptorCacheMetricsHandler INSTANCE = new DescriptorCacheMetricsHandler();
+
+    private static SimpleAttributeDefinition metric(String name) {
+        return new SimpleAttributeDefinitionBuilder(name, ModelType.LONG, true)
+                .setMeasurementUnit(MeasurementUnit.NONE)
+                .setStorageRuntime()
+                .build();
+    }
+
+    private DescriptorCacheMetricsHandler() {
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String metric = operation.require(ModelDescriptionConstants.NAME).asString();
+        final DescriptorCache cache = DescriptorCache.getInstance();
+        switch (metric) {
+            case DESCRIPTOR_CACHE_HIT_COUNT:
+                context.getResult().set(cache.getHitCount());
+                break;
+            case DESCRIPTOR_CACHE_MISS_COUNT:
+                context.getResult().set(cache.getMissCount());
+                break;
+            default:
+                throw EeLogger.ROOT_LOGGER.unknownMetric(metric);
+        }
+        context.stepCompleted();
+    }
+
+    void registerMetrics(final ManagementResourceRegistration resourceRegistration) {
+        resourceRegistration.registerMetric(DESCRIPTOR_CACHE_HIT_COUNT_AD, this);
+        resourceRegistration.registerMetric(DESCRIPTOR_CACHE_MISS_COUNT_AD, this);
+    }
+}
@@ -443,6 +443,9 @@ class EESubsystemParser40 implements XMLStreamConstants, XMLElementReader<List<M
                 case REJECT_POLICY:
                     ManagedExecutorServiceResourceDefinition.REJECT_POLICY_AD.parseAndSetParameter(value, addOperation, reader);
                     break;
+                case EAGER_THREADS:
+                    ManagedExecutorServiceResourceDefinition.EAGER_THREADS_AD.parseAndSetParameter(value, addOperation, reader);
+                    break;
                 default:
                     throw unexpectedAttribute(reader, i);
             }
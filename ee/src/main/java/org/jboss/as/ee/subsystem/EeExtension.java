@@ -88,8 +88,13 @@ public class EeExtension implements Extension {
         // register submodels
         rootResource.registerSubModel(ContextServiceResourceDefinition.INSTANCE);
         rootResource.registerSubModel(ManagedThreadFactoryResourceDefinition.INSTANCE);
-        rootResource.registerSubModel(ManagedExecutorServiceResourceDefinition.INSTANCE);
-        rootResource.registerSubModel(ManagedScheduledExecutorServiceResourceDefinition.INSTANCE);
+        final ManagementResourceRegistration managedExecutorService = rootResource.registerSubModel(ManagedExecutorServiceResourceDefinition.INSTANCE);
+        final ManagementResourceRegistration managedScheduledExecutorService = rootResource.registerSubModel(ManagedScheduledExecutorServiceResourceDefinition.INSTANCE);
+        if (context.isRuntimeOnlyRegistrationValid()) {
+            ManagedExecutorServiceMetricsHandler.MANAGED_EXECUTOR_SERVICE.registerMetrics(managedExecutorService);
+            ManagedExecutorServiceMetricsHandler.MANAGED_SCHEDULED_EXECUTOR_SERVICE.registerMetrics(managedScheduledExecutorService);
+            DescriptorCacheMetricsHandler.INSTANCE.registerMetrics(rootResource);
+        }
         rootResource.registerSubModel(new DefaultBindingsResourceDefinition(new DefaultBindingsConfigurationProcessor()));
 
         subsystem.registerXMLElementWriter(EESubsystemXmlPersister.INSTANCE);
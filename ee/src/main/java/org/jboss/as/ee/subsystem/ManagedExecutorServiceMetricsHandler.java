@@ -0,0 +1,183 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.subsystem;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.ObjectTypeAttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.ee.concurrent.ManagedExecutorStatistics;
+import org.jboss.as.ee.concurrent.service.ConcurrentServiceNames;
+import org.jboss.as.ee.concurrent.service.ManagedExecutorServiceService;
+import org.jboss.as.ee.concurrent.service.ManagedScheduledExecutorServiceService;
+import org.jboss.as.ee.logging.EeLogger;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+
+/**
+ * Handler for the runtime metrics of managed executor services and managed scheduled executor services.
+ */
+abstract class ManagedExecutorServiceMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    public static final String ACTIVE_THREAD_COUNT = "active-thread-count";
+    public static final String THREAD_COUNT = "thread-count";
+    public static final String MAX_THREAD_COUNT = "max-thread-count";
+    public static final String HUNG_THREAD_COUNT = "hung-thread-count";
+    public static final String CURRENT_QUEUE_SIZE = "current-queue-size";
+    public static final String TASK_COUNT = "task-count";
+    public static final String COMPLETED_TASK_COUNT = "completed-task-count";
+    public static final String REJECTED_TASK_COUNT = "rejected-task-count";
+    public static final String TASK_WAIT_TIME_PERCENTILES = "task-wait-time-percentiles";
+    public static final String TASK_RUN_TIME_PERCENTILES = "task-run-time-percentiles";
+
+    static final SimpleAttributeDefinition ACTIVE_THREAD_COUNT_AD = metric(ACTIVE_THREAD_COUNT, ModelType.INT, MeasurementUnit.NONE);
+    static final SimpleAttributeDefinition THREAD_COUNT_AD = metric(THREAD_COUNT, ModelType.INT, MeasurementUnit.NONE);
+    static final SimpleAttributeDefinition MAX_THREAD_COUNT_AD = metric(MAX_THREAD_COUNT, ModelType.INT, MeasurementUnit.NONE);
+    static final SimpleAttributeDefinition HUNG_THREAD_COUNT_AD = metric(HUNG_THREAD_COUNT, ModelType.INT, MeasurementUnit.NONE);
+    static final SimpleAttributeDefinition CURRENT_QUEUE_SIZE_AD = metric(CURRENT_QUEUE_SIZE, ModelType.INT, MeasurementUnit.NONE);
+    static final SimpleAttributeDefinition TASK_COUNT_AD = metric(TASK_COUNT, ModelType.LONG, MeasurementUnit.NONE);
+    static final SimpleAttributeDefinition COMPLETED_TASK_COUNT_AD = metric(COMPLETED_TASK_COUNT, ModelType.LONG, MeasurementUnit.NONE);
+    static final SimpleAttributeDefinition REJECTED_TASK_COUNT_AD = metric(REJECTED_TASK_COUNT, ModelType.LONG, MeasurementUnit.NONE);
+    static final SimpleAttributeDefinition P50 = metric("p50", ModelType.DOUBLE, MeasurementUnit.MILLISECONDS);
+    static final SimpleAttributeDefinition P99 = metric("p99", ModelType.DOUBLE, MeasurementUnit.MILLISECONDS);
+    static final SimpleAttributeDefinition P999 = metric("p999", ModelType.DOUBLE, MeasurementUnit.MILLISECONDS);
+    static final ObjectTypeAttributeDefinition TASK_WAIT_TIME_PERCENTILES_AD = ObjectTypeAttributeDefinition.Builder.of(TASK_WAIT_TIME_PERCENTILES, P50, P99, P999)
+            .setAllowNull(true)
+            .setStorageRuntime()
+            .build();
+    static final ObjectTypeAttributeDefinition TASK_RUN_TIME_PERCENTILES_AD = ObjectTypeAttributeDefinition.Builder.of(TASK_RUN_TIME_PERCENTILES, P50, P99, P999)
+            .setAllowNull(true)
+            .setStorageRuntime()
+            .build();
+
+    static final ManagedExecutorServiceMetricsHandler MANAGED_EXECUTOR_SERVICE = new ManagedExecutorServiceMetricsHandler(ACTIVE_THREAD_COUNT_AD, THREAD_COUNT_AD, MAX_THREAD_COUNT_AD, HUNG_THREAD_COUNT_AD, CURRENT_QUEUE_SIZE_AD, TASK_COUNT_AD, COMPLETED_TASK_COUNT_AD, REJECTED_TASK_COUNT_AD, TASK_WAIT_TIME_PERCENTILES_AD, TASK_RUN_TIME_PERCENTILES_AD) {
+        @Override
+        ServiceName getServiceName(String name) {
+            return ConcurrentServiceNames.getManagedExecutorServiceServiceName(name);
+        }
+
+        @Override
+        ManagedExecutorStatistics getStatistics(Service<?> service) {
+            return ((ManagedExecutorServiceService) service).getStatistics();
+        }
+    };
+
+    // the queue of a scheduled executor also holds the scheduled tasks
+    static final ManagedExecutorServiceMetricsHandler MANAGED_SCHEDULED_EXECUTOR_SERVICE = new ManagedExecutorServiceMetricsHandler(ACTIVE_THREAD_COUNT_AD, THREAD_COUNT_AD, MAX_THREAD_COUNT_AD, HUNG_THREAD_COUNT_AD, CURRENT_QUEUE_SIZE_AD, TASK_COUNT_AD, COMPLETED_TASK_COUNT_AD, REJECTED_TASK_COUNT_AD, TASK_WAIT_TIME_PERCENTILES_AD, TASK_RUN_TIME_PERCENTILES_AD) {
+        @Override
+        ServiceName getServiceName(String name) {
+            return ConcurrentServiceNames.getManagedScheduledExecutorServiceServiceName(name);
+        }
+
+        @Override
+        ManagedExecutorStatistics getStatistics(Service<?> service) {
+            return ((ManagedScheduledExecutorServiceService) service).getStatistics();
+        }
+    };
+
+    private static SimpleAttributeDefinition metric(String name, ModelType type, MeasurementUnit unit) {
+        return new SimpleAttributeDefinitionBuilder(name, type, true)
+                .setMeasurementUnit(unit)
+                .setStorageRuntime()
+                .build();
+    }
+
+    private final AttributeDefinition[] metrics;
+
+    private ManagedExecutorServiceMetricsHandler(AttributeDefinition... metrics) {
+        this.metrics = metrics;
+    }
+
+    abstract ServiceName getServiceName(String name);
+
+    abstract ManagedExecutorStatistics getStatistics(Service<?> service);
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String metric = operation.require(ModelDescriptionConstants.NAME).asString();
+        final String name = PathAddress.pathAddress(operation.require(ModelDescriptionConstants.OP_ADDR)).getLastElement().getValue();
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(this.getServiceName(name));
+        final ManagedExecutorStatistics statistics = (controller != null) ? this.getStatistics(controller.getService()) : null;
+        if (statistics != null) {
+            final ModelNode result = context.getResult();
+            switch (metric) {
+                case ACTIVE_THREAD_COUNT:
+                    result.set(statistics.getActiveThreadCount());
+                    break;
+                case THREAD_COUNT:
+                    result.set(statistics.getThreadCount());
+                    break;
+                case MAX_THREAD_COUNT:
+                    result.set(statistics.getMaxThreadCount());
+                    break;
+                case HUNG_THREAD_COUNT:
+                    result.set(statistics.getHungThreads().size());
+                    break;
+                case CURRENT_QUEUE_SIZE:
+                    result.set(statistics.getCurrentQueueSize());
+                    break;
+                case TASK_COUNT:
+                    result.set(statistics.getTaskCount());
+                    break;
+                case COMPLETED_TASK_COUNT:
+                    result.set(statistics.getCompletedTaskCount());
+                    break;
+                case REJECTED_TASK_COUNT:
+                    result.set(statistics.getRejectedTaskCount());
+                    break;
+                case TASK_WAIT_TIME_PERCENTILES:
+                    setPercentiles(result, statistics::getWaitTime);
+                    break;
+                case TASK_RUN_TIME_PERCENTILES:
+                    setPercentiles(result, statistics::getRunTime);
+                    break;
+                default:
+                    throw EeLogger.ROOT_LOGGER.unknownMetric(metric);
+            }
+        }
+        context.stepCompleted();
+    }
+
+    private static void setPercentiles(final ModelNode result, final DoubleUnaryOperator quantiles) {
+        result.get(P50.getName()).set(quantiles.applyAsDouble(0.5d));
+        result.get(P99.getName()).set(quantiles.applyAsDouble(0.99d));
+        result.get(P999.getName()).set(quantiles.applyAsDouble(0.999d));
+    }
+
+    void registerMetrics(final ManagementResourceRegistration resourceRegistration) {
+        for (AttributeDefinition metric : this.metrics) {
+            resourceRegistration.registerMetric(metric, this);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ee.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+
+import org.jboss.invocation.InterceptorContext;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ComponentClientInstance}.
+ */
+public class ComponentClientInstanceTestCase {
+
+    @Test
+    public void construction() throws Exception {
+        ComponentClientInstance instance = new ComponentClientInstance();
+        instance.setViewInstanceData("key", "value");
+        instance.setViewInstanceData(Integer.class, 1);
+
+        // No snapshot is taken until construction completes
+        assertNull(getSnapshot(instance));
+        assertContext(instance);
+
+        instance.constructionComplete();
+
+        assertNotNull(getSnapshot(instance));
+        assertContext(instance);
+
+        try {
+            instance.setViewInstanceData("key", "other");
+            fail();
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertEquals("value", instance.getViewInstanceData("key"));
+    }
+
+    @Test
+    public void serialization() throws Exception {
+        ComponentClientInstance instance = new ComponentClientInstance();
+        instance.setViewInstanceData("key", "value");
+        instance.setViewInstanceData(Integer.class, 1);
+        instance.constructionComplete();
+
+        ComponentClientInstance result = copy(instance);
+
+        // Snapshot is rebuilt on deserialization
+        assertNotNull(getSnapshot(result));
+        assertContext(result);
+    }
+
+    @Test
+    public void serializationDuringConstruction() throws Exception {
+        ComponentClientInstance instance = new ComponentClientInstance();
+        instance.setViewInstanceData("key", "value");
+        instance.setViewInstanceData(Integer.class, 1);
+
+        ComponentClientInstance result = copy(instance);
+
+        assertNull(getSnapshot(result));
+        assertContext(result);
+
+        // Construction can still complete
+        result.constructionComplete();
+        assertNotNull(getSnapshot(result));
+        assertContext(result);
+    }
+
+    private static void assertContext(ComponentClientInstance instance) {
+        InterceptorContext context = new InterceptorContext();
+        instance.prepareInterceptorContext(context);
+        assertEquals("value", context.getPrivateData("key"));
+        assertEquals(Integer.valueOf(1), context.getPrivateData(Integer.class));
+    }
+
+    private static Object getSnapshot(ComponentClientInstance instance) throws ReflectiveOperationException {
+        Field field = ComponentClientInstance.class.getDeclaredField("keys");
+        field.setAccessible(true);
+        return field.get(instance);
+    }
+
+    private static ComponentClientInstance copy(ComponentClientInstance instance) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(instance);
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (ComponentClientInstance) input.readObject();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.concurrent;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the saturation of a thread pool running blocking tasks, using a regular queue vs. an {@link EagerThreadsTaskQueue}.
+ */
+public class EagerThreadsTaskQueueTestCase {
+
+    private static final int CORE_THREADS = 2;
+    private static final int MAX_THREADS = 16;
+
+    @Test
+    public void testQueueFirst() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(CORE_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        try {
+            // blocking tasks queue behind the core threads, max threads are never used
+            Assert.assertEquals(CORE_THREADS, this.runBlockingTasks(executor, MAX_THREADS));
+            Assert.assertEquals(CORE_THREADS, executor.getLargestPoolSize());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEagerThreads() throws Exception {
+        EagerThreadsTaskQueue queue = new EagerThreadsTaskQueue(Integer.MAX_VALUE);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(CORE_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS, queue);
+        queue.attach(executor);
+        try {
+            // all blocking tasks run concurrently
+            Assert.assertEquals(MAX_THREADS, this.runBlockingTasks(executor, MAX_THREADS));
+            // once max threads are busy, tasks are queued instead of rejected
+            Assert.assertEquals(MAX_THREADS, this.runBlockingTasks(executor, MAX_THREADS * 4));
+            Assert.assertEquals(MAX_THREADS, executor.getLargestPoolSize());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEagerThreadsBoundedQueue() throws Exception {
+        EagerThreadsTaskQueue queue = new EagerThreadsTaskQueue(1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 2, 60, TimeUnit.SECONDS, queue);
+        queue.attach(executor);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 3; ++i) {
+                executor.execute(new BlockingTask(release, new AtomicInteger(), new AtomicInteger()));
+            }
+            Assert.assertEquals(2, executor.getPoolSize());
+            Assert.assertEquals(1, queue.size());
+            try {
+                executor.execute(new BlockingTask(release, new AtomicInteger(), new AtomicInteger()));
+                Assert.fail("Task should have been rejected, since the queue is full");
+            } catch (RejectedExecutionException e) {
+                // expected
+            }
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        // a shutdown executor still rejects tasks
+        try {
+            executor.execute(new BlockingTask(release, new AtomicInteger(), new AtomicInteger()));
+            Assert.fail("Task should have been rejected, since the executor is shutdown");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Runs the specified number of tasks, which block until all of them were submitted, and returns the maximum number of tasks that ran concurrently
+     */
+    private int runBlockingTasks(ThreadPoolExecutor executor, int tasks) throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BlockingQueue<Runnable> queue = executor.getQueue();
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; ++i) {
+            BlockingTask task = new BlockingTask(release, running, maxRunning);
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        // wait until every thread is busy and the remaining tasks are queued
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (((running.get() < executor.getPoolSize()) || (running.get() + queue.size() < tasks)) && (System.nanoTime() < deadline)) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        return maxRunning.get();
+    }
+
+    private static class BlockingTask implements Runnable {
+        private final CountDownLatch release;
+        private final AtomicInteger running;
+        private final AtomicInteger maxRunning;
+
+        BlockingTask(CountDownLatch release, AtomicInteger running, AtomicInteger maxRunning) {
+            this.release = release;
+            this.running = running;
+            this.maxRunning = maxRunning;
+        }
+
+        @Override
+        public void run() {
+            int current = this.running.incrementAndGet();
+            int max = this.maxRunning.get();
+            while (current > max && !this.maxRunning.compareAndSet(max, current)) {
+                max = this.maxRunning.get();
+            }
+            try {
+                this.release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.running.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTestCase {
+
+    @Test
+    public void index() {
+        // Each bucket must contain its own highest equivalent value, and the next value must fall into the next bucket
+        for (int index = 0; index < LatencyHistogram.index(Long.MAX_VALUE); ++index) {
+            long value = LatencyHistogram.highestEquivalentValue(index);
+            assertEquals(index, LatencyHistogram.index(value));
+            assertEquals(index + 1, LatencyHistogram.index(value + 1));
+        }
+        // Relative error is bounded by the sub-bucket resolution
+        for (long value = 1; value < 1000000; value = value * 3 + 1) {
+            long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(value));
+            assertTrue(highest >= value);
+            assertTrue((highest - value) <= value / 8);
+        }
+        assertEquals(0, LatencyHistogram.index(-1L));
+    }
+
+    @Test
+    public void quantiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0d, histogram.getValueAtQuantile(0.5d), 0d);
+
+        // 1..1000 ms
+        for (int i = 1; i <= 1000; ++i) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        assertEquals(500d, histogram.getValueAtQuantile(0.5d), 500d / 8);
+        assertEquals(990d, histogram.getValueAtQuantile(0.99d), 990d / 8);
+        assertEquals(999d, histogram.getValueAtQuantile(0.999d), 999d / 8);
+        assertEquals(1000d, histogram.getValueAtQuantile(1d), 1000d / 8);
+    }
+
+    @Test
+    public void concurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 4;
+        int iterations = 10000;
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; ++i) {
+                // All threads record the same latency, so contend for the same, initially absent, bucket
+                futures.add(executor.submit(() -> {
+                    latch.await();
+                    for (int j = 0; j < iterations; ++j) {
+                        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+                    }
+                    return null;
+                }));
+            }
+            latch.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // If any increment were lost, the value at this quantile would fall into the bucket of the outlier
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+        long total = threads * iterations + 1;
+        assertEquals(1d, histogram.getValueAtQuantile((double) (total - 1) / total), 1d / 8);
+        assertEquals(100d, histogram.getValueAtQuantile(1d), 100d / 8);
+    }
+}
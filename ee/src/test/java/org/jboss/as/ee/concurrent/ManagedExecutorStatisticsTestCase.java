@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ee.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the task bookkeeping of {@link ManagedExecutorStatistics}.
+ */
+public class ManagedExecutorStatisticsTestCase {
+
+    private static final long BLOCKED_MILLIS = 50;
+
+    @Test
+    public void testWaitAndRunTimes() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        try {
+            ManagedExecutorStatistics statistics = new ManagedExecutorStatistics(executor, 0);
+            Assert.assertEquals(0d, statistics.getWaitTime(0.99d), 0d);
+            Assert.assertEquals(0d, statistics.getRunTime(0.99d), 0d);
+
+            CountDownLatch blocked = new CountDownLatch(1);
+            Future<?> first = executor.submit(statistics.wrap(() -> await(blocked)));
+            // queued behind the first task
+            Future<?> second = executor.submit(statistics.wrap(() -> { }));
+            Thread.sleep(BLOCKED_MILLIS);
+            blocked.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+
+            // the longest wait and run times are at least as long as the first task was blocked
+            Assert.assertTrue(statistics.getWaitTime(1d) >= BLOCKED_MILLIS);
+            Assert.assertTrue(statistics.getRunTime(1d) >= BLOCKED_MILLIS);
+            // the first task did not wait, the second one did not take long to run
+            Assert.assertTrue(statistics.getWaitTime(0.5d) < BLOCKED_MILLIS);
+            Assert.assertTrue(statistics.getRunTime(0.5d) < BLOCKED_MILLIS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testScheduledDelayIsNotWaiting() throws Exception {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        try {
+            ManagedExecutorStatistics statistics = new ManagedExecutorStatistics(executor, 0);
+            executor.schedule(statistics.wrapScheduled(() -> { }), BLOCKED_MILLIS, TimeUnit.MILLISECONDS).get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(0d, statistics.getWaitTime(1d), 0d);
+            Assert.assertTrue(statistics.getRunTime(1d) < BLOCKED_MILLIS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHungThreads() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        try {
+            ManagedExecutorStatistics statistics = new ManagedExecutorStatistics(executor, BLOCKED_MILLIS / 5);
+            CountDownLatch started = new CountDownLatch(2);
+            CountDownLatch blocked = new CountDownLatch(1);
+            Future<?> first = executor.submit(statistics.wrap(() -> {
+                started.countDown();
+                await(blocked);
+            }));
+            Future<?> second = executor.submit(statistics.wrap(() -> {
+                started.countDown();
+                await(blocked);
+            }));
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            Thread.sleep(BLOCKED_MILLIS);
+            Assert.assertEquals(2, statistics.getHungThreads().size());
+
+            blocked.countDown();
+            first.get(10, TimeUnit.SECONDS);
+            second.get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(statistics.getHungThreads().isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNoHungTaskThreshold() throws Exception {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        try {
+            ManagedExecutorStatistics statistics = new ManagedExecutorStatistics(executor, 0);
+            CountDownLatch blocked = new CountDownLatch(1);
+            Future<?> task = executor.submit(statistics.wrap(() -> await(blocked)));
+            Thread.sleep(BLOCKED_MILLIS);
+            Assert.assertTrue(statistics.getHungThreads().isEmpty());
+            blocked.countDown();
+            task.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRejectedTasks() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+        try {
+            ManagedExecutorStatistics statistics = new ManagedExecutorStatistics(executor, 0);
+            statistics.taskRejected();
+            statistics.taskRejected();
+            Assert.assertEquals(2L, statistics.getRejectedTaskCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
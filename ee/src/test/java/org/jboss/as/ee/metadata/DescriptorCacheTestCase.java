@@ -0,0 +1,203 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ee.metadata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests caching and eviction of parsed descriptors by {@link DescriptorCache}.
+ */
+public class DescriptorCacheTestCase {
+
+    private static final String DESCRIPTOR = "test.xml";
+
+    private Path directory;
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory(DescriptorCache.DIRECTORY);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        DescriptorCache cache = new DescriptorCache(null, DescriptorCache.DEFAULT_MAX_ENTRIES);
+
+        assertFalse(cache.isEnabled());
+        assertEquals("a", this.parse(cache, "a", false).content);
+        assertEquals("a", this.parse(cache, "a", false).content);
+        assertEquals(2, this.parses.get());
+        assertEquals(0L, cache.getMissCount());
+    }
+
+    @Test
+    public void hit() throws Exception {
+        DescriptorCache cache = new DescriptorCache(this.directory, DescriptorCache.DEFAULT_MAX_ENTRIES);
+
+        assertEquals("a", this.parse(cache, "a", false).content);
+        assertEquals("a", this.parse(cache, "a", false).content);
+        assertEquals(1, this.parses.get());
+        assertEquals(1L, cache.getHitCount());
+        assertEquals(1L, cache.getMissCount());
+
+        // Entries outlive the cache instance, i.e. a reboot
+        cache = new DescriptorCache(this.directory, DescriptorCache.DEFAULT_MAX_ENTRIES);
+        assertEquals("a", this.parse(cache, "a", false).content);
+        assertEquals(1, this.parses.get());
+
+        // Changed content is a different entry
+        assertEquals("b", this.parse(cache, "b", false).content);
+        assertEquals(2, this.parses.get());
+        assertEquals(2, this.entries().size());
+    }
+
+    @Test
+    public void propertyReplacement() throws Exception {
+        DescriptorCache cache = new DescriptorCache(this.directory, DescriptorCache.DEFAULT_MAX_ENTRIES);
+
+        this.parse(cache, "${a}", true);
+        this.parse(cache, "${a}", true);
+        assertEquals(2, this.parses.get());
+        assertTrue(this.entries().isEmpty());
+
+        // Expressions are only significant if the parser replaces them
+        this.parse(cache, "${a}", false);
+        this.parse(cache, "${a}", false);
+        assertEquals(3, this.parses.get());
+    }
+
+    @Test
+    public void unreadableEntry() throws Exception {
+        DescriptorCache cache = new DescriptorCache(this.directory, DescriptorCache.DEFAULT_MAX_ENTRIES);
+        this.parse(cache, "a", false);
+        Path entry = this.entries().get(0);
+        Files.write(entry, new byte[] { 1, 2, 3 });
+
+        assertEquals("a", this.parse(cache, "a", false).content);
+        assertEquals(2, this.parses.get());
+
+        // Unreadable entry was overwritten
+        assertEquals("a", this.parse(cache, "a", false).content);
+        assertEquals(2, this.parses.get());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() throws Exception {
+        DescriptorCache cache = new DescriptorCache(this.directory, 2);
+        this.parse(cache, "a", false);
+        this.parse(cache, "b", false);
+        List<Path> entries = this.entries();
+        assertEquals(2, entries.size());
+        for (Path entry : entries) {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(0L));
+        }
+        // Reading an entry makes it the most recently used
+        this.parse(cache, "a", false);
+        assertEquals(2, this.parses.get());
+
+        // Exceeding the maximum number of entries on the next boot evicts the least recently used entry
+        this.parse(cache, "c", false);
+        assertEquals(3, this.entries().size());
+        cache = new DescriptorCache(this.directory, 2);
+        this.parse(cache, "a", false);
+        assertEquals(2, this.entries().size());
+        assertEquals(3, this.parses.get());
+        this.parse(cache, "c", false);
+        assertEquals(3, this.parses.get());
+        this.parse(cache, "b", false);
+        assertEquals(4, this.parses.get());
+    }
+
+    @Test
+    public void evictWhileRunning() throws Exception {
+        DescriptorCache cache = new DescriptorCache(this.directory, 2);
+        for (int i = 0; i < 10; ++i) {
+            this.parse(cache, Integer.toString(i), false);
+            assertTrue(this.entries().size() <= 3);
+        }
+    }
+
+    private Descriptor parse(DescriptorCache cache, String content, boolean propertyReplacement) throws XMLStreamException, IOException {
+        return cache.parse(DESCRIPTOR, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), Descriptor.class, propertyReplacement, this::parse);
+    }
+
+    private Descriptor parse(InputStream input) throws IOException {
+        this.parses.incrementAndGet();
+        byte[] buffer = new byte[256];
+        int length = input.read(buffer);
+        return new Descriptor(new String(buffer, 0, Math.max(length, 0), StandardCharsets.UTF_8));
+    }
+
+    private List<Path> entries() throws IOException {
+        List<Path> entries = new ArrayList<>();
+        Path descriptors = this.directory.resolve(DESCRIPTOR);
+        if (Files.isDirectory(descriptors)) {
+            try (Stream<Path> files = Files.list(descriptors)) {
+                files.forEach(entries::add);
+            }
+        }
+        return entries;
+    }
+
+    static class Descriptor implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final String content;
+
+        Descriptor(String content) {
+            this.content = content;
+        }
+    }
+}
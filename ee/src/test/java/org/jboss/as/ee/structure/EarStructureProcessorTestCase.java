@@ -0,0 +1,156 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ee.structure;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the concurrent mounting of EAR child archives by {@link EarStructureProcessor}.
+ */
+public class EarStructureProcessorTestCase {
+
+    private static final int ARCHIVES = 4;
+
+    private ExecutorService executor;
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(ARCHIVES);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void sequential() throws IOException {
+        EarStructureProcessor.Mounts mounts = new EarStructureProcessor.Mounts(null);
+        Closeable mount = this.mount();
+
+        // Mounted by the caller, so the mount itself is returned
+        assertSame(mount, mounts.mount(() -> mount));
+
+        mounts.await();
+        // Sequential mounts are owned by their resource roots once returned
+        mounts.close();
+        assertEquals(0, this.closed.get());
+    }
+
+    @Test
+    public void concurrent() throws IOException {
+        EarStructureProcessor.Mounts mounts = new EarStructureProcessor.Mounts(this.executor);
+        // Each mount only completes once all mounts are in progress
+        final CountDownLatch started = new CountDownLatch(ARCHIVES);
+        List<Closeable> handles = new ArrayList<>();
+        for (int i = 0; i < ARCHIVES; ++i) {
+            handles.add(mounts.mount(() -> {
+                started.countDown();
+                if (!started.await(10, TimeUnit.SECONDS)) {
+                    throw new IOException("Archives were not mounted concurrently");
+                }
+                return this.mount();
+            }));
+        }
+
+        mounts.await();
+
+        assertEquals(0, this.closed.get());
+        // Handles close their mount on undeploy
+        for (Closeable handle : handles) {
+            handle.close();
+        }
+        assertEquals(ARCHIVES, this.closed.get());
+    }
+
+    @Test
+    public void failure() throws IOException {
+        EarStructureProcessor.Mounts mounts = new EarStructureProcessor.Mounts(this.executor);
+        final IOException exception = new IOException();
+        final CountDownLatch failed = new CountDownLatch(1);
+        mounts.mount(this::mount);
+        mounts.mount(() -> {
+            failed.countDown();
+            throw exception;
+        });
+        // Still mounting when the failure is detected
+        mounts.mount(() -> {
+            failed.await();
+            Thread.sleep(100);
+            return this.mount();
+        });
+        mounts.mount(() -> null);
+
+        try {
+            mounts.await();
+            fail("Failure of a mount was not reported");
+        } catch (IOException e) {
+            assertSame(exception, e);
+        }
+
+        // All established mounts are closed, including those that completed after the failure
+        mounts.close();
+        assertEquals(2, this.closed.get());
+    }
+
+    @Test
+    public void runtimeFailure() throws IOException {
+        EarStructureProcessor.Mounts mounts = new EarStructureProcessor.Mounts(this.executor);
+        mounts.mount(this::mount);
+        mounts.mount(() -> {
+            throw new IllegalStateException();
+        });
+
+        try {
+            mounts.await();
+            fail("Failure of a mount was not reported");
+        } catch (IllegalStateException e) {
+            assertNotNull(e);
+        }
+
+        mounts.close();
+        assertEquals(1, this.closed.get());
+    }
+
+    private Closeable mount() {
+        return this.closed::incrementAndGet;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.simple;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.Marshalling;
+import org.jboss.marshalling.Unmarshaller;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Stores passivated beans in the local file system, one file per bean.
+ * Each file contains the marshalling version, followed by the bean marshalled using the versioned marshalling configuration of the deployment.
+ *
+ *
+ * @param <V> the cache value type
+ */
+class FileBeanStore<V> {
+
+    private final Path directory;
+    private final MarshallingContext context;
+
+    FileBeanStore(Path directory, MarshallingContext context) {
+        this.directory = directory;
+        this.context = context;
+    }
+
+    /**
+     * Creates the directory of this store, removing any beans left over from a previous run.
+     */
+    void start() {
+        try {
+            if (Files.exists(this.directory)) {
+                this.clear();
+            } else {
+                Files.createDirectories(this.directory);
+            }
+        } catch (IOException e) {
+            throw EjbLogger.ROOT_LOGGER.passivationDirectoryCreationFailed(this.directory.toString());
+        }
+        if (!Files.isDirectory(this.directory)) {
+            throw EjbLogger.ROOT_LOGGER.passivationPathNotADirectory(this.directory.toString());
+        }
+    }
+
+    /**
+     * Removes all stored beans, as well as the directory of this store.
+     */
+    void stop() {
+        try {
+            this.clear();
+            Files.deleteIfExists(this.directory);
+        } catch (IOException e) {
+            EjbLogger.ROOT_LOGGER.debug(e.getLocalizedMessage(), e);
+        }
+    }
+
+    private void clear() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    void write(long id, V value) throws IOException {
+        int version = this.context.getCurrentVersion();
+        ClassLoader loader = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(this.context.getClassLoader());
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(this.getPath(id)))) {
+            output.write(version);
+            try (Marshaller marshaller = this.context.createMarshaller(version)) {
+                marshaller.start(Marshalling.createByteOutput(output));
+                marshaller.writeObject(value);
+                marshaller.finish();
+            }
+        } finally {
+            WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(loader);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V read(long id) throws IOException, ClassNotFoundException {
+        ClassLoader loader = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(this.context.getClassLoader());
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(this.getPath(id)))) {
+            int version = input.read();
+            try (Unmarshaller unmarshaller = this.context.createUnmarshaller(version)) {
+                unmarshaller.start(Marshalling.createByteInput(input));
+                V value = (V) unmarshaller.readObject();
+                unmarshaller.finish();
+                return value;
+            }
+        } finally {
+            WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(loader);
+        }
+    }
+
+    void delete(long id) {
+        try {
+            Files.deleteIfExists(this.getPath(id));
+        } catch (IOException e) {
+            EjbLogger.ROOT_LOGGER.debug(e.getLocalizedMessage(), e);
+        }
+    }
+
+    private Path getPath(long id) {
+        return this.directory.resolve(Long.toString(id));
+    }
+}
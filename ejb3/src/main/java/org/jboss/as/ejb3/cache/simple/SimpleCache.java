@@ -21,14 +21,20 @@
  */
 package org.jboss.as.ejb3.cache.simple;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.cache.Cache;
@@ -39,9 +45,12 @@ import org.jboss.as.server.ServerEnvironment;
 import org.jboss.ejb.client.Affinity;
 import org.jboss.ejb.client.NodeAffinity;
 import org.wildfly.clustering.ejb.IdentifierFactory;
+import org.wildfly.clustering.ejb.PassivationListener;
 
 /**
- * Simple {@link Cache} implementation using in-memory storage and eager expiration.
+ * Simple {@link Cache} implementation using in-memory storage and lazy expiration.
+ * The expiration of an idle bean is checked whenever it is accessed, while a periodic task removes expired beans that are no longer accessed.
+ * If bounded, the least recently used idle beans in excess of the maximum size are passivated to a local file store, and activated again on access.
  *
  * @author Paul Ferraro
  *
@@ -50,48 +59,68 @@ import org.wildfly.clustering.ejb.IdentifierFactory;
  */
 public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
-    final Map<K, Future<?>> expirationFutures = new ConcurrentHashMap<>();
+    // Upper bound on the delay between the expiration of an idle bean and its removal, if it is not accessed in the meantime
+    private static final long MAX_SWEEP_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
     private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
     private final StatefulObjectFactory<V> factory;
+    private final PassivationListener<V> passivationListener;
     private final IdentifierFactory<K> identifierFactory;
-    private final StatefulTimeoutInfo timeout;
+    // Timeout in milliseconds, or -1 if beans never expire
+    private final long timeout;
     private final ServerEnvironment environment;
     private final ScheduledExecutorService executor;
+    private final int maxSize;
+    private final FileBeanStore<V> store;
+    private final AtomicInteger passivatedCount = new AtomicInteger();
+    private final AtomicLong passivationIds = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private volatile Future<?> sweeper;
 
     public SimpleCache(StatefulObjectFactory<V> factory, IdentifierFactory<K> identifierFactory, StatefulTimeoutInfo timeout, ServerEnvironment environment, ScheduledExecutorService executor) {
+        this(factory, null, identifierFactory, timeout, environment, executor, 0, null);
+    }
+
+    SimpleCache(StatefulObjectFactory<V> factory, PassivationListener<V> passivationListener, IdentifierFactory<K> identifierFactory, StatefulTimeoutInfo timeout, ServerEnvironment environment, ScheduledExecutorService executor, int maxSize, FileBeanStore<V> store) {
         this.factory = factory;
+        this.passivationListener = passivationListener;
         this.identifierFactory = identifierFactory;
-        this.timeout = timeout;
+        this.timeout = ((timeout != null) && (timeout.getValue() >= 0)) ? timeout.getTimeUnit().toMillis(timeout.getValue()) : -1L;
         this.environment = environment;
         this.executor = executor;
+        this.maxSize = maxSize;
+        this.store = store;
     }
 
     @Override
     public void start() {
-        // Do nothing
+        if (this.store != null) {
+            this.store.start();
+        }
+        if (this.timeout > 0) {
+            long interval = Math.min(this.timeout, MAX_SWEEP_INTERVAL);
+            this.sweeper = this.executor.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public void stop() {
-        for (Future<?> future: this.expirationFutures.values()) {
-            future.cancel(true);
+        Future<?> sweeper = this.sweeper;
+        if (sweeper != null) {
+            sweeper.cancel(false);
         }
-        for (Future<?> future: this.expirationFutures.values()) {
-            if (!future.isCancelled() && !future.isDone()) {
-                try {
-                    future.get();
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    // Ignore
-                }
+        for (Entry<V> entry : this.entries.values()) {
+            V value = entry.getValue();
+            // Passivated beans are discarded without invoking their PreDestroy callback, as permitted by the EJB specification
+            if (value != null) {
+                this.factory.destroyInstance(value);
             }
         }
-        for(Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
-            this.factory.destroyInstance(entry.getValue().getValue());
-        }
-        this.expirationFutures.clear();
         this.entries.clear();
+        this.passivatedCount.set(0);
+        if (this.store != null) {
+            this.store.stop();
+        }
     }
 
     @Override
@@ -117,6 +146,7 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
         }
         V bean = this.factory.createInstance();
         this.entries.put(bean.getId(), new Entry<>(bean));
+        this.evictIfNecessary();
         return bean;
     }
 
@@ -129,45 +159,49 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
     public void remove(K key) {
         Entry<V> entry = this.entries.remove(key);
         if (entry != null) {
-            this.factory.destroyInstance(entry.getValue());
+            V value = this.activate(key, entry);
+            if (value != null) {
+                this.factory.destroyInstance(value);
+            }
         }
     }
 
     @Override
     public V get(K key) {
-        Future<?> future = this.expirationFutures.get(key);
-        if (future != null) {
-            future.cancel(true);
-        }
         Entry<V> entry = this.entries.get(key);
         if (entry == null) return null;
-        entry.use();
-        return entry.getValue();
+        if (entry.isExpired(System.currentTimeMillis())) {
+            this.expire(key, entry);
+            return null;
+        }
+        if (!entry.use()) return null;
+        V value = entry.getValue();
+        if (value == null) {
+            value = this.activate(key, entry);
+            this.evictIfNecessary();
+        }
+        return value;
     }
 
     @Override
     public boolean contains(K key) {
-        return this.entries.containsKey(key);
+        Entry<V> entry = this.entries.get(key);
+        return (entry != null) && !entry.isExpired(System.currentTimeMillis());
     }
 
     @Override
     public void release(V bean) {
         K id = bean.getId();
         Entry<V> entry = this.entries.get(id);
-        if ((entry != null) && entry.done()) {
-            if (this.timeout != null) {
-                long value = this.timeout.getValue();
-                if (value > 0) {
-                    TimeUnit unit = this.timeout.getTimeUnit();
-                    RemoveTask task = new RemoveTask(id);
-                    // Make sure the expiration future map insertion happens before map removal (during task execution).
-                    synchronized (task) {
-                        this.expirationFutures.put(id, this.executor.schedule(task, value, unit));
-                    }
-                } else if (value == 0) {
+        if (entry != null) {
+            long now = System.currentTimeMillis();
+            long expiration = ((this.timeout > 0) && (this.timeout < Long.MAX_VALUE - now)) ? now + this.timeout : Long.MAX_VALUE;
+            if (entry.done(now, expiration)) {
+                if (this.timeout == 0) {
                     // The EJB specification allows a 0 timeout, which means the bean is immediately eligible for removal.
-                    // However, removing it directly is faster than scheduling it for immediate removal.
                     remove(id);
+                } else {
+                    this.evictIfNecessary();
                 }
             }
         }
@@ -175,53 +209,253 @@ public class SimpleCache<K, V extends Identifiable<K>> implements Cache<K, V> {
 
     @Override
     public int getCacheSize() {
-        return this.entries.size();
+        return Math.max(this.entries.size() - this.passivatedCount.get(), 0);
     }
 
     @Override
     public int getPassivatedCount() {
-        return 0;
+        return this.passivatedCount.get();
     }
 
     @Override
     public int getTotalSize() {
-        return this.getCacheSize();
+        return this.entries.size();
     }
 
-    class RemoveTask implements Runnable {
-        private final K key;
+    /**
+     * Removes the specified expired bean, unless it was already removed, or is in use.
+     */
+    private void expire(K key, Entry<V> entry) {
+        if (entry.invalidate() && this.entries.remove(key, entry)) {
+            synchronized (entry) {
+                V value = entry.getValue();
+                if (value != null) {
+                    this.factory.destroyInstance(value);
+                } else if (entry.getPassivationId() != 0) {
+                    // Passivated beans are discarded without invoking their PreDestroy callback, as permitted by the EJB specification
+                    this.store.delete(entry.getPassivationId());
+                    this.passivatedCount.decrementAndGet();
+                }
+            }
+        }
+    }
 
-        RemoveTask(K key) {
-            this.key = key;
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<K, Entry<V>> entry : this.entries.entrySet()) {
+            if (entry.getValue().isExpired(now)) {
+                try {
+                    this.expire(entry.getKey(), entry.getValue());
+                } catch (RuntimeException e) {
+                    EjbLogger.ROOT_LOGGER.debug(e.getLocalizedMessage(), e);
+                }
+            }
         }
+    }
 
-        @Override
-        public synchronized void run() {
-            if (!Thread.currentThread().isInterrupted()) {
-                SimpleCache.this.remove(this.key);
+    private void evictIfNecessary() {
+        if ((this.store != null) && (this.getCacheSize() > this.maxSize) && this.evicting.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(this::evict);
+            } catch (RejectedExecutionException e) {
+                this.evicting.set(false);
+            }
+        }
+    }
+
+    /**
+     * Passivates the least recently used idle beans in excess of the maximum size of this cache.
+     */
+    private void evict() {
+        try {
+            int excess = this.getCacheSize() - this.maxSize;
+            if (excess > 0) {
+                List<Candidate<K, V>> candidates = new ArrayList<>();
+                for (Map.Entry<K, Entry<V>> entry : this.entries.entrySet()) {
+                    if (entry.getValue().isIdle()) {
+                        candidates.add(new Candidate<>(entry.getKey(), entry.getValue()));
+                    }
+                }
+                Collections.sort(candidates);
+                for (Candidate<K, V> candidate : candidates) {
+                    if (excess == 0) break;
+                    if (this.passivate(candidate.key, candidate.entry)) {
+                        excess -= 1;
+                    }
+                }
+            }
+        } finally {
+            this.evicting.set(false);
+        }
+    }
+
+    private boolean passivate(K key, Entry<V> entry) {
+        synchronized (entry) {
+            V value = entry.getValue();
+            // Skip beans that were removed or used since eviction began
+            if ((value == null) || (this.entries.get(key) != entry) || !entry.passivating()) {
+                return false;
+            }
+            try {
+                this.passivationListener.prePassivate(value);
+                long id = this.passivationIds.incrementAndGet();
+                try {
+                    this.store.write(id, value);
+                } catch (IOException | RuntimeException e) {
+                    this.store.delete(id);
+                    this.passivationListener.postActivate(value);
+                    throw e;
+                }
+                entry.passivated(id);
+                this.passivatedCount.incrementAndGet();
+                return true;
+            } catch (IOException | RuntimeException e) {
+                // Don't try again, otherwise we would log on every eviction
+                entry.pin();
+                EjbLogger.ROOT_LOGGER.couldNotPassivate(key, e);
+                return false;
+            } finally {
+                entry.idle();
             }
-            SimpleCache.this.expirationFutures.remove(this.key);
+        }
+    }
+
+    /**
+     * Returns the value of the specified entry, activating it first if it was passivated.
+     * @return the bean, or null if it was lost to a previous activation failure
+     */
+    private V activate(K key, Entry<V> entry) {
+        synchronized (entry) {
+            V value = entry.getValue();
+            long id = entry.getPassivationId();
+            if ((value == null) && (id != 0)) {
+                entry.activated(null);
+                this.passivatedCount.decrementAndGet();
+                try {
+                    value = this.store.read(id);
+                } catch (IOException | ClassNotFoundException e) {
+                    this.entries.remove(key, entry);
+                    throw EjbLogger.ROOT_LOGGER.activationFailed(e, key);
+                } finally {
+                    this.store.delete(id);
+                }
+                this.passivationListener.postActivate(value);
+                entry.activated(value);
+            }
+            return value;
         }
     }
 
     static class Entry<V> {
-        private final V value;
+        private static final int INVALID = -1;
+        private static final int PASSIVATING = -2;
+
+        private volatile V value;
+        // Number of concurrent users, or INVALID, or PASSIVATING
         private final AtomicInteger usage = new AtomicInteger();
+        private volatile long expiration = Long.MAX_VALUE;
+        private volatile long lastUsed = System.currentTimeMillis();
+        // Guarded by this
+        private long passivationId = 0;
+        private volatile boolean pinned = false;
 
         Entry(V value) {
             this.value = value;
         }
 
-        void use() {
-            this.usage.incrementAndGet();
+        /**
+         * Marks this entry as in use.
+         * @return false, if this entry was invalidated, true otherwise
+         */
+        boolean use() {
+            for (;;) {
+                int current = this.usage.get();
+                if (current == PASSIVATING) {
+                    // Passivation holds the monitor of this entry, so this blocks until passivation completes
+                    synchronized (this) {
+                        current = this.usage.get();
+                    }
+                }
+                if (current == INVALID) return false;
+                if ((current >= 0) && this.usage.compareAndSet(current, current + 1)) return true;
+            }
         }
 
-        boolean done() {
+        /**
+         * Marks this entry as no longer in use by the caller.
+         * @return true, if this entry is now idle, false if it is still in use
+         */
+        boolean done(long now, long expiration) {
+            // Must be visible before the entry becomes idle
+            this.lastUsed = now;
+            this.expiration = expiration;
             return this.usage.decrementAndGet() == 0;
         }
 
+        boolean isExpired(long now) {
+            return (this.usage.get() == 0) && (now >= this.expiration);
+        }
+
+        boolean invalidate() {
+            return this.usage.compareAndSet(0, INVALID);
+        }
+
+        boolean isIdle() {
+            return (this.usage.get() == 0) && (this.value != null) && !this.pinned;
+        }
+
+        boolean passivating() {
+            return this.usage.compareAndSet(0, PASSIVATING);
+        }
+
+        void passivated(long id) {
+            this.passivationId = id;
+            this.value = null;
+        }
+
+        void activated(V value) {
+            this.passivationId = 0;
+            this.value = value;
+        }
+
+        void pin() {
+            this.pinned = true;
+        }
+
+        void idle() {
+            this.usage.set(0);
+        }
+
+        long getPassivationId() {
+            return this.passivationId;
+        }
+
+        long getLastUsed() {
+            return this.lastUsed;
+        }
+
         V getValue() {
             return this.value;
         }
     }
+
+    /**
+     * Snapshot of an idle entry, ordered by the time it was last used.
+     */
+    private static class Candidate<K, V> implements Comparable<Candidate<K, V>> {
+        final K key;
+        final Entry<V> entry;
+        private final long lastUsed;
+
+        Candidate(K key, Entry<V> entry) {
+            this.key = key;
+            this.entry = entry;
+            this.lastUsed = entry.getLastUsed();
+        }
+
+        @Override
+        public int compareTo(Candidate<K, V> candidate) {
+            return Long.compare(this.lastUsed, candidate.lastUsed);
+        }
+    }
 }
@@ -55,10 +55,20 @@ public class SimpleCacheFactoryBuilderService<K, V extends Identifiable<K>> exte
     });
 
     private final String name;
+    private final int maxSize;
 
     public SimpleCacheFactoryBuilderService(String name) {
+        this(name, 0);
+    }
+
+    /**
+     * @param name the cache name
+     * @param maxSize the maximum number of beans held in memory, beyond which idle beans are passivated to disk, or 0 if unbounded
+     */
+    public SimpleCacheFactoryBuilderService(String name, int maxSize) {
         super(name);
         this.name = name;
+        this.maxSize = maxSize;
     }
 
     @Override
@@ -73,11 +83,11 @@ public class SimpleCacheFactoryBuilderService<K, V extends Identifiable<K>> exte
 
     @Override
     public ServiceBuilder<? extends CacheFactory<K, V>> build(ServiceTarget target, ServiceName name, BeanContext context, StatefulTimeoutInfo timeout) {
-        return SimpleCacheFactoryService.build(this.name, target, name, context, timeout);
+        return SimpleCacheFactoryService.build(this.name, target, name, context, timeout, this.maxSize);
     }
 
     @Override
     public boolean supportsPassivation() {
-        return false;
+        return this.maxSize > 0;
     }
 }
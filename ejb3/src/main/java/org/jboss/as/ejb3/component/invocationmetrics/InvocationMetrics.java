@@ -29,69 +29,104 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.as.ee.concurrent.LatencyHistogram;
 
 /**
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
 public class InvocationMetrics {
+    /**
+     * A view of the metrics of a set of invocations.
+     * Values are read from the underlying counters on demand.
+     */
     public static class Values {
-        final long invocations;
-        final long executionTime;
-        final long waitTime;
-
-        private Values(final long invocations, final long waitTime, final long executionTime) {
-            this.invocations = invocations;
-            this.executionTime = executionTime;
-            this.waitTime = waitTime;
+        private final Counters counters;
+
+        Values(final Counters counters) {
+            this.counters = counters;
         }
 
+        /**
+         * @return the total execution time in milliseconds
+         */
         public long getExecutionTime() {
-            return executionTime;
+            return TimeUnit.NANOSECONDS.toMillis(counters.executionTime.sum());
         }
 
         public long getInvocations() {
-            return invocations;
+            return counters.invocations.sum();
         }
 
+        /**
+         * @return the total wait time in milliseconds
+         */
         public long getWaitTime() {
-            return waitTime;
+            return TimeUnit.NANOSECONDS.toMillis(counters.waitTime.sum());
+        }
+
+        /**
+         * @param quantile a value between 0 and 1
+         * @return the execution time in milliseconds below which the specified fraction of invocations completed
+         */
+        public double getExecutionTime(final double quantile) {
+            return counters.executionTimes.getValueAtQuantile(quantile);
+        }
+
+        /**
+         * @param quantile a value between 0 and 1
+         * @return the wait time in milliseconds below which the specified fraction of invocations waited
+         */
+        public double getWaitTime(final double quantile) {
+            return counters.waitTimes.getValueAtQuantile(quantile);
+        }
+    }
+
+    /**
+     * Striped counters and latency histograms, updated without allocation or retry loops.
+     */
+    static class Counters {
+        final LongAdder invocations = new LongAdder();
+        final LongAdder executionTime = new LongAdder();
+        final LongAdder waitTime = new LongAdder();
+        final LatencyHistogram executionTimes = new LatencyHistogram();
+        final LatencyHistogram waitTimes = new LatencyHistogram();
+
+        void record(final long invocationWaitTime, final long invocationExecutionTime) {
+            invocations.increment();
+            waitTime.add(invocationWaitTime);
+            executionTime.add(invocationExecutionTime);
+            waitTimes.record(invocationWaitTime);
+            executionTimes.record(invocationExecutionTime);
         }
     }
 
-    private final AtomicReference<Values> values = new AtomicReference<Values>(new Values(0, 0, 0));
+    private final Counters counters = new Counters();
+    private final Values values = new Values(counters);
     private final AtomicLong concurrent = new AtomicLong(0);
     private final AtomicLong peakConcurrent = new AtomicLong(0);
 
-    private final ConcurrentMap<String, AtomicReference<Values>> methods = new ConcurrentHashMap<String, AtomicReference<Values>>();
+    private final ConcurrentMap<String, Counters> methods = new ConcurrentHashMap<String, Counters>();
 
+    /**
+     * Records a completed invocation.
+     * @param method the invoked method
+     * @param invocationWaitTime the wait time in nanoseconds
+     * @param invocationExecutionTime the execution time in nanoseconds
+     */
     void finishInvocation(final Method method, final long invocationWaitTime, final long invocationExecutionTime) {
         concurrent.decrementAndGet();
-        for(;;) {
-            final Values oldv = values.get();
-            final Values newv = new Values(oldv.invocations + 1, oldv.waitTime + invocationWaitTime, oldv.executionTime + invocationExecutionTime);
-            if (values.compareAndSet(oldv, newv))
-                break;
-        }
-        final AtomicReference<Values> methodValues = ref(methods, method.getName());
-        for (;;) {
-            final Values oldv = methodValues.get();
-            final Values newv = new Values(oldv.invocations + 1, oldv.waitTime + invocationWaitTime, oldv.executionTime + invocationExecutionTime);
-            if (methodValues.compareAndSet(oldv, newv))
-                break;
-        }
+        counters.record(invocationWaitTime, invocationExecutionTime);
+        counters(method.getName()).record(invocationWaitTime, invocationExecutionTime);
     }
 
-    private static AtomicReference<Values> ref(final ConcurrentMap<String, AtomicReference<Values>> map, final String key) {
-        AtomicReference<Values> ref = map.get(key);
-        if (ref == null) {
-            ref = new AtomicReference<Values>(new Values(0, 0, 0));
-            final AtomicReference<Values> prevRef = map.putIfAbsent(key, ref);
-            if (prevRef != null)
-                ref = prevRef;
-        }
-        return ref;
+    private Counters counters(final String name) {
+        // Avoid the locking of computeIfAbsent(...) for existing methods
+        Counters methodCounters = methods.get(name);
+        return (methodCounters != null) ? methodCounters : methods.computeIfAbsent(name, key -> new Counters());
     }
 
     public long getConcurrent() {
@@ -99,11 +134,19 @@ public class InvocationMetrics {
     }
 
     public long getExecutionTime() {
-        return values.get().executionTime;
+        return values.getExecutionTime();
     }
 
     public long getInvocations() {
-        return values.get().invocations;
+        return values.getInvocations();
+    }
+
+    /**
+     * @param quantile a value between 0 and 1
+     * @return the execution time in milliseconds below which the specified fraction of invocations completed
+     */
+    public double getExecutionTime(final double quantile) {
+        return values.getExecutionTime(quantile);
     }
 
     public Map<String, Values> getMethods() {
@@ -113,7 +156,7 @@ public class InvocationMetrics {
                 return new AbstractSet<Entry<String, Values>>() {
                     @Override
                     public Iterator<Entry<String, Values>> iterator() {
-                        final Iterator<Entry<String, AtomicReference<Values>>> delegate = methods.entrySet().iterator();
+                        final Iterator<Entry<String, Counters>> delegate = methods.entrySet().iterator();
                         return new Iterator<Entry<String, Values>>() {
                             @Override
                             public boolean hasNext() {
@@ -122,7 +165,7 @@ public class InvocationMetrics {
 
                             @Override
                             public Entry<String, Values> next() {
-                                final Entry<String, AtomicReference<Values>> next = delegate.next();
+                                final Entry<String, Counters> next = delegate.next();
                                 return new Entry<String, Values>() {
                                     @Override
                                     public String getKey() {
@@ -131,7 +174,7 @@ public class InvocationMetrics {
 
                                     @Override
                                     public Values getValue() {
-                                        return next.getValue().get();
+                                        return new Values(next.getValue());
                                     }
 
                                     @Override
@@ -162,13 +205,21 @@ public class InvocationMetrics {
     }
 
     public long getWaitTime() {
-        return values.get().waitTime;
+        return values.getWaitTime();
+    }
+
+    /**
+     * @param quantile a value between 0 and 1
+     * @return the wait time in milliseconds below which the specified fraction of invocations waited
+     */
+    public double getWaitTime(final double quantile) {
+        return values.getWaitTime(quantile);
     }
 
     void startInvocation() {
         final long v = concurrent.incrementAndGet();
-        // concurrent might decrement here, but we take that missing peak for granted.
+        // Only contend on the peak when it is exceeded
         if (peakConcurrent.get() < v)
-            peakConcurrent.incrementAndGet();
+            peakConcurrent.accumulateAndGet(v, Math::max);
     }
 }
@@ -73,6 +73,8 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
     private final ServiceName deliveryControllerName;
     private Endpoint endpoint;
     private String activationName;
+    private final int deliveryBatchSize;
+    private final long deliveryBatchTimeout;
 
     /**
      * Server activity that stops delivery before suspend starts.
@@ -182,11 +184,23 @@ public class MessageDrivenComponent extends EJBComponent implements PooledCompon
             public ClassLoader getClassLoader() {
                 return componentClassLoader;
             }
+
+            @Override
+            public int getDeliveryBatchSize() {
+                return deliveryBatchSize;
+            }
+
+            @Override
+            public long getDeliveryBatchTimeout() {
+                return deliveryBatchTimeout;
+            }
         };
         this.endpointFactory = new JBossMessageEndpointFactory(componentClassLoader, service, (Class<Object>) getComponentClass(), messageListenerInterface);
         this.started = false;
         this.deliveryActive = deliveryActive;
         this.deliveryControllerName = deliveryControllerName;
+        this.deliveryBatchSize = ejbComponentCreateService.getDeliveryBatchSize();
+        this.deliveryBatchTimeout = ejbComponentCreateService.getDeliveryBatchTimeout();
     }
 
     @Override
@@ -54,6 +54,8 @@ public class MessageDrivenComponentCreateService extends EJBComponentCreateServi
     private final String resourceAdapterName;
     private final boolean deliveryActive;
     private final ServiceName deliveryControllerName;
+    private final int deliveryBatchSize;
+    private final long deliveryBatchTimeout;
     private final InjectedValue<ResourceAdapter> resourceAdapterInjectedValue = new InjectedValue<ResourceAdapter>();
     private final InjectedValue<PoolConfig> poolConfig = new InjectedValue<PoolConfig>();
     private final InjectedValue<DefaultResourceAdapterService> defaultResourceAdapterServiceInjectedValue = new InjectedValue<DefaultResourceAdapterService>();
@@ -73,6 +75,8 @@ public class MessageDrivenComponentCreateService extends EJBComponentCreateServi
         this.resourceAdapterName = componentDescription.getResourceAdapterName();
         this.deliveryControllerName = componentDescription.isDeliveryControlled()? componentDescription.getDeliveryControllerName(): null;
         this.deliveryActive = !componentDescription.isDeliveryControlled() && componentDescription.isDeliveryActive();
+        this.deliveryBatchSize = componentDescription.getDeliveryBatchSize();
+        this.deliveryBatchTimeout = componentDescription.getDeliveryBatchTimeout();
         // see MessageDrivenComponentDescription.<init>
         this.messageListenerInterface = messageListenerInterface;
 
@@ -142,6 +146,14 @@ public class MessageDrivenComponentCreateService extends EJBComponentCreateServi
         return this.poolConfig;
     }
 
+    int getDeliveryBatchSize() {
+        return this.deliveryBatchSize;
+    }
+
+    long getDeliveryBatchTimeout() {
+        return this.deliveryBatchTimeout;
+    }
+
     private ClassLoader getDeploymentClassLoader() {
         return getComponentClass().getClassLoader();
     }
@@ -78,6 +78,8 @@ public class MessageDrivenComponentDescription extends EJBComponentDescription {
     private boolean deliveryActive;
     private String deliveryGroup;
     private boolean clusteredSingleton;
+    private int deliveryBatchSize = 1;
+    private long deliveryBatchTimeout = 1000;
 
     private String mdbPoolConfigName;
     private final String messageListenerInterfaceName;
@@ -202,6 +204,22 @@ public class MessageDrivenComponentDescription extends EJBComponentDescription {
         this.clusteredSingleton = clusteredSingleton;
     }
 
+    public int getDeliveryBatchSize() {
+        return deliveryBatchSize;
+    }
+
+    public void setDeliveryBatchSize(int deliveryBatchSize) {
+        this.deliveryBatchSize = deliveryBatchSize;
+    }
+
+    public long getDeliveryBatchTimeout() {
+        return deliveryBatchTimeout;
+    }
+
+    public void setDeliveryBatchTimeout(long deliveryBatchTimeout) {
+        this.deliveryBatchTimeout = deliveryBatchTimeout;
+    }
+
     public boolean isDeliveryControlled() {
         return deliveryGroup != null || clusteredSingleton;
     }
@@ -22,10 +22,19 @@
 
 package org.jboss.as.ejb3.component.pool;
 
+import static java.security.AccessController.doPrivileged;
+
 import org.jboss.as.ejb3.pool.Pool;
 import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+import org.jboss.as.ejb3.pool.adaptive.AdaptivePool;
+import org.jboss.as.ejb3.pool.sharded.ShardedPool;
 import org.jboss.as.ejb3.pool.strictmax.StrictMaxPool;
+import org.jboss.threads.JBossThreadFactory;
 
+import java.security.PrivilegedAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -39,6 +48,11 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     public static final TimeUnit DEFAULT_TIMEOUT_UNIT = TimeUnit.MINUTES;
 
+    private static final ThreadFactory THREAD_FACTORY = doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+        public JBossThreadFactory run() {
+            return new JBossThreadFactory(new ThreadGroup(StrictMaxPoolConfig.class.getSimpleName()), Boolean.FALSE, null, "%G - %t", null, null);
+        }
+    });
 
     private volatile int maxPoolSize;
 
@@ -46,15 +60,41 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     private volatile long timeout;
 
+    /**
+     * The number of thread-affine shards of the pool, or 0 if the pool is not sharded.
+     */
+    private volatile int shardCount;
+
+    /**
+     * The average wait time, in milliseconds, targeted by an adaptive pool, or 0 if the pool is not adaptive.
+     */
+    private volatile long targetWaitTime;
+
+    /**
+     * Provides the executor that resizes the adaptive pools created by this config.
+     */
+    private final AdaptivePool.ExecutorProvider executorProvider = new SharedExecutorProvider();
+
     public StrictMaxPoolConfig(final String poolName, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(poolName, maxSize, 0, timeout, timeUnit);
+    }
+
+    public StrictMaxPoolConfig(final String poolName, int maxSize, int shardCount, long timeout, TimeUnit timeUnit) {
         super(poolName);
         this.maxPoolSize = maxSize;
+        this.shardCount = shardCount;
         this.timeout = timeout;
         this.timeoutUnit = timeUnit;
     }
 
     @Override
     public <T> Pool<T> createPool(final StatelessObjectFactory<T> statelessObjectFactory) {
+        if (this.targetWaitTime > 0) {
+            return new AdaptivePool<T>(statelessObjectFactory, this.maxPoolSize, this.targetWaitTime, this.timeout, this.timeoutUnit, this.executorProvider);
+        }
+        if (this.shardCount > 0) {
+            return new ShardedPool<T>(statelessObjectFactory, this.maxPoolSize, this.shardCount, this.timeout, this.timeoutUnit);
+        }
         return new StrictMaxPool<T>(statelessObjectFactory, this.maxPoolSize, this.timeout, this.timeoutUnit);
     }
 
@@ -66,6 +106,22 @@ public class StrictMaxPoolConfig extends PoolConfig {
         this.maxPoolSize = maxPoolSize;
     }
 
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public long getTargetWaitTime() {
+        return targetWaitTime;
+    }
+
+    public void setTargetWaitTime(long targetWaitTime) {
+        this.targetWaitTime = targetWaitTime;
+    }
+
     public TimeUnit getTimeoutUnit() {
         return timeoutUnit;
     }
@@ -87,8 +143,41 @@ public class StrictMaxPoolConfig extends PoolConfig {
         return "StrictMaxPoolConfig{" +
                 "name=" + this.poolName +
                 ", maxPoolSize=" + maxPoolSize +
+                ", shardCount=" + shardCount +
+                ", targetWaitTime=" + targetWaitTime +
                 ", timeoutUnit=" + timeoutUnit +
                 ", timeout=" + timeout +
                 '}';
     }
+
+    /**
+     * Shares a single executor among the started adaptive pools of this config.
+     * The executor lives as long as any of these pools, independently of the lifecycle of the config's service,
+     * and no thread exists unless an adaptive pool is started.
+     */
+    private static class SharedExecutorProvider implements AdaptivePool.ExecutorProvider {
+        // Guarded by this provider
+        private ScheduledThreadPoolExecutor executor;
+        private int references;
+
+        @Override
+        public synchronized ScheduledExecutorService acquire() {
+            if (this.executor == null) {
+                ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, THREAD_FACTORY);
+                executor.setRemoveOnCancelPolicy(true);
+                executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+                this.executor = executor;
+            }
+            this.references += 1;
+            return this.executor;
+        }
+
+        @Override
+        public synchronized void release() {
+            if ((this.references > 0) && (--this.references == 0)) {
+                this.executor.shutdownNow();
+                this.executor = null;
+            }
+        }
+    }
 }
@@ -58,9 +58,13 @@ public class StrictMaxPoolConfigService implements Service<PoolConfig> {
 
 
     public StrictMaxPoolConfigService(final String poolName, int declaredMaxSize, Derive derive, long timeout, TimeUnit timeUnit) {
+        this(poolName, declaredMaxSize, derive, 0, timeout, timeUnit);
+    }
+
+    public StrictMaxPoolConfigService(final String poolName, int declaredMaxSize, Derive derive, int shardCount, long timeout, TimeUnit timeUnit) {
         this.declaredMaxSize = declaredMaxSize;
         this.derive = derive;
-        this.poolConfig = new StrictMaxPoolConfig(poolName, declaredMaxSize, timeout, timeUnit);
+        this.poolConfig = new StrictMaxPoolConfig(poolName, declaredMaxSize, shardCount, timeout, timeUnit);
     }
 
     @Override
@@ -103,6 +107,14 @@ public class StrictMaxPoolConfigService implements Service<PoolConfig> {
         poolConfig.setMaxPoolSize(max);
     }
 
+    public void setShardCount(int shardCount) {
+        poolConfig.setShardCount(shardCount);
+    }
+
+    public void setTargetWaitTime(long targetWaitTime) {
+        poolConfig.setTargetWaitTime(targetWaitTime);
+    }
+
     public void setTimeout(long timeout) {
         poolConfig.setTimeout(timeout);
     }
@@ -29,6 +29,7 @@ import org.jboss.invocation.InterceptorFactoryContext;
 
 import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
 
 /**
  * An {@link org.jboss.invocation.InterceptorFactory} which returns a new instance of {@link ContainerManagedConcurrencyInterceptor} on each
@@ -40,10 +41,19 @@ import java.util.Map;
 public class ContainerManagedConcurrencyInterceptorFactory extends ComponentInstanceInterceptorFactory {
 
     private final Map<Method, Method> viewMethodToComponentMethodMap;
+    private final boolean stripedLock;
 
     public ContainerManagedConcurrencyInterceptorFactory(Map<Method, Method> viewMethodToComponentMethodMap) {
+        this(viewMethodToComponentMethodMap, false);
+    }
 
+    /**
+     * @param viewMethodToComponentMethodMap the mapping of view methods to component methods
+     * @param stripedLock true, if the component should use a {@link StripedReadWriteLock}, otherwise an {@link EJBReadWriteLock} is used
+     */
+    public ContainerManagedConcurrencyInterceptorFactory(Map<Method, Method> viewMethodToComponentMethodMap, boolean stripedLock) {
         this.viewMethodToComponentMethodMap = viewMethodToComponentMethodMap;
+        this.stripedLock = stripedLock;
     }
 
     @Override
@@ -54,7 +64,8 @@ public class ContainerManagedConcurrencyInterceptorFactory extends ComponentInst
             if(interceptor != null) {
                 return interceptor;
             }
-            interceptor = new ContainerManagedConcurrencyInterceptor((LockableComponent) component, viewMethodToComponentMethodMap);
+            final ReadWriteLock readWriteLock = stripedLock ? new StripedReadWriteLock() : new EJBReadWriteLock();
+            interceptor = new ContainerManagedConcurrencyInterceptor((LockableComponent) component, viewMethodToComponentMethodMap, readWriteLock);
             lockableComponent.setConcurrencyManagementInterceptor(interceptor);
             return interceptor;
         }
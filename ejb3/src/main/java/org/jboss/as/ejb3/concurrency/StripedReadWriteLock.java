@@ -0,0 +1,367 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.concurrency;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+
+/**
+ * A reader biased implementation of {@link ReadWriteLock} with the same semantics as {@link EJBReadWriteLock},
+ * i.e. an {@link javax.ejb.IllegalLoopbackException} is thrown when a thread holding a read lock tries to obtain a write lock.
+ * <p/>
+ * Readers are counted in a number of stripes, each on its own cache line, so that concurrent readers on different cores
+ * do not contend on a single shared counter. A reader only touches the stripe assigned to its thread, and re-entrant reads
+ * only touch a per-thread counter. Writers are serialized by a {@link ReentrantLock}, announce themselves to readers and then
+ * wait for all stripes to drain. Readers arriving while a writer is active queue on the writer lock, so writers are not starved.
+ * <p/>
+ * This favours read-mostly singletons, at the expense of more expensive write lock acquisition.
+ */
+public class StripedReadWriteLock implements ReadWriteLock {
+
+    /**
+     * Number of ints per stripe, so that each stripe occupies its own cache line
+     */
+    private static final int PADDING = 16;
+    private static final int STRIPES = stripes(Runtime.getRuntime().availableProcessors());
+    private static final int SPINS = 64;
+    private static final AtomicInteger NEXT_STRIPE = new AtomicInteger();
+
+    private static int stripes(int processors) {
+        int stripes = 1;
+        while (stripes < processors) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /**
+     * Read lock count per stripe. Stripe <em>n</em> is located at index <em>(n + 1) * {@link #PADDING}</em>.
+     */
+    private final AtomicIntegerArray readers = new AtomicIntegerArray((STRIPES + 2) * PADDING);
+
+    /**
+     * Serializes writers, and blocks readers while a writer is active
+     */
+    private final ReentrantLock writerLock = new ReentrantLock();
+
+    /**
+     * Set by the writer holding {@link #writerLock} before it waits for readers to drain
+     */
+    private volatile boolean writing = false;
+    private volatile Thread writer;
+
+    private final ThreadLocal<Reader> reader = new ThreadLocal<Reader>() {
+        @Override
+        protected Reader initialValue() {
+            return new Reader(((NEXT_STRIPE.getAndIncrement() & (STRIPES - 1)) + 1) * PADDING);
+        }
+    };
+
+    private final Lock readLock = new ReadLock();
+    private final Lock writeLock = new WriteLock();
+
+    @Override
+    public Lock readLock() {
+        return this.readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return this.writeLock;
+    }
+
+    /**
+     * Tracks the read locks held by a thread, along with the stripe to which this thread is assigned
+     */
+    private static class Reader {
+        final int index;
+        int reads = 0;
+
+        Reader(int index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * A read lock which, if uncontended by a writer, only increments the stripe of the current thread
+     */
+    private class ReadLock implements Lock {
+
+        @Override
+        public void lock() {
+            Reader reader = StripedReadWriteLock.this.reader.get();
+            if (!tryAcquireRead(reader)) {
+                writerLock.lock();
+                acquireReadAndReleaseWriterLock(reader);
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            Reader reader = StripedReadWriteLock.this.reader.get();
+            if (!tryAcquireRead(reader)) {
+                writerLock.lockInterruptibly();
+                acquireReadAndReleaseWriterLock(reader);
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            return tryAcquireRead(StripedReadWriteLock.this.reader.get());
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            Reader reader = StripedReadWriteLock.this.reader.get();
+            if (tryAcquireRead(reader)) {
+                return true;
+            }
+            // Wait for the active writer, if any, to finish
+            if (!writerLock.tryLock(time, unit)) {
+                return false;
+            }
+            acquireReadAndReleaseWriterLock(reader);
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            Reader reader = StripedReadWriteLock.this.reader.get();
+            if (reader.reads == 0) {
+                throw new IllegalMonitorStateException();
+            }
+            if (--reader.reads == 0) {
+                releaseRead(reader.index);
+            }
+        }
+
+        /**
+         * Not implemented
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * A write lock which throws an {@link javax.ejb.IllegalLoopbackException} if the current thread holds a read lock.
+     */
+    private class WriteLock implements Lock {
+
+        @Override
+        public void lock() {
+            checkLoopback();
+            writerLock.lock();
+            boolean interrupted = false;
+            if (writerLock.getHoldCount() == 1) {
+                announceWriter();
+                int spins = SPINS;
+                while (!drained()) {
+                    if (spins > 0) {
+                        --spins;
+                        Thread.yield();
+                    } else {
+                        LockSupport.park(this);
+                        // Uninterruptible, so just remember that we were interrupted
+                        interrupted |= Thread.interrupted();
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            checkLoopback();
+            writerLock.lockInterruptibly();
+            if (writerLock.getHoldCount() == 1) {
+                announceWriter();
+                int spins = SPINS;
+                while (!drained()) {
+                    if (Thread.interrupted()) {
+                        releaseWrite();
+                        throw new InterruptedException();
+                    }
+                    if (spins > 0) {
+                        --spins;
+                        Thread.yield();
+                    } else {
+                        LockSupport.park(this);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            checkLoopback();
+            if (!writerLock.tryLock()) {
+                return false;
+            }
+            if (writerLock.getHoldCount() == 1) {
+                announceWriter();
+                if (!drained()) {
+                    releaseWrite();
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            checkLoopback();
+            long nanos = unit.toNanos(time);
+            long deadline = System.nanoTime() + nanos;
+            if (!writerLock.tryLock(nanos, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+            if (writerLock.getHoldCount() == 1) {
+                announceWriter();
+                int spins = SPINS;
+                while (!drained()) {
+                    if (Thread.interrupted()) {
+                        releaseWrite();
+                        throw new InterruptedException();
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        releaseWrite();
+                        return false;
+                    }
+                    if (spins > 0) {
+                        --spins;
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(this, remaining);
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            releaseWrite();
+        }
+
+        /**
+         * Not implemented
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Attempts to acquire a read lock without blocking.
+     * @return false, if a writer other than the current thread is active
+     */
+    private boolean tryAcquireRead(Reader reader) {
+        if (reader.reads > 0) {
+            reader.reads += 1;
+            return true;
+        }
+        this.readers.incrementAndGet(reader.index);
+        // Since both are volatile, either we see the writer, or the writer sees our increment
+        if (!this.writing || this.writerLock.isHeldByCurrentThread()) {
+            reader.reads = 1;
+            return true;
+        }
+        // Back off, so that the writer can proceed
+        this.releaseRead(reader.index);
+        return false;
+    }
+
+    /**
+     * Acquires a read lock while holding the writer lock, i.e. while no writer is active.
+     */
+    private void acquireReadAndReleaseWriterLock(Reader reader) {
+        try {
+            this.readers.incrementAndGet(reader.index);
+            reader.reads = 1;
+        } finally {
+            this.writerLock.unlock();
+        }
+    }
+
+    private void releaseRead(int index) {
+        this.readers.decrementAndGet(index);
+        if (this.writing) {
+            Thread writer = this.writer;
+            if (writer != null) {
+                LockSupport.unpark(writer);
+            }
+        }
+    }
+
+    private void announceWriter() {
+        this.writer = Thread.currentThread();
+        this.writing = true;
+    }
+
+    private void releaseWrite() {
+        if (this.writerLock.getHoldCount() == 1) {
+            this.writing = false;
+            this.writer = null;
+        }
+        this.writerLock.unlock();
+    }
+
+    private boolean drained() {
+        for (int i = 1; i <= STRIPES; ++i) {
+            if (this.readers.get(i * PADDING) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Ensures that the current thread doesn't hold any read locks. If
+     * the thread holds any read locks, this method throws a {@link javax.ejb.IllegalLoopbackException}.
+     */
+    private void checkLoopback() {
+        if (this.reader.get().reads > 0) {
+            throw EjbLogger.ROOT_LOGGER.failToUpgradeToWriteLock();
+        }
+    }
+}
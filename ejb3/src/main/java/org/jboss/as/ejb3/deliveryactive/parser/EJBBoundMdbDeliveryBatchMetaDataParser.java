@@ -0,0 +1,77 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.deliveryactive.parser;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jboss.as.ejb3.deliveryactive.metadata.EJBBoundMdbDeliveryBatchMetaData;
+import org.jboss.metadata.ejb.parser.jboss.ejb3.AbstractEJBBoundMetaDataParser;
+import org.jboss.metadata.property.PropertyReplacer;
+
+/**
+ * Parser for EJBBoundMdbDeliveryBatchMetaData components, namespace delivery-batch:1.0
+ */
+public class EJBBoundMdbDeliveryBatchMetaDataParser extends AbstractEJBBoundMetaDataParser<EJBBoundMdbDeliveryBatchMetaData> {
+
+    public static final String NAMESPACE_URI_1_0 = "urn:delivery-batch:1.0";
+
+    private static final String ROOT_ELEMENT_BATCH = "batch";
+    private static final String SIZE = "size";
+    private static final String TIMEOUT = "timeout";
+
+    public static final EJBBoundMdbDeliveryBatchMetaDataParser INSTANCE = new EJBBoundMdbDeliveryBatchMetaDataParser();
+
+    private EJBBoundMdbDeliveryBatchMetaDataParser() {}
+
+    @Override
+    public EJBBoundMdbDeliveryBatchMetaData parse(XMLStreamReader reader, final PropertyReplacer propertyReplacer) throws XMLStreamException {
+        // we only parse <batch> (root) element
+        if (!ROOT_ELEMENT_BATCH.equals(reader.getLocalName())) {
+            throw unexpectedElement(reader);
+        }
+        EJBBoundMdbDeliveryBatchMetaData metaData = new EJBBoundMdbDeliveryBatchMetaData();
+        processElements(metaData, reader, propertyReplacer);
+        return metaData;
+    }
+
+    @Override
+    protected void processElement(EJBBoundMdbDeliveryBatchMetaData metaData, XMLStreamReader reader, final PropertyReplacer propertyReplacer) throws XMLStreamException {
+        final String namespaceURI = reader.getNamespaceURI();
+        final String localName = reader.getLocalName();
+        if (NAMESPACE_URI_1_0.equals(namespaceURI)) {
+            switch (localName) {
+                case SIZE:
+                    metaData.setSize(Integer.valueOf(getElementText(reader, propertyReplacer).trim()));
+                    break;
+                case TIMEOUT:
+                    metaData.setTimeout(Long.valueOf(getElementText(reader, propertyReplacer).trim()));
+                    break;
+                default:
+                    throw unexpectedElement(reader);
+            }
+        } else {
+            super.processElement(metaData, reader, propertyReplacer);
+        }
+    }
+
+}
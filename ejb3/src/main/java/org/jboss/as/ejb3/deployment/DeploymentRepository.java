@@ -157,6 +157,21 @@ public class DeploymentRepository implements Service<DeploymentRepository> {
         return modules;
     }
 
+    /**
+     * Returns the deployment with the specified identifier, if it is in a started state.
+     * Unlike {@link #getStartedModules()}, this does not copy the repository, so is suitable for use per invocation.
+     * @param identifier a deployment module identifier
+     * @return the started deployment, or null if no such deployment exists or if it is not yet started
+     */
+    public ModuleDeployment getStartedModule(DeploymentModuleIdentifier identifier) {
+        final Map<DeploymentModuleIdentifier, DeploymentHolder> modules = this.modules;
+        if (modules == null) {
+            return null;
+        }
+        final DeploymentHolder holder = modules.get(identifier);
+        return (holder != null && holder.started) ? holder.deployment : null;
+    }
+
     private class DeploymentHolder {
         final ModuleDeployment deployment;
         volatile boolean started = false;
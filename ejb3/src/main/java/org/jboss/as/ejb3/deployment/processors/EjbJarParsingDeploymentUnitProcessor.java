@@ -37,12 +37,15 @@ import javax.xml.stream.XMLStreamReader;
 
 import org.jboss.as.ee.component.EEApplicationClasses;
 import org.jboss.as.ee.component.EEModuleDescription;
+import org.jboss.as.ee.metadata.DescriptorCache;
 import org.jboss.as.ee.metadata.MetadataCompleteMarker;
 import org.jboss.as.ee.structure.JBossDescriptorPropertyReplacement;
 import org.jboss.as.ee.structure.SpecDescriptorPropertyReplacement;
 import org.jboss.as.ejb3.cache.EJBBoundCacheParser;
 import org.jboss.as.ejb3.clustering.ClusteringSchema;
 import org.jboss.as.ejb3.clustering.EJBBoundClusteringMetaDataParser;
+import org.jboss.as.ejb3.concurrency.EJBBoundLockParser;
+import org.jboss.as.ejb3.deliveryactive.parser.EJBBoundMdbDeliveryBatchMetaDataParser;
 import org.jboss.as.ejb3.deliveryactive.parser.EJBBoundMdbDeliveryMetaDataParser;
 import org.jboss.as.ejb3.deliveryactive.parser.EJBBoundMdbDeliveryMetaDataParser11;
 import org.jboss.as.ejb3.deployment.EjbDeploymentAttachmentKeys;
@@ -241,15 +244,20 @@ public class EjbJarParsingDeploymentUnitProcessor implements DeploymentUnitProce
             return null;
         }
 
-        // get the XMLStreamReader and parse the descriptor
-        MetaDataElementParser.DTDInfo dtdInfo = new MetaDataElementParser.DTDInfo();
+        // get the XMLStreamReader and parse the descriptor, unless its metadata was already cached
         InputStream stream = open(descriptor);
         try {
-            XMLStreamReader reader = getXMLStreamReader(stream, descriptor, dtdInfo);
-            EjbJarMetaData ejbJarMetaData = EjbJarMetaDataParser.parse(reader, dtdInfo, SpecDescriptorPropertyReplacement.propertyReplacer(deploymentUnit));
-            return ejbJarMetaData;
+            return DescriptorCache.getInstance().parse(EJB_JAR_XML, stream, EjbJarMetaData.class, true, input -> {
+                MetaDataElementParser.DTDInfo dtdInfo = new MetaDataElementParser.DTDInfo();
+                final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+                inputFactory.setXMLResolver(dtdInfo);
+                XMLStreamReader reader = inputFactory.createXMLStreamReader(input);
+                return EjbJarMetaDataParser.parse(reader, dtdInfo, SpecDescriptorPropertyReplacement.propertyReplacer(deploymentUnit));
+            });
         } catch (XMLStreamException xmlse) {
             throw EjbLogger.ROOT_LOGGER.failedToParse(xmlse, "ejb-jar.xml: " + descriptor.getPathName());
+        } catch (IOException e) {
+            throw new DeploymentUnitProcessingException(e);
         } finally {
             try {
                 stream.close();
@@ -303,12 +311,14 @@ public class EjbJarParsingDeploymentUnitProcessor implements DeploymentUnitProce
         parsers.put(EJBBoundResourceAdapterBindingMetaDataParser.NAMESPACE_URI, EJBBoundResourceAdapterBindingMetaDataParser.INSTANCE);
         parsers.put(EJBBoundMdbDeliveryMetaDataParser.NAMESPACE_URI_1_0, EJBBoundMdbDeliveryMetaDataParser.INSTANCE);
         parsers.put(EJBBoundMdbDeliveryMetaDataParser11.NAMESPACE_URI_1_1, EJBBoundMdbDeliveryMetaDataParser11.INSTANCE);
+        parsers.put(EJBBoundMdbDeliveryBatchMetaDataParser.NAMESPACE_URI_1_0, EJBBoundMdbDeliveryBatchMetaDataParser.INSTANCE);
         parsers.put("urn:iiop", new IIOPMetaDataParser());
         parsers.put("urn:iiop:1.0", new IIOPMetaDataParser());
         parsers.put("urn:trans-timeout", new TransactionTimeoutMetaDataParser());
         parsers.put("urn:trans-timeout:1.0", new TransactionTimeoutMetaDataParser());
         parsers.put(EJBBoundPoolParser.NAMESPACE_URI, new EJBBoundPoolParser());
         parsers.put(EJBBoundCacheParser.NAMESPACE_URI, new EJBBoundCacheParser());
+        parsers.put(EJBBoundLockParser.NAMESPACE_URI, new EJBBoundLockParser());
         parsers.put(ContainerInterceptorsParser.NAMESPACE_URI_1_0, ContainerInterceptorsParser.INSTANCE);
         parsers.put(TimerServiceMetaDataParser.NAMESPACE_URI, TimerServiceMetaDataParser.INSTANCE);
         return parsers;
@@ -35,14 +35,19 @@ import org.jboss.as.ee.metadata.MethodAnnotationAggregator;
 import org.jboss.as.ee.metadata.RuntimeAnnotationInformation;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentDescription;
+import org.jboss.as.ejb3.component.singleton.SingletonComponentDescription;
 import org.jboss.as.ejb3.concurrency.AccessTimeoutDetails;
+import org.jboss.as.ejb3.concurrency.EJBBoundLockMetaData;
+import org.jboss.as.ejb3.deployment.EjbDeploymentAttachmentKeys;
 import org.jboss.as.server.deployment.DeploymentUnit;
 import org.jboss.as.server.deployment.DeploymentUnitProcessingException;
 import org.jboss.as.server.deployment.reflect.ClassReflectionIndex;
 import org.jboss.as.server.deployment.reflect.DeploymentReflectionIndex;
 import org.jboss.invocation.proxy.MethodIdentifier;
+import org.jboss.metadata.ejb.spec.AssemblyDescriptorMetaData;
 import org.jboss.metadata.ejb.spec.ConcurrentMethodMetaData;
 import org.jboss.metadata.ejb.spec.ConcurrentMethodsMetaData;
+import org.jboss.metadata.ejb.spec.EjbJarMetaData;
 import org.jboss.metadata.ejb.spec.NamedMethodMetaData;
 import org.jboss.metadata.ejb.spec.SessionBean31MetaData;
 import org.jboss.metadata.ejb.spec.SessionBeanMetaData;
@@ -54,6 +59,8 @@ import org.jboss.metadata.ejb.spec.SessionBeanMetaData;
  */
 public class EjbConcurrencyMergingProcessor extends AbstractMergingProcessor<SessionBeanComponentDescription> {
 
+    private volatile boolean stripedLockByDefault = false;
+
     public EjbConcurrencyMergingProcessor() {
         super(SessionBeanComponentDescription.class);
     }
@@ -90,6 +97,10 @@ public class EjbConcurrencyMergingProcessor extends AbstractMergingProcessor<Ses
 
     protected void handleDeploymentDescriptor(final DeploymentUnit deploymentUnit, final DeploymentReflectionIndex deploymentReflectionIndex, final Class<?> componentClass, final SessionBeanComponentDescription componentConfiguration) throws DeploymentUnitProcessingException {
 
+        if (componentConfiguration instanceof SingletonComponentDescription) {
+            this.handleLockImplementation(deploymentUnit, (SingletonComponentDescription) componentConfiguration);
+        }
+
         if (componentConfiguration.getDescriptorData() == null) {
             return;
         }
@@ -126,6 +137,45 @@ public class EjbConcurrencyMergingProcessor extends AbstractMergingProcessor<Ses
         }
     }
 
+    /**
+     * Selects the lock implementation of a singleton bean, via the jboss-ejb3.xml <code>urn:ejb-lock</code> namespace,
+     * falling back to the subsystem default.
+     */
+    private void handleLockImplementation(final DeploymentUnit deploymentUnit, final SingletonComponentDescription description) {
+        Boolean striped = null;
+        Boolean stripedApplicableForAllBeans = null;
+        final EjbJarMetaData ejbJarMetaData = deploymentUnit.getAttachment(EjbDeploymentAttachmentKeys.EJB_JAR_METADATA);
+        if (ejbJarMetaData != null) {
+            final AssemblyDescriptorMetaData assemblyMetadata = ejbJarMetaData.getAssemblyDescriptor();
+            if (assemblyMetadata != null) {
+                final List<EJBBoundLockMetaData> lockMetaDatas = assemblyMetadata.getAny(EJBBoundLockMetaData.class);
+                if (lockMetaDatas != null) {
+                    for (final EJBBoundLockMetaData lockMetaData : lockMetaDatas) {
+                        if (description.getEJBName().equals(lockMetaData.getEjbName())) {
+                            striped = lockMetaData.getStriped();
+                        } else if ("*".equals(lockMetaData.getEjbName())) {
+                            stripedApplicableForAllBeans = lockMetaData.getStriped();
+                        }
+                    }
+                }
+            }
+        }
+        if (striped != null) {
+            description.setStripedLock(striped);
+        } else if (stripedApplicableForAllBeans != null) {
+            description.setStripedLock(stripedApplicableForAllBeans);
+        } else {
+            description.setStripedLock(this.stripedLockByDefault);
+        }
+    }
+
+    public boolean isStripedLockByDefault() {
+        return this.stripedLockByDefault;
+    }
+
+    public void setStripedLockByDefault(final boolean stripedLockByDefault) {
+        this.stripedLockByDefault = stripedLockByDefault;
+    }
 
     private Method resolveMethod(final DeploymentReflectionIndex index, final Class<?> currentClass, final Class<?> componentClass, final NamedMethodMetaData methodData) throws DeploymentUnitProcessingException {
         if (currentClass == null) {
@@ -27,6 +27,7 @@ import org.jboss.as.ee.component.EEApplicationClasses;
 import org.jboss.as.ee.component.EEModuleClassDescription;
 import org.jboss.as.ee.metadata.ClassAnnotationInformation;
 import org.jboss.as.ejb3.component.messagedriven.MessageDrivenComponentDescription;
+import org.jboss.as.ejb3.deliveryactive.metadata.EJBBoundMdbDeliveryBatchMetaData;
 import org.jboss.as.ejb3.deliveryactive.metadata.EJBBoundMdbDeliveryMetaData;
 import org.jboss.as.ejb3.deployment.EjbDeploymentAttachmentKeys;
 import org.jboss.as.server.deployment.DeploymentUnit;
@@ -38,7 +39,8 @@ import org.jboss.metadata.ejb.spec.AssemblyDescriptorMetaData;
 import org.jboss.metadata.ejb.spec.EjbJarMetaData;
 
 /**
- * Handles the {@link org.jboss.ejb3.annotation.DeliveryActive} and {@link org.jboss.ejb3.annotation.DeliveryGroup} annotation merging
+ * Handles the {@link org.jboss.ejb3.annotation.DeliveryActive} and {@link org.jboss.ejb3.annotation.DeliveryGroup} annotation merging,
+ * as well as the delivery batch configuration of the deployment descriptor
  *
  * @author <a href="http://jmesnil.net/">Jeff Mesnil</a> (c) 2013 Red Hat inc.
  * @author Flavia Rainone
@@ -108,5 +110,25 @@ public class MdbDeliveryMergingProcessor extends AbstractMergingProcessor<Messag
         else if (deliveryActive != null) {
             componentConfiguration.setDeliveryActive(deliveryActive);
         }
+
+        EJBBoundMdbDeliveryBatchMetaData batchMetaData = null;
+        final List<EJBBoundMdbDeliveryBatchMetaData> batchMetaDataList = assemblyDescriptor.getAny(EJBBoundMdbDeliveryBatchMetaData.class);
+        if (batchMetaDataList != null) {
+            for (EJBBoundMdbDeliveryBatchMetaData metaData : batchMetaDataList) {
+                if ("*".equals(metaData.getEjbName()) && batchMetaData == null) {
+                    batchMetaData = metaData;
+                } else if (ejbName.equals(metaData.getEjbName())) {
+                    batchMetaData = metaData;
+                }
+            }
+        }
+        if (batchMetaData != null) {
+            if (batchMetaData.getSize() != null) {
+                componentConfiguration.setDeliveryBatchSize(batchMetaData.getSize());
+            }
+            if (batchMetaData.getTimeout() != null) {
+                componentConfiguration.setDeliveryBatchTimeout(batchMetaData.getTimeout());
+            }
+        }
     }
 }
@@ -21,6 +21,8 @@
  */
 package org.jboss.as.ejb3.inflow;
 
+import javax.jms.JMSException;
+import javax.jms.Message;
 import javax.resource.ResourceException;
 import javax.resource.spi.ApplicationServerInternalException;
 import javax.resource.spi.LocalTransactionException;
@@ -36,12 +38,22 @@ import javax.transaction.TransactionManager;
 import javax.transaction.xa.XAResource;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.tm.TransactionTimeoutConfiguration;
 import org.wildfly.security.manager.WildFlySecurityManager;
 
 /**
+ * If the {@link MessageEndpointService#getDeliveryBatchSize() delivery batch size} is greater than 1, transacted deliveries
+ * share a transaction, which is suspended in between deliveries, and committed by the delivery which fills the batch or
+ * ends once its timeout elapsed. Only delivery threads complete the transaction, other than upon release, so a batch to
+ * which no further message is delivered is rolled back by the transaction manager once its timeout elapsed.
+ * If a delivery marks the transaction for rollback, the whole batch is rolled back. A redelivered message ends the batch
+ * it is delivered in, so that a message failing repeatedly does not roll back any message delivered after it, nor any
+ * other message at all if its delivery begins the batch.
+ *
  * @author <a href="mailto:cdewolf@redhat.com">Carlo de Wolf</a>
  */
 public class MessageEndpointInvocationHandler extends AbstractInvocationHandler implements MessageEndpoint {
@@ -50,14 +62,25 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
     private final XAResource xaRes;
     private final AtomicBoolean released = new AtomicBoolean(false);
 
+    private final int batchSize;
+
     private Transaction currentTx;
     private ClassLoader previousClassLoader;
     private Transaction previousTx;
+    // Whether the message of the current delivery was redelivered
+    private boolean redelivered;
+
+    // The batch of deliveries sharing a transaction, guarded by this
+    private Transaction batchTx;
+    private int batchDeliveries;
+    private long batchDeadline;
+    private boolean delivering;
 
     MessageEndpointInvocationHandler(final MessageEndpointService service, final Object delegate, final XAResource xaResource) {
         this.service = service;
         this.delegate = delegate;
         this.xaRes = xaResource;
+        this.batchSize = service.getDeliveryBatchSize();
     }
 
     @Override
@@ -65,7 +88,9 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
         final TransactionManager tm = getTransactionManager();
         try {
             if (currentTx != null) {
-                if (currentTx.getStatus() == Status.STATUS_MARKED_ROLLBACK)
+                if (batchSize > 1)
+                    endBatchedDelivery(tm);
+                else if (currentTx.getStatus() == Status.STATUS_MARKED_ROLLBACK)
                     tm.rollback();
                 else
                     tm.commit();
@@ -103,10 +128,14 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
             previousTx = tm.suspend();
             boolean isTransacted = service.isDeliveryTransacted(method);
             if (isTransacted) {
-                tm.begin();
-                currentTx = tm.getTransaction();
-                if (xaRes != null)
-                    currentTx.enlistResource(xaRes);
+                if (batchSize > 1) {
+                    currentTx = beginBatchedDelivery(tm);
+                } else {
+                    tm.begin();
+                    currentTx = tm.getTransaction();
+                    if (xaRes != null)
+                        currentTx.enlistResource(xaRes);
+                }
             }
         } catch (Throwable t) {
             throw new ApplicationServerInternalException(t);
@@ -115,6 +144,90 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
         }
     }
 
+    /**
+     * Associates the current thread with the transaction of the open batch, if any, or else begins a new transaction.
+     * An open batch whose timeout elapsed, or whose transaction is no longer active, is completed first.
+     */
+    private synchronized Transaction beginBatchedDelivery(final TransactionManager tm) throws Exception {
+        redelivered = false;
+        if (batchTx != null) {
+            if (batchTx.getStatus() == Status.STATUS_ACTIVE && System.nanoTime() - batchDeadline < 0) {
+                tm.resume(batchTx);
+                delivering = true;
+                return batchTx;
+            }
+            // no message was delivered since the timeout elapsed, or the transaction was rolled back, e.g. by the transaction reaper
+            completeBatch();
+        }
+        final long timeout = service.getDeliveryBatchTimeout();
+        final int previousTimeout = (tm instanceof TransactionTimeoutConfiguration) ? ((TransactionTimeoutConfiguration) tm).getTransactionTimeout() : 0;
+        // the transaction manager rolls back the batch if no further message is delivered to complete it
+        tm.setTransactionTimeout((int) TimeUnit.MILLISECONDS.toSeconds(timeout + 999));
+        try {
+            tm.begin();
+        } finally {
+            tm.setTransactionTimeout(previousTimeout == -1 ? 0 : previousTimeout);
+        }
+        final Transaction tx = tm.getTransaction();
+        if (xaRes != null)
+            tx.enlistResource(xaRes);
+        batchTx = tx;
+        batchDeliveries = 0;
+        batchDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        delivering = true;
+        return tx;
+    }
+
+    /**
+     * Completes the transaction of the batch if it is full, its timeout elapsed, the endpoint was released,
+     * the message was redelivered, or it was marked for rollback.
+     * Otherwise the transaction is suspended until the next delivery.
+     */
+    private synchronized void endBatchedDelivery(final TransactionManager tm) throws SystemException, HeuristicMixedException, HeuristicRollbackException, RollbackException {
+        try {
+            batchDeliveries += 1;
+            if (currentTx.getStatus() == Status.STATUS_MARKED_ROLLBACK) {
+                endBatch();
+                tm.rollback();
+            } else if (redelivered || batchDeliveries >= batchSize || System.nanoTime() - batchDeadline >= 0 || released.get()) {
+                // a released endpoint receives no further deliveries, so its batch must not remain open
+                endBatch();
+                tm.commit();
+            } else {
+                tm.suspend();
+            }
+        } finally {
+            delivering = false;
+            redelivered = false;
+        }
+    }
+
+    /**
+     * Completes the transaction of the open batch, which no thread is associated with.
+     */
+    private void completeBatch() {
+        final Transaction tx = batchTx;
+        final int deliveries = batchDeliveries;
+        endBatch();
+        try {
+            final int status = tx.getStatus();
+            if (status == Status.STATUS_ACTIVE)
+                tx.commit();
+            else if (status == Status.STATUS_MARKED_ROLLBACK)
+                tx.rollback();
+        } catch (Exception e) {
+            EjbLogger.ROOT_LOGGER.failedToCompleteDeliveryBatch(deliveries, this, e);
+        }
+    }
+
+    /**
+     * Closes the open batch.
+     */
+    private void endBatch() {
+        batchTx = null;
+        batchDeliveries = 0;
+    }
+
     @Override
     protected boolean doEquals(Object obj) {
         if (!(obj instanceof MessageEndpointInvocationHandler))
@@ -134,6 +247,10 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
         if (method.getDeclaringClass().equals(MessageEndpoint.class))
             return handle(method, args);
 
+        // a redelivered message ends its batch, see endBatchedDelivery
+        if (batchSize > 1 && currentTx != null && args != null && args.length == 1 && args[0] instanceof Message)
+            redelivered = isRedelivered((Message) args[0]);
+
         // TODO: Option A
         try {
             return method.invoke(delegate, args);
@@ -143,6 +260,15 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
         }
     }
 
+    private static boolean isRedelivered(final Message message) {
+        try {
+            return message.getJMSRedelivered();
+        } catch (JMSException e) {
+            // isolating the message merely costs a commit
+            return true;
+        }
+    }
+
     @Override
     public int hashCode() {
         return delegate.hashCode();
@@ -163,6 +289,19 @@ public class MessageEndpointInvocationHandler extends AbstractInvocationHandler
 
         // TODO: tidy up outstanding delivery
 
+        // If a delivery is still in progress, it completes the batch when it ends, as the endpoint is released
+        synchronized (this) {
+            if (batchTx != null && !delivering) {
+                // Transaction synchronizations may expect the application class loader
+                final ClassLoader classLoader = WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(getApplicationClassLoader());
+                try {
+                    completeBatch();
+                } finally {
+                    WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(classLoader);
+                }
+            }
+        }
+
         service.release(delegate);
     }
 }
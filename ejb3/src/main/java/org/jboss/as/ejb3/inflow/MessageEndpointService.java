@@ -49,4 +49,21 @@ public interface MessageEndpointService<T> {
     ClassLoader getClassLoader();
 
     String getActivationName();
+
+    /**
+     * Returns the maximum number of messages delivered to an endpoint within a single transaction.
+     * A value of 1 means that each message is delivered within a transaction of its own.
+     *
+     * @return the delivery batch size
+     */
+    int getDeliveryBatchSize();
+
+    /**
+     * Returns the maximum time, in milliseconds, a transaction shared by a batch of deliveries stays open.
+     * The batch is committed by the first delivery ending after that time, and otherwise rolled back by the transaction
+     * manager, in which case its messages are redelivered.
+     *
+     * @return the delivery batch timeout
+     */
+    long getDeliveryBatchTimeout();
 }
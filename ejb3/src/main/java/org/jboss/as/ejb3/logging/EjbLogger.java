@@ -3103,4 +3103,20 @@ public interface EjbLogger extends BasicLogger {
     @LogMessage(level = WARN)
     @Message(id = 484, value = "Could not send a cluster removal message for cluster: (%s) to the client on channel %s")
     void couldNotSendClusterRemovalMessage(@Cause Throwable cause, Group group, Channel channel);
+
+    @LogMessage(level = ERROR)
+    @Message(id = 485, value = "Cannot add column %s to table for timer persistence")
+    void couldNotAlterTable(String column, @Cause SQLException e);
+
+    @LogMessage(level = WARN)
+    @Message(id = 486, value = "Failed to passivate %s, it will remain in memory")
+    void couldNotPassivate(Object id, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 487, value = "Failed to complete the transaction of a batch of %d messages delivered to message endpoint %s")
+    void failedToCompleteDeliveryBatch(int messages, Object endpoint, @Cause Throwable cause);
+
+    @LogMessage(level = WARN)
+    @Message(id = 488, value = "Timer journal segment %s is corrupted after position %d, the remainder of the segment will be discarded")
+    void timerJournalSegmentCorrupted(File segment, long position);
 }
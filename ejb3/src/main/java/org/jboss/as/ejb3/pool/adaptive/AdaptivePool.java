@@ -0,0 +1,388 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.pool.adaptive;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+/**
+ * A pool whose size limit adapts to the observed wait time of its callers.
+ * <p/>
+ * Like {@link org.jboss.as.ejb3.pool.strictmax.StrictMaxPool}, the number of active instances is bounded by a semaphore.
+ * However, the number of permits is not fixed, but is periodically adjusted between 1 and the configured maximum size.
+ * If the average time spent waiting for an instance during the last interval exceeds the target wait time, the limit grows,
+ * and the additional instances are created up front by the background task, rather than on the invocation path.
+ * If callers wait no more than half of the target wait time, and instances remain idle for several consecutive intervals, the limit shrinks,
+ * and idle instances beyond the limit are destroyed.  The gap between these thresholds prevents the pool from oscillating.
+ * On start, the pool is pre-warmed with its initial number of instances.
+ * <p/>
+ * The wait time considered is that portion of the wait time reported by the {@code WaitTimeInterceptor} spent acquiring an instance from this pool.
+ * It is recorded by the pool itself, so that sizing does not depend on statistics being enabled for the component.
+ */
+public class AdaptivePool<T> extends AbstractPool<T> implements Runnable {
+
+    static final long DEFAULT_INTERVAL = 1;
+    static final TimeUnit DEFAULT_INTERVAL_UNIT = TimeUnit.SECONDS;
+    /**
+     * The number of consecutive quiet intervals after which the pool shrinks.
+     */
+    static final int SHRINK_INTERVALS = 3;
+
+    /**
+     * Provides the executor used to resize a pool, for as long as the pool is started.
+     */
+    public interface ExecutorProvider {
+        /**
+         * Obtains an executor, when a pool starts.
+         * @return a scheduled executor
+         */
+        ScheduledExecutorService acquire();
+
+        /**
+         * Relinquishes the executor obtained via {@link #acquire()}, when a pool stops.
+         */
+        void release();
+    }
+
+    private final ResizableSemaphore semaphore;
+    private final Queue<T> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idle = new AtomicInteger(0);
+    private final LongAdder waitTime = new LongAdder();
+    private final LongAdder acquisitions = new LongAdder();
+    private final long targetWaitTime;
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    private final ExecutorProvider executorProvider;
+    private final long interval;
+    private final TimeUnit intervalUnit;
+    private volatile int maxSize;
+    /**
+     * The current number of permits.  Guarded by this pool.
+     */
+    private volatile int limit;
+    private long lastWaitTime = 0;
+    private long lastAcquisitions = 0;
+    // The number of consecutive intervals in which callers waited no more than half of the target wait time, and instances were idle
+    private int quietIntervals = 0;
+    private volatile ScheduledFuture<?> future;
+    private volatile boolean started = false;
+
+    /**
+     * Creates a new adaptive pool.
+     * @param factory a factory of pooled instances
+     * @param maxSize the upper bound of the size of this pool
+     * @param targetWaitTime the average wait time, in milliseconds, above which the pool will grow
+     * @param timeout the maximum time to wait for an instance
+     * @param timeUnit the unit of the timeout
+     * @param executorProvider provides the executor used to periodically adjust the size of this pool
+     */
+    public AdaptivePool(StatelessObjectFactory<T> factory, int maxSize, long targetWaitTime, long timeout, TimeUnit timeUnit, ExecutorProvider executorProvider) {
+        this(factory, maxSize, Math.min(maxSize, Runtime.getRuntime().availableProcessors()), targetWaitTime, timeout, timeUnit, executorProvider, DEFAULT_INTERVAL, DEFAULT_INTERVAL_UNIT);
+    }
+
+    AdaptivePool(StatelessObjectFactory<T> factory, int maxSize, int initialSize, long targetWaitTime, long timeout, TimeUnit timeUnit, ExecutorProvider executorProvider, long interval, TimeUnit intervalUnit) {
+        super(factory);
+        this.maxSize = maxSize;
+        this.limit = Math.max(1, Math.min(initialSize, maxSize));
+        this.semaphore = new ResizableSemaphore(this.limit);
+        this.targetWaitTime = TimeUnit.MILLISECONDS.toNanos(targetWaitTime);
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        this.executorProvider = executorProvider;
+        this.interval = interval;
+        this.intervalUnit = intervalUnit;
+    }
+
+    /**
+     * Get an instance without identity.
+     * Can be used by finders,create-methods, and activation
+     *
+     * @return Context /w instance
+     */
+    @Override
+    public T get() {
+        long start = System.nanoTime();
+        try {
+            boolean acquired = this.semaphore.tryAcquire(this.timeout, this.timeUnit);
+            if (!acquired) {
+                throw EjbLogger.ROOT_LOGGER.failedToAcquirePermit(this.timeout, this.timeUnit);
+            }
+        } catch (InterruptedException e) {
+            throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+        } finally {
+            this.waitTime.add(System.nanoTime() - start);
+            this.acquisitions.increment();
+        }
+
+        T bean = this.poll();
+        if (bean != null) {
+            return bean;
+        }
+
+        try {
+            // Pool is empty, create an instance
+            bean = this.create();
+        } finally {
+            if (bean == null) {
+                this.semaphore.release();
+            }
+        }
+        return bean;
+    }
+
+    private T poll() {
+        T bean = this.pool.poll();
+        if (bean != null) {
+            this.idle.decrementAndGet();
+        }
+        return bean;
+    }
+
+    private void offer(T bean) {
+        this.idle.incrementAndGet();
+        this.pool.add(bean);
+    }
+
+    /**
+     * Return an instance after invocation.
+     * If the pool has shrunk while the instance was in use, the instance is destroyed.
+     *
+     * @param obj
+     */
+    @Override
+    public void release(T obj) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", this.idle.get(), this.limit, this);
+        }
+        try {
+            if (this.getCurrentSize() > this.limit) {
+                this.doRemove(obj);
+            } else {
+                this.offer(obj);
+            }
+        } finally {
+            this.semaphore.release();
+        }
+    }
+
+    @Override
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+        this.semaphore.release();
+        super.doRemove(ctx);
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+        this.semaphore.release();
+        super.doRemove(ctx);
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return this.getCreateCount() - this.getRemoveCount();
+    }
+
+    @Override
+    public int getAvailableCount() {
+        return Math.max(this.semaphore.availablePermits(), 0);
+    }
+
+    @Override
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Returns the current size limit of this pool, which never exceeds {@link #getMaxSize()}.
+     * @return the current number of permits
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(Integer.toString(maxSize));
+        }
+        synchronized (this) {
+            this.maxSize = maxSize;
+            if (this.limit > maxSize) {
+                this.resize(maxSize);
+            }
+        }
+    }
+
+    /**
+     * Adjusts the number of permits of this pool, destroying any idle instances in excess of the new limit.
+     * @param limit the new limit
+     */
+    private synchronized void resize(int limit) {
+        int delta = limit - this.limit;
+        if (delta == 0) {
+            return;
+        }
+        ROOT_LOGGER.tracef("Resizing pool %s from %d to %d", this, this.limit, limit);
+        this.limit = limit;
+        if (delta > 0) {
+            this.semaphore.release(delta);
+        } else {
+            this.semaphore.reducePermits(-delta);
+            while (this.getCurrentSize() > limit) {
+                T bean = this.poll();
+                if (bean == null) {
+                    // Remaining excess instances are in use, and will be destroyed on release
+                    break;
+                }
+                this.destroy(bean);
+            }
+        }
+    }
+
+    /**
+     * Creates idle instances until the pool contains the specified number of instances, or its limit.
+     * @param size the target number of instances
+     */
+    private void prewarm(int size) {
+        while (this.getCurrentSize() < Math.min(size, this.limit)) {
+            this.offer(this.create());
+        }
+    }
+
+    /**
+     * Adjusts the size of this pool based on the average time callers waited for an instance since the last adjustment.
+     */
+    @Override
+    public synchronized void run() {
+        if (!this.started) {
+            return;
+        }
+        try {
+            long waitTime = this.waitTime.sum();
+            long acquisitions = this.acquisitions.sum();
+            long intervalWaitTime = waitTime - this.lastWaitTime;
+            long intervalAcquisitions = acquisitions - this.lastAcquisitions;
+            this.lastWaitTime = waitTime;
+            this.lastAcquisitions = acquisitions;
+
+            int limit = this.limit;
+            long averageWaitTime = (intervalAcquisitions > 0) ? intervalWaitTime / intervalAcquisitions : 0;
+            if (averageWaitTime > this.targetWaitTime) {
+                this.quietIntervals = 0;
+                if (limit < this.maxSize) {
+                    // Grow by a quarter, creating the new instances now, instead of on the invocation path
+                    int newLimit = Math.min(this.maxSize, limit + Math.max(1, limit >> 2));
+                    this.resize(newLimit);
+                    this.prewarm(newLimit);
+                }
+            } else if ((averageWaitTime <= (this.targetWaitTime >> 1)) && (this.idle.get() > 0) && (limit > 1)) {
+                // Only shrink once the pool has been consistently oversized
+                if (++this.quietIntervals >= SHRINK_INTERVALS) {
+                    this.quietIntervals = 0;
+                    // Give back half of the idle instances
+                    this.resize(Math.max(1, limit - Math.max(1, this.idle.get() >> 1)));
+                }
+            } else {
+                this.quietIntervals = 0;
+            }
+        } catch (Throwable e) {
+            ROOT_LOGGER.debug(e.getLocalizedMessage(), e);
+        }
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = this.executorProvider.acquire();
+        this.started = true;
+        try {
+            this.future = executor.scheduleWithFixedDelay(this, this.interval, this.interval, this.intervalUnit);
+        } catch (RuntimeException e) {
+            this.started = false;
+            this.executorProvider.release();
+            throw e;
+        }
+        // Pre-warm the pool asynchronously, so as not to delay deployment
+        executor.execute(() -> {
+            try {
+                synchronized (this) {
+                    if (this.started) {
+                        this.prewarm(this.limit);
+                    }
+                }
+            } catch (Throwable e) {
+                ROOT_LOGGER.debug(e.getLocalizedMessage(), e);
+            }
+        });
+    }
+
+    @Override
+    public void stop() {
+        ScheduledFuture<?> future = this.future;
+        if (future != null) {
+            this.future = null;
+            future.cancel(false);
+            this.executorProvider.release();
+        }
+        synchronized (this) {
+            this.started = false;
+            for (T obj = this.poll(); obj != null; obj = this.poll()) {
+                this.destroy(obj);
+            }
+        }
+    }
+
+    /**
+     * Exposes {@link Semaphore#reducePermits(int)}.
+     */
+    private static class ResizableSemaphore extends Semaphore {
+        private static final long serialVersionUID = -1590326419462412539L;
+
+        ResizableSemaphore(int permits) {
+            super(permits, false);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
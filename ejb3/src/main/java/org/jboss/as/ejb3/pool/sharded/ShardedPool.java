@@ -0,0 +1,326 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.pool.sharded;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+
+/**
+ * A pool with a maximum size, whose idle instances are spread across a number of thread-affine shards.
+ * <p/>
+ * Unlike {@link org.jboss.as.ejb3.pool.strictmax.StrictMaxPool}, which funnels every invocation through a single semaphore
+ * and a single queue, an instance is obtained from, and returned to, the shard of the calling thread.
+ * Only on a shard miss are the remaining shards consulted, and only if all shards are empty is the global size bound checked,
+ * in which case a new instance is created or the caller waits for an instance to be released.
+ */
+public class ShardedPool<T> extends AbstractPool<T> {
+
+    private final Shard<T>[] shards;
+    /**
+     * The number of instances created by this pool that are not yet destroyed, whether pooled or in use.
+     */
+    private final AtomicInteger size = new AtomicInteger(0);
+    /**
+     * Guards the waiting of callers when the pool is exhausted.
+     */
+    private final Lock lock = new ReentrantLock();
+    private final Condition available = this.lock.newCondition();
+    /**
+     * The number of callers waiting for an instance. Only modified while holding {@link #lock}.
+     */
+    private volatile int waiters = 0;
+    private volatile int maxSize;
+    private final long timeout;
+    private final TimeUnit timeUnit;
+
+    public ShardedPool(StatelessObjectFactory<T> factory, int maxSize, int shardCount, long timeout, TimeUnit timeUnit) {
+        super(factory);
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException(Integer.toString(shardCount));
+        }
+        this.maxSize = maxSize;
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+        @SuppressWarnings("unchecked")
+        Shard<T>[] shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; ++i) {
+            shards[i] = new Shard<>();
+        }
+        this.shards = shards;
+    }
+
+    private int shardIndex() {
+        return (int) (Thread.currentThread().getId() % this.shards.length);
+    }
+
+    /**
+     * Get an instance without identity.
+     * Can be used by finders,create-methods, and activation
+     *
+     * @return Context /w instance
+     */
+    @Override
+    public T get() {
+        int index = this.shardIndex();
+        T bean = this.shards[index].poll();
+        if (bean != null) {
+            return bean;
+        }
+        bean = this.steal(index);
+        if (bean != null) {
+            return bean;
+        }
+        bean = this.tryCreate();
+        if (bean != null) {
+            return bean;
+        }
+        return this.await(index);
+    }
+
+    /**
+     * Polls the shards other than the specified shard for an idle instance.
+     */
+    private T steal(int index) {
+        for (int i = 1; i < this.shards.length; ++i) {
+            T bean = this.shards[(index + i) % this.shards.length].poll();
+            if (bean != null) {
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a new instance, if doing so does not exceed the maximum size of this pool.
+     * @return a new instance, or null, if this pool is at capacity
+     */
+    private T tryCreate() {
+        int current = this.size.get();
+        while (current < this.maxSize) {
+            if (this.size.compareAndSet(current, current + 1)) {
+                T bean = null;
+                try {
+                    bean = this.create();
+                } finally {
+                    if (bean == null) {
+                        this.decrementSize();
+                    }
+                }
+                return bean;
+            }
+            current = this.size.get();
+        }
+        return null;
+    }
+
+    private T await(int index) {
+        long remaining = this.timeUnit.toNanos(this.timeout);
+        this.lock.lock();
+        try {
+            this.waiters += 1;
+            try {
+                while (true) {
+                    // Re-check now that we are visible to releasing threads
+                    T bean = this.shards[index].poll();
+                    if (bean == null) {
+                        bean = this.steal(index);
+                    }
+                    if (bean == null) {
+                        bean = this.tryCreate();
+                    }
+                    if (bean != null) {
+                        return bean;
+                    }
+                    if (remaining <= 0L) {
+                        throw EjbLogger.ROOT_LOGGER.failedToAcquirePermit(this.timeout, this.timeUnit);
+                    }
+                    remaining = this.available.awaitNanos(remaining);
+                }
+            } finally {
+                this.waiters -= 1;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw EjbLogger.ROOT_LOGGER.acquireSemaphoreInterrupted();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void signal() {
+        if (this.waiters > 0) {
+            this.lock.lock();
+            try {
+                this.available.signal();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private void decrementSize() {
+        this.size.decrementAndGet();
+        this.signal();
+    }
+
+    /**
+     * Return an instance after invocation.
+     * The instance is returned to the shard of the releasing thread.
+     *
+     * @param obj
+     */
+    @Override
+    public void release(T obj) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("%s/%s Free instance: %s", this.size.get(), this.maxSize, this);
+        }
+        if (this.size.get() > this.maxSize) {
+            // Pool was shrunk while this instance was in use
+            this.discard(obj);
+            return;
+        }
+        this.shards[this.shardIndex()].offer(obj);
+        this.signal();
+    }
+
+    @Override
+    public void discard(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Discard instance %s#%s", this, ctx);
+        }
+        try {
+            super.doRemove(ctx);
+        } finally {
+            this.decrementSize();
+        }
+    }
+
+    @Override
+    @Deprecated
+    public void remove(T ctx) {
+        if (ROOT_LOGGER.isTraceEnabled()) {
+            ROOT_LOGGER.tracef("Removing instance: %s#%s", this, ctx);
+        }
+        try {
+            super.doRemove(ctx);
+        } finally {
+            this.decrementSize();
+        }
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return this.getCreateCount() - this.getRemoveCount();
+    }
+
+    @Override
+    public int getAvailableCount() {
+        int idle = 0;
+        for (Shard<T> shard : this.shards) {
+            idle += shard.size();
+        }
+        return Math.max(this.maxSize - this.size.get(), 0) + idle;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Adjusts the maximum size of this pool.
+     * If shrinking, excess instances are destroyed as they are released.
+     */
+    @Override
+    public void setMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException(Integer.toString(maxSize));
+        }
+        this.maxSize = maxSize;
+        if (this.size.get() > maxSize) {
+            for (Shard<T> shard : this.shards) {
+                while (this.size.get() > this.maxSize) {
+                    T bean = shard.poll();
+                    if (bean == null) {
+                        break;
+                    }
+                    this.discard(bean);
+                }
+            }
+        } else {
+            // Callers may be waiting for capacity
+            this.lock.lock();
+            try {
+                this.available.signalAll();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        // Nothing to start
+    }
+
+    @Override
+    public void stop() {
+        for (Shard<T> shard : this.shards) {
+            for (T obj = shard.poll(); obj != null; obj = shard.poll()) {
+                this.destroy(obj);
+                this.size.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * A LIFO stack of idle instances, guarded by its own monitor.
+     * Since each shard is mostly accessed by the same threads, its monitor is rarely contended.
+     */
+    private static class Shard<T> {
+        private final Deque<T> instances = new ArrayDeque<>();
+
+        synchronized T poll() {
+            return this.instances.pollFirst();
+        }
+
+        synchronized void offer(T instance) {
+            this.instances.offerFirst(instance);
+        }
+
+        synchronized int size() {
+            return this.instances.size();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.io.IOException;
+import java.security.PrivilegedAction;
+import java.security.PrivilegedExceptionAction;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.marshalling.cloner.ClassCloner;
+import org.jboss.marshalling.cloner.ClonerConfiguration;
+import org.jboss.marshalling.cloner.ObjectCloner;
+import org.jboss.marshalling.cloner.ObjectCloners;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * A pool of serializing {@link ObjectCloner}s sharing a given {@link ClassCloner}.
+ * An {@link ObjectCloner} is not thread safe, so each clone operation borrows a cloner from this pool and returns it afterwards.
+ * The size of the pool is therefore bounded by the number of concurrent invocations.
+ */
+class ClonerPool {
+
+    private final ClonerConfiguration configuration = new ClonerConfiguration();
+    private final Queue<ObjectCloner> cloners = new ConcurrentLinkedQueue<>();
+
+    ClonerPool(ClassCloner classCloner) {
+        this.configuration.setClassCloner(classCloner);
+    }
+
+    Object clone(final Object object) {
+        if (object == null) {
+            return null;
+        }
+        ObjectCloner cloner = this.cloners.poll();
+        if (cloner == null) {
+            cloner = this.createCloner();
+        }
+        final Object clone;
+        try {
+            clone = clone(cloner, object);
+        } catch (Exception e) {
+            // Don't return a cloner in an unknown state to the pool
+            throw EjbLogger.ROOT_LOGGER.failedToMarshalEjbParameters(e);
+        }
+        cloner.reset();
+        this.cloners.offer(cloner);
+        return clone;
+    }
+
+    private ObjectCloner createCloner() {
+        if (WildFlySecurityManager.isChecking()) {
+            return WildFlySecurityManager.doUnchecked(new PrivilegedAction<ObjectCloner>() {
+                @Override
+                public ObjectCloner run() {
+                    return ObjectCloners.getSerializingObjectClonerFactory().createCloner(ClonerPool.this.configuration);
+                }
+            });
+        }
+        return ObjectCloners.getSerializingObjectClonerFactory().createCloner(this.configuration);
+    }
+
+    private static Object clone(final ObjectCloner cloner, final Object object) throws Exception {
+        if (WildFlySecurityManager.isChecking()) {
+            return WildFlySecurityManager.doUnchecked(new PrivilegedExceptionAction<Object>() {
+                @Override
+                public Object run() throws IOException, ClassNotFoundException {
+                    return cloner.clone(object);
+                }
+            });
+        }
+        return cloner.clone(object);
+    }
+}
@@ -88,6 +88,8 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
     private final byte serverProtocolVersion;
     private final String[] supportedMarshallingStrategies;
     private final OptionMap channelCreationOptions;
+    private final int maxThreadsPerBean;
+    private volatile PerBeanExecutor perBeanExecutor;
 
     public EJBRemoteConnectorService(final byte serverProtocolVersion, final String[] supportedMarshallingStrategies) {
         this(serverProtocolVersion, supportedMarshallingStrategies, OptionMap.EMPTY);
@@ -95,14 +97,27 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
 
     public EJBRemoteConnectorService(final byte serverProtocolVersion, final String[] supportedMarshallingStrategies,
                                      final OptionMap channelCreationOptions) {
+        this(serverProtocolVersion, supportedMarshallingStrategies, channelCreationOptions, 0);
+    }
+
+    /**
+     * @param maxThreadsPerBean the maximum number of threads of the executor that may concurrently handle invocations of a single bean, or 0, if unlimited
+     */
+    public EJBRemoteConnectorService(final byte serverProtocolVersion, final String[] supportedMarshallingStrategies,
+                                     final OptionMap channelCreationOptions, final int maxThreadsPerBean) {
         this.serverProtocolVersion = serverProtocolVersion;
         this.supportedMarshallingStrategies = supportedMarshallingStrategies;
         this.channelCreationOptions = channelCreationOptions;
+        this.maxThreadsPerBean = maxThreadsPerBean;
     }
 
     @Override
     public void start(StartContext context) throws StartException {
 
+        final ExecutorService executor = this.executorService.getOptionalValue();
+        // Invocations executed in the IO worker are not limited per bean
+        this.perBeanExecutor = (executor != null && this.maxThreadsPerBean > 0) ? new PerBeanExecutor(executor, this.maxThreadsPerBean) : null;
+
         // Register an EJB channel open listener
         final OpenListener channelOpenListener = new ChannelOpenListener();
         try {
@@ -257,14 +272,14 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
                     case 0x01:
                         final VersionOneProtocolChannelReceiver versionOneProtocolHandler = new VersionOneProtocolChannelReceiver(this.channelAssociation, deploymentRepository,
                                 EJBRemoteConnectorService.this.ejbRemoteTransactionsRepositoryInjectedValue.getValue(), clientMappingRegistryCollector,
-                                marshallerFactory, executorService.getOptionalValue(), asyncInvocationCancelStatus, suspendController);
+                                marshallerFactory, executorService.getOptionalValue(), perBeanExecutor, asyncInvocationCancelStatus, suspendController);
                         // trigger the receiving
                         versionOneProtocolHandler.startReceiving();
                         break;
                     case 0x02:
                         final VersionTwoProtocolChannelReceiver versionTwoProtocolHandler = new VersionTwoProtocolChannelReceiver(this.channelAssociation, deploymentRepository,
                                 EJBRemoteConnectorService.this.ejbRemoteTransactionsRepositoryInjectedValue.getValue(), clientMappingRegistryCollector,
-                                marshallerFactory, executorService.getOptionalValue(), asyncInvocationCancelStatus, suspendController);
+                                marshallerFactory, executorService.getOptionalValue(), perBeanExecutor, asyncInvocationCancelStatus, suspendController);
                         // trigger the receiving
                         versionTwoProtocolHandler.startReceiving();
                         break;
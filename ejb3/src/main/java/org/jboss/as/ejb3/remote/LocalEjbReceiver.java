@@ -22,13 +22,13 @@
 package org.jboss.as.ejb3.remote;
 
 
-import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
-import java.security.PrivilegedExceptionAction;
 import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.HashMap;
@@ -75,9 +75,6 @@ import org.jboss.ejb.client.TransactionID;
 import org.jboss.ejb.client.remoting.NetworkUtil;
 import org.jboss.invocation.InterceptorContext;
 import org.jboss.marshalling.cloner.ClassLoaderClassCloner;
-import org.jboss.marshalling.cloner.ClonerConfiguration;
-import org.jboss.marshalling.cloner.ObjectCloner;
-import org.jboss.marshalling.cloner.ObjectCloners;
 import org.jboss.msc.inject.Injector;
 import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceName;
@@ -102,8 +99,6 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
     public static final ServiceName BY_VALUE_SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "localEjbReceiver", "value");
     public static final ServiceName BY_REFERENCE_SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "localEjbReceiver", "reference");
 
-    private static final Object[] EMPTY_OBJECT_ARRAY = {};
-
     final List<EJBReceiverContext> contexts = new CopyOnWriteArrayList<EJBReceiverContext>();
     private final InjectedValue<DeploymentRepository> deploymentRepository = new InjectedValue<DeploymentRepository>();
     @SuppressWarnings("rawtypes")
@@ -113,6 +108,14 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
     private final InjectedValue<Endpoint> endpointValue = new InjectedValue<>();
     private final InjectedValue<EJBRemoteConnectorService> ejbRemoteConnectorServiceValue = new InjectedValue<>();
     private final Set<ClusterTopologyUpdateListener> clusterTopologyUpdateListeners = Collections.synchronizedSet(new HashSet<ClusterTopologyUpdateListener>());
+    private final ConcurrentMap<DeploymentModuleIdentifier, ModuleCloning> modules = new ConcurrentHashMap<>();
+    // Results are cloned into the class loader of the invoked proxy
+    private final ClassValue<ClonerPool> resultCloners = new ClassValue<ClonerPool>() {
+        @Override
+        protected ClonerPool computeValue(Class<?> proxyClass) {
+            return new ClonerPool(new LocalInvocationClassCloner(WildFlySecurityManager.getClassLoaderPrivileged(proxyClass)));
+        }
+    };
 
 
     public LocalEjbReceiver(final String nodeName, final boolean allowPassByReference) {
@@ -137,7 +140,8 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
     @Override
     protected void processInvocation(final EJBClientInvocationContext invocation, final EJBReceiverInvocationContext receiverContext) throws Exception {
         final EJBLocator<?> locator = invocation.getLocator();
-        final EjbDeploymentInformation ejb = findBean(locator.getAppName(), locator.getModuleName(), locator.getDistinctName(), locator.getBeanName());
+        final DeploymentModuleIdentifier identifier = new DeploymentModuleIdentifier(locator.getAppName(), locator.getModuleName(), locator.getDistinctName());
+        final EjbDeploymentInformation ejb = findBean(identifier, locator.getBeanName());
         final EJBComponent ejbComponent = ejb.getEjbComponent();
 
         final Class<?> viewClass = invocation.getViewClass();
@@ -149,23 +153,13 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         if (!ejb.isRemoteView(viewClass.getName())) {
             throw EjbLogger.ROOT_LOGGER.viewNotFound(viewClass.getName(), ejb.getEjbName());
         }
-        final ClonerConfiguration paramConfig = new ClonerConfiguration();
-        paramConfig.setClassCloner(new ClassLoaderClassCloner(ejb.getDeploymentClassLoader()));
-        final ObjectCloner parameterCloner = createCloner(paramConfig);
-        //TODO: this is not very efficient
+        final ModuleCloning cloning = this.getModuleCloning(identifier, ejb);
         final Method method = view.getMethod(invocation.getInvokedMethod().getName(), DescriptorUtils.methodDescriptor(invocation.getInvokedMethod()));
+        final LocalInvocationPlan plan = cloning.getPlan(method);
 
         final boolean async = view.isAsynchronous(method);
 
-        final Object[] parameters;
-        if (invocation.getParameters() == null) {
-            parameters = EMPTY_OBJECT_ARRAY;
-        } else {
-            parameters = new Object[invocation.getParameters().length];
-            for (int i = 0; i < parameters.length; ++i) {
-                parameters[i] = clone(method.getParameterTypes()[i], parameterCloner, invocation.getParameters()[i], allowPassByReference);
-            }
-        }
+        final Object[] parameters = plan.copyParameters(invocation.getParameters(), cloning.getParameterCloner());
 
         final InterceptorContext interceptorContext = new InterceptorContext();
         interceptorContext.setParameters(parameters);
@@ -210,9 +204,7 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
             interceptorContext.putPrivateData(EntityBeanComponent.PRIMARY_KEY_CONTEXT_KEY, primaryKey);
         }
 
-        final ClonerConfiguration config = new ClonerConfiguration();
-        config.setClassCloner(new LocalInvocationClassCloner(WildFlySecurityManager.getClassLoaderPrivileged(invocation.getInvokedProxy().getClass())));
-        final ObjectCloner resultCloner = createCloner(config);
+        final ClonerPool resultCloner = this.resultCloners.get(invocation.getInvokedProxy().getClass());
         if (async) {
             if (ejbComponent instanceof SessionBeanComponent) {
                 final SessionBeanComponent component = (SessionBeanComponent) ejbComponent;
@@ -236,12 +228,12 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
                                 if(asyncValue == null) {
                                     return asyncValue;
                                 }
-                                return new AsyncResult(LocalEjbReceiver.clone(asyncValue.getClass(), resultCloner, asyncValue, allowPassByReference));
+                                return new AsyncResult(LocalInvocationPlan.copy(asyncValue.getClass(), asyncValue, resultCloner, allowPassByReference));
                             }
-                            return LocalEjbReceiver.clone(result.getClass(), resultCloner, result, allowPassByReference);
+                            return LocalInvocationPlan.copy(result.getClass(), result, resultCloner, allowPassByReference);
                         } catch(ExecutionException e) {
                             // WFLY-4331 - clone the exception of an async task
-                            throw ((Exception) LocalEjbReceiver.clone(e.getClass(), resultCloner, e, allowPassByReference));
+                            throw ((Exception) LocalInvocationPlan.copy(e.getClass(), e, resultCloner, allowPassByReference));
                         } finally {
                             clearSecurityContextOnAssociation();
                         }
@@ -260,31 +252,16 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
             } catch (Exception e) {
                 //we even have to clone the exception type
                 //to make sure it matches
-                throw (Exception) clone(Exception.class, resultCloner, e, allowPassByReference);
+                throw (Exception) LocalInvocationPlan.copy(Exception.class, e, resultCloner, allowPassByReference);
             }
             //we do not marshal the return type unless we have to, the spec only says we have to
             //pass parameters by reference
             //TODO: investigate the implications of this further
-            final Object clonedResult = clone(invocation.getInvokedMethod().getReturnType(), resultCloner, result, allowPassByReference);
+            final Object clonedResult = plan.copyResult(invocation.getInvokedMethod().getReturnType(), result, resultCloner);
             receiverContext.resultReady(new ImmediateResultProducer(clonedResult));
         }
     }
 
-    private ObjectCloner createCloner(final ClonerConfiguration paramConfig) {
-        ObjectCloner parameterCloner;
-        if(WildFlySecurityManager.isChecking()) {
-            parameterCloner = WildFlySecurityManager.doUnchecked(new PrivilegedAction<ObjectCloner>() {
-                @Override
-                public ObjectCloner run() {
-                    return ObjectCloners.getSerializingObjectClonerFactory().createCloner(paramConfig);
-                }
-            });
-        } else {
-            parameterCloner = ObjectCloners.getSerializingObjectClonerFactory().createCloner(paramConfig);
-        }
-        return parameterCloner;
-    }
-
     @Override
     protected <T> StatefulEJBLocator<T> openSession(EJBReceiverContext context, Class<T> viewType, String appName, String moduleName, String distinctName, String beanName) throws IllegalArgumentException {
         final EjbDeploymentInformation ejbInfo = findBean(appName, moduleName, distinctName, beanName);
@@ -297,42 +274,6 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         return new StatefulEJBLocator<T>(viewType, appName, moduleName, beanName, distinctName, sessionID, statefulComponent.getCache().getStrictAffinity(), this.getNodeName());
     }
 
-    private static Object clone(final Class<?> target, final ObjectCloner cloner, final Object object, final boolean allowPassByReference) {
-        if (object == null) {
-            return null;
-        }
-        // don't clone primitives
-        if (target.isPrimitive()) {
-            return object;
-        }
-        if (allowPassByReference && target.isAssignableFrom(object.getClass())) {
-            return object;
-        }
-        return clone(cloner, object);
-    }
-
-    private static Object clone(final ObjectCloner cloner, final Object object) {
-        if (object == null) {
-            return null;
-        }
-
-        try {
-            if(WildFlySecurityManager.isChecking()) {
-                return WildFlySecurityManager.doUnchecked(new PrivilegedExceptionAction<Object>() {
-                    @Override
-                    public Object run() throws IOException, ClassNotFoundException {
-                        return cloner.clone(object);
-                    }
-                });
-            } else {
-                return cloner.clone(object);
-            }
-        } catch (Exception e) {
-            throw EjbLogger.ROOT_LOGGER.failedToMarshalEjbParameters(e);
-        }
-    }
-
-
     @Override
     protected boolean exists(final String appName, final String moduleName, final String distinctName, final String beanName) {
         try {
@@ -374,17 +315,27 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
     }
 
     private EjbDeploymentInformation findBean(final String appName, final String moduleName, final String distinctName, final String beanName) {
-        final ModuleDeployment module = deploymentRepository.getValue().getModules().get(new DeploymentModuleIdentifier(appName, moduleName, distinctName));
+        return findBean(new DeploymentModuleIdentifier(appName, moduleName, distinctName), beanName);
+    }
+
+    private EjbDeploymentInformation findBean(final DeploymentModuleIdentifier identifier, final String beanName) {
+        final ModuleDeployment module = deploymentRepository.getValue().getModules().get(identifier);
         if (module == null) {
-            throw EjbLogger.ROOT_LOGGER.unknownDeployment(appName, moduleName, distinctName);
+            throw EjbLogger.ROOT_LOGGER.unknownDeployment(identifier.getApplicationName(), identifier.getModuleName(), identifier.getDistinctName());
         }
         final EjbDeploymentInformation ejbInfo = module.getEjbs().get(beanName);
         if (ejbInfo == null) {
-            throw EjbLogger.ROOT_LOGGER.ejbNotFoundInDeployment(beanName, appName, moduleName, distinctName);
+            throw EjbLogger.ROOT_LOGGER.ejbNotFoundInDeployment(beanName, identifier.getApplicationName(), identifier.getModuleName(), identifier.getDistinctName());
         }
         return ejbInfo;
     }
 
+    private ModuleCloning getModuleCloning(final DeploymentModuleIdentifier identifier, final EjbDeploymentInformation ejb) {
+        final ModuleCloning cloning = this.modules.get(identifier);
+        // The module may have been undeployed concurrently, in which case don't cache anything
+        return (cloning != null) ? cloning : new ModuleCloning(ejb.getDeploymentClassLoader(), this.allowPassByReference);
+    }
+
     @Override
     public void start(final StartContext context) {
 
@@ -575,13 +526,16 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         @Override
         public void listenerAdded(final DeploymentRepository repository) {
             for (Map.Entry<DeploymentModuleIdentifier, ModuleDeployment> entry : repository.getModules().entrySet()) {
-                final DeploymentModuleIdentifier module = entry.getKey();
-                LocalEjbReceiver.this.registerModule(module.getApplicationName(), module.getModuleName(), module.getDistinctName());
+                this.deploymentAvailable(entry.getKey(), entry.getValue());
             }
         }
 
         @Override
         public void deploymentAvailable(final DeploymentModuleIdentifier deployment, final ModuleDeployment moduleDeployment) {
+            final ClassLoader loader = findDeploymentClassLoader(moduleDeployment);
+            if (loader != null) {
+                LocalEjbReceiver.this.modules.put(deployment, new ModuleCloning(loader, LocalEjbReceiver.this.allowPassByReference));
+            }
             LocalEjbReceiver.this.registerModule(deployment.getApplicationName(), deployment.getModuleName(), deployment.getDistinctName());
         }
 
@@ -592,6 +546,45 @@ public class LocalEjbReceiver extends EJBReceiver implements Service<LocalEjbRec
         @Override
         public void deploymentRemoved(final DeploymentModuleIdentifier deployment) {
             LocalEjbReceiver.this.deregisterModule(deployment.getApplicationName(), deployment.getModuleName(), deployment.getDistinctName());
+            LocalEjbReceiver.this.modules.remove(deployment);
+        }
+
+        private ClassLoader findDeploymentClassLoader(final ModuleDeployment moduleDeployment) {
+            for (EjbDeploymentInformation ejb : moduleDeployment.getEjbs().values()) {
+                return ejb.getDeploymentClassLoader();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Caches the cloning state of a deployment module, i.e. the invocation plans of its view methods
+     * and the cloners of parameters into its class loader, which would otherwise be recreated per invocation.
+     */
+    private static class ModuleCloning {
+        private final ClonerPool parameterCloner;
+        private final boolean allowPassByReference;
+        private final ConcurrentMap<Method, LocalInvocationPlan> plans = new ConcurrentHashMap<>();
+
+        ModuleCloning(final ClassLoader loader, final boolean allowPassByReference) {
+            this.parameterCloner = new ClonerPool(new ClassLoaderClassCloner(loader));
+            this.allowPassByReference = allowPassByReference;
+        }
+
+        ClonerPool getParameterCloner() {
+            return this.parameterCloner;
+        }
+
+        LocalInvocationPlan getPlan(final Method method) {
+            LocalInvocationPlan plan = this.plans.get(method);
+            if (plan == null) {
+                plan = new LocalInvocationPlan(method, this.allowPassByReference);
+                LocalInvocationPlan existing = this.plans.putIfAbsent(method, plan);
+                if (existing != null) {
+                    plan = existing;
+                }
+            }
+            return plan;
         }
     }
 
@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Describes how the parameters and return value of a view method are copied for a local invocation of a remote view.
+ * Computed once per method, from its declared types:
+ * <ul>
+ * <li>Primitives and immutable JDK types are passed by reference, since copying them has no observable effect.</li>
+ * <li>Arrays of the above are copied shallowly, without serialization.</li>
+ * <li>Anything else is passed by reference if permitted and class loader compatible, or is otherwise cloned.
+ * The runtime type of such a value is checked for immutability first, since the declared type may be a super type, e.g. {@link Object}.</li>
+ * </ul>
+ */
+class LocalInvocationPlan {
+
+    private static final Object[] EMPTY_OBJECT_ARRAY = {};
+
+    /**
+     * JDK types whose instances are immutable. These are all loaded by the bootstrap class loader, so are never cloned across class loaders.
+     */
+    private static final Set<Class<?>> IMMUTABLE_TYPES = Collections.unmodifiableSet(new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            String.class, Boolean.class, Byte.class, Character.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+            BigInteger.class, BigDecimal.class, UUID.class, Locale.class, URI.class,
+            DayOfWeek.class, Duration.class, Instant.class, LocalDate.class, LocalDateTime.class, LocalTime.class, Month.class, MonthDay.class,
+            OffsetDateTime.class, OffsetTime.class, Period.class, Year.class, YearMonth.class, ZoneOffset.class, ZonedDateTime.class)));
+
+    enum Copy {
+        /** Pass the value as is */
+        REFERENCE,
+        /** Copy the array, whose elements are primitives or immutable */
+        ARRAY,
+        /** Decide per value, cloning if necessary */
+        CLONE,
+    }
+
+    private final Class<?>[] parameterTypes;
+    private final Copy[] parameters;
+    private final Copy result;
+    private final boolean allowPassByReference;
+
+    LocalInvocationPlan(final Method method, final boolean allowPassByReference) {
+        this.allowPassByReference = allowPassByReference;
+        this.parameterTypes = method.getParameterTypes();
+        this.parameters = new Copy[this.parameterTypes.length];
+        for (int i = 0; i < this.parameterTypes.length; ++i) {
+            this.parameters[i] = copyOf(this.parameterTypes[i], allowPassByReference);
+        }
+        this.result = copyOf(method.getReturnType(), allowPassByReference);
+    }
+
+    /**
+     * Copies the specified invocation parameters, cloning those that require it into the class loader of the target deployment.
+     */
+    Object[] copyParameters(final Object[] parameters, final ClonerPool cloner) {
+        if (parameters == null) {
+            return EMPTY_OBJECT_ARRAY;
+        }
+        final Object[] result = new Object[parameters.length];
+        for (int i = 0; i < parameters.length; ++i) {
+            result[i] = copy(this.parameters[i], this.parameterTypes[i], parameters[i], cloner, this.allowPassByReference);
+        }
+        return result;
+    }
+
+    /**
+     * Copies the result of an invocation, cloning it into the class loader of the caller, if necessary.
+     * @param target the return type of the invoked method, as seen by the caller
+     */
+    Object copyResult(final Class<?> target, final Object result, final ClonerPool cloner) {
+        return copy(this.result, target, result, cloner, this.allowPassByReference);
+    }
+
+    private static Copy copyOf(final Class<?> type, final boolean allowPassByReference) {
+        if (type.isPrimitive() || isFinalImmutable(type)) {
+            return Copy.REFERENCE;
+        }
+        if (type.isArray()) {
+            final Class<?> componentType = type.getComponentType();
+            if (componentType.isPrimitive() || isFinalImmutable(componentType)) {
+                // Such arrays are always class loader compatible
+                return allowPassByReference ? Copy.REFERENCE : Copy.ARRAY;
+            }
+        }
+        return Copy.CLONE;
+    }
+
+    private static boolean isFinalImmutable(final Class<?> type) {
+        return Modifier.isFinal(type.getModifiers()) && IMMUTABLE_TYPES.contains(type);
+    }
+
+    private static Object copy(final Copy copy, final Class<?> target, final Object object, final ClonerPool cloner, final boolean allowPassByReference) {
+        if (object == null) {
+            return null;
+        }
+        switch (copy) {
+            case REFERENCE: {
+                return object;
+            }
+            case ARRAY: {
+                final int length = Array.getLength(object);
+                final Object array = Array.newInstance(object.getClass().getComponentType(), length);
+                System.arraycopy(object, 0, array, 0, length);
+                return array;
+            }
+            default: {
+                return copy(target, object, cloner, allowPassByReference);
+            }
+        }
+    }
+
+    /**
+     * Copies a value whose type is not known in advance, e.g. an exception or the result of an asynchronous invocation.
+     */
+    static Object copy(final Class<?> target, final Object object, final ClonerPool cloner, final boolean allowPassByReference) {
+        if (object == null) {
+            return null;
+        }
+        // don't clone primitives
+        if (target.isPrimitive()) {
+            return object;
+        }
+        if (allowPassByReference && target.isAssignableFrom(object.getClass())) {
+            return object;
+        }
+        if (IMMUTABLE_TYPES.contains(object.getClass())) {
+            return object;
+        }
+        return cloner.clone(object);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Dispatches the remote invocations of each bean to a shared executor, such that the invocations of a single bean never occupy more
+ * than a fixed number of the executor's threads.
+ * Further invocations of a bean whose limit is reached are queued, in order, and executed by one of that bean's threads once it
+ * completes its current invocation. Thus, a slow bean cannot starve the invocations of other beans.
+ */
+public class PerBeanExecutor {
+
+    private final Map<Object, BeanQueue> queues = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final int maxThreadsPerBean;
+
+    /**
+     * @param executor the shared executor
+     * @param maxThreadsPerBean the maximum number of threads of the shared executor that may concurrently execute the invocations of a single bean
+     */
+    public PerBeanExecutor(final Executor executor, final int maxThreadsPerBean) {
+        if (maxThreadsPerBean < 1) {
+            throw new IllegalArgumentException(String.valueOf(maxThreadsPerBean));
+        }
+        this.executor = executor;
+        this.maxThreadsPerBean = maxThreadsPerBean;
+    }
+
+    /**
+     * Executes the specified invocation of the specified bean.
+     * @param bean identifies the target bean of the invocation
+     * @param task the invocation
+     * @throws RejectedExecutionException if the shared executor rejected the task
+     */
+    public void execute(final Object bean, final Runnable task) {
+        final boolean[] dispatch = new boolean[1];
+        this.queues.compute(bean, (key, queue) -> {
+            final BeanQueue result = (queue != null) ? queue : new BeanQueue();
+            if (result.threads < this.maxThreadsPerBean) {
+                result.threads += 1;
+                dispatch[0] = true;
+            } else {
+                result.tasks.add(task);
+            }
+            return result;
+        });
+        if (dispatch[0]) {
+            try {
+                this.executor.execute(new Worker(bean, task));
+            } catch (RejectedExecutionException e) {
+                // Hand the thread reserved for this task over to any task queued in the meantime
+                this.dispatchNext(bean);
+                throw e;
+            }
+        }
+    }
+
+    private void dispatchNext(final Object bean) {
+        Runnable next = this.next(bean);
+        while (next != null) {
+            try {
+                this.executor.execute(new Worker(bean, next));
+                return;
+            } catch (RejectedExecutionException e) {
+                // Executor is shutting down, so the task would have been rejected anyway
+                next = this.next(bean);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of beans with pending or running invocations.
+     */
+    int getActiveBeans() {
+        return this.queues.size();
+    }
+
+    /**
+     * Returns the next queued invocation of the specified bean, or releases one of its threads if there is none.
+     */
+    Runnable next(final Object bean) {
+        final Runnable[] next = new Runnable[1];
+        this.queues.computeIfPresent(bean, (key, queue) -> {
+            next[0] = queue.tasks.poll();
+            if (next[0] == null) {
+                queue.threads -= 1;
+                // Don't retain any reference to an idle bean, which may since have been undeployed
+                return (queue.threads > 0) ? queue : null;
+            }
+            return queue;
+        });
+        return next[0];
+    }
+
+    /**
+     * The queued invocations of a bean, and the number of threads executing its invocations.
+     * Only accessed while holding the lock on the corresponding map entry.
+     */
+    private static class BeanQueue {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        int threads = 0;
+    }
+
+    private class Worker implements Runnable {
+        private final Object bean;
+        private final Runnable task;
+
+        Worker(final Object bean, final Runnable task) {
+            this.bean = bean;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            Runnable task = this.task;
+            while (task != null) {
+                boolean completed = false;
+                try {
+                    task.run();
+                    completed = true;
+                } finally {
+                    if (completed) {
+                        task = PerBeanExecutor.this.next(this.bean);
+                    } else {
+                        // Don't strand the queued invocations of this bean
+                        PerBeanExecutor.this.dispatchNext(this.bean);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -241,7 +241,19 @@ public abstract class AbstractMessageHandler implements MessageHandler {
      * @throws IOException
      */
     protected Unmarshaller prepareForUnMarshalling(final MarshallerFactory marshallerFactory, final ClassResolver classResolver, final DataInputStream dataInput) throws IOException {
-        final Unmarshaller unmarshaller = this.getUnMarshaller(marshallerFactory, classResolver);
+        return this.prepareForUnMarshalling(this.getUnMarshaller(marshallerFactory, classResolver), dataInput);
+    }
+
+    /**
+     * Prepares a previously created {@link org.jboss.marshalling.Unmarshaller} for unmarshalling, by invoking {@link org.jboss.marshalling.Unmarshaller#start(org.jboss.marshalling.ByteInput)}
+     * using the passed {@link java.io.DataInput dataInput}.
+     *
+     * @param unmarshaller The unmarshaller, which is either new, or was {@link org.jboss.marshalling.Unmarshaller#finish() finished}
+     * @param dataInput    The data input from which to unmarshall
+     * @return the passed unmarshaller
+     * @throws IOException
+     */
+    protected Unmarshaller prepareForUnMarshalling(final Unmarshaller unmarshaller, final DataInputStream dataInput) throws IOException {
         final InputStream is = new InputStream() {
             @Override
             public int read() throws IOException {
@@ -278,7 +290,7 @@ public abstract class AbstractMessageHandler implements MessageHandler {
      * @return
      * @throws IOException
      */
-    private Unmarshaller getUnMarshaller(final MarshallerFactory marshallerFactory, final ClassResolver classResolver) throws IOException {
+    protected Unmarshaller getUnMarshaller(final MarshallerFactory marshallerFactory, final ClassResolver classResolver) throws IOException {
         final MarshallingConfiguration marshallingConfiguration = new MarshallingConfiguration();
         marshallingConfiguration.setVersion(2);
         marshallingConfiguration.setClassTable(ProtocolV1ClassTable.INSTANCE);
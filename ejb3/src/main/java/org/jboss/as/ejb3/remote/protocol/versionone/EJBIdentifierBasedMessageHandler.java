@@ -22,8 +22,6 @@
 
 package org.jboss.as.ejb3.remote.protocol.versionone;
 
-import java.util.Map;
-
 import org.jboss.as.ejb3.deployment.DeploymentModuleIdentifier;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
@@ -43,11 +41,7 @@ abstract class EJBIdentifierBasedMessageHandler extends AbstractMessageHandler {
 
     protected EjbDeploymentInformation findEJB(final String appName, final String moduleName, final String distinctName, final String beanName) {
         final DeploymentModuleIdentifier ejbModule = new DeploymentModuleIdentifier(appName, moduleName, distinctName);
-        final Map<DeploymentModuleIdentifier, ModuleDeployment> modules = this.deploymentRepository.getStartedModules();
-        if (modules == null || modules.isEmpty()) {
-            return null;
-        }
-        final ModuleDeployment moduleDeployment = modules.get(ejbModule);
+        final ModuleDeployment moduleDeployment = this.deploymentRepository.getStartedModule(ejbModule);
         if (moduleDeployment == null) {
             return null;
         }
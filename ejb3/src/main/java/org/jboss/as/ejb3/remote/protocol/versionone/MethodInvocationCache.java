@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * Per channel state reused across method invocation requests, so that handling an invocation request needs neither to create an
+ * {@link Unmarshaller} nor to scan the methods of the target view.
+ * Unmarshallers are pooled, since multiple invocation requests on the same channel may be unmarshalled concurrently.
+ */
+public class MethodInvocationCache {
+
+    private final Queue<PooledUnmarshaller> unmarshallers = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<ComponentView, ConcurrentMap<String, Method>> methods = new ConcurrentHashMap<>();
+
+    PooledUnmarshaller pollUnmarshaller() {
+        return this.unmarshallers.poll();
+    }
+
+    void offerUnmarshaller(PooledUnmarshaller unmarshaller) {
+        this.unmarshallers.offer(unmarshaller);
+    }
+
+    Method getMethod(ComponentView view, String signature) {
+        final Map<String, Method> methods = this.methods.get(view);
+        return (methods != null) ? methods.get(signature) : null;
+    }
+
+    void putMethod(ComponentView view, String signature, Method method) {
+        ConcurrentMap<String, Method> methods = this.methods.get(view);
+        if (methods == null) {
+            methods = new ConcurrentHashMap<>();
+            final ConcurrentMap<String, Method> existing = this.methods.putIfAbsent(view, methods);
+            if (existing != null) {
+                methods = existing;
+            }
+        }
+        methods.put(signature, method);
+    }
+
+    /**
+     * Discards all resolved methods, e.g. following undeployment of a module, so that we do not retain references to its views.
+     */
+    void clearMethods() {
+        this.methods.clear();
+    }
+
+    /**
+     * Discards all cached state.
+     */
+    void clear() {
+        this.methods.clear();
+        this.unmarshallers.clear();
+    }
+
+    /**
+     * An {@link Unmarshaller} along with the mutable class resolver with which it was configured.
+     */
+    static class PooledUnmarshaller {
+        private final Unmarshaller unmarshaller;
+        private final MethodInvocationMessageHandler.ClassLoaderSwitchingClassResolver classResolver;
+
+        PooledUnmarshaller(Unmarshaller unmarshaller, MethodInvocationMessageHandler.ClassLoaderSwitchingClassResolver classResolver) {
+            this.unmarshaller = unmarshaller;
+            this.classResolver = classResolver;
+        }
+
+        Unmarshaller getUnmarshaller() {
+            return this.unmarshaller;
+        }
+
+        MethodInvocationMessageHandler.ClassLoaderSwitchingClassResolver getClassResolver() {
+            return this.classResolver;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
 import org.jboss.as.ejb3.component.stateless.StatelessSessionComponent;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
+import org.jboss.as.ejb3.remote.PerBeanExecutor;
 import org.jboss.as.ejb3.remote.RemoteAsyncInvocationCancelStatusService;
 import org.jboss.ejb.client.Affinity;
 import org.jboss.ejb.client.EJBClientInvocationContext;
@@ -73,15 +74,36 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
     private static final byte HEADER_ASYNC_METHOD_NOTIFICATION = 0x0E;
 
     private final ExecutorService executorService;
+    private final PerBeanExecutor perBeanExecutor;
     private final MarshallerFactory marshallerFactory;
     private final RemoteAsyncInvocationCancelStatusService remoteAsyncInvocationCancelStatus;
+    private final MethodInvocationCache cache;
 
     public MethodInvocationMessageHandler(final DeploymentRepository deploymentRepository, final org.jboss.marshalling.MarshallerFactory marshallerFactory, final ExecutorService executorService,
                                    final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatus) {
+        this(deploymentRepository, marshallerFactory, executorService, asyncInvocationCancelStatus, null);
+    }
+
+    /**
+     * @param cache the cache of the channel on which invocation requests are received, or null, if nothing should be reused across requests
+     */
+    public MethodInvocationMessageHandler(final DeploymentRepository deploymentRepository, final org.jboss.marshalling.MarshallerFactory marshallerFactory, final ExecutorService executorService,
+                                   final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatus, final MethodInvocationCache cache) {
+        this(deploymentRepository, marshallerFactory, executorService, null, asyncInvocationCancelStatus, cache);
+    }
+
+    /**
+     * @param perBeanExecutor limits the threads of the executor service that handle the invocations of each bean, or null, if unlimited
+     * @param cache the cache of the channel on which invocation requests are received, or null, if nothing should be reused across requests
+     */
+    public MethodInvocationMessageHandler(final DeploymentRepository deploymentRepository, final org.jboss.marshalling.MarshallerFactory marshallerFactory, final ExecutorService executorService,
+                                   final PerBeanExecutor perBeanExecutor, final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatus, final MethodInvocationCache cache) {
         super(deploymentRepository);
         this.marshallerFactory = marshallerFactory;
         this.executorService = executorService;
+        this.perBeanExecutor = perBeanExecutor;
         this.remoteAsyncInvocationCancelStatus = asyncInvocationCancelStatus;
+        this.cache = cache;
     }
 
     @Override
@@ -105,8 +127,24 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
         // read the Locator
         // we use a mutable ClassResolver, so that we can switch to a different (and correct deployment CL)
         // midway through the unmarshalling of the stream
-        final ClassLoaderSwitchingClassResolver classResolver = new ClassLoaderSwitchingClassResolver(Thread.currentThread().getContextClassLoader());
-        final Unmarshaller unmarshaller = this.prepareForUnMarshalling(this.marshallerFactory, classResolver, input);
+        final MethodInvocationCache.PooledUnmarshaller pooledUnmarshaller = this.acquireUnmarshaller(Thread.currentThread().getContextClassLoader());
+        final ClassLoaderSwitchingClassResolver classResolver = pooledUnmarshaller.getClassResolver();
+        final Unmarshaller unmarshaller = this.prepareForUnMarshalling(pooledUnmarshaller.getUnmarshaller(), input);
+        // only return the unmarshaller to the pool if the request was completely unmarshalled
+        boolean unmarshalled = false;
+        try {
+            unmarshalled = this.processMessage(channelAssociation, invocationId, methodName, signature, methodParamTypes, unmarshaller, classResolver);
+        } finally {
+            this.releaseUnmarshaller(pooledUnmarshaller, unmarshalled);
+        }
+    }
+
+    /**
+     * Unmarshals the remainder of the invocation request, and dispatches the invocation.
+     * @return true, if the request was completely unmarshalled, false otherwise
+     */
+    private boolean processMessage(final ChannelAssociation channelAssociation, final short invocationId, final String methodName, final String signature, final String[] methodParamTypes,
+            final Unmarshaller unmarshaller, final ClassLoaderSwitchingClassResolver classResolver) throws IOException {
         // read the EJB info
         final String appName;
         final String moduleName;
@@ -123,7 +161,7 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
         final EjbDeploymentInformation ejbDeploymentInformation = this.findEJB(appName, moduleName, distinctName, beanName);
         if (ejbDeploymentInformation == null) {
             this.writeNoSuchEJBFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, null);
-            return;
+            return false;
         }
         final ClassLoader tccl = WildFlySecurityManager.getCurrentContextClassLoaderPrivileged();
         Runnable runnable = null;
@@ -144,13 +182,13 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
             // Make sure it's a remote view
             if (!ejbDeploymentInformation.isRemoteView(viewClassName)) {
                 this.writeNoSuchEJBFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, viewClassName);
-                return;
+                return false;
             }
             final ComponentView componentView = ejbDeploymentInformation.getView(viewClassName);
-            final Method invokedMethod = this.findMethod(componentView, methodName, methodParamTypes);
+            final Method invokedMethod = this.findMethod(componentView, methodName, signature, methodParamTypes);
             if (invokedMethod == null) {
                 this.writeNoSuchEJBMethodFailureMessage(channelAssociation, invocationId, appName, moduleName, distinctName, beanName, viewClassName, methodName, methodParamTypes);
-                return;
+                return false;
             }
 
             final Object[] methodParams = new Object[methodParamTypes.length];
@@ -162,7 +200,7 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
                     } catch (Throwable e) {
                         // write out the failure
                         MethodInvocationMessageHandler.this.writeException(channelAssociation, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, e, null);
-                        return;
+                        return false;
                     }
                 }
             }
@@ -173,7 +211,7 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
             } catch (Throwable e) {
                 // write out the failure
                 MethodInvocationMessageHandler.this.writeException(channelAssociation, MethodInvocationMessageHandler.this.marshallerFactory, invocationId, e, null);
-                return;
+                return false;
             }
             // done with unmarshalling
             unmarshaller.finish();
@@ -248,11 +286,39 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
             WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(tccl);
         }
         // invoke the method and write out the response on a separate thread
-        if(executorService != null) {
+        if (perBeanExecutor != null) {
+            perBeanExecutor.execute(ejbDeploymentInformation, runnable);
+        } else if(executorService != null) {
             executorService.submit( runnable );
         } else {
             runnable.run();
         }
+        return true;
+    }
+
+    private MethodInvocationCache.PooledUnmarshaller acquireUnmarshaller(final ClassLoader classLoader) throws IOException {
+        MethodInvocationCache.PooledUnmarshaller pooledUnmarshaller = (this.cache != null) ? this.cache.pollUnmarshaller() : null;
+        if (pooledUnmarshaller == null) {
+            final ClassLoaderSwitchingClassResolver classResolver = new ClassLoaderSwitchingClassResolver(classLoader);
+            return new MethodInvocationCache.PooledUnmarshaller(this.getUnMarshaller(this.marshallerFactory, classResolver), classResolver);
+        }
+        pooledUnmarshaller.getClassResolver().switchClassLoader(classLoader);
+        return pooledUnmarshaller;
+    }
+
+    private void releaseUnmarshaller(final MethodInvocationCache.PooledUnmarshaller pooledUnmarshaller, final boolean reusable) {
+        // Don't retain a reference to the deployment class loader
+        pooledUnmarshaller.getClassResolver().switchClassLoader(null);
+        if (reusable && (this.cache != null)) {
+            try {
+                // Classes resolved for this request are not necessarily valid for the next
+                pooledUnmarshaller.getUnmarshaller().clearClassCache();
+                this.cache.offerUnmarshaller(pooledUnmarshaller);
+            } catch (IOException e) {
+                // Just discard it
+                EjbLogger.REMOTE_LOGGER.debugf(e, "Discarding unmarshaller %s", pooledUnmarshaller.getUnmarshaller());
+            }
+        }
     }
 
     private Affinity getWeakAffinity(final StatefulSessionComponent statefulSessionComponent, final StatefulEJBLocator<?> statefulEJBLocator) {
@@ -323,6 +389,21 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
         }
     }
 
+    private Method findMethod(final ComponentView componentView, final String methodName, final String signature, final String[] paramTypes) {
+        if (this.cache == null) {
+            return this.findMethod(componentView, methodName, paramTypes);
+        }
+        final String key = methodName + '(' + signature + ')';
+        Method method = this.cache.getMethod(componentView, key);
+        if (method == null) {
+            method = this.findMethod(componentView, methodName, paramTypes);
+            if (method != null) {
+                this.cache.putMethod(componentView, key, method);
+            }
+        }
+        return method;
+    }
+
     private Method findMethod(final ComponentView componentView, final String methodName, final String[] paramTypes) {
         final Set<Method> viewMethods = componentView.getViewMethods();
         for (final Method method : viewMethods) {
@@ -402,7 +483,7 @@ public class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHan
     /**
      * A mutable {@link org.jboss.marshalling.ClassResolver}
      */
-    private class ClassLoaderSwitchingClassResolver extends AbstractClassResolver {
+    static class ClassLoaderSwitchingClassResolver extends AbstractClassResolver {
 
         private ClassLoader currentClassLoader;
 
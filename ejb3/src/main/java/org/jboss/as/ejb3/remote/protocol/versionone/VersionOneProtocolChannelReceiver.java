@@ -39,6 +39,7 @@ import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.DeploymentRepositoryListener;
 import org.jboss.as.ejb3.deployment.ModuleDeployment;
 import org.jboss.as.ejb3.remote.EJBRemoteTransactionsRepository;
+import org.jboss.as.ejb3.remote.PerBeanExecutor;
 import org.jboss.as.ejb3.remote.RegistryCollector;
 import org.jboss.as.ejb3.remote.RemoteAsyncInvocationCancelStatusService;
 import org.jboss.as.ejb3.remote.protocol.MessageHandler;
@@ -75,18 +76,31 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
     protected final EJBRemoteTransactionsRepository transactionsRepository;
     protected final MarshallerFactory marshallerFactory;
     protected final ExecutorService executorService;
+    protected final PerBeanExecutor perBeanExecutor;
     protected final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector;
     protected final Set<ClusterTopologyUpdateListener> clusterTopologyUpdateListeners = Collections.synchronizedSet(new HashSet<ClusterTopologyUpdateListener>());
     protected final RemoteAsyncInvocationCancelStatusService remoteAsyncInvocationCancelStatus;
     protected final SuspendController suspendController;
+    protected final MethodInvocationCache methodInvocationCache = new MethodInvocationCache();
 
     public VersionOneProtocolChannelReceiver(final ChannelAssociation channelAssociation, final DeploymentRepository deploymentRepository,
                                              final EJBRemoteTransactionsRepository transactionsRepository, final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector,
                                              final MarshallerFactory marshallerFactory, final ExecutorService executorService,
                                              final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatusService, final SuspendController suspendController) {
+        this(channelAssociation, deploymentRepository, transactionsRepository, clientMappingRegistryCollector, marshallerFactory, executorService, null, asyncInvocationCancelStatusService, suspendController);
+    }
+
+    /**
+     * @param perBeanExecutor limits the threads of the executor service that handle the invocations of each bean, or null, if unlimited
+     */
+    public VersionOneProtocolChannelReceiver(final ChannelAssociation channelAssociation, final DeploymentRepository deploymentRepository,
+                                             final EJBRemoteTransactionsRepository transactionsRepository, final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector,
+                                             final MarshallerFactory marshallerFactory, final ExecutorService executorService, final PerBeanExecutor perBeanExecutor,
+                                             final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatusService, final SuspendController suspendController) {
         this.marshallerFactory = marshallerFactory;
         this.channelAssociation = channelAssociation;
         this.executorService = executorService;
+        this.perBeanExecutor = perBeanExecutor;
         this.deploymentRepository = deploymentRepository;
         this.transactionsRepository = transactionsRepository;
         this.clientMappingRegistryCollector = clientMappingRegistryCollector;
@@ -177,7 +191,7 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
     protected MessageHandler getMessageHandler(final byte header) {
         switch (header) {
             case HEADER_INVOCATION_REQUEST:
-                return new MethodInvocationMessageHandler(this.deploymentRepository, this.marshallerFactory, this.executorService, this.remoteAsyncInvocationCancelStatus);
+                return new MethodInvocationMessageHandler(this.deploymentRepository, this.marshallerFactory, this.executorService, this.perBeanExecutor, this.remoteAsyncInvocationCancelStatus, this.methodInvocationCache);
             case HEADER_INVOCATION_CANCELLATION_REQUEST:
                 return new InvocationCancellationMessageHandler(this.remoteAsyncInvocationCancelStatus);
             case HEADER_SESSION_OPEN_REQUEST:
@@ -242,6 +256,8 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
 
     @Override
     public void deploymentRemoved(DeploymentModuleIdentifier deploymentModuleIdentifier) {
+        // don't hold on to the views of the removed module
+        this.methodInvocationCache.clearMethods();
         try {
             this.sendModuleUnAvailability(new DeploymentModuleIdentifier[] {deploymentModuleIdentifier});
         } catch (IOException e) {
@@ -384,6 +400,7 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
         this.deploymentRepository.removeListener(this);
         this.clientMappingRegistryCollector.removeListener(this);
         this.suspendController.unRegisterActivity(this);
+        this.methodInvocationCache.clear();
     }
 
     class ChannelCloseHandler implements CloseHandler<Channel> {
@@ -4,7 +4,9 @@ import org.jboss.as.ee.component.ComponentView;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.remote.CompressedMethodsInformation;
+import org.jboss.as.ejb3.remote.PerBeanExecutor;
 import org.jboss.as.ejb3.remote.RemoteAsyncInvocationCancelStatusService;
+import org.jboss.as.ejb3.remote.protocol.versionone.MethodInvocationCache;
 import org.jboss.as.ejb3.remote.protocol.versionone.MethodInvocationMessageHandler;
 import org.jboss.ejb.client.annotation.CompressionHint;
 import org.jboss.marshalling.MarshallerFactory;
@@ -30,6 +32,14 @@ public class CompressedMethodInvocationMessageHandler extends MethodInvocationMe
         super(deploymentRepository, marshallerFactory, executorService, asyncInvocationCancelStatus);
     }
 
+    CompressedMethodInvocationMessageHandler(DeploymentRepository deploymentRepository, MarshallerFactory marshallerFactory, ExecutorService executorService, RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatus, MethodInvocationCache cache) {
+        super(deploymentRepository, marshallerFactory, executorService, asyncInvocationCancelStatus, cache);
+    }
+
+    CompressedMethodInvocationMessageHandler(DeploymentRepository deploymentRepository, MarshallerFactory marshallerFactory, ExecutorService executorService, PerBeanExecutor perBeanExecutor, RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatus, MethodInvocationCache cache) {
+        super(deploymentRepository, marshallerFactory, executorService, perBeanExecutor, asyncInvocationCancelStatus, cache);
+    }
+
 
     protected DataOutputStream wrapMessageOutputStream(MessageOutputStream messageOutputStream, Method invokedMethod, ComponentView componentView) throws IOException {
         // look for CompressionHint annotation
@@ -24,6 +24,7 @@ package org.jboss.as.ejb3.remote.protocol.versiontwo;
 
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.remote.EJBRemoteTransactionsRepository;
+import org.jboss.as.ejb3.remote.PerBeanExecutor;
 import org.jboss.as.ejb3.remote.RegistryCollector;
 import org.jboss.as.ejb3.remote.RemoteAsyncInvocationCancelStatusService;
 import org.jboss.as.ejb3.remote.protocol.MessageHandler;
@@ -55,12 +56,19 @@ public class VersionTwoProtocolChannelReceiver extends VersionOneProtocolChannel
         super(channelAssociation, deploymentRepository, transactionsRepository, clientMappingRegistryCollector, marshallerFactory, executorService, asyncInvocationCancelStatusService, suspendController);
     }
 
+    public VersionTwoProtocolChannelReceiver(final ChannelAssociation channelAssociation, final DeploymentRepository deploymentRepository,
+                                             final EJBRemoteTransactionsRepository transactionsRepository, final RegistryCollector<String, List<ClientMapping>> clientMappingRegistryCollector,
+                                             final MarshallerFactory marshallerFactory, final ExecutorService executorService, final PerBeanExecutor perBeanExecutor,
+                                             final RemoteAsyncInvocationCancelStatusService asyncInvocationCancelStatusService, final SuspendController suspendController) {
+        super(channelAssociation, deploymentRepository, transactionsRepository, clientMappingRegistryCollector, marshallerFactory, executorService, perBeanExecutor, asyncInvocationCancelStatusService, suspendController);
+    }
+
 
     @Override
     protected MessageHandler getMessageHandler(byte header) {
         switch (header) {
             case HEADER_INVOCATION_REQUEST:
-                return new CompressedMethodInvocationMessageHandler(this.deploymentRepository, this.marshallerFactory, this.executorService, this.remoteAsyncInvocationCancelStatus);
+                return new CompressedMethodInvocationMessageHandler(this.deploymentRepository, this.marshallerFactory, this.executorService, this.perBeanExecutor, this.remoteAsyncInvocationCancelStatus, this.methodInvocationCache);
             case HEADER_TX_RECOVER_MESSAGE:
                 return new TransactionRecoverMessageHandler(this.transactionsRepository, this.marshallerFactory, this.executorService);
             case HEADER_COMPRESSED_MESSAGE:
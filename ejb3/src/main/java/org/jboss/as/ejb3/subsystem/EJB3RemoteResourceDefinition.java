@@ -30,6 +30,7 @@ import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ReloadRequiredWriteAttributeHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -76,6 +77,13 @@ public class EJB3RemoteResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
                     .build();
 
+    static final SimpleAttributeDefinition MAX_THREADS_PER_BEAN =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.MAX_THREADS_PER_BEAN, ModelType.INT, true)
+                    .setAllowExpression(true)
+                    .setValidator(new IntRangeValidator(1, Integer.MAX_VALUE, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .build();
+
     private static final Map<String, AttributeDefinition> ATTRIBUTES;
 
     static {
@@ -84,6 +92,7 @@ public class EJB3RemoteResourceDefinition extends SimpleResourceDefinition {
         map.put(CONNECTOR_REF.getName(), CONNECTOR_REF);
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
         map.put(EXECUTE_IN_WORKER.getName(), EXECUTE_IN_WORKER);
+        map.put(MAX_THREADS_PER_BEAN.getName(), MAX_THREADS_PER_BEAN);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -122,6 +131,8 @@ public class EJB3RemoteResourceDefinition extends SimpleResourceDefinition {
                 .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(BeanManagerFactoryBuilderConfiguration.DEFAULT_CONTAINER_NAME)),CLIENT_MAPPINGS_CLUSTER_NAME)
                 .addRejectCheck(RejectAttributeChecker.DEFINED, CLIENT_MAPPINGS_CLUSTER_NAME)
                 .setDiscard(DiscardAttributeChecker.ALWAYS, EXECUTE_IN_WORKER) //as this does not affect functionality we just discard
+                .setDiscard(DiscardAttributeChecker.UNDEFINED, MAX_THREADS_PER_BEAN)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, MAX_THREADS_PER_BEAN)
                 .end();
     }
 
@@ -131,6 +142,8 @@ public class EJB3RemoteResourceDefinition extends SimpleResourceDefinition {
                 .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(BeanManagerFactoryBuilderConfiguration.DEFAULT_CONTAINER_NAME)),CLIENT_MAPPINGS_CLUSTER_NAME)
                 .addRejectCheck(RejectAttributeChecker.DEFINED, CLIENT_MAPPINGS_CLUSTER_NAME)
                 .setDiscard(DiscardAttributeChecker.ALWAYS, EXECUTE_IN_WORKER) //as this does not affect functionality we just discard
+                .setDiscard(DiscardAttributeChecker.UNDEFINED, MAX_THREADS_PER_BEAN)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, MAX_THREADS_PER_BEAN)
                 .end();
     }
 
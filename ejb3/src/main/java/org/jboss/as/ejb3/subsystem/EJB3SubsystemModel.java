@@ -49,6 +49,7 @@ public interface EJB3SubsystemModel {
     String DEFAULT_SFSB_CACHE = "default-sfsb-cache";
     String DEFAULT_CLUSTERED_SFSB_CACHE = "default-clustered-sfsb-cache";
     String DEFAULT_SFSB_PASSIVATION_DISABLED_CACHE = "default-sfsb-passivation-disabled-cache";
+    String DEFAULT_SINGLETON_BEAN_STRIPED_LOCK = "default-singleton-bean-striped-lock";
     String DEFAULT_SLSB_INSTANCE_POOL = "default-slsb-instance-pool";
     String INSTANCE_ACQUISITION_TIMEOUT = "timeout";
     String INSTANCE_ACQUISITION_TIMEOUT_UNIT = "timeout-unit";
@@ -63,6 +64,8 @@ public interface EJB3SubsystemModel {
 
     String MAX_POOL_SIZE = "max-pool-size";
     String DERIVE_SIZE = "derive-size";
+    String SHARD_COUNT = "shard-count";
+    String TARGET_WAIT_TIME = "target-wait-time";
 
     String STRICT_MAX_BEAN_INSTANCE_POOL = "strict-max-bean-instance-pool";
 
@@ -70,6 +73,7 @@ public interface EJB3SubsystemModel {
     String KEEPALIVE_TIME = "keepalive-time";
 
     String RELATIVE_TO = "relative-to";
+    String JOURNAL = "journal";
     String PATH = "path";
 
     String DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT = "default-singleton-bean-access-timeout";
@@ -137,4 +141,5 @@ public interface EJB3SubsystemModel {
 
     ServiceName BASE_THREAD_POOL_SERVICE_NAME = ThreadsServices.EXECUTOR.append("ejb3");
     String EXECUTE_IN_WORKER = "execute-in-worker";
+    String MAX_THREADS_PER_BEAN = "max-threads-per-bean";
 }
@@ -61,6 +61,8 @@ public enum EJB3SubsystemXMLAttribute {
     INSTANCE_ACQUISITION_TIMEOUT("instance-acquisition-timeout"),
     INSTANCE_ACQUISITION_TIMEOUT_UNIT("instance-acquisition-timeout-unit"),
 
+    JOURNAL("journal"),
+
     KEEPALIVE_TIME("keepalive-time"),
 
     LOCAL_RECEIVER_PASS_BY_VALUE("local-receiver-pass-by-value"),
@@ -87,8 +89,10 @@ public enum EJB3SubsystemXMLAttribute {
     RESOURCE_ADAPTER_NAME("resource-adapter-name"),
 
     @Deprecated SESSIONS_PATH("sessions-path"),
+    SHARD_COUNT("shard-count"),
     @Deprecated SUBDIRECTORY_COUNT("subdirectory-count"),
 
+    TARGET_WAIT_TIME("target-wait-time"),
     THREAD_POOL_NAME("thread-pool-name"),
     TYPE("type"),
 
@@ -98,7 +102,8 @@ public enum EJB3SubsystemXMLAttribute {
 
     ACTIVE("active"),
 
-    EXECUTE_IN_WORKER("execute-in-worker")
+    EXECUTE_IN_WORKER("execute-in-worker"),
+    MAX_THREADS_PER_BEAN("max-threads-per-bean")
     ;
 
     private final String name;
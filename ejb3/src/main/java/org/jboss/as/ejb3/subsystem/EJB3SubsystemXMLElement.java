@@ -46,6 +46,7 @@ public enum EJB3SubsystemXMLElement {
     DEFAULT_DISTINCT_NAME("default-distinct-name"),
     DEFAULT_SECURITY_DOMAIN("default-security-domain"),
     DEFAULT_MISSING_METHOD_PERMISSIONS_DENY_ACCESS(EJB3SubsystemModel.DEFAULT_MISSING_METHOD_PERMISSIONS_DENY_ACCESS),
+    DEFAULT_SINGLETON_BEAN_STRIPED_LOCK(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_STRIPED_LOCK),
     DISABLE_DEFAULT_EJB_PERMISSIONS(EJB3SubsystemModel.DISABLE_DEFAULT_EJB_PERMISSIONS),
 
     FILE_DATA_STORE("file-data-store"),
@@ -36,6 +36,7 @@ import org.jboss.as.controller.ServiceRemoveStepHandler;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.operations.validation.EnumValidator;
 import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.operations.validation.LongRangeValidator;
@@ -76,6 +77,21 @@ public class StrictMaxPoolResourceDefinition extends SimpleResourceDefinition {
                     .setAlternatives(EJB3SubsystemModel.MAX_POOL_SIZE)
                     .setFlags(AttributeAccess.Flag.RESTART_NONE)
                     .build();
+    public static final SimpleAttributeDefinition SHARD_COUNT =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.SHARD_COUNT, ModelType.INT, true)
+                    .setAllowExpression(true)
+                    .setValidator(new IntRangeValidator(1, Integer.MAX_VALUE, true, true))
+                    .setAlternatives(EJB3SubsystemModel.TARGET_WAIT_TIME)
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
+    public static final SimpleAttributeDefinition TARGET_WAIT_TIME =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.TARGET_WAIT_TIME, ModelType.LONG, true)
+                    .setAllowExpression(true)
+                    .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+                    .setValidator(new LongRangeValidator(1, Long.MAX_VALUE, true, true))
+                    .setAlternatives(EJB3SubsystemModel.SHARD_COUNT)
+                    .setFlags(AttributeAccess.Flag.RESTART_NONE)
+                    .build();
     public static final SimpleAttributeDefinition INSTANCE_ACQUISITION_TIMEOUT =
             new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.INSTANCE_ACQUISITION_TIMEOUT, ModelType.LONG, true)
                     .setXmlName(EJB3SubsystemXMLAttribute.INSTANCE_ACQUISITION_TIMEOUT.getLocalName())
@@ -99,6 +115,8 @@ public class StrictMaxPoolResourceDefinition extends SimpleResourceDefinition {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(MAX_POOL_SIZE.getName(), MAX_POOL_SIZE);
         map.put(DERIVE_SIZE.getName(), DERIVE_SIZE);
+        map.put(SHARD_COUNT.getName(), SHARD_COUNT);
+        map.put(TARGET_WAIT_TIME.getName(), TARGET_WAIT_TIME);
         map.put(INSTANCE_ACQUISITION_TIMEOUT.getName(), INSTANCE_ACQUISITION_TIMEOUT);
         map.put(INSTANCE_ACQUISITION_TIMEOUT_UNIT.getName(), INSTANCE_ACQUISITION_TIMEOUT_UNIT);
 
@@ -169,13 +187,17 @@ public class StrictMaxPoolResourceDefinition extends SimpleResourceDefinition {
         parent.addChildResource(INSTANCE.getPathElement())
                 .getAttributeBuilder()
                 .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(DeriveSize.NONE.toString())), DERIVE_SIZE)
-                .addRejectCheck(RejectAttributeChecker.DEFINED, DERIVE_SIZE);
+                .addRejectCheck(RejectAttributeChecker.DEFINED, DERIVE_SIZE)
+                .setDiscard(DiscardAttributeChecker.UNDEFINED, SHARD_COUNT, TARGET_WAIT_TIME)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, SHARD_COUNT, TARGET_WAIT_TIME);
     }
 
     static void registerTransformers_3_0_0(ResourceTransformationDescriptionBuilder parent) {
         parent.addChildResource(INSTANCE.getPathElement())
                 .getAttributeBuilder()
                 .setDiscard(new DiscardAttributeChecker.DiscardAttributeValueChecker(new ModelNode(DeriveSize.NONE.toString())), DERIVE_SIZE)
-                .addRejectCheck(RejectAttributeChecker.DEFINED, DERIVE_SIZE);
+                .addRejectCheck(RejectAttributeChecker.DEFINED, DERIVE_SIZE)
+                .setDiscard(DiscardAttributeChecker.UNDEFINED, SHARD_COUNT, TARGET_WAIT_TIME)
+                .addRejectCheck(RejectAttributeChecker.DEFINED, SHARD_COUNT, TARGET_WAIT_TIME);
     }
 }
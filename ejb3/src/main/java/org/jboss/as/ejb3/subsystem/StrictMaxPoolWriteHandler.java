@@ -45,7 +45,8 @@ public class StrictMaxPoolWriteHandler extends AbstractWriteAttributeHandler<Voi
     public static final StrictMaxPoolWriteHandler INSTANCE = new StrictMaxPoolWriteHandler();
 
     private StrictMaxPoolWriteHandler() {
-        super(StrictMaxPoolResourceDefinition.MAX_POOL_SIZE, StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT,
+        super(StrictMaxPoolResourceDefinition.MAX_POOL_SIZE, StrictMaxPoolResourceDefinition.SHARD_COUNT, StrictMaxPoolResourceDefinition.TARGET_WAIT_TIME,
+                StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT,
                 StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT);
     }
 
@@ -74,6 +75,12 @@ public class StrictMaxPoolWriteHandler extends AbstractWriteAttributeHandler<Voi
                 } else if (StrictMaxPoolResourceDefinition.DERIVE_SIZE.getName().equals(attributeName)) {
                     StrictMaxPoolConfigService.Derive derive = StrictMaxPoolResourceDefinition.parseDeriveSize(context, model);
                     smpc.setDerive(derive);
+                } else if (StrictMaxPoolResourceDefinition.SHARD_COUNT.getName().equals(attributeName)) {
+                    int shardCount = StrictMaxPoolResourceDefinition.SHARD_COUNT.resolveModelAttribute(context, model).asInt(0);
+                    smpc.setShardCount(shardCount);
+                } else if (StrictMaxPoolResourceDefinition.TARGET_WAIT_TIME.getName().equals(attributeName)) {
+                    long targetWaitTime = StrictMaxPoolResourceDefinition.TARGET_WAIT_TIME.resolveModelAttribute(context, model).asLong(0L);
+                    smpc.setTargetWaitTime(targetWaitTime);
                 } else if (StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.getName().equals(attributeName)) {
                     long timeout = StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.resolveModelAttribute(context, model).asLong();
                     smpc.setTimeout(timeout);
@@ -22,6 +22,7 @@
 
 package org.jboss.as.ejb3.subsystem;
 
+import java.security.PrivilegedAction;
 import java.util.List;
 import java.util.Timer;
 
@@ -34,6 +35,7 @@ import org.jboss.as.ejb3.deployment.processors.AroundTimeoutAnnotationParsingPro
 import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
 import org.jboss.as.ejb3.deployment.processors.annotation.TimerServiceAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.TimerMethodMergingProcessor;
+import org.jboss.as.ejb3.timerservice.TimingWheel;
 import org.jboss.as.server.AbstractDeploymentChainStep;
 import org.jboss.as.server.DeploymentProcessorTarget;
 import org.jboss.as.server.deployment.Phase;
@@ -44,7 +46,9 @@ import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.threads.JBossThreadFactory;
 
+import static java.security.AccessController.doPrivileged;
 import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
 
 /**
@@ -95,6 +99,8 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
 
         newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, new TimerValueService())
                 .install());
+        newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMING_WHEEL_SERVICE_NAME, new TimingWheelService())
+                .install());
 
     }
 
@@ -118,4 +124,29 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
             return timer;
         }
     }
+
+    private static final class TimingWheelService implements Service<TimingWheel> {
+
+        private TimingWheel wheel;
+
+        @Override
+        public synchronized void start(final StartContext context) throws StartException {
+            wheel = new TimingWheel(doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+                public JBossThreadFactory run() {
+                    return new JBossThreadFactory(new ThreadGroup(TimingWheel.class.getSimpleName()), Boolean.TRUE, null, "%G - %t", null, null);
+                }
+            }));
+        }
+
+        @Override
+        public synchronized void stop(final StopContext context) {
+            wheel.cancel();
+            wheel = null;
+        }
+
+        @Override
+        public synchronized TimingWheel getValue() throws IllegalStateException, IllegalArgumentException {
+            return wheel;
+        }
+    }
 }
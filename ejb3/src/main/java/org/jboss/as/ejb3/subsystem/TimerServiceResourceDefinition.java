@@ -128,6 +128,7 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                 return builder.getCurrent();
             }
         });
+        FileDataStoreResourceDefinition.registerJournalTransformers(fileDataStore);
 
         fileDataStore.addOperationTransformationOverride(ModelDescriptionConstants.ADD)
             .inheritResourceAttributeDefinitions()
@@ -139,6 +140,12 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
     public static void registerTransformers_1_3_0(ResourceTransformationDescriptionBuilder parent) {
         ResourceTransformationDescriptionBuilder timerService = parent.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH);
         DatabaseDataStoreResourceDefinition.registerTransformers1_3_0(timerService);
+        FileDataStoreResourceDefinition.registerJournalTransformers(timerService.addChildResource(EJB3SubsystemModel.FILE_DATA_STORE_PATH));
+    }
+
+    static void registerTransformers_3_0_0(ResourceTransformationDescriptionBuilder parent) {
+        ResourceTransformationDescriptionBuilder timerService = parent.addChildResource(EJB3SubsystemModel.TIMER_SERVICE_PATH);
+        FileDataStoreResourceDefinition.registerJournalTransformers(timerService.addChildResource(EJB3SubsystemModel.FILE_DATA_STORE_PATH));
     }
 
     private static class DataStoreTransformer implements CombinedTransformer {
@@ -184,6 +191,8 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
                             && untransformedModel.get(EJB3SubsystemModel.DATABASE_DATA_STORE).keys().size() > 0)
                         || untransformedModel.get(EJB3SubsystemModel.FILE_DATA_STORE).keys().size() > 1) {
                 rejectIncompatibleDataStores(context, address);
+            } else if (isJournaled(fileStore.get(EJB3SubsystemModel.JOURNAL))) {
+                rejectIncompatibleDataStores(context, address);
             }
 
             ModelNode path = fileStore.get(EJB3SubsystemModel.PATH);
@@ -199,6 +208,14 @@ public class TimerServiceResourceDefinition extends SimpleResourceDefinition {
             throw new OperationFailedException(EjbLogger.ROOT_LOGGER.untransformableTimerService(address));
         }
 
+        /**
+         * Legacy hosts cannot journal, nor can the value of an expression be known until it is resolved by the host,
+         * so an expression is treated as journaled.
+         */
+        private static boolean isJournaled(ModelNode journal) {
+            return (journal.getType() == ModelType.EXPRESSION) || journal.asBoolean(false);
+        }
+
     }
 
 }
@@ -23,6 +23,7 @@
 package org.jboss.as.ejb3.subsystem.deployment;
 
 import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
 
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.ListAttributeDefinition;
@@ -34,6 +35,7 @@ import org.jboss.as.controller.PrimitiveListAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.client.helpers.MeasurementUnit;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
@@ -80,7 +82,35 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
 
-    private static final AttributeDefinition METHODS = ObjectTypeAttributeDefinition.Builder.of("methods", EXECUTION_TIME, INVOCATIONS, WAIT_TIME)
+    private static final AttributeDefinition P50 = new SimpleAttributeDefinitionBuilder("p50", ModelType.DOUBLE)
+            .setUndefinedMetricValue(new ModelNode(0d))
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition P99 = new SimpleAttributeDefinitionBuilder("p99", ModelType.DOUBLE)
+            .setUndefinedMetricValue(new ModelNode(0d))
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition P999 = new SimpleAttributeDefinitionBuilder("p999", ModelType.DOUBLE)
+            .setUndefinedMetricValue(new ModelNode(0d))
+            .setMeasurementUnit(MeasurementUnit.MILLISECONDS)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition EXECUTION_TIME_PERCENTILES = ObjectTypeAttributeDefinition.Builder.of("execution-time-percentiles", P50, P99, P999)
+            .setAllowNull(true)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition WAIT_TIME_PERCENTILES = ObjectTypeAttributeDefinition.Builder.of("wait-time-percentiles", P50, P99, P999)
+            .setAllowNull(true)
+            .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
+            .build();
+
+    private static final AttributeDefinition METHODS = ObjectTypeAttributeDefinition.Builder.of("methods", EXECUTION_TIME, EXECUTION_TIME_PERCENTILES, INVOCATIONS, WAIT_TIME, WAIT_TIME_PERCENTILES)
             .setAllowNull(true)
             .setFlags(AttributeAccess.Flag.STORAGE_RUNTIME)
             .build();
@@ -201,6 +231,20 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
                 context.getResult().set(component.getInvocationMetrics().getWaitTime());
             }
         });
+        resourceRegistration.registerMetric(EXECUTION_TIME_PERCENTILES, new AbstractRuntimeMetricsHandler() {
+            @Override
+            protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                final InvocationMetrics metrics = component.getInvocationMetrics();
+                setPercentiles(context.getResult(), metrics::getExecutionTime);
+            }
+        });
+        resourceRegistration.registerMetric(WAIT_TIME_PERCENTILES, new AbstractRuntimeMetricsHandler() {
+            @Override
+            protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
+                final InvocationMetrics metrics = component.getInvocationMetrics();
+                setPercentiles(context.getResult(), metrics::getWaitTime);
+            }
+        });
         resourceRegistration.registerMetric(METHODS, new AbstractRuntimeMetricsHandler() {
             @Override
             protected void executeReadMetricStep(final OperationContext context, final ModelNode operation, final EJBComponent component) throws OperationFailedException {
@@ -211,12 +255,20 @@ public abstract class AbstractEJBComponentResourceDefinition extends SimpleResou
                     result.get("execution-time").set(values.getExecutionTime());
                     result.get("invocations").set(values.getInvocations());
                     result.get("wait-time").set(values.getWaitTime());
+                    setPercentiles(result.get(EXECUTION_TIME_PERCENTILES.getName()), values::getExecutionTime);
+                    setPercentiles(result.get(WAIT_TIME_PERCENTILES.getName()), values::getWaitTime);
                     context.getResult().get(entry.getKey()).set(result);
                 }
             }
         });
     }
 
+    static void setPercentiles(final ModelNode result, final DoubleUnaryOperator quantiles) {
+        result.get(P50.getName()).set(quantiles.applyAsDouble(0.5d));
+        result.get(P99.getName()).set(quantiles.applyAsDouble(0.99d));
+        result.get(P999.getName()).set(quantiles.applyAsDouble(0.999d));
+    }
+
     /* (non-Javadoc)
      * @see org.jboss.as.controller.SimpleResourceDefinition#registerChildren(org.jboss.as.controller.registry.ManagementResourceRegistration)
      */
@@ -0,0 +1,373 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.timerservice;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A scheduler of timeouts based on a hierarchical timing wheel, intended as a scalable replacement for {@link java.util.Timer}.
+ * <p>
+ * Timeouts are hashed into the buckets of a wheel of fixed tick duration.
+ * Timeouts beyond the range of a wheel are placed into an overflow wheel, whose tick duration is the range of the wheel beneath it, and so on.
+ * As time advances, the buckets of an overflow wheel are cascaded into the wheel beneath it.
+ * Scheduling and cancelling a timeout is O(1) and only ever contends on a single bucket.
+ * Only non-empty buckets are queued for expiration, so the scheduler thread does not wake up for empty ticks.
+ * </p>
+ * <p>
+ * Expired tasks are always run by the scheduler thread and are expected to hand off any real work to an executor.
+ * </p>
+ */
+public class TimingWheel implements Runnable {
+
+    /**
+     * A handle to a scheduled task.
+     */
+    public interface Timeout {
+        /**
+         * Cancels any further execution of the scheduled task.
+         * @return true, if the task was cancelled, false if it was already cancelled, or was a single action task that already ran.
+         */
+        boolean cancel();
+    }
+
+    static final long DEFAULT_TICK_DURATION = 10;
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final DelayQueue<Bucket> queue = new DelayQueue<>();
+    // Scheduling takes the read lock, advancing the clock takes the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Wheel wheel;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public TimingWheel(ThreadFactory factory) {
+        this(factory, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_SIZE);
+    }
+
+    public TimingWheel(ThreadFactory factory, long tickDuration, int wheelSize) {
+        this.wheel = new Wheel(tickDuration, wheelSize, System.currentTimeMillis(), this.queue);
+        this.thread = factory.newThread(this);
+        this.thread.start();
+    }
+
+    /**
+     * Schedules the specified task for execution after the specified delay.
+     * @param task a task
+     * @param delay a delay in milliseconds
+     * @return a handle to the scheduled task
+     */
+    public Timeout schedule(Runnable task, long delay) {
+        ScheduledTask scheduledTask = new ScheduledTask(task, 0);
+        scheduledTask.schedule(System.currentTimeMillis() + Math.max(delay, 0));
+        return scheduledTask;
+    }
+
+    /**
+     * Schedules the specified task for repeated fixed-rate execution, beginning after the specified delay.
+     * @param task a task
+     * @param delay a delay in milliseconds
+     * @param period the time in milliseconds between successive executions
+     * @return a handle to the scheduled task
+     */
+    public Timeout scheduleAtFixedRate(Runnable task, long delay, long period) {
+        if (period <= 0) {
+            throw new IllegalArgumentException(Long.toString(period));
+        }
+        ScheduledTask scheduledTask = new ScheduledTask(task, period);
+        scheduledTask.schedule(System.currentTimeMillis() + Math.max(delay, 0));
+        return scheduledTask;
+    }
+
+    void add(Entry entry) {
+        this.lock.readLock().lock();
+        try {
+            if (!this.wheel.add(entry) && !entry.isCancelled()) {
+                // Already expired - defer execution to the scheduler thread
+                this.wheel.addExpired(entry);
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Advances the clock of this wheel, running any expired tasks.
+     */
+    @Override
+    public void run() {
+        while (this.running) {
+            try {
+                Bucket bucket = this.queue.poll(1, TimeUnit.SECONDS);
+                if (bucket != null) {
+                    this.lock.writeLock().lock();
+                    try {
+                        while (bucket != null) {
+                            this.wheel.advanceClock(bucket.getExpiration());
+                            bucket.flush(this.wheel);
+                            bucket = this.queue.poll();
+                        }
+                    } finally {
+                        this.lock.writeLock().unlock();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable e) {
+                ROOT_LOGGER.debug(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Stops the scheduler thread.  Pending tasks will not run.
+     */
+    public void cancel() {
+        this.running = false;
+        this.thread.interrupt();
+        this.queue.clear();
+    }
+
+    /**
+     * A single level of the hierarchical wheel.
+     */
+    private static class Wheel {
+        private final long tickDuration;
+        private final int wheelSize;
+        private final long interval;
+        private final Bucket[] buckets;
+        private final DelayQueue<Bucket> queue;
+        private volatile long currentTime;
+        private volatile Wheel overflow;
+
+        Wheel(long tickDuration, int wheelSize, long startTime, DelayQueue<Bucket> queue) {
+            this.tickDuration = tickDuration;
+            this.wheelSize = wheelSize;
+            this.interval = tickDuration * wheelSize;
+            this.queue = queue;
+            this.currentTime = startTime - (startTime % tickDuration);
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; ++i) {
+                this.buckets[i] = new Bucket();
+            }
+        }
+
+        private Wheel overflow() {
+            Wheel overflow = this.overflow;
+            if (overflow == null) {
+                synchronized (this) {
+                    overflow = this.overflow;
+                    if (overflow == null) {
+                        overflow = new Wheel(this.interval, this.wheelSize, this.currentTime, this.queue);
+                        this.overflow = overflow;
+                    }
+                }
+            }
+            return overflow;
+        }
+
+        /**
+         * Adds the specified entry to this wheel.
+         * @return false, if the entry has already expired or was cancelled, true otherwise
+         */
+        boolean add(Entry entry) {
+            long expiration = entry.expiration;
+            if (entry.isCancelled()) {
+                return false;
+            }
+            if (expiration < this.currentTime + this.tickDuration) {
+                return false;
+            }
+            if (expiration < this.currentTime + this.interval) {
+                long virtualId = expiration / this.tickDuration;
+                Bucket bucket = this.buckets[(int) (virtualId % this.wheelSize)];
+                bucket.add(entry);
+                // Only queue the bucket if it was not already queued for this expiration
+                if (bucket.setExpiration(virtualId * this.tickDuration)) {
+                    this.queue.offer(bucket);
+                }
+                return true;
+            }
+            return this.overflow().add(entry);
+        }
+
+        /**
+         * Adds the specified expired entry to the bucket of the current tick, so that it will expire immediately.
+         */
+        void addExpired(Entry entry) {
+            long virtualId = this.currentTime / this.tickDuration;
+            Bucket bucket = this.buckets[(int) (virtualId % this.wheelSize)];
+            bucket.add(entry);
+            if (bucket.setExpiration(this.currentTime)) {
+                this.queue.offer(bucket);
+            }
+        }
+
+        void advanceClock(long time) {
+            if (time >= this.currentTime + this.tickDuration) {
+                this.currentTime = time - (time % this.tickDuration);
+                Wheel overflow = this.overflow;
+                if (overflow != null) {
+                    overflow.advanceClock(this.currentTime);
+                }
+            }
+        }
+    }
+
+    private static class Bucket implements Delayed {
+        private final Set<Entry> entries = ConcurrentHashMap.newKeySet();
+        private final AtomicLong expiration = new AtomicLong(-1L);
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            this.entries.add(entry);
+        }
+
+        void remove(Entry entry) {
+            if (this.entries.remove(entry)) {
+                entry.bucket = null;
+            }
+        }
+
+        boolean setExpiration(long expiration) {
+            return this.expiration.getAndSet(expiration) != expiration;
+        }
+
+        long getExpiration() {
+            return this.expiration.get();
+        }
+
+        /**
+         * Removes all entries of this bucket, re-adding them to the specified wheel.
+         * Entries that cannot be re-added have expired.
+         */
+        void flush(Wheel wheel) {
+            // Reset expiration first, so that any entry added to this bucket while flushing will requeue it
+            this.expiration.set(-1L);
+            for (Entry entry : this.entries) {
+                this.remove(entry);
+                if (!wheel.add(entry)) {
+                    entry.expire();
+                }
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(this.getExpiration() - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed delayed) {
+            return Long.compare(this.getExpiration(), ((Bucket) delayed).getExpiration());
+        }
+    }
+
+    /**
+     * A single scheduled execution of a task.
+     */
+    private static class Entry {
+        final ScheduledTask task;
+        final long expiration;
+        volatile Bucket bucket;
+
+        Entry(ScheduledTask task, long expiration) {
+            this.task = task;
+            this.expiration = expiration;
+        }
+
+        boolean isCancelled() {
+            return this.task.current != this;
+        }
+
+        void expire() {
+            if (!this.isCancelled()) {
+                this.task.expire(this);
+            }
+        }
+
+        void remove() {
+            Bucket bucket = this.bucket;
+            if (bucket != null) {
+                bucket.remove(this);
+            }
+        }
+    }
+
+    private class ScheduledTask implements Timeout {
+        private final Runnable task;
+        private final long period;
+        // The pending execution of this task, or null, if cancelled
+        volatile Entry current;
+
+        ScheduledTask(Runnable task, long period) {
+            this.task = task;
+            this.period = period;
+        }
+
+        void schedule(long expiration) {
+            Entry entry = new Entry(this, expiration);
+            this.current = entry;
+            TimingWheel.this.add(entry);
+        }
+
+        synchronized void expire(Entry entry) {
+            if (this.current != entry) {
+                // Cancelled concurrently
+                return;
+            }
+            if (this.period > 0) {
+                // Schedule next execution relative to the scheduled, rather than actual, time of this execution
+                this.schedule(entry.expiration + this.period);
+            } else {
+                this.current = null;
+            }
+            try {
+                this.task.run();
+            } catch (Throwable e) {
+                ROOT_LOGGER.debug(e.getLocalizedMessage(), e);
+            }
+        }
+
+        @Override
+        public synchronized boolean cancel() {
+            Entry entry = this.current;
+            if (entry == null) {
+                return false;
+            }
+            this.current = null;
+            entry.remove();
+            return true;
+        }
+    }
+}
@@ -41,14 +41,17 @@ import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.sql.DataSource;
@@ -56,9 +59,13 @@ import javax.transaction.HeuristicMixedException;
 import javax.transaction.HeuristicRollbackException;
 import javax.transaction.NotSupportedException;
 import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
 
+import org.jboss.as.ejb3.component.stateful.CurrentSynchronizationCallback;
 import org.jboss.as.ejb3.logging.EjbLogger;
 import org.jboss.as.ejb3.timerservice.CalendarTimer;
 import org.jboss.as.ejb3.timerservice.TimerImpl;
@@ -98,8 +105,14 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private final Map<String, TimerChangeListener> changeListeners = Collections.synchronizedMap(new HashMap<String, TimerChangeListener>());
 
     private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
+    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
 
     private final Map<String, Set<String>> knownTimerIds = new HashMap<>();
+    /** Time of the last refresh of each timed object, i.e. the high-water mark for the next incremental refresh */
+    private final Map<String, Long> refreshTimes = new HashMap<>();
+    /** Key of the pending writes of the current transaction */
+    private final Object batchKey = new Object();
 
     /** Identifier for the database dialect to be used for the timer-sql.properties */
     private String database;
@@ -128,6 +141,19 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private static final String LOAD_TIMER = "load-timer";
     private static final String DELETE_TIMER = "delete-timer";
     private static final String UPDATE_RUNNING = "update-running";
+    private static final String LOAD_CHANGED_TIMERS = "load-changed-timers";
+    private static final String CREATE_LAST_MODIFIED = "create-last-modified";
+    private static final String UPDATE_LAST_MODIFIED = "update-last-modified";
+
+    /** Column recording the time of the last create or update of a timer */
+    private static final String LAST_MODIFIED = "LAST_MODIFIED";
+    /** Every nth refresh reloads all timers, rather than only those changed since the previous refresh */
+    private static final int FULL_REFRESH_RATIO = 10;
+    /**
+     * Additional look back of an incremental refresh, in milliseconds, which tolerates clocks of other nodes lagging behind this node's clock.
+     * Changes written by nodes whose clocks lag further behind are only seen by the next full refresh.
+     */
+    private static final long MAX_CLOCK_SKEW = TimeUnit.MINUTES.toMillis(1);
 
     public DatabaseTimerPersistence(final String database, String partition, String nodeName, int refreshInterval, boolean allowExecution) {
         this.database = database;
@@ -170,6 +196,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
             refreshTask.cancel();
         }
         knownTimerIds.clear();
+        refreshTimes.clear();
         managedReference.release();
         managedReference = null;
         dataSource = null;
@@ -300,6 +327,65 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
             safeClose(statement);
             safeClose(connection);
         }
+        checkLastModified();
+    }
+
+    /**
+     * Adds the last modified column required by incremental refresh, if the timer table predates it,
+     * and stamps any rows written before the column existed, so that incremental refreshes see them.
+     */
+    private void checkLastModified() {
+        Connection connection = null;
+        Statement statement = null;
+        PreparedStatement preparedStatement = null;
+        try {
+            connection = dataSource.getConnection();
+            if (!hasLastModified(connection)) {
+                statement = connection.createStatement();
+                statement.executeUpdate(sql(CREATE_LAST_MODIFIED));
+            }
+            preparedStatement = connection.prepareStatement(sql(UPDATE_LAST_MODIFIED));
+            preparedStatement.setLong(1, System.currentTimeMillis());
+            preparedStatement.executeUpdate();
+        } catch (SQLException e) {
+            EjbLogger.ROOT_LOGGER.couldNotAlterTable(LAST_MODIFIED, e);
+        } finally {
+            safeClose(preparedStatement);
+            safeClose(statement);
+            safeClose(connection);
+        }
+    }
+
+    /**
+     * Determines whether the timer table has a last modified column.
+     * If querying by last modified time fails, but an equivalent query without it succeeds, then the column is missing.
+     * @throws SQLException if the timer table cannot be queried at all
+     */
+    private boolean hasLastModified(final Connection connection) throws SQLException {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        try {
+            statement = connection.prepareStatement(sql(LOAD_CHANGED_TIMERS));
+            statement.setString(1, "NON-EXISTENT");
+            statement.setString(2, "NON-EXISTENT");
+            statement.setLong(3, 0L);
+            resultSet = statement.executeQuery();
+            return true;
+        } catch (SQLException e) {
+            safeClose(resultSet);
+            safeClose(statement);
+            resultSet = null;
+            statement = connection.prepareStatement(sql(LOAD_TIMER));
+            statement.setString(1, "NON-EXISTENT");
+            statement.setString(2, "NON-EXISTENT");
+            statement.setString(3, "NON-EXISTENT");
+            resultSet = statement.executeQuery();
+            EjbLogger.ROOT_LOGGER.debug(e.getLocalizedMessage(), e);
+            return false;
+        } finally {
+            safeClose(resultSet);
+            safeClose(statement);
+        }
     }
 
     private String sql(final String key) {
@@ -314,71 +400,95 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
 
     @Override
     public void addTimer(final TimerImpl timerEntity) {
-        String createTimer = sql(CREATE_TIMER);
-        Connection connection = null;
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
-        try {
+        synchronized (this) {
+            knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
+        }
+        write(timerEntity, Operation.INSERT);
+    }
+
+    @Override
+    public void persistTimer(final TimerImpl timerEntity) {
+        if (timerEntity.getState() == TimerState.CANCELED ||
+                timerEntity.getState() == TimerState.EXPIRED) {
+            write(timerEntity, Operation.DELETE);
+            synchronized (this) {
+                knownTimerIds.get(timerEntity.getTimedObjectId()).remove(timerEntity.getId());
+            }
+        } else {
             synchronized (this) {
                 knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
             }
-            connection = dataSource.getConnection();
-            statement = connection.prepareStatement(createTimer);
-            statementParameters(timerEntity, statement);
-            statement.execute();
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        } finally {
-            safeClose(resultSet);
-            safeClose(statement);
-            safeClose(connection);
+            write(timerEntity, Operation.UPDATE);
         }
     }
 
-    @Override
-    public void persistTimer(final TimerImpl timerEntity) {
-        Connection connection = null;
-        PreparedStatement statement = null;
-        ResultSet resultSet = null;
-        try {
-            connection = dataSource.getConnection();
-            if (timerEntity.getState() == TimerState.CANCELED ||
-                    timerEntity.getState() == TimerState.EXPIRED) {
-                String deleteTimer = sql(DELETE_TIMER);
-                statement = connection.prepareStatement(deleteTimer);
-                statement.setString(1, timerEntity.getTimedObjectId());
-                statement.setString(2, timerEntity.getId());
-                statement.setString(3, partition);
-                statement.execute();
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).remove(timerEntity.getId());
-                }
-            } else {
-                synchronized (this) {
-                    knownTimerIds.get(timerEntity.getTimedObjectId()).add(timerEntity.getId());
-                }
-                String updateTimer = sql(UPDATE_TIMER);
-                statement = connection.prepareStatement(updateTimer);
-                statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
-                statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
-                statement.setString(3, timerEntity.getState().name());
-                setNodeName(timerEntity.getState(), statement, 4);
-                // WHERE CLAUSE
-                statement.setString(5, timerEntity.getTimedObjectId());
-                statement.setString(6, timerEntity.getId());
-                statement.setString(7, partition);
-                statement.setString(8, nodeName);   // only persist if this node or empty
-                statement.execute();
+    /**
+     * Writes the specified change to the database.
+     * Within a transaction, the write is deferred until the transaction completes,
+     * so that all changes of the transaction are written using a single connection and a single batch per statement.
+     */
+    private void write(final TimerImpl timer, final Operation operation) {
+        TimerBatch batch = getTransactionBatch();
+        if (batch != null) {
+            batch.add(timer, operation);
+        } else {
+            batch = new TimerBatch();
+            batch.add(timer, operation);
+            try {
+                batch.flush();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
-        } finally {
-            safeClose(resultSet);
-            safeClose(statement);
-            safeClose(connection);
         }
     }
 
+    /**
+     * Returns the batch of pending writes of the current transaction, creating it if necessary.
+     * @return a batch, or null, if there is no active transaction, or it is already completing
+     */
+    private TimerBatch getTransactionBatch() {
+        final TransactionSynchronizationRegistry tsr = transactionSynchronizationRegistry.getOptionalValue();
+        if (tsr == null || tsr.getTransactionStatus() != Status.STATUS_ACTIVE || isBeforeCompletion()) {
+            return null;
+        }
+        TimerBatch batch = (TimerBatch) tsr.getResource(batchKey);
+        if (batch == null) {
+            batch = new TimerBatch();
+            try {
+                // Not interposed, so that the batch is flushed before the data source connections of the transaction are delisted
+                transactionManager.getValue().getTransaction().registerSynchronization(batch);
+            } catch (RollbackException | SystemException e) {
+                throw new RuntimeException(e);
+            }
+            tsr.putResource(batchKey, batch);
+        }
+        return batch;
+    }
+
+    private static boolean isBeforeCompletion() {
+        final CurrentSynchronizationCallback.CallbackType type = CurrentSynchronizationCallback.get();
+        return type == CurrentSynchronizationCallback.CallbackType.BEFORE_COMPLETION;
+    }
+
+    private void deleteParameters(final TimerImpl timerEntity, final PreparedStatement statement) throws SQLException {
+        statement.setString(1, timerEntity.getTimedObjectId());
+        statement.setString(2, timerEntity.getId());
+        statement.setString(3, partition);
+    }
+
+    private void updateParameters(final TimerImpl timerEntity, final PreparedStatement statement) throws SQLException {
+        statement.setTimestamp(1, timestamp(timerEntity.getNextExpiration()));
+        statement.setTimestamp(2, timestamp(timerEntity.getPreviousRun()));
+        statement.setString(3, timerEntity.getState().name());
+        setNodeName(timerEntity.getState(), statement, 4);
+        statement.setLong(5, System.currentTimeMillis());
+        // WHERE CLAUSE
+        statement.setString(6, timerEntity.getTimedObjectId());
+        statement.setString(7, timerEntity.getId());
+        statement.setString(8, partition);
+        statement.setString(9, nodeName);   // only persist if this node or empty
+    }
+
     @Override
     public boolean shouldRun(TimerImpl timer, TransactionManager tm) {
         if (!allowExecution) {
@@ -394,13 +504,14 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
                 statement = connection.prepareStatement(loadTimer);
                 statement.setString(1, TimerState.IN_TIMEOUT.name());
                 setNodeName(TimerState.IN_TIMEOUT, statement, 2);
-                statement.setString(3, timer.getId());
-                statement.setString(4, TimerState.IN_TIMEOUT.name());
-                statement.setString(5, TimerState.RETRY_TIMEOUT.name());
+                statement.setLong(3, System.currentTimeMillis());
+                statement.setString(4, timer.getId());
+                statement.setString(5, TimerState.IN_TIMEOUT.name());
+                statement.setString(6, TimerState.RETRY_TIMEOUT.name());
                 if (timer.getNextExpiration() == null) {
-                    statement.setTimestamp(6, null);
+                    statement.setTimestamp(7, null);
                 } else {
-                    statement.setTimestamp(6, timestamp(timer.getNextExpiration()));
+                    statement.setTimestamp(7, timestamp(timer.getNextExpiration()));
                 }
             } catch (SQLException e) {
                 // something wrong with the preparation
@@ -409,6 +520,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
             tm.begin();
             int affected = statement.executeUpdate();
             tm.commit();
+            // If the timer was removed by another node, the next full refresh stops scheduling it here
             return affected == 1;
         } catch (SQLException e) {
             // failed to update the DB
@@ -438,6 +550,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     @Override
     public synchronized void timerUndeployed(final String timedObjectId) {
         knownTimerIds.remove(timedObjectId);
+        refreshTimes.remove(timedObjectId);
     }
 
     @Override
@@ -446,6 +559,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
+        final long refreshTime = System.currentTimeMillis();
         try {
             connection = dataSource.getConnection();
             statement = connection.prepareStatement(loadTimer);
@@ -469,6 +583,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
                     ids.add(timer.timer.getId());
                 }
                 knownTimerIds.put(timedObjectId, ids);
+                refreshTimes.put(timedObjectId, refreshTime);
                 for(Holder timer : timers) {
                     if(timer.requiresReset) {
                         TimerImpl ret = timer.timer;
@@ -634,6 +749,7 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         }
         statement.setString(25, partition);
         setNodeName(timerEntity.getState(), statement, 26);
+        statement.setLong(27, System.currentTimeMillis());
     }
 
     private String serialize(final Serializable serializable) {
@@ -711,6 +827,14 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         return timerInjectedValue;
     }
 
+    public InjectedValue<TransactionManager> getTransactionManager() {
+        return transactionManager;
+    }
+
+    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
+        return transactionSynchronizationRegistry;
+    }
+
     private static void safeClose(final Closeable resource) {
         try {
             if (resource != null) {
@@ -754,11 +878,14 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
     private class RefreshTask extends TimerTask {
 
         private volatile AtomicBoolean running = new AtomicBoolean();
+        private int count = 0;
 
         @Override
         public void run() {
             if (running.compareAndSet(false, true)) {
                 try {
+                    // Periodically reload all timers, to detect timers removed by other nodes
+                    final boolean full = (++count % FULL_REFRESH_RATIO) == 0;
                     Set<String> timedObjects;
                     synchronized (DatabaseTimerPersistence.this) {
                         timedObjects = new HashSet<>(knownTimerIds.keySet());
@@ -769,18 +896,29 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
                             continue;
                         }
                         final Set<String> existing;
+                        final Long lastRefreshTime;
                         synchronized (DatabaseTimerPersistence.this) {
                             existing = new HashSet<>(knownTimerIds.get(timedObjectId));
+                            lastRefreshTime = refreshTimes.get(timedObjectId);
                         }
-                        String loadTimer = sql(LOAD_ALL_TIMERS);
+                        final boolean incremental = !full && (lastRefreshTime != null);
+                        final long refreshTime = System.currentTimeMillis();
                         Connection connection = null;
                         PreparedStatement statement = null;
                         ResultSet resultSet = null;
                         try {
                             connection = dataSource.getConnection();
-                            statement = connection.prepareStatement(loadTimer);
-                            statement.setString(1, timedObjectId);
-                            statement.setString(2, partition);
+                            if (incremental) {
+                                statement = connection.prepareStatement(sql(LOAD_CHANGED_TIMERS));
+                                statement.setString(1, timedObjectId);
+                                statement.setString(2, partition);
+                                // Look back an additional interval, to tolerate transactions that committed late, and clock skew between nodes
+                                statement.setLong(3, lastRefreshTime - refreshInterval - MAX_CLOCK_SKEW);
+                            } else {
+                                statement = connection.prepareStatement(sql(LOAD_ALL_TIMERS));
+                                statement.setString(1, timedObjectId);
+                                statement.setString(2, partition);
+                            }
                             resultSet = statement.executeQuery();
                             while (resultSet.next()) {
                                 try {
@@ -801,9 +939,15 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
 
                             synchronized (DatabaseTimerPersistence.this) {
                                 Set<String> timers = knownTimerIds.get(timedObjectId);
-                                for (String timer : existing) {
-                                    timers.remove(timer);
-                                    listener.timerRemoved(timer);
+                                if (timers != null) {
+                                    // An incremental refresh only sees changed timers, so cannot tell which were removed
+                                    if (!incremental) {
+                                        for (String timer : existing) {
+                                            timers.remove(timer);
+                                            listener.timerRemoved(timer);
+                                        }
+                                    }
+                                    refreshTimes.put(timedObjectId, refreshTime);
                                 }
                             }
                         } catch (SQLException e) {
@@ -822,6 +966,106 @@ public class DatabaseTimerPersistence implements TimerPersistence, Service<Datab
         }
     }
 
+    /**
+     * The statements by which a timer is written.
+     */
+    private enum Operation {
+        INSERT(CREATE_TIMER),
+        UPDATE(UPDATE_TIMER),
+        DELETE(DELETE_TIMER),
+        ;
+        final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * The writes of a transaction, which are coalesced per timer, and written on completion of the transaction using a single batch per statement.
+     */
+    private class TimerBatch implements Synchronization {
+        private final Map<String, Write> writes = new LinkedHashMap<>();
+
+        void add(final TimerImpl timer, final Operation operation) {
+            final Write existing = writes.get(timer.getId());
+            if (existing != null && existing.operation == Operation.INSERT) {
+                if (operation == Operation.DELETE) {
+                    // Timer was never written, so there is nothing to delete
+                    writes.remove(timer.getId());
+                }
+                // Otherwise the insert will write the current state of the timer
+                return;
+            }
+            writes.put(timer.getId(), new Write(timer, operation));
+        }
+
+        void flush() throws SQLException {
+            if (writes.isEmpty()) {
+                return;
+            }
+            final Map<Operation, List<TimerImpl>> timers = new EnumMap<>(Operation.class);
+            for (Write write : writes.values()) {
+                timers.computeIfAbsent(write.operation, operation -> new ArrayList<>()).add(write.timer);
+            }
+            writes.clear();
+            final Connection connection = dataSource.getConnection();
+            try {
+                for (Map.Entry<Operation, List<TimerImpl>> entry : timers.entrySet()) {
+                    execute(connection, entry.getKey(), entry.getValue());
+                }
+            } finally {
+                safeClose(connection);
+            }
+        }
+
+        private void execute(final Connection connection, final Operation operation, final List<TimerImpl> timers) throws SQLException {
+            final PreparedStatement statement = connection.prepareStatement(sql(operation.key));
+            try {
+                for (TimerImpl timer : timers) {
+                    switch (operation) {
+                        case INSERT:
+                            statementParameters(timer, statement);
+                            break;
+                        case UPDATE:
+                            updateParameters(timer, statement);
+                            break;
+                        case DELETE:
+                            deleteParameters(timer, statement);
+                            break;
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            } finally {
+                safeClose(statement);
+            }
+        }
+
+        @Override
+        public void beforeCompletion() {
+            try {
+                flush();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+        }
+    }
+
+    private static final class Write {
+        final TimerImpl timer;
+        final Operation operation;
+
+        Write(TimerImpl timer, Operation operation) {
+            this.timer = timer;
+            this.operation = operation;
+        }
+    }
+
 
     static final class Holder {
         final TimerImpl timer;
@@ -62,6 +62,7 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -75,6 +76,9 @@ import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
 /**
  * File based persistent timer store.
  * <p/>
+ * By default, each timer is stored in its own XML file. If journaling is enabled, timers are instead appended to a {@link TimerJournal}
+ * per timed object, to which the timers changed by a transaction are group committed.
+ * <p/>
  * TODO: this is fairly hackey at the moment, it should be registered as an XA resource to support proper XA semantics
  *
  * @author Stuart Douglas
@@ -85,6 +89,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
     private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
 
     private final boolean createIfNotExists;
+    private final boolean journaled;
     private MarshallerFactory factory;
     private MarshallingConfiguration configuration;
     private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
@@ -98,13 +103,19 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
     private final ConcurrentMap<String, String> directories = new ConcurrentHashMap<String, String>();
+    private final ConcurrentMap<String, TimerJournal> journals = new ConcurrentHashMap<String, TimerJournal>();
 
     public FileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo) {
+        this(createIfNotExists, path, pathRelativeTo, false);
+    }
+
+    public FileTimerPersistence(final boolean createIfNotExists, final String path, final String pathRelativeTo, final boolean journaled) {
         final SecurityManager sm = System.getSecurityManager();
         if (sm != null) {
             sm.checkPermission(FILE_PERMISSION);
         }
         this.createIfNotExists = createIfNotExists;
+        this.journaled = journaled;
         this.path = path;
         this.pathRelativeTo = pathRelativeTo;
     }
@@ -150,6 +161,10 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     @Override
     public void stop(final StopContext context) {
+        for (TimerJournal journal : journals.values()) {
+            safeClose(journal);
+        }
+        journals.clear();
         locks.clear();
         directories.clear();
         if (callbackHandle != null) {
@@ -217,13 +232,26 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
                 if (timer.getState() == TimerState.CANCELED ||
                         timer.getState() == TimerState.EXPIRED) {
                     map.remove(timer.getId());
-                    writeFile(timer);
+                    write(timer);
                 } else if (newTimer || map.containsKey(timer.getId())) {
                     //if it is not a new timer and is not in the map then it has
                     //been removed by another thread.
                     map.put(timer.getId(), timer);
-                    writeFile(timer);
+                    write(timer);
                 }
+            } else if (journaled) {
+                final String key = timerTransactionKey(timer);
+                final String journalKey = journalTransactionKey(timer.getTimedObjectId());
+                JournalTransactionSynchronization synchronization = (JournalTransactionSynchronization) transactionSynchronizationRegistry.getValue().getResource(journalKey);
+                //all timers of this timed object persisted by the transaction are committed to the journal together
+                if (synchronization == null) {
+                    synchronization = new JournalTransactionSynchronization(lock, timer.getTimedObjectId(), timer.getTimerService());
+                    transactionSynchronizationRegistry.getValue().registerInterposedSynchronization(synchronization);
+                    transactionSynchronizationRegistry.getValue().putResource(journalKey, synchronization);
+                }
+                synchronization.addTimer(key, newTimer);
+                //update the most recent version of the timer to be persisted
+                transactionSynchronizationRegistry.getValue().putResource(key, timer);
             } else {
 
                 final String key = timerTransactionKey(timer);
@@ -246,6 +274,10 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         return "org.jboss.as.ejb3.timerTransactionKey." + TimerImpl.getId();
     }
 
+    private String journalTransactionKey(final String timedObjectId) {
+        return "org.jboss.as.ejb3.timerJournalTransactionKey." + timedObjectId;
+    }
+
     @Override
     public void timerUndeployed(final String timedObjectId) {
         final Lock lock = getLock(timedObjectId);
@@ -253,6 +285,7 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
             lock.lock();
             locks.remove(timedObjectId);
             directories.remove(timedObjectId);
+            safeClose(journals.remove(timedObjectId));
         } finally {
             lock.unlock();
         }
@@ -331,13 +364,72 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
      * @return The timers for the object
      */
     private Map<String, TimerImpl> getTimers(final String timedObjectId, final TimerServiceImpl timerService) {
+        if (journaled) {
+            return getJournal(timedObjectId, timerService).getTimers();
+        }
         return loadTimersFromFile(timedObjectId, timerService);
     }
 
+    /**
+     * Gets the journal of a timed object, recovering its timers if necessary. Should be called under lock.
+     * The first time journaling is enabled for a timed object, its timers are migrated from the XML files.
+     *
+     * @param timedObjectId The timed object id
+     * @return The journal of the timed object
+     */
+    private TimerJournal getJournal(final String timedObjectId, final TimerServiceImpl timerService) {
+        TimerJournal journal = journals.get(timedObjectId);
+        if (journal == null) {
+            final String directory = getDirectory(timedObjectId);
+            journal = new TimerJournal(timedObjectId, new File(directory, TimerJournal.DIRECTORY), factory, configuration);
+            final File marker = new File(directory, TimerJournal.MIGRATION_MARKER);
+            try {
+                if (marker.exists()) {
+                    journal.recover(timerService);
+                } else {
+                    journal.getTimers().putAll(loadTimersFromFile(timedObjectId, timerService));
+                    //compaction writes and forces all timers to a new segment
+                    journal.compact();
+                    if (!marker.createNewFile()) {
+                        throw new IOException(marker.getAbsolutePath());
+                    }
+                    for (File timerFile : new File(directory).listFiles()) {
+                        if (timerFile.getName().endsWith(".xml")) {
+                            timerFile.delete();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                safeClose(journal);
+                throw new RuntimeException(e);
+            }
+            journals.put(timedObjectId, journal);
+        }
+        return journal;
+    }
+
     private Map<String, TimerImpl> loadTimersFromFile(String timedObjectId, TimerServiceImpl timerService) {
         Map<String, TimerImpl> timers = new HashMap<>();
         String directory = getDirectory(timedObjectId);
 
+        final File marker = new File(directory, TimerJournal.MIGRATION_MARKER);
+        if (!journaled && marker.exists()) {
+            //journaling was disabled, so convert the journal back into XML files
+            final TimerJournal journal = new TimerJournal(timedObjectId, new File(directory, TimerJournal.DIRECTORY), factory, configuration);
+            try {
+                journal.recover(timerService);
+                for (TimerImpl timer : journal.getTimers().values()) {
+                    writeFile(timer);
+                }
+                journal.delete();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                safeClose(journal);
+            }
+            marker.delete();
+        }
+
         timers.putAll(LegacyFileStore.loadTimersFromFile(timedObjectId, timerService, directory, factory, configuration));
         for(Map.Entry<String, TimerImpl> entry : timers.entrySet()) {
             writeFile(entry.getValue()); //write legacy timers into the new format
@@ -479,6 +571,94 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
 
     }
 
+    private final class JournalTransactionSynchronization implements Synchronization {
+
+        private final Lock lock;
+        private final String timedObjectId;
+        private final TimerServiceImpl timerService;
+        private final Map<String, Boolean> transactionKeys = new LinkedHashMap<String, Boolean>();
+        private final Map<TimerImpl, Boolean> timers = new LinkedHashMap<TimerImpl, Boolean>();
+
+        JournalTransactionSynchronization(final Lock lock, final String timedObjectId, final TimerServiceImpl timerService) {
+            this.lock = lock;
+            this.timedObjectId = timedObjectId;
+            this.timerService = timerService;
+        }
+
+        void addTimer(final String transactionKey, final boolean newTimer) {
+            if (!transactionKeys.containsKey(transactionKey)) {
+                transactionKeys.put(transactionKey, newTimer);
+            }
+        }
+
+        @Override
+        public void beforeCompletion() {
+            //get the latest version of each entity
+            for (Map.Entry<String, Boolean> entry : transactionKeys.entrySet()) {
+                final TimerImpl timer = (TimerImpl) transactionSynchronizationRegistry.getValue().getResource(entry.getKey());
+                if (timer != null) {
+                    timers.put(timer, entry.getValue());
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            doPrivileged(new PrivilegedAction<Void>() {
+                public Void run() {
+                    if (status != Status.STATUS_COMMITTED || timers.isEmpty()) {
+                        return null;
+                    }
+                    final List<TimerImpl> changed = new ArrayList<TimerImpl>(timers.size());
+                    final TimerJournal journal;
+                    final long sequence;
+                    try {
+                        lock.lock();
+                        journal = getJournal(timedObjectId, timerService);
+                        final Map<String, TimerImpl> map = journal.getTimers();
+                        for (Map.Entry<TimerImpl, Boolean> entry : timers.entrySet()) {
+                            final TimerImpl timer = entry.getKey();
+                            if (timer.getState() == TimerState.CANCELED ||
+                                    timer.getState() == TimerState.EXPIRED) {
+                                if (map.remove(timer.getId()) != null) {
+                                    changed.add(timer);
+                                }
+                            } else if (entry.getValue() || map.containsKey(timer.getId())) {
+                                //if an existing timer is not in the map it has been cancelled by another thread
+                                map.put(timer.getId(), timer);
+                                changed.add(timer);
+                            }
+                        }
+                        sequence = journal.append(changed);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    } finally {
+                        lock.unlock();
+                    }
+                    //force the journal outside of the lock, so that concurrent transactions share a single force
+                    try {
+                        journal.sync(sequence);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    private void write(TimerImpl timer) {
+        if (journaled) {
+            try {
+                getJournal(timer.getTimedObjectId(), timer.getTimerService()).append(Collections.singletonList(timer));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            writeFile(timer);
+        }
+    }
+
     private void writeFile(TimerImpl timer) {
         final File file = fileName(timer.getTimedObjectId(), timer.getId());
 
@@ -0,0 +1,650 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.jboss.as.ejb3.logging.EjbLogger.ROOT_LOGGER;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import javax.ejb.ScheduleExpression;
+
+import org.jboss.as.ejb3.timerservice.CalendarTimer;
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimeoutMethod;
+import org.jboss.marshalling.ByteBufferInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+
+/**
+ * Append-only journal of the persistent timers of a single timed object.
+ * <p/>
+ * Rather than rewriting a file per timer, every change of state of a timer is appended as a binary record to the current
+ * segment of the journal. A record consists of the length of its payload, a CRC32 checksum of its payload and the payload itself,
+ * so that a record torn by a crash is detected, and discarded, on recovery. Once the current segment is full, a new segment is started.
+ * If by then most records of the journal are obsolete, the live timers are instead written to a new, compacted, segment,
+ * and all previous segments are deleted.
+ * <p/>
+ * On recovery, segments are read and scanned to build an index of the most recent record of each timer,
+ * so that only the records of live timers are decoded.
+ * <p/>
+ * The journal holds the live timers of the timed object. Except for {@link #sync(long)}, its methods must be called while
+ * holding the lock of the timed object.
+ */
+final class TimerJournal implements Closeable {
+
+    static final String DIRECTORY = "journal";
+    static final String MIGRATION_MARKER = "migrated-to-journal.marker";
+    static final long DEFAULT_SEGMENT_SIZE = 4L * 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final int MAGIC = 0x454A544A;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte TIMER = 1;
+    private static final byte CALENDAR_TIMER = 2;
+    private static final byte REMOVED = 3;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final String timedObjectId;
+    private final File directory;
+    private final long segmentSize;
+    private final MarshallerFactory factory;
+    private final MarshallingConfiguration configuration;
+    private final Map<String, TimerImpl> timers = new HashMap<>();
+
+    private final Object syncLock = new Object();
+    private final AtomicLong synced = new AtomicLong();
+
+    // Guarded by this
+    private FileChannel channel;
+    private long segment = 0;
+    private long position = 0;
+    private long written = 0;
+    private int records = 0;
+
+    TimerJournal(String timedObjectId, File directory, MarshallerFactory factory, MarshallingConfiguration configuration) {
+        this(timedObjectId, directory, DEFAULT_SEGMENT_SIZE, factory, configuration);
+    }
+
+    TimerJournal(String timedObjectId, File directory, long segmentSize, MarshallerFactory factory, MarshallingConfiguration configuration) {
+        this.timedObjectId = timedObjectId;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.factory = factory;
+        this.configuration = configuration;
+    }
+
+    /**
+     * The live timers of this journal, keyed by timer id.
+     * Changes to this map are only persisted by a subsequent {@link #append(Collection)}.
+     *
+     * @return a mutable map of timers
+     */
+    Map<String, TimerImpl> getTimers() {
+        return this.timers;
+    }
+
+    /**
+     * Restores the live timers from the segments of this journal, and opens the last segment for appending.
+     *
+     * @param timerService the timer service of the timers
+     * @throws IOException if the journal could not be read
+     */
+    synchronized void recover(TimerServiceImpl timerService) throws IOException {
+        Map<String, Location> index = new HashMap<>();
+        Map<File, Long> corrupted = new HashMap<>();
+        File[] segments = this.listSegments();
+        for (File file : segments) {
+            // Segments are read rather than mapped, as a mapped file cannot be truncated on some platforms
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = read(channel);
+                long valid = this.scan(buffer, index);
+                if (valid < buffer.limit()) {
+                    ROOT_LOGGER.timerJournalSegmentCorrupted(file, valid);
+                    corrupted.put(file, valid);
+                }
+            }
+        }
+        ClassLoader loader = timerService.getTimedObjectInvoker().getValue().getClassLoader();
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            Location location = entry.getValue();
+            if (location.type != REMOVED) {
+                TimerImpl timer = this.decode(entry.getKey(), location, timerService, loader);
+                if (timer != null) {
+                    this.timers.put(timer.getId(), timer);
+                }
+            }
+        }
+        // Discard any torn records, so that subsequent records are appended to a valid segment
+        for (Map.Entry<File, Long> entry : corrupted.entrySet()) {
+            try (FileChannel channel = FileChannel.open(entry.getKey().toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(entry.getValue());
+            }
+        }
+        if (segments.length > 0) {
+            this.segment = segmentId(segments[segments.length - 1]);
+        }
+        this.openSegment(this.segment, false);
+    }
+
+    /**
+     * Appends the current state of the specified timers to this journal.
+     * A timer that is canceled or expired is recorded as removed.
+     * The appended records are written to the file system, but are only guaranteed to be durable after a subsequent {@link #sync(long)}.
+     *
+     * @param changed the timers whose state changed
+     * @return the sequence number to pass to {@link #sync(long)}
+     * @throws IOException if the records could not be written
+     */
+    synchronized long append(Collection<TimerImpl> changed) throws IOException {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        int count = 0;
+        for (TimerImpl timer : changed) {
+            byte[] payload = this.encode(timer);
+            if (payload != null) {
+                writeRecord(batch, payload);
+                count += 1;
+            }
+        }
+        if (count == 0) {
+            return this.written;
+        }
+        if (this.channel == null || !this.channel.isOpen()) {
+            // The channel of the current segment was closed, e.g. by an interrupt
+            this.reopenSegment();
+        }
+        if ((this.position > SEGMENT_HEADER_SIZE) && (this.position + batch.size() > this.segmentSize)) {
+            if (this.records + count > 2 * this.timers.size()) {
+                // Most records are obsolete, and the live timers already reflect the changes of this batch
+                this.compact();
+                return this.written;
+            }
+            this.roll();
+        }
+        this.write(ByteBuffer.wrap(batch.toByteArray()));
+        this.records += count;
+        return this.written;
+    }
+
+    /**
+     * Forces all records appended up to the specified sequence number to the storage device.
+     * Concurrent callers are coalesced, such that a single force covers the records appended by all of them.
+     *
+     * @param sequence a sequence number returned by {@link #append(Collection)}
+     * @throws IOException if the journal could not be forced
+     */
+    void sync(long sequence) throws IOException {
+        while (this.synced.get() < sequence) {
+            synchronized (this.syncLock) {
+                if (this.synced.get() >= sequence) {
+                    return;
+                }
+                long target;
+                FileChannel channel;
+                synchronized (this) {
+                    target = this.written;
+                    channel = this.channel;
+                }
+                if (channel == null) {
+                    // Journal was closed, which forced all records
+                    return;
+                }
+                try {
+                    channel.force(false);
+                    this.synced.accumulateAndGet(target, Math::max);
+                } catch (ClosedByInterruptException e) {
+                    throw e;
+                } catch (ClosedChannelException e) {
+                    // The segment was rolled, and forced, concurrently - so retry using the current segment
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all live timers to a new segment, and deletes all other segments.
+     *
+     * @throws IOException if the journal could not be compacted
+     */
+    synchronized void compact() throws IOException {
+        this.closeChannel();
+        this.openSegment(this.segment + 1, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int count = 0;
+        for (TimerImpl timer : this.timers.values()) {
+            byte[] payload = this.encode(timer);
+            if (payload != null) {
+                writeRecord(out, payload);
+                count += 1;
+            }
+        }
+        this.write(ByteBuffer.wrap(out.toByteArray()));
+        this.channel.force(true);
+        this.synced.accumulateAndGet(this.written, Math::max);
+        this.records = count;
+        for (File file : this.listSegments()) {
+            if (segmentId(file) != this.segment) {
+                file.delete();
+            }
+        }
+    }
+
+    /**
+     * Deletes all segments of this journal, as well as its directory.
+     */
+    synchronized void delete() throws IOException {
+        this.closeChannel();
+        for (File file : this.listSegments()) {
+            file.delete();
+        }
+        this.directory.delete();
+        this.timers.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.closeChannel();
+    }
+
+    private void closeChannel() throws IOException {
+        FileChannel channel = this.channel;
+        if (channel != null) {
+            this.channel = null;
+            try {
+                if (channel.isOpen()) {
+                    channel.force(false);
+                }
+                this.synced.accumulateAndGet(this.written, Math::max);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        this.closeChannel();
+        this.openSegment(this.segment + 1, true);
+    }
+
+    private void openSegment(long id, boolean create) throws IOException {
+        if (!this.directory.exists() && !this.directory.mkdirs()) {
+            throw new IOException(this.directory.getAbsolutePath());
+        }
+        File file = new File(this.directory, segmentName(id));
+        FileChannel channel = create ? FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING) : FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.channel = channel;
+        this.segment = id;
+        long size = channel.size();
+        if (size < SEGMENT_HEADER_SIZE) {
+            channel.truncate(0);
+            this.position = 0;
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).flip();
+            this.write(header);
+        } else {
+            this.position = size;
+            channel.position(size);
+        }
+    }
+
+    /**
+     * Reopens the current segment, discarding any part of a write interrupted by the closing of its channel.
+     */
+    private void reopenSegment() throws IOException {
+        File file = new File(this.directory, segmentName(this.segment));
+        if (this.position < SEGMENT_HEADER_SIZE || !file.exists()) {
+            this.openSegment(this.segment, false);
+            return;
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+        this.channel = channel;
+        channel.truncate(this.position);
+        channel.position(this.position);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+        this.position += length;
+        this.written += length;
+    }
+
+    private File[] listSegments() {
+        File[] files = this.directory.listFiles((dir, name) -> name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return new File[0];
+        }
+        // Segment names are zero padded, so lexical order is also chronological order
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static ByteBuffer read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static String segmentName(long id) {
+        return String.format("%016x%s", id, SEGMENT_SUFFIX);
+    }
+
+    private static long segmentId(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()), 16);
+    }
+
+    /**
+     * Indexes the valid records of the specified segment.
+     *
+     * @return the position following the last valid record
+     */
+    private long scan(ByteBuffer buffer, Map<String, Location> index) throws IOException {
+        int limit = buffer.limit();
+        if (limit < SEGMENT_HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return 0;
+        }
+        int position = SEGMENT_HEADER_SIZE;
+        CRC32 crc = new CRC32();
+        while (limit - position >= RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(position);
+            int checksum = buffer.getInt(position + 4);
+            int offset = position + RECORD_HEADER_SIZE;
+            if (length <= 0 || length > limit - offset) {
+                break;
+            }
+            ByteBuffer payload = buffer.duplicate();
+            payload.limit(offset + length).position(offset);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            // Payload starts with the record type, followed by the timer id in modified UTF-8
+            byte type = buffer.get(offset);
+            int idLength = buffer.getShort(offset + 1) & 0xFFFF;
+            byte[] id = new byte[2 + idLength];
+            payload.position(offset + 1);
+            payload.get(id);
+            String timerId = new DataInputStream(new ByteArrayInputStream(id)).readUTF();
+            // Segments are scanned in order, so the most recent record of a timer wins
+            index.put(timerId, new Location(buffer, offset, length, type));
+            this.records += 1;
+            position = offset + length;
+        }
+        return position;
+    }
+
+    private static void writeRecord(ByteArrayOutputStream out, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        header.putInt(payload.length).putInt((int) crc.getValue());
+        out.write(header.array(), 0, RECORD_HEADER_SIZE);
+        out.write(payload, 0, payload.length);
+    }
+
+    /**
+     * Encodes the current state of the specified timer.
+     *
+     * @return the record payload, or null if the state of the timer could not be marshalled
+     */
+    private byte[] encode(TimerImpl timer) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        TimerState state = timer.getState();
+        boolean calendar = timer instanceof CalendarTimer;
+        if (state == TimerState.CANCELED || state == TimerState.EXPIRED) {
+            output.writeByte(REMOVED);
+            output.writeUTF(timer.getId());
+            output.flush();
+            return bytes.toByteArray();
+        }
+        byte[] info;
+        byte[] primaryKey;
+        try {
+            info = this.marshal(timer.getTimerInfo());
+            primaryKey = this.marshal(timer.getPrimaryKey());
+        } catch (IOException e) {
+            ROOT_LOGGER.failedToPersistTimer(timer, e);
+            return null;
+        }
+        output.writeByte(calendar ? CALENDAR_TIMER : TIMER);
+        output.writeUTF(timer.getId());
+        output.writeUTF(timer.getTimedObjectId());
+        writeDate(output, timer.getInitialExpiration());
+        writeDate(output, timer.getNextExpiration());
+        writeDate(output, timer.getPreviousRun());
+        output.writeUTF(state.name());
+        writeBytes(output, info);
+        writeBytes(output, primaryKey);
+        if (calendar) {
+            CalendarTimer calendarTimer = (CalendarTimer) timer;
+            ScheduleExpression schedule = calendarTimer.getScheduleExpression();
+            output.writeUTF(schedule.getSecond());
+            output.writeUTF(schedule.getMinute());
+            output.writeUTF(schedule.getHour());
+            output.writeUTF(schedule.getDayOfWeek());
+            output.writeUTF(schedule.getDayOfMonth());
+            output.writeUTF(schedule.getMonth());
+            output.writeUTF(schedule.getYear());
+            writeDate(output, schedule.getStart());
+            writeDate(output, schedule.getEnd());
+            writeString(output, schedule.getTimezone());
+            output.writeBoolean(calendarTimer.isAutoTimer());
+            if (calendarTimer.isAutoTimer()) {
+                Method method = calendarTimer.getTimeoutMethod();
+                output.writeUTF(method.getDeclaringClass().getName());
+                output.writeUTF(method.getName());
+                Class<?>[] types = method.getParameterTypes();
+                output.writeInt(types.length);
+                for (Class<?> type : types) {
+                    output.writeUTF(type.getName());
+                }
+            }
+        } else {
+            output.writeLong(timer.getInterval());
+        }
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes the timer recorded at the specified location.
+     *
+     * @return the timer, or null if it could not be restored
+     */
+    private TimerImpl decode(String id, Location location, TimerServiceImpl timerService, ClassLoader loader) {
+        byte[] payload = new byte[location.length];
+        ByteBuffer buffer = location.buffer.duplicate();
+        buffer.position(location.offset);
+        buffer.get(payload);
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+            byte type = input.readByte();
+            input.readUTF();
+            TimerImpl.Builder builder = (type == CALENDAR_TIMER) ? CalendarTimer.builder() : TimerImpl.builder();
+            builder.setPersistent(true);
+            builder.setId(id);
+            builder.setTimedObjectId(input.readUTF());
+            builder.setInitialDate(readDate(input));
+            builder.setNextDate(readDate(input));
+            builder.setPreviousRun(readDate(input));
+            builder.setTimerState(TimerState.valueOf(input.readUTF()));
+            byte[] info = readBytes(input);
+            if (info != null) {
+                builder.setInfo((Serializable) this.unmarshal(info));
+            }
+            byte[] primaryKey = readBytes(input);
+            if (primaryKey != null) {
+                builder.setPrimaryKey(this.unmarshal(primaryKey));
+            }
+            if (type != CALENDAR_TIMER) {
+                builder.setRepeatInterval(input.readLong());
+                return builder.build(timerService);
+            }
+            CalendarTimer.Builder calendarBuilder = (CalendarTimer.Builder) builder;
+            calendarBuilder.setScheduleExprSecond(input.readUTF())
+                    .setScheduleExprMinute(input.readUTF())
+                    .setScheduleExprHour(input.readUTF())
+                    .setScheduleExprDayOfWeek(input.readUTF())
+                    .setScheduleExprDayOfMonth(input.readUTF())
+                    .setScheduleExprMonth(input.readUTF())
+                    .setScheduleExprYear(input.readUTF())
+                    .setScheduleExprStartDate(readDate(input))
+                    .setScheduleExprEndDate(readDate(input))
+                    .setScheduleExprTimezone(readString(input));
+            boolean autoTimer = input.readBoolean();
+            calendarBuilder.setAutoTimer(autoTimer);
+            if (autoTimer) {
+                String className = input.readUTF();
+                String methodName = input.readUTF();
+                String[] params = new String[input.readInt()];
+                for (int i = 0; i < params.length; ++i) {
+                    params[i] = input.readUTF();
+                }
+                Method timeoutMethod = CalendarTimer.getTimeoutMethod(new TimeoutMethod(className, methodName, params), loader);
+                if (timeoutMethod == null) {
+                    ROOT_LOGGER.timerReinstatementFailed(this.timedObjectId, id, null);
+                    return null;
+                }
+                calendarBuilder.setTimeoutMethod(timeoutMethod);
+            }
+            return calendarBuilder.build(timerService);
+        } catch (Exception e) {
+            ROOT_LOGGER.timerReinstatementFailed(this.timedObjectId, id, e);
+            return null;
+        }
+    }
+
+    private byte[] marshal(Object object) throws IOException {
+        if (object == null) {
+            return null;
+        }
+        Marshaller marshaller = this.factory.createMarshaller(this.configuration);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        marshaller.start(new OutputStreamByteOutput(out));
+        marshaller.writeObject(object);
+        marshaller.finish();
+        marshaller.flush();
+        return out.toByteArray();
+    }
+
+    private Object unmarshal(byte[] data) throws IOException, ClassNotFoundException {
+        Unmarshaller unmarshaller = this.factory.createUnmarshaller(this.configuration);
+        unmarshaller.start(new ByteBufferInput(ByteBuffer.wrap(data)));
+        try {
+            return unmarshaller.readObject();
+        } finally {
+            unmarshaller.close();
+        }
+    }
+
+    private static void writeDate(DataOutputStream output, Date date) throws IOException {
+        output.writeLong((date != null) ? date.getTime() : NO_DATE);
+    }
+
+    private static Date readDate(DataInputStream input) throws IOException {
+        long time = input.readLong();
+        return (time != NO_DATE) ? new Date(time) : null;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] bytes) throws IOException {
+        output.writeInt((bytes != null) ? bytes.length : -1);
+        if (bytes != null) {
+            output.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Location of a record within a memory mapped segment
+     */
+    private static class Location {
+        final ByteBuffer buffer;
+        final int offset;
+        final int length;
+        final byte type;
+
+        Location(ByteBuffer buffer, int offset, int length, byte type) {
+            this.buffer = buffer;
+            this.offset = offset;
+            this.length = length;
+            this.type = type;
+        }
+    }
+}
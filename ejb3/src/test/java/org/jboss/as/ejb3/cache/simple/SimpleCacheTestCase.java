@@ -0,0 +1,233 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.simple;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ejb3.cache.Identifiable;
+import org.jboss.as.ejb3.cache.StatefulObjectFactory;
+import org.jboss.as.ejb3.component.stateful.StatefulTimeoutInfo;
+import org.jboss.as.server.ServerEnvironment;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.clustering.ejb.IdentifierFactory;
+import org.wildfly.clustering.ejb.PassivationListener;
+import org.wildfly.clustering.marshalling.jboss.MarshallingConfigurationRepository;
+import org.wildfly.clustering.marshalling.jboss.MarshallingContext;
+import org.wildfly.clustering.marshalling.jboss.SimpleMarshallingContextFactory;
+
+/**
+ * Unit test for {@link SimpleCache}.
+ */
+public class SimpleCacheTestCase {
+
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    private final ServerEnvironment environment = mock(ServerEnvironment.class);
+    private final BeanFactory factory = new BeanFactory();
+    private final IdentifierFactory<UUID> identifierFactory = UUID::randomUUID;
+
+    @Before
+    public void setUp() {
+        // Run eviction synchronously
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return null;
+        }).when(this.executor).execute(any(Runnable.class));
+    }
+
+    @Test
+    public void expiration() throws InterruptedException {
+        SimpleCache<UUID, Bean> cache = new SimpleCache<>(this.factory, this.identifierFactory, new StatefulTimeoutInfo(10, TimeUnit.MILLISECONDS), this.environment, this.executor);
+        cache.start();
+        try {
+            Bean bean = cache.create();
+            UUID id = bean.getId();
+            assertSame(bean, cache.get(id));
+            cache.release(bean);
+            assertTrue(cache.contains(id));
+
+            // A bean in use does not expire
+            assertSame(bean, cache.get(id));
+            Thread.sleep(50);
+            assertTrue(cache.contains(id));
+            cache.release(bean);
+            assertEquals(0, this.factory.destroyed.get());
+
+            Thread.sleep(50);
+            assertFalse(cache.contains(id));
+            assertNull(cache.get(id));
+            assertEquals(1, this.factory.destroyed.get());
+            assertEquals(0, cache.getTotalSize());
+        } finally {
+            cache.stop();
+        }
+    }
+
+    @Test
+    public void zeroTimeout() {
+        SimpleCache<UUID, Bean> cache = new SimpleCache<>(this.factory, this.identifierFactory, new StatefulTimeoutInfo(0, TimeUnit.MILLISECONDS), this.environment, this.executor);
+        cache.start();
+        try {
+            Bean bean = cache.create();
+            assertSame(bean, cache.get(bean.getId()));
+            cache.release(bean);
+            assertEquals(1, this.factory.destroyed.get());
+            assertFalse(cache.contains(bean.getId()));
+        } finally {
+            cache.stop();
+        }
+    }
+
+    @Test
+    public void noTimeout() throws InterruptedException {
+        SimpleCache<UUID, Bean> cache = new SimpleCache<>(this.factory, this.identifierFactory, null, this.environment, this.executor);
+        cache.start();
+        try {
+            Bean bean = cache.create();
+            assertSame(bean, cache.get(bean.getId()));
+            cache.release(bean);
+            Thread.sleep(10);
+            assertSame(bean, cache.get(bean.getId()));
+            cache.release(bean);
+        } finally {
+            cache.stop();
+        }
+        assertEquals(1, this.factory.destroyed.get());
+    }
+
+    @Test
+    public void passivation() throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory(this.getClass().getSimpleName());
+        MarshallingConfigurationRepository repository = new MarshallingConfigurationRepository() {
+            @Override
+            public int getCurrentMarshallingVersion() {
+                return 1;
+            }
+
+            @Override
+            public MarshallingConfiguration getMarshallingConfiguration(int version) {
+                return new MarshallingConfiguration();
+            }
+        };
+        MarshallingContext context = new SimpleMarshallingContextFactory(new RiverMarshallerFactory()).createMarshallingContext(repository, this.getClass().getClassLoader());
+        PassivationCounter listener = new PassivationCounter();
+        SimpleCache<UUID, Bean> cache = new SimpleCache<>(this.factory, listener, this.identifierFactory, null, this.environment, this.executor, 1, new FileBeanStore<>(directory, context));
+        cache.start();
+        try {
+            Bean bean1 = cache.create();
+            bean1.value = 1;
+            assertSame(bean1, cache.get(bean1.getId()));
+            cache.release(bean1);
+            Thread.sleep(10);
+
+            // Least recently used bean is passivated
+            Bean bean2 = cache.create();
+            assertEquals(1, listener.passivated.get());
+            assertEquals(1, cache.getCacheSize());
+            assertEquals(1, cache.getPassivatedCount());
+            assertEquals(2, cache.getTotalSize());
+            assertTrue(cache.contains(bean1.getId()));
+
+            // Activating a passivated bean passivates the other idle bean
+            Bean activated = cache.get(bean1.getId());
+            assertNotNull(activated);
+            assertNotSame(bean1, activated);
+            assertEquals(bean1.getId(), activated.getId());
+            assertEquals(1, activated.value);
+            assertEquals(1, listener.activated.get());
+            assertEquals(2, listener.passivated.get());
+            assertEquals(1, cache.getPassivatedCount());
+            cache.release(activated);
+
+            // Removing a passivated bean activates it first
+            cache.remove(bean2.getId());
+            assertEquals(2, listener.activated.get());
+            assertEquals(1, this.factory.destroyed.get());
+            assertEquals(0, cache.getPassivatedCount());
+            assertEquals(1, cache.getTotalSize());
+        } finally {
+            cache.stop();
+        }
+        assertFalse(Files.exists(directory));
+    }
+
+    static class Bean implements Identifiable<UUID>, Serializable {
+        private static final long serialVersionUID = -4180869722408524096L;
+
+        private final UUID id = UUID.randomUUID();
+        int value;
+
+        @Override
+        public UUID getId() {
+            return this.id;
+        }
+    }
+
+    static class BeanFactory implements StatefulObjectFactory<Bean> {
+        final AtomicInteger destroyed = new AtomicInteger();
+
+        @Override
+        public Bean createInstance() {
+            return new Bean();
+        }
+
+        @Override
+        public void destroyInstance(Bean instance) {
+            this.destroyed.incrementAndGet();
+        }
+    }
+
+    static class PassivationCounter implements PassivationListener<Bean> {
+        final AtomicInteger passivated = new AtomicInteger();
+        final AtomicInteger activated = new AtomicInteger();
+
+        @Override
+        public void prePassivate(Bean bean) {
+            this.passivated.incrementAndGet();
+        }
+
+        @Override
+        public void postActivate(Bean bean) {
+            this.activated.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.component.invocationmetrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link InvocationMetrics}.
+ */
+public class InvocationMetricsTestCase {
+
+    @Test
+    public void metrics() throws NoSuchMethodException {
+        Method foo = Object.class.getMethod("toString");
+        Method bar = Object.class.getMethod("hashCode");
+        InvocationMetrics metrics = new InvocationMetrics();
+
+        metrics.startInvocation();
+        metrics.startInvocation();
+        assertEquals(2, metrics.getConcurrent());
+        assertEquals(2, metrics.getPeakConcurrent());
+
+        metrics.finishInvocation(foo, TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(10));
+        metrics.finishInvocation(bar, TimeUnit.MILLISECONDS.toNanos(2), TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.startInvocation();
+        metrics.finishInvocation(foo, TimeUnit.MILLISECONDS.toNanos(3), TimeUnit.MILLISECONDS.toNanos(30));
+
+        assertEquals(0, metrics.getConcurrent());
+        assertEquals(2, metrics.getPeakConcurrent());
+        assertEquals(3, metrics.getInvocations());
+        assertEquals(6, metrics.getWaitTime());
+        assertEquals(60, metrics.getExecutionTime());
+        assertEquals(30d, metrics.getExecutionTime(1d), 30d / 8);
+
+        Map<String, InvocationMetrics.Values> methods = metrics.getMethods();
+        assertEquals(2, methods.size());
+        InvocationMetrics.Values values = methods.get("toString");
+        assertEquals(2, values.getInvocations());
+        assertEquals(4, values.getWaitTime());
+        assertEquals(40, values.getExecutionTime());
+        assertEquals(10d, values.getExecutionTime(0.5d), 10d / 8);
+        assertEquals(3d, values.getWaitTime(1d), 3d / 8);
+        values = methods.get("hashCode");
+        assertEquals(1, values.getInvocations());
+        assertEquals(2, values.getWaitTime());
+        assertEquals(20, values.getExecutionTime());
+    }
+}
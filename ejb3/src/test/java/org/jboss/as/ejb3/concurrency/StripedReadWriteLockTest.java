@@ -0,0 +1,226 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.concurrency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import javax.ejb.IllegalLoopbackException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link StripedReadWriteLock}
+ */
+public class StripedReadWriteLockTest {
+
+    private StripedReadWriteLock lock;
+    private ExecutorService executor;
+
+    @Before
+    public void beforeTest() {
+        this.lock = new StripedReadWriteLock();
+        this.executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void afterTest() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Test that a {@link javax.ejb.IllegalLoopbackException} is thrown when the thread owning a read lock
+     * tries to obtain a write lock, even if re-entrant
+     */
+    @Test
+    public void testIllegalLoopBack() throws Exception {
+        Lock readLock = this.lock.readLock();
+        Lock writeLock = this.lock.writeLock();
+        readLock.lock();
+        try {
+            Assert.assertTrue(readLock.tryLock(1, TimeUnit.SECONDS));
+            readLock.unlock();
+            try {
+                writeLock.tryLock(1, TimeUnit.SECONDS);
+                writeLock.unlock();
+                Assert.fail("Unexpected acquired write lock");
+            } catch (IllegalLoopbackException e) {
+                // expected
+            }
+        } finally {
+            readLock.unlock();
+        }
+        // Once all read locks are released, the write lock can be obtained
+        Assert.assertTrue(writeLock.tryLock(1, TimeUnit.SECONDS));
+        writeLock.unlock();
+    }
+
+    /**
+     * Test that a read lock cannot be obtained while another thread holds the write lock
+     */
+    @Test
+    public void testReadTimeout() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Future<?> writer = this.executor.submit(new LockHolder(this.lock.writeLock(), locked, done));
+        Assert.assertTrue(locked.await(5, TimeUnit.SECONDS));
+        try {
+            Assert.assertFalse("Unexpected obtained a read lock", this.lock.readLock().tryLock(100, TimeUnit.MILLISECONDS));
+            Assert.assertFalse(this.lock.readLock().tryLock());
+        } finally {
+            done.countDown();
+        }
+        writer.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(this.lock.readLock().tryLock(1, TimeUnit.SECONDS));
+        this.lock.readLock().unlock();
+    }
+
+    /**
+     * Test that the write lock cannot be obtained while another thread holds a read lock,
+     * and that a failed write lock attempt does not block subsequent readers
+     */
+    @Test
+    public void testWriteTimeout() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Future<?> reader = this.executor.submit(new LockHolder(this.lock.readLock(), locked, done));
+        Assert.assertTrue(locked.await(5, TimeUnit.SECONDS));
+        try {
+            Assert.assertFalse("Unexpected obtained a write lock", this.lock.writeLock().tryLock(100, TimeUnit.MILLISECONDS));
+            Assert.assertFalse(this.lock.writeLock().tryLock());
+            Assert.assertTrue(this.lock.readLock().tryLock());
+            this.lock.readLock().unlock();
+        } finally {
+            done.countDown();
+        }
+        reader.get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(this.lock.writeLock().tryLock(1, TimeUnit.SECONDS));
+        this.lock.writeLock().unlock();
+    }
+
+    /**
+     * Tests that a thread can first get a write lock and at a later point in time, get
+     * a read lock, and that the write lock is re-entrant
+     */
+    @Test
+    public void testSameThreadCanGetWriteThenReadLock() throws Exception {
+        Lock writeLock = this.lock.writeLock();
+        Lock readLock = this.lock.readLock();
+        writeLock.lock();
+        try {
+            Assert.assertTrue(writeLock.tryLock(1, TimeUnit.SECONDS));
+            writeLock.unlock();
+            Assert.assertTrue("Could not obtain read lock when write lock was held by the same thread!", readLock.tryLock(1, TimeUnit.SECONDS));
+            readLock.unlock();
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            writeLock.unlock();
+            Assert.fail("Unexpected unlock of a write lock that is not held");
+        } catch (IllegalMonitorStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Verifies mutual exclusion of readers and writers with many concurrent readers and an occasional writer.
+     */
+    @Test
+    public void testConcurrentReadersAndWriter() throws Exception {
+        int readers = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+        int iterations = 20000;
+        int[] state = new int[2];
+        List<Callable<Void>> tasks = new ArrayList<>(readers + 1);
+        for (int i = 0; i < readers; ++i) {
+            tasks.add(() -> {
+                Lock readLock = this.lock.readLock();
+                for (int j = 0; j < iterations; ++j) {
+                    Assert.assertTrue(readLock.tryLock(5, TimeUnit.SECONDS));
+                    try {
+                        // A writer never updates the state while we hold the read lock
+                        Assert.assertEquals(state[0], state[1]);
+                    } finally {
+                        readLock.unlock();
+                    }
+                }
+                return null;
+            });
+        }
+        tasks.add(() -> {
+            Lock writeLock = this.lock.writeLock();
+            for (int j = 0; j < iterations / 100; ++j) {
+                Assert.assertTrue(writeLock.tryLock(5, TimeUnit.SECONDS));
+                try {
+                    state[0] += 1;
+                    Thread.yield();
+                    state[1] += 1;
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+            return null;
+        });
+        for (Future<Void> future : this.executor.invokeAll(tasks)) {
+            future.get();
+        }
+        Assert.assertEquals(iterations / 100, state[0]);
+        Assert.assertEquals(iterations / 100, state[1]);
+    }
+
+    /**
+     * Obtains a lock, and holds it until told otherwise
+     */
+    private static class LockHolder implements Callable<Void> {
+        private final Lock lock;
+        private final CountDownLatch locked;
+        private final CountDownLatch done;
+
+        LockHolder(Lock lock, CountDownLatch locked, CountDownLatch done) {
+            this.lock = lock;
+            this.locked = locked;
+            this.done = done;
+        }
+
+        @Override
+        public Void call() throws Exception {
+            this.lock.lock();
+            try {
+                this.locked.countDown();
+                this.done.await();
+            } finally {
+                this.lock.unlock();
+            }
+            return null;
+        }
+    }
+}
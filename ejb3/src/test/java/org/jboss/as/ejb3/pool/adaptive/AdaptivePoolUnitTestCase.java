@@ -0,0 +1,205 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.pool.adaptive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.common.MockBean;
+import org.jboss.as.ejb3.pool.common.MockFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AdaptivePool}.
+ */
+public class AdaptivePoolUnitTestCase {
+
+    private final ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+    private final AdaptivePool.ExecutorProvider provider = mock(AdaptivePool.ExecutorProvider.class);
+    private AdaptivePool<MockBean> pool;
+
+    @Before
+    public void setUp() {
+        MockBean.reset();
+        // Run pre-warming synchronously
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArguments()[0]).run();
+            return null;
+        }).when(this.executor).execute(any(Runnable.class));
+        when(this.provider.acquire()).thenReturn(this.executor);
+        this.pool = new AdaptivePool<>(new MockFactory(), 4, 2, 1L, 1, TimeUnit.SECONDS, this.provider, 1, TimeUnit.HOURS);
+        this.pool.start();
+    }
+
+    @After
+    public void tearDown() {
+        this.pool.stop();
+        // Executor is released along with the pool
+        verify(this.provider).release();
+        assertEquals(MockBean.getPostConstructs(), MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void prewarm() {
+        verify(this.executor).scheduleWithFixedDelay(same(this.pool), anyLong(), anyLong(), same(TimeUnit.HOURS));
+        assertEquals(2, MockBean.getPostConstructs());
+        assertEquals(2, this.pool.getCurrentSize());
+
+        MockBean bean1 = this.pool.get();
+        MockBean bean2 = this.pool.get();
+        // Pre-warmed instances are used
+        assertEquals(2, MockBean.getPostConstructs());
+        this.pool.release(bean1);
+        this.pool.release(bean2);
+    }
+
+    @Test
+    public void grow() throws Exception {
+        assertEquals(2, this.pool.getLimit());
+
+        MockBean bean1 = this.pool.get();
+        MockBean bean2 = this.pool.get();
+
+        // Force a caller to wait longer than the target wait time
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockBean> result = service.submit(this.pool::get);
+            Thread.sleep(50);
+            this.pool.release(bean1);
+            MockBean bean3 = result.get(5, TimeUnit.SECONDS);
+
+            this.pool.run();
+
+            assertEquals(3, this.pool.getLimit());
+            // Additional instance was created by the background task
+            assertEquals(3, MockBean.getPostConstructs());
+            assertEquals(1, this.pool.getAvailableCount());
+
+            // Acquiring the new permit does not create an instance on the invocation path
+            MockBean bean4 = this.pool.get();
+            assertEquals(3, MockBean.getPostConstructs());
+
+            this.pool.release(bean2);
+            this.pool.release(bean3);
+            this.pool.release(bean4);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void shrink() {
+        List<MockBean> beans = new ArrayList<>();
+        beans.add(this.pool.get());
+        beans.add(this.pool.get());
+        beans.forEach(this.pool::release);
+
+        // No waiting and 2 idle instances
+        for (int i = 1; i < AdaptivePool.SHRINK_INTERVALS; ++i) {
+            this.pool.run();
+            assertEquals(2, this.pool.getLimit());
+        }
+        this.pool.run();
+
+        assertEquals(1, this.pool.getLimit());
+        assertEquals(1, this.pool.getCurrentSize());
+        assertEquals(1, MockBean.getPreDestroys());
+
+        // Never shrinks below 1
+        this.pool.run();
+        assertEquals(1, this.pool.getLimit());
+    }
+
+    @Test
+    public void hysteresis() {
+        for (int i = 1; i < AdaptivePool.SHRINK_INTERVALS; ++i) {
+            this.pool.run();
+        }
+        assertEquals(2, this.pool.getLimit());
+
+        // An interval without idle instances interrupts the quiet streak
+        MockBean bean1 = this.pool.get();
+        MockBean bean2 = this.pool.get();
+        this.pool.run();
+        this.pool.release(bean1);
+        this.pool.release(bean2);
+
+        for (int i = 1; i < AdaptivePool.SHRINK_INTERVALS; ++i) {
+            this.pool.run();
+            assertEquals(2, this.pool.getLimit());
+        }
+        this.pool.run();
+        assertEquals(1, this.pool.getLimit());
+    }
+
+    @Test
+    public void shrinkWhileInUse() {
+        MockBean bean1 = this.pool.get();
+        MockBean bean2 = this.pool.get();
+
+        this.pool.setMaxSize(1);
+        assertEquals(1, this.pool.getLimit());
+
+        this.pool.release(bean1);
+        // Excess instance was destroyed on release
+        assertEquals(1, MockBean.getPreDestroys());
+        this.pool.release(bean2);
+        assertEquals(1, this.pool.getCurrentSize());
+    }
+
+    @Test
+    public void tooMany() {
+        List<MockBean> beans = new ArrayList<>();
+        beans.add(this.pool.get());
+        beans.add(this.pool.get());
+
+        try {
+            this.pool.get();
+            fail("should have thrown an exception");
+        } catch (Exception e) {
+            assertEquals(EjbLogger.ROOT_LOGGER.failedToAcquirePermit(1, TimeUnit.SECONDS).getMessage(), e.getMessage());
+        }
+
+        beans.forEach(this.pool::release);
+        assertTrue(this.pool.getAvailableCount() <= this.pool.getLimit());
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.pool.sharded;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ejb3.logging.EjbLogger;
+import org.jboss.as.ejb3.pool.Pool;
+import org.jboss.as.ejb3.pool.common.MockBean;
+import org.jboss.as.ejb3.pool.common.MockFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ShardedPool}.
+ */
+public class ShardedPoolUnitTestCase {
+
+    @Before
+    public void setUp() {
+        MockBean.reset();
+    }
+
+    @Test
+    public void reuse() {
+        Pool<MockBean> pool = new ShardedPool<>(new MockFactory(), 10, 4, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        MockBean bean = pool.get();
+        pool.release(bean);
+        // Same thread should obtain the same instance from its shard
+        assertSame(bean, pool.get());
+        pool.release(bean);
+
+        pool.stop();
+
+        assertEquals(1, MockBean.getPostConstructs());
+        assertEquals(1, MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void steal() throws Exception {
+        Pool<MockBean> pool = new ShardedPool<>(new MockFactory(), 1, 4, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        MockBean bean = pool.get();
+        pool.release(bean);
+
+        // Another thread, possibly mapped to another shard, must find the idle instance rather than time out
+        ExecutorService service = Executors.newSingleThreadExecutor();
+        try {
+            Future<MockBean> result = service.submit(pool::get);
+            MockBean stolen = result.get(5, TimeUnit.SECONDS);
+            assertSame(bean, stolen);
+            pool.release(stolen);
+        } finally {
+            service.shutdown();
+        }
+
+        pool.stop();
+
+        assertEquals(1, MockBean.getPostConstructs());
+        assertEquals(1, MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void tooMany() {
+        Pool<MockBean> pool = new ShardedPool<>(new MockFactory(), 10, 4, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        List<MockBean> beans = new ArrayList<>(10);
+        for (int i = 0; i < 10; i++) {
+            beans.add(pool.get());
+        }
+        assertEquals(0, pool.getAvailableCount());
+
+        try {
+            pool.get();
+            fail("should have thrown an exception");
+        } catch (Exception e) {
+            assertEquals(EjbLogger.ROOT_LOGGER.failedToAcquirePermit(1, TimeUnit.SECONDS).getMessage(), e.getMessage());
+        }
+
+        beans.forEach(pool::release);
+        assertEquals(10, pool.getAvailableCount());
+
+        pool.stop();
+
+        assertEquals(10, MockBean.getPostConstructs());
+        assertEquals(10, MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void discard() {
+        Pool<MockBean> pool = new ShardedPool<>(new MockFactory(), 1, 4, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        MockBean bean = pool.get();
+        pool.discard(bean);
+
+        // Discarding must free capacity for a new instance
+        bean = pool.get();
+        pool.release(bean);
+
+        pool.stop();
+
+        assertEquals(2, MockBean.getPostConstructs());
+        assertEquals(2, MockBean.getPreDestroys());
+    }
+
+    @Test
+    public void shrink() {
+        Pool<MockBean> pool = new ShardedPool<>(new MockFactory(), 2, 4, 1, TimeUnit.SECONDS);
+        pool.start();
+
+        MockBean bean1 = pool.get();
+        MockBean bean2 = pool.get();
+        pool.setMaxSize(1);
+        assertEquals(1, pool.getMaxSize());
+        pool.release(bean1);
+        pool.release(bean2);
+
+        assertEquals(1, pool.getCurrentSize());
+
+        pool.stop();
+
+        assertEquals(2, MockBean.getPostConstructs());
+        assertEquals(2, MockBean.getPreDestroys());
+    }
+
+    /**
+     * More threads than the pool size.
+     */
+    @Test
+    public void multiThread() throws Exception {
+        final Pool<MockBean> pool = new ShardedPool<>(new MockFactory(), 10, 4, 60, TimeUnit.SECONDS);
+        pool.start();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicInteger active = new AtomicInteger(0);
+        final AtomicInteger used = new AtomicInteger(0);
+        final int invocations = 1000;
+
+        Callable<Void> task = () -> {
+            start.await();
+            for (int i = 0; i < invocations; i++) {
+                MockBean bean = pool.get();
+                try {
+                    assertTrue(active.incrementAndGet() <= 10);
+                    used.incrementAndGet();
+                } finally {
+                    active.decrementAndGet();
+                    pool.release(bean);
+                }
+            }
+            return null;
+        };
+
+        ExecutorService service = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<Void>> results = new ArrayList<>(20);
+            for (int i = 0; i < 20; i++) {
+                results.add(service.submit(task));
+            }
+            start.countDown();
+            for (Future<Void> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            service.shutdown();
+        }
+
+        pool.stop();
+
+        assertEquals(20 * invocations, used.get());
+        assertTrue(MockBean.getPostConstructs() <= 10);
+        assertEquals(MockBean.getPostConstructs(), MockBean.getPreDestroys());
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.Date;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link LocalInvocationPlan}.
+ */
+public class LocalInvocationPlanTestCase {
+
+    interface View {
+        String echo(String value, int count, Instant instant);
+        int[] numbers(int[] values, String[] names);
+        Object any(Object value);
+        Date date(Date value);
+    }
+
+    private final ClonerPool cloner = mock(ClonerPool.class);
+
+    @Test
+    public void immutable() throws NoSuchMethodException {
+        Method method = View.class.getMethod("echo", String.class, int.class, Instant.class);
+        LocalInvocationPlan plan = new LocalInvocationPlan(method, false);
+        Object[] parameters = new Object[] { "foo", 1, Instant.now() };
+        Object[] result = plan.copyParameters(parameters, this.cloner);
+        assertNotSame(parameters, result);
+        for (int i = 0; i < parameters.length; ++i) {
+            assertSame(parameters[i], result[i]);
+        }
+        assertSame("bar", plan.copyResult(String.class, "bar", this.cloner));
+        verify(this.cloner, never()).clone(any());
+    }
+
+    @Test
+    public void arrays() throws NoSuchMethodException {
+        Method method = View.class.getMethod("numbers", int[].class, String[].class);
+        LocalInvocationPlan plan = new LocalInvocationPlan(method, false);
+        int[] values = new int[] { 1, 2, 3 };
+        String[] names = new String[] { "a", "b" };
+        Object[] result = plan.copyParameters(new Object[] { values, names }, this.cloner);
+        assertNotSame(values, result[0]);
+        assertArrayEquals(values, (int[]) result[0]);
+        assertNotSame(names, result[1]);
+        assertArrayEquals(names, (String[]) result[1]);
+        verify(this.cloner, never()).clone(any());
+
+        // Arrays of immutable values are always passed by reference, if allowed
+        plan = new LocalInvocationPlan(method, true);
+        result = plan.copyParameters(new Object[] { values, names }, this.cloner);
+        assertSame(values, result[0]);
+        assertSame(names, result[1]);
+    }
+
+    @Test
+    public void cloned() throws NoSuchMethodException {
+        Method method = View.class.getMethod("date", Date.class);
+        LocalInvocationPlan plan = new LocalInvocationPlan(method, false);
+        Date date = new Date();
+        Date clone = new Date(date.getTime());
+        when(this.cloner.clone(date)).thenReturn(clone);
+        assertSame(clone, plan.copyParameters(new Object[] { date }, this.cloner)[0]);
+        assertSame(clone, plan.copyResult(Date.class, date, this.cloner));
+        assertNull(plan.copyResult(Date.class, null, this.cloner));
+
+        // Compatible references are passed as is, if allowed
+        plan = new LocalInvocationPlan(method, true);
+        assertSame(date, plan.copyParameters(new Object[] { date }, this.cloner)[0]);
+    }
+
+    @Test
+    public void runtimeType() throws NoSuchMethodException {
+        Method method = View.class.getMethod("any", Object.class);
+        LocalInvocationPlan plan = new LocalInvocationPlan(method, false);
+        BigInteger value = BigInteger.TEN;
+        assertSame(value, plan.copyParameters(new Object[] { value }, this.cloner)[0]);
+        verify(this.cloner, never()).clone(any());
+
+        Date date = new Date();
+        when(this.cloner.clone(date)).thenReturn(new Date(date.getTime()));
+        Object result = plan.copyParameters(new Object[] { date }, this.cloner)[0];
+        assertNotSame(date, result);
+        assertEquals(date, result);
+    }
+
+    @Test
+    public void noParameters() throws NoSuchMethodException {
+        Method method = View.class.getMethod("any", Object.class);
+        LocalInvocationPlan plan = new LocalInvocationPlan(method, false);
+        assertEquals(0, plan.copyParameters(null, this.cloner).length);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.remote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link PerBeanExecutor}.
+ */
+public class PerBeanExecutorTestCase {
+
+    // Executes nothing until told to
+    private final Queue<Runnable> threads = new LinkedList<>();
+    private final List<String> invocations = new ArrayList<>();
+
+    @Test
+    public void limit() {
+        PerBeanExecutor executor = new PerBeanExecutor(this.threads::add, 2);
+        Object slowBean = new Object();
+        Object fastBean = new Object();
+
+        executor.execute(slowBean, this.invocation("slow1"));
+        executor.execute(slowBean, this.invocation("slow2"));
+        executor.execute(slowBean, this.invocation("slow3"));
+        executor.execute(fastBean, this.invocation("fast1"));
+
+        // Third invocation of the slow bean must wait for one of its threads, but the fast bean is not held up
+        assertEquals(3, this.threads.size());
+        assertEquals(2, executor.getActiveBeans());
+
+        // First thread of the slow bean continues with its queued invocation
+        this.threads.poll().run();
+        assertEquals(listOf("slow1", "slow3"), this.invocations);
+
+        this.threads.poll().run();
+        this.threads.poll().run();
+        assertEquals(listOf("slow1", "slow3", "slow2", "fast1"), this.invocations);
+
+        // Idle beans are not retained
+        assertEquals(0, executor.getActiveBeans());
+
+        executor.execute(slowBean, this.invocation("slow4"));
+        assertEquals(1, this.threads.size());
+    }
+
+    @Test
+    public void failure() {
+        PerBeanExecutor executor = new PerBeanExecutor(this.threads::add, 1);
+        Object bean = new Object();
+        RuntimeException exception = new RuntimeException();
+
+        executor.execute(bean, () -> {
+            throw exception;
+        });
+        executor.execute(bean, this.invocation("next"));
+        assertEquals(1, this.threads.size());
+
+        try {
+            this.threads.poll().run();
+            fail();
+        } catch (RuntimeException e) {
+            assertSame(exception, e);
+        }
+
+        // Queued invocation is handed over to another thread
+        assertEquals(1, this.threads.size());
+        this.threads.poll().run();
+        assertEquals(listOf("next"), this.invocations);
+        assertEquals(0, executor.getActiveBeans());
+    }
+
+    @Test
+    public void rejected() {
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException();
+        };
+        PerBeanExecutor executor = new PerBeanExecutor(rejecting, 1);
+        Object bean = new Object();
+
+        try {
+            executor.execute(bean, this.invocation("rejected"));
+            fail();
+        } catch (RejectedExecutionException e) {
+            // Expected
+        }
+
+        // Thread reserved for the rejected invocation was released
+        assertEquals(0, executor.getActiveBeans());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLimit() {
+        new PerBeanExecutor(this.threads::add, 0);
+    }
+
+    private Runnable invocation(String name) {
+        return () -> this.invocations.add(name);
+    }
+
+    private static List<String> listOf(String... values) {
+        List<String> result = new ArrayList<>();
+        for (String value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+}
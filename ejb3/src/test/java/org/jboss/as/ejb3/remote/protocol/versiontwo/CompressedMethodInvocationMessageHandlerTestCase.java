@@ -33,6 +33,7 @@ import org.jboss.as.ejb3.deployment.ModuleDeployment;
 import org.jboss.as.ejb3.remote.CompressedMethodsInformation;
 import org.jboss.as.ejb3.remote.CompressionHintViewConfigurator;
 import org.jboss.as.ejb3.remote.protocol.versionone.ChannelAssociation;
+import org.jboss.as.ejb3.remote.protocol.versionone.MethodInvocationCache;
 import org.jboss.ejb.client.EJBLocator;
 import org.jboss.ejb.client.StatelessEJBLocator;
 import org.jboss.ejb.client.annotation.CompressionHint;
@@ -93,6 +94,18 @@ public class CompressedMethodInvocationMessageHandlerTestCase {
         assertEquals(UNCOMPRESSED_HEADER, outputBytes[0]);
     }
 
+    @Test
+    public void testChannelCache() throws Exception {
+        // Successive invocations on the same channel reuse the unmarshaller and the resolved method
+        handler = new CompressedMethodInvocationMessageHandler(createDeploymentRepository(RemoteCompressingBean.class, RemoteNotCompressingBean.class),
+                marshallerFactory, executorService, null, new MethodInvocationCache());
+        for (int i = 0; i < 3; ++i) {
+            assertEquals(COMPRESSED_HEADER, callMessageInvocationHandler(RemoteCompressingBean.class, "echoWithResponseCompressionEnabled")[0]);
+            assertEquals(UNCOMPRESSED_HEADER, callMessageInvocationHandler(RemoteCompressingBean.class, "echoWithResponseCompressionDisabled")[0]);
+            assertEquals(UNCOMPRESSED_HEADER, callMessageInvocationHandler(RemoteNotCompressingBean.class, "echoWithoutCompressionHint")[0]);
+        }
+    }
+
     private byte[] callMessageInvocationHandler(Class remoteInterface, String methodName) throws Exception {
         // prepare input stream
         final PipedOutputStream pos = new PipedOutputStream();
@@ -196,6 +209,7 @@ public class CompressedMethodInvocationMessageHandlerTestCase {
         // deployment repository
         final DeploymentRepository deploymentRepository = Mockito.mock(DeploymentRepository.class);
         Mockito.when(deploymentRepository.getStartedModules()).thenReturn(modules);
+        Mockito.when(deploymentRepository.getStartedModule(identifier)).thenReturn(deployment);
         return deploymentRepository;
     }
 
@@ -206,8 +206,8 @@ public class TransformersTestCase extends AbstractSubsystemBaseTest {
             config.addFailedAttribute(ejbReceiverAddress, FailedOperationTransformationConfig.REJECTED_RESOURCE);
             config.addFailedAttribute(channelCreationOptionsAddress, FailedOperationTransformationConfig.REJECTED_RESOURCE);
 
-            // reject the attribute 'cluster' from resource /subsystem=ejb3/service=remote
-            config.addFailedAttribute(subsystemAddress.append(EJB3SubsystemModel.REMOTE_SERVICE_PATH), new FailedOperationTransformationConfig.NewAttributesConfig(EJB3RemoteResourceDefinition.CLIENT_MAPPINGS_CLUSTER_NAME));
+            // reject the attributes 'cluster' and 'max-threads-per-bean' from resource /subsystem=ejb3/service=remote
+            config.addFailedAttribute(subsystemAddress.append(EJB3SubsystemModel.REMOTE_SERVICE_PATH), new FailedOperationTransformationConfig.NewAttributesConfig(EJB3RemoteResourceDefinition.CLIENT_MAPPINGS_CLUSTER_NAME, EJB3RemoteResourceDefinition.MAX_THREADS_PER_BEAN));
         }
 
         if (EJB3Model.VERSION_1_3_0.matches(version)) {
@@ -239,8 +239,8 @@ public class TransformersTestCase extends AbstractSubsystemBaseTest {
             config.addFailedAttribute(ejbReceiverAddress, FailedOperationTransformationConfig.REJECTED_RESOURCE);
             config.addFailedAttribute(channelCreationOptionsAddress, FailedOperationTransformationConfig.REJECTED_RESOURCE);
 
-            // reject the attribute 'cluster' from resource /subsystem=ejb3/service=remote
-            config.addFailedAttribute(subsystemAddress.append(EJB3SubsystemModel.REMOTE_SERVICE_PATH), new FailedOperationTransformationConfig.NewAttributesConfig(EJB3RemoteResourceDefinition.CLIENT_MAPPINGS_CLUSTER_NAME));
+            // reject the attributes 'cluster' and 'max-threads-per-bean' from resource /subsystem=ejb3/service=remote
+            config.addFailedAttribute(subsystemAddress.append(EJB3SubsystemModel.REMOTE_SERVICE_PATH), new FailedOperationTransformationConfig.NewAttributesConfig(EJB3RemoteResourceDefinition.CLIENT_MAPPINGS_CLUSTER_NAME, EJB3RemoteResourceDefinition.MAX_THREADS_PER_BEAN));
         }
 
         return config;
@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.timerservice;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for {@link TimingWheel}.
+ */
+public class TimingWheelTestCase {
+
+    private TimingWheel wheel;
+
+    @Before
+    public void setUp() {
+        // Small wheel, so that overflow wheels are exercised
+        this.wheel = new TimingWheel(task -> {
+            Thread thread = new Thread(task, this.getClass().getSimpleName());
+            thread.setDaemon(true);
+            return thread;
+        }, 1, 16);
+    }
+
+    @After
+    public void tearDown() {
+        this.wheel.cancel();
+    }
+
+    @Test
+    public void schedule() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        TimingWheel.Timeout timeout = this.wheel.schedule(latch::countDown, 100);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 100);
+        // Already ran
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void scheduleExpired() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        this.wheel.schedule(latch::countDown, -1);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void scheduleAtFixedRate() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(5);
+        TimingWheel.Timeout timeout = this.wheel.scheduleAtFixedRate(latch::countDown, 10, 20);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    public void cancel() throws InterruptedException {
+        AtomicInteger count = new AtomicInteger();
+        TimingWheel.Timeout timeout = this.wheel.schedule(count::incrementAndGet, 50);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+
+        // Use a later timeout to detect that the cancelled timeout did not fire
+        CountDownLatch latch = new CountDownLatch(1);
+        this.wheel.schedule(latch::countDown, 100);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, count.get());
+    }
+
+    /**
+     * Schedules and cancels many timers, with deadlines spread across several levels of the wheel.
+     */
+    @Test
+    public void scheduleMany() throws InterruptedException {
+        int count = 100000;
+        AtomicInteger cancelled = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(count / 2);
+        List<TimingWheel.Timeout> timeouts = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            // Timeouts to be cancelled are scheduled far enough out that they cannot fire before being cancelled
+            timeouts.add(((i % 2) == 0) ? this.wheel.schedule(latch::countDown, i % 1000) : this.wheel.schedule(cancelled::incrementAndGet, 5000 + i));
+        }
+        for (int i = 1; i < count; i += 2) {
+            assertTrue(timeouts.get(i).cancel());
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(0, cancelled.get());
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.timerservice.persistence.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TimerTask;
+import java.util.UUID;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence.TimerChangeListener;
+import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
+import org.jboss.as.naming.ImmediateManagedReferenceFactory;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StopContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests {@link DatabaseTimerPersistence} against an in-memory H2 database.
+ */
+public class DatabaseTimerPersistenceTestCase {
+
+    private static final String TIMED_OBJECT_ID = "timed-object";
+    private static final String PARTITION = "default";
+    private static final int REFRESH_INTERVAL = 1000;
+
+    private final TimerServiceImpl timerService = mock(TimerServiceImpl.class);
+    private final JdbcDataSource dataSource = new JdbcDataSource();
+    private final java.util.Timer timer = mock(java.util.Timer.class);
+    private final TransactionManager tm = mock(TransactionManager.class);
+    private final TransactionSynchronizationRegistry tsr = mock(TransactionSynchronizationRegistry.class);
+    private final Transaction transaction = mock(Transaction.class);
+    private final Map<Object, Object> resources = new HashMap<>();
+    // Keeps the in-memory database alive between connections
+    private Connection connection;
+    private DatabaseTimerPersistence persistence;
+
+    @Before
+    public void setUp() throws SQLException {
+        this.dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID());
+        this.connection = this.dataSource.getConnection();
+        TimedObjectInvoker invoker = mock(TimedObjectInvoker.class);
+        when(invoker.getTimedObjectId()).thenReturn(TIMED_OBJECT_ID);
+        when(this.timerService.getInvoker()).thenReturn(invoker);
+        when(this.tsr.getTransactionStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        when(this.tsr.getResource(any())).thenAnswer(invocation -> this.resources.get(invocation.getArguments()[0]));
+        doAnswer(invocation -> this.resources.put(invocation.getArguments()[0], invocation.getArguments()[1])).when(this.tsr).putResource(any(), any());
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        if (this.persistence != null) {
+            this.persistence.stop(mock(StopContext.class));
+        }
+        this.connection.close();
+    }
+
+    @Test
+    public void createTable() throws Exception {
+        this.start();
+        this.persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+
+        this.persistence.addTimer(this.createTimer("timer"));
+
+        assertNotNull(this.getLastModified("timer"));
+    }
+
+    @Test
+    public void addLastModified() throws Exception {
+        // Table created prior to the last modified column
+        Properties sql = new Properties();
+        try (InputStream input = DatabaseTimerPersistence.class.getClassLoader().getResourceAsStream("timer-sql.properties")) {
+            sql.load(input);
+        }
+        try (Statement statement = this.connection.createStatement()) {
+            statement.executeUpdate(sql.getProperty("create-table"));
+            statement.executeUpdate("ALTER TABLE JBOSS_EJB_TIMER DROP COLUMN LAST_MODIFIED");
+            statement.executeUpdate("INSERT INTO JBOSS_EJB_TIMER (ID, TIMED_OBJECT_ID, TIMER_STATE, PARTITION_NAME) VALUES ('legacy', '" + TIMED_OBJECT_ID + "', 'ACTIVE', '" + PARTITION + "')");
+        }
+
+        this.start();
+
+        // Column was added, and existing rows were stamped, so that incremental refresh will see them
+        assertNotNull(this.getLastModified("legacy"));
+    }
+
+    @Test
+    public void shouldRun() throws Exception {
+        this.start();
+        this.persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        TimerImpl timer = this.createTimer("timer");
+        this.persistence.addTimer(timer);
+        this.setLastModified("timer", 0L);
+        TransactionManager tm = mock(TransactionManager.class);
+
+        assertTrue(this.persistence.shouldRun(timer, tm));
+        // Claiming a timer is visible to incremental refreshes
+        assertTrue(this.getLastModified("timer") > 0L);
+
+        // Timer was already claimed
+        assertFalse(this.persistence.shouldRun(timer, tm));
+
+        // Timer no longer exists
+        assertFalse(this.persistence.shouldRun(this.createTimer("removed"), tm));
+    }
+
+    @Test
+    public void transactionBatch() throws Exception {
+        this.start();
+        this.persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        Synchronization batch = this.begin();
+
+        this.persistence.addTimer(this.createTimer("timer1"));
+        this.persistence.addTimer(this.createTimer("timer2"));
+        // Timer created and cancelled within the same transaction is never written
+        TimerImpl cancelled = this.createTimer("cancelled");
+        this.persistence.addTimer(cancelled);
+        cancelled.setTimerState(TimerState.CANCELED);
+        this.persistence.persistTimer(cancelled);
+
+        // A single batch per transaction
+        verify(this.transaction).registerSynchronization(batch);
+
+        // Nothing is written until the transaction completes
+        assertNull(this.getLastModified("timer1"));
+        assertNull(this.getLastModified("timer2"));
+
+        batch.beforeCompletion();
+        batch.afterCompletion(Status.STATUS_COMMITTED);
+
+        assertNotNull(this.getLastModified("timer1"));
+        assertNotNull(this.getLastModified("timer2"));
+        assertNull(this.getLastModified("cancelled"));
+    }
+
+    @Test
+    public void transactionBatchRollback() throws Exception {
+        this.start();
+        this.persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        Synchronization batch = this.begin();
+
+        this.persistence.addTimer(this.createTimer("timer"));
+
+        // Synchronizations are not called before completion of a transaction that rolls back
+        batch.afterCompletion(Status.STATUS_ROLLEDBACK);
+
+        assertNull(this.getLastModified("timer"));
+    }
+
+    @Test
+    public void transactionBatchFailure() throws Exception {
+        this.start();
+        this.persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        Synchronization batch = this.begin();
+
+        // Write errors are no longer thrown by the timer operation itself
+        this.persistence.addTimer(this.createTimer("timer"));
+
+        try (Statement statement = this.connection.createStatement()) {
+            statement.executeUpdate("DROP TABLE JBOSS_EJB_TIMER");
+        }
+
+        // Instead, they surface before completion, causing the transaction to roll back
+        try {
+            batch.beforeCompletion();
+            fail();
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+    }
+
+    @Test
+    public void incrementalRefresh() throws Exception {
+        TimerTask refresh = this.start(REFRESH_INTERVAL);
+        TimerChangeListener listener = mock(TimerChangeListener.class);
+        when(listener.getTimerService()).thenReturn(this.timerService);
+        this.persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        this.persistence.registerChangeListener(TIMED_OBJECT_ID, listener);
+        this.persistence.addTimer(this.createTimer("removed"));
+
+        // Timers written by another node
+        DatabaseTimerPersistence other = this.createPersistence("other", 0);
+        try {
+            other.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+            other.addTimer(this.createTimer("recent"));
+            other.addTimer(this.createTimer("skewed"));
+            other.addTimer(this.createTimer("stale"));
+        } finally {
+            other.stop(mock(StopContext.class));
+        }
+        // Timer written by a node whose clock lags behind, but within the look back window
+        this.setLastModified("skewed", System.currentTimeMillis() - REFRESH_INTERVAL - 30000L);
+        // Timer last modified long before the previous refresh, e.g. by a node whose clock lags far behind
+        this.setLastModified("stale", 0L);
+        this.delete("removed");
+
+        refresh.run();
+
+        // Incremental refresh only sees timers modified since the previous refresh, and cannot detect removed timers
+        assertEquals(set("recent", "skewed"), this.getAddedTimers(listener));
+        verify(listener, never()).timerRemoved(any());
+
+        reset(listener);
+        when(listener.getTimerService()).thenReturn(this.timerService);
+        for (int i = 2; i < 10; ++i) {
+            refresh.run();
+        }
+        verify(listener, never()).timerAdded(any());
+        verify(listener, never()).timerRemoved(any());
+
+        // Every tenth refresh reloads all timers
+        refresh.run();
+
+        assertEquals(set("stale"), this.getAddedTimers(listener));
+        verify(listener).timerRemoved("removed");
+    }
+
+    private Synchronization begin() throws Exception {
+        ArgumentCaptor<Synchronization> capturedBatch = ArgumentCaptor.forClass(Synchronization.class);
+        when(this.tsr.getTransactionStatus()).thenReturn(Status.STATUS_ACTIVE);
+        when(this.tm.getTransaction()).thenReturn(this.transaction);
+        // Registered lazily, on the first write of the transaction
+        this.persistence.addTimer(this.createTimer("first"));
+        verify(this.transaction).registerSynchronization(capturedBatch.capture());
+        return capturedBatch.getValue();
+    }
+
+    private Set<String> getAddedTimers(TimerChangeListener listener) {
+        ArgumentCaptor<TimerImpl> capturedTimer = ArgumentCaptor.forClass(TimerImpl.class);
+        verify(listener, atLeastOnce()).timerAdded(capturedTimer.capture());
+        Set<String> ids = new HashSet<>();
+        for (TimerImpl timer : capturedTimer.getAllValues()) {
+            ids.add(timer.getId());
+        }
+        return ids;
+    }
+
+    private static Set<String> set(String... ids) {
+        Set<String> result = new HashSet<>();
+        for (String id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+
+    private void start() throws Exception {
+        this.start(0);
+    }
+
+    private TimerTask start(int refreshInterval) throws Exception {
+        this.persistence = this.createPersistence("node", refreshInterval);
+        if (refreshInterval > 0) {
+            ArgumentCaptor<TimerTask> capturedTask = ArgumentCaptor.forClass(TimerTask.class);
+            verify(this.timer).schedule(capturedTask.capture(), eq((long) refreshInterval), eq((long) refreshInterval));
+            return capturedTask.getValue();
+        }
+        verify(this.timer, never()).schedule(any(TimerTask.class), anyLong(), anyLong());
+        return null;
+    }
+
+    private DatabaseTimerPersistence createPersistence(String nodeName, int refreshInterval) throws Exception {
+        DatabaseTimerPersistence persistence = new DatabaseTimerPersistence(null, PARTITION, nodeName, refreshInterval, true);
+        persistence.getModuleLoader().inject(mock(ModuleLoader.class));
+        persistence.getDataSourceInjectedValue().inject(new ImmediateManagedReferenceFactory(this.dataSource));
+        persistence.getTimerInjectedValue().inject(this.timer);
+        persistence.getTransactionManager().inject(this.tm);
+        persistence.getTransactionSynchronizationRegistry().inject(this.tsr);
+        persistence.start(mock(StartContext.class));
+        return persistence;
+    }
+
+    private TimerImpl createTimer(String id) {
+        return TimerImpl.builder()
+                .setId(id)
+                .setTimedObjectId(TIMED_OBJECT_ID)
+                .setInitialDate(new Date())
+                .setTimerState(TimerState.ACTIVE)
+                .setPersistent(true)
+                .setNewTimer(true)
+                .build(this.timerService);
+    }
+
+    private Long getLastModified(String id) throws SQLException {
+        try (PreparedStatement statement = this.connection.prepareStatement("SELECT LAST_MODIFIED FROM JBOSS_EJB_TIMER WHERE ID=?")) {
+            statement.setString(1, id);
+            try (ResultSet result = statement.executeQuery()) {
+                if (!result.next()) {
+                    return null;
+                }
+                long lastModified = result.getLong(1);
+                return result.wasNull() ? null : Long.valueOf(lastModified);
+            }
+        }
+    }
+
+    private void delete(String id) throws SQLException {
+        try (PreparedStatement statement = this.connection.prepareStatement("DELETE FROM JBOSS_EJB_TIMER WHERE ID=?")) {
+            statement.setString(1, id);
+            statement.executeUpdate();
+        }
+    }
+
+    private void setLastModified(String id, long lastModified) throws SQLException {
+        try (PreparedStatement statement = this.connection.prepareStatement("UPDATE JBOSS_EJB_TIMER SET LAST_MODIFIED=? WHERE ID=?")) {
+            statement.setLong(1, lastModified);
+            statement.setString(2, id);
+            statement.executeUpdate();
+        }
+    }
+}
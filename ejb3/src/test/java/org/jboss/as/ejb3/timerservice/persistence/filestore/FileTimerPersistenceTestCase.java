@@ -0,0 +1,162 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.jboss.as.ejb3.timerservice.persistence.filestore.TimerJournalTestCase.TIMED_OBJECT_ID;
+import static org.jboss.as.ejb3.timerservice.persistence.filestore.TimerJournalTestCase.assertTimer;
+import static org.jboss.as.ejb3.timerservice.persistence.filestore.TimerJournalTestCase.createTimer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.transaction.Status;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.as.controller.services.path.PathManager;
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StopContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the migration of the timers of {@link FileTimerPersistence} between XML files and a {@link TimerJournal}.
+ */
+public class FileTimerPersistenceTestCase {
+
+    private final TimerServiceImpl timerService = TimerJournalTestCase.mockTimerService();
+    private File baseDir;
+    private File directory;
+    private FileTimerPersistence persistence;
+
+    @Before
+    public void setUp() throws IOException {
+        this.baseDir = Files.createTempDirectory("timer-store").toFile();
+        this.directory = new File(this.baseDir, TIMED_OBJECT_ID);
+    }
+
+    @After
+    public void tearDown() {
+        this.stop();
+        TimerJournalTestCase.delete(this.baseDir);
+    }
+
+    @Test
+    public void migrate() throws Exception {
+        this.start(false);
+        this.persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        TimerImpl first = createTimer(this.timerService, "first", 1000L);
+        TimerImpl second = createTimer(this.timerService, "second", 2000L);
+        this.persistence.addTimer(first);
+        this.persistence.addTimer(second);
+        this.stop();
+
+        assertTrue(new File(this.directory, "first.xml").exists());
+        assertTrue(new File(this.directory, "second.xml").exists());
+
+        // Enabling journaling imports the XML files into the journal
+        this.start(true);
+        Map<String, TimerImpl> timers = this.loadActiveTimers();
+
+        assertEquals(2, timers.size());
+        assertTimer(first, timers.get("first"));
+        assertTimer(second, timers.get("second"));
+        assertTrue(new File(this.directory, TimerJournal.MIGRATION_MARKER).exists());
+        assertTrue(new File(this.directory, TimerJournal.DIRECTORY).isDirectory());
+        assertFalse(new File(this.directory, "first.xml").exists());
+        assertFalse(new File(this.directory, "second.xml").exists());
+
+        TimerImpl third = createTimer(this.timerService, "third", 3000L);
+        this.persistence.addTimer(third);
+        TimerImpl canceled = timers.get("second");
+        canceled.setTimerState(TimerState.CANCELED);
+        this.persistence.persistTimer(canceled);
+        this.stop();
+
+        // Journal is recovered on restart
+        this.start(true);
+        timers = this.loadActiveTimers();
+
+        assertEquals(2, timers.size());
+        assertTimer(first, timers.get("first"));
+        assertTimer(third, timers.get("third"));
+        this.stop();
+
+        // Disabling journaling exports the journal back into XML files
+        this.start(false);
+        timers = this.loadActiveTimers();
+
+        assertEquals(2, timers.size());
+        assertTimer(first, timers.get("first"));
+        assertTimer(third, timers.get("third"));
+        assertFalse(new File(this.directory, TimerJournal.MIGRATION_MARKER).exists());
+        assertFalse(new File(this.directory, TimerJournal.DIRECTORY).exists());
+        assertTrue(new File(this.directory, "first.xml").exists());
+        assertFalse(new File(this.directory, "second.xml").exists());
+        assertTrue(new File(this.directory, "third.xml").exists());
+    }
+
+    private Map<String, TimerImpl> loadActiveTimers() {
+        List<TimerImpl> timers = this.persistence.loadActiveTimers(TIMED_OBJECT_ID, this.timerService);
+        Map<String, TimerImpl> result = new HashMap<>();
+        for (TimerImpl timer : timers) {
+            result.put(timer.getId(), timer);
+        }
+        return result;
+    }
+
+    private void start(boolean journaled) throws SystemException {
+        this.persistence = new FileTimerPersistence(false, this.baseDir.getAbsolutePath(), null, journaled);
+        this.persistence.getModuleLoader().inject(mock(ModuleLoader.class));
+        PathManager pathManager = mock(PathManager.class);
+        when(pathManager.resolveRelativePathEntry(this.baseDir.getAbsolutePath(), null)).thenReturn(this.baseDir.getAbsolutePath());
+        this.persistence.getPathManager().inject(pathManager);
+        TransactionManager tm = mock(TransactionManager.class);
+        when(tm.getStatus()).thenReturn(Status.STATUS_NO_TRANSACTION);
+        this.persistence.getTransactionManager().inject(tm);
+        this.persistence.getTransactionSynchronizationRegistry().inject(mock(TransactionSynchronizationRegistry.class));
+        this.persistence.start(mock(StartContext.class));
+    }
+
+    private void stop() {
+        if (this.persistence != null) {
+            this.persistence.stop(mock(StopContext.class));
+            this.persistence = null;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jboss.as.ejb3.timerservice.TimerImpl;
+import org.jboss.as.ejb3.timerservice.TimerServiceImpl;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.spi.TimedObjectInvoker;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.msc.value.InjectedValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests recovery, truncation of torn records, compaction and group commit of {@link TimerJournal}.
+ */
+public class TimerJournalTestCase {
+
+    static final String TIMED_OBJECT_ID = "timed-object";
+
+    private final TimerServiceImpl timerService = mockTimerService();
+    private File directory;
+    private final List<TimerJournal> journals = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        this.directory = new File(Files.createTempDirectory("timer-journal").toFile(), TimerJournal.DIRECTORY);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (TimerJournal journal : this.journals) {
+            journal.close();
+        }
+        delete(this.directory.getParentFile());
+    }
+
+    @Test
+    public void appendAndRecover() throws IOException {
+        TimerJournal journal = this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE);
+        TimerImpl kept = this.add(journal, "kept", 1000L);
+        TimerImpl updated = this.add(journal, "updated", 2000L);
+        TimerImpl canceled = this.add(journal, "canceled", 3000L);
+
+        updated.setNextTimeout(new Date(5000L));
+        journal.append(Collections.singletonList(updated));
+        canceled.setTimerState(TimerState.CANCELED);
+        journal.getTimers().remove(canceled.getId());
+        journal.sync(journal.append(Collections.singletonList(canceled)));
+        journal.close();
+
+        Map<String, TimerImpl> timers = this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE).getTimers();
+
+        assertEquals(2, timers.size());
+        assertTimer(kept, timers.get("kept"));
+        // Most recent record of a timer wins
+        assertEquals(5000L, timers.get("updated").getNextExpiration().getTime());
+        assertNull(timers.get("canceled"));
+    }
+
+    @Test
+    public void truncateTornRecord() throws IOException {
+        TimerJournal journal = this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE);
+        this.add(journal, "first", 1000L);
+        File segment = this.segments()[0];
+        long valid = segment.length();
+        this.add(journal, "torn", 2000L);
+        journal.close();
+
+        // Simulate a crash while the last record was being written
+        truncate(segment, segment.length() - 3);
+
+        journal = this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE);
+
+        assertEquals(Collections.singleton("first"), journal.getTimers().keySet());
+        assertEquals(valid, segment.length());
+
+        // Records appended after recovery follow the last valid record
+        this.add(journal, "next", 3000L);
+        journal.close();
+
+        assertEquals(new HashSet<>(Arrays.asList("first", "next")), this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE).getTimers().keySet());
+    }
+
+    @Test
+    public void discardCorruptedRecord() throws IOException {
+        TimerJournal journal = this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE);
+        this.add(journal, "first", 1000L);
+        this.add(journal, "corrupted", 2000L);
+        journal.close();
+
+        File segment = this.segments()[0];
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        }
+
+        assertEquals(Collections.singleton("first"), this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE).getTimers().keySet());
+    }
+
+    @Test
+    public void interruptedAppend() throws IOException {
+        TimerJournal journal = this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE);
+        this.add(journal, "first", 1000L);
+        File segment = this.segments()[0];
+        long valid = segment.length();
+
+        // Simulate an interrupt once part of a record reached the segment, which closes its channel
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(valid);
+            file.write(new byte[] { 0, 0, 0, 64, 1, 2, 3 });
+        }
+        Thread.currentThread().interrupt();
+        try {
+            this.add(journal, "interrupted", 2000L);
+            fail("Append on an interrupted thread should fail");
+        } catch (ClosedByInterruptException e) {
+            assertTrue(Thread.interrupted());
+        }
+
+        // The partial record is discarded before appending to the reopened segment
+        this.add(journal, "next", 3000L);
+        journal.close();
+
+        assertTrue(segment.length() > valid);
+        assertEquals(new HashSet<>(Arrays.asList("first", "next")), this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE).getTimers().keySet());
+    }
+
+    @Test
+    public void roll() throws IOException {
+        long segmentSize = 1024L;
+        TimerJournal journal = this.recover(segmentSize);
+        for (int i = 0; i < 30; ++i) {
+            this.add(journal, "timer" + i, i);
+        }
+        journal.close();
+
+        // All records are live, so segments are rolled rather than compacted
+        assertTrue(this.segments().length > 1);
+        assertEquals(30, this.recover(segmentSize).getTimers().size());
+    }
+
+    @Test
+    public void compact() throws IOException {
+        long segmentSize = 1024L;
+        TimerJournal journal = this.recover(segmentSize);
+        TimerImpl live = this.add(journal, "live", 0L);
+        for (int i = 1; i <= 100; ++i) {
+            live.setNextTimeout(new Date(i));
+            journal.append(Collections.singletonList(live));
+        }
+
+        // Most records were obsolete whenever the segment filled up, so previous segments were replaced by a compacted segment
+        File[] segments = this.segments();
+        assertEquals(1, segments.length);
+        assertTrue(segments[0].length() <= segmentSize);
+
+        this.add(journal, "other", 0L);
+        journal.compact();
+        journal.close();
+
+        segments = this.segments();
+        assertEquals(1, segments.length);
+
+        Map<String, TimerImpl> timers = this.recover(segmentSize).getTimers();
+        assertEquals(2, timers.size());
+        assertEquals(100L, timers.get("live").getNextExpiration().getTime());
+        assertNotNull(timers.get("other"));
+    }
+
+    @Test
+    public void groupCommit() throws Exception {
+        final TimerJournal journal = this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE);
+        final int count = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Void>> futures = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                final TimerImpl timer = this.createTimer("timer" + i, 1000L);
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        long sequence;
+                        // Appends are made under the lock of the timed object, whereas syncs are not
+                        synchronized (journal) {
+                            journal.getTimers().put(timer.getId(), timer);
+                            sequence = journal.append(Collections.singletonList(timer));
+                        }
+                        journal.sync(sequence);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // Syncing an already synced sequence returns immediately
+        journal.sync(1L);
+        journal.close();
+        // Syncing a closed journal returns immediately
+        journal.sync(Long.MAX_VALUE);
+
+        assertEquals(count, this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE).getTimers().size());
+    }
+
+    @Test
+    public void delete() throws IOException {
+        TimerJournal journal = this.recover(TimerJournal.DEFAULT_SEGMENT_SIZE);
+        this.add(journal, "timer", 1000L);
+        journal.delete();
+
+        assertFalse(this.directory.exists());
+        assertTrue(journal.getTimers().isEmpty());
+    }
+
+    private TimerJournal recover(long segmentSize) throws IOException {
+        TimerJournal journal = new TimerJournal(TIMED_OBJECT_ID, this.directory, segmentSize, new RiverMarshallerFactory(), new MarshallingConfiguration());
+        this.journals.add(journal);
+        journal.recover(this.timerService);
+        return journal;
+    }
+
+    private TimerImpl add(TimerJournal journal, String id, long nextExpiration) throws IOException {
+        TimerImpl timer = this.createTimer(id, nextExpiration);
+        journal.getTimers().put(id, timer);
+        journal.append(Collections.singletonList(timer));
+        return timer;
+    }
+
+    private TimerImpl createTimer(String id, long nextExpiration) {
+        return createTimer(this.timerService, id, nextExpiration);
+    }
+
+    private File[] segments() {
+        File[] segments = this.directory.listFiles();
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    static TimerServiceImpl mockTimerService() {
+        TimerServiceImpl timerService = mock(TimerServiceImpl.class);
+        TimedObjectInvoker invoker = mock(TimedObjectInvoker.class);
+        when(invoker.getTimedObjectId()).thenReturn(TIMED_OBJECT_ID);
+        when(invoker.getClassLoader()).thenReturn(TimerJournalTestCase.class.getClassLoader());
+        InjectedValue<TimedObjectInvoker> value = new InjectedValue<>();
+        value.inject(invoker);
+        when(timerService.getInvoker()).thenReturn(invoker);
+        when(timerService.getTimedObjectInvoker()).thenReturn(value);
+        return timerService;
+    }
+
+    static TimerImpl createTimer(TimerServiceImpl timerService, String id, long nextExpiration) {
+        return TimerImpl.builder()
+                .setId(id)
+                .setTimedObjectId(TIMED_OBJECT_ID)
+                .setInitialDate(new Date(nextExpiration))
+                .setNextDate(new Date(nextExpiration))
+                .setRepeatInterval(60000L)
+                .setInfo("info-" + id)
+                .setTimerState(TimerState.ACTIVE)
+                .setPersistent(true)
+                .setNewTimer(true)
+                .build(timerService);
+    }
+
+    static void assertTimer(TimerImpl expected, TimerImpl actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getTimedObjectId(), actual.getTimedObjectId());
+        assertEquals(expected.getNextExpiration(), actual.getNextExpiration());
+        assertEquals(expected.getInterval(), actual.getInterval());
+        assertEquals(expected.getTimerInfo(), actual.getTimerInfo());
+        assertEquals(expected.getState(), actual.getState());
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        }
+    }
+
+    static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -155,6 +155,13 @@ public class Configuration {
      */
     private static final String JPA_DEFER_DETACH = "jboss.as.jpa.deferdetach";
 
+    /**
+     * set to true to reuse (cleared) entity managers across non-transactional invocations of a transaction scoped
+     * entity manager, instead of creating a new entity manager for each invocation (defaults to false).
+     * Only applies to session bean invocations and to requests to web modules that define the persistence unit.
+     */
+    private static final String JPA_REUSE_NONTX_ENTITY_MANAGER = "wildfly.jpa.reusenontxentitymanager";
+
     /**
      * unique name for the persistence unit that is unique across all deployments (
      * defaults to include the application name prepended to the persistence unit name)
@@ -293,6 +300,20 @@ public class Configuration {
         return result;
     }
 
+    /**
+     * Return true if entity managers created for non-transactional invocations of a transaction scoped entity manager
+     * should be cleared and reused by subsequent invocations, rather than closed.
+     *
+     * @param properties
+     * @return
+     */
+    public static boolean reuseNonTxEntityManager(final Map<String, Object> properties) {
+        boolean result = false;
+        if ( properties.containsKey(JPA_REUSE_NONTX_ENTITY_MANAGER))
+            result = Boolean.parseBoolean((String)properties.get(JPA_REUSE_NONTX_ENTITY_MANAGER));
+        return result;
+    }
+
     public static String getScopedPersistenceUnitName(PersistenceUnitMetadata pu) {
 
         Object name = pu.getProperties().get(JPA_SCOPED_PERSISTENCE_UNIT_NAME);
@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jpa.container;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the entity managers created on behalf of the transaction scoped entity managers of a persistence unit,
+ * exposed as metrics of the persistence unit's management resource.
+ */
+public final class EntityManagerStatistics {
+
+    /**
+     * Key = scoped persistence unit name, for each started persistence unit
+     */
+    private static final ConcurrentMap<String, EntityManagerStatistics> statistics = new ConcurrentHashMap<>();
+
+    private final LongAdder transactionalCreated = new LongAdder();
+    private final LongAdder nonTransactionalCreated = new LongAdder();
+    private final LongAdder nonTransactionalReused = new LongAdder();
+
+    private EntityManagerStatistics() {
+    }
+
+    /**
+     * Start counting for the specified persistence unit, called when the persistence unit service starts.
+     *
+     * @param puScopedName scoped persistence unit name
+     */
+    public static void addStatistics(String puScopedName) {
+        statistics.putIfAbsent(puScopedName, new EntityManagerStatistics());
+    }
+
+    /**
+     * Discard the counts of the specified persistence unit, called when the persistence unit service stops.
+     *
+     * @param puScopedName scoped persistence unit name
+     */
+    public static void removeStatistics(String puScopedName) {
+        statistics.remove(puScopedName);
+    }
+
+    /**
+     * @param puScopedName scoped persistence unit name
+     * @return the statistics of the specified persistence unit, or null if the persistence unit is not started
+     */
+    public static EntityManagerStatistics getStatistics(String puScopedName) {
+        return statistics.get(puScopedName);
+    }
+
+    static void transactionalEntityManagerCreated(String puScopedName) {
+        EntityManagerStatistics stats = statistics.get(puScopedName);
+        if (stats != null) {
+            stats.transactionalCreated.increment();
+        }
+    }
+
+    static void nonTransactionalEntityManagerCreated(String puScopedName) {
+        EntityManagerStatistics stats = statistics.get(puScopedName);
+        if (stats != null) {
+            stats.nonTransactionalCreated.increment();
+        }
+    }
+
+    static void nonTransactionalEntityManagerReused(String puScopedName) {
+        EntityManagerStatistics stats = statistics.get(puScopedName);
+        if (stats != null) {
+            stats.nonTransactionalReused.increment();
+        }
+    }
+
+    /**
+     * @return the number of entity managers created for use within a JTA transaction
+     */
+    public long getTransactionalEntityManagersCreated() {
+        return transactionalCreated.sum();
+    }
+
+    /**
+     * @return the number of entity managers created for use outside of a JTA transaction
+     */
+    public long getNonTransactionalEntityManagersCreated() {
+        return nonTransactionalCreated.sum();
+    }
+
+    /**
+     * @return the number of non-transactional invocations that reused a previously created entity manager
+     */
+    public long getNonTransactionalEntityManagersReused() {
+        return nonTransactionalReused.sum();
+    }
+}
@@ -52,13 +52,18 @@ public class NonTxEmCloser {
     }
 
     /**
-     * current session bean invocation is ending, close any transactional entity managers created without a JTA
-     * transaction.
+     * current session bean invocation is ending, close (or return to their pool) any transactional entity managers
+     * created without a JTA transaction.
      */
     public static void popCall() {
         Map<String, EntityManager> emStack = nonTxStack.pop();
         if (emStack != null) {
-            for (EntityManager entityManager : emStack.values()) {
+            for (Map.Entry<String, EntityManager> entry : emStack.entrySet()) {
+                EntityManager entityManager = entry.getValue();
+                // entity managers leased from a NonTxEntityManagerPool are cleared and returned instead
+                if (NonTxEntityManagerPool.release(entry.getKey(), entityManager)) {
+                    continue;
+                }
                 try {
                     if (entityManager.isOpen()) {
                         entityManager.close();
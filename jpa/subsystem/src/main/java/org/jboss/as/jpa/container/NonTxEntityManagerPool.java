@@ -0,0 +1,169 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jpa.container;
+
+import static org.jboss.as.jpa.messages.JpaLogger.ROOT_LOGGER;
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Bounded pool of idle entity managers, used by transaction scoped entity managers outside of a JTA transaction
+ * when the persistence unit enables {@link org.jboss.as.jpa.config.Configuration#reuseNonTxEntityManager(java.util.Map)}.
+ * <p/>
+ * An entity manager is leased for the duration of an invocation tracked by {@link NonTxEmCloser} and is returned by
+ * {@link NonTxEmCloser#popCall()}, at which point it is cleared, so that all entities it loaded are detached,
+ * just as if it had been closed.  Entity managers that do not fit into the pool are closed.
+ * <p/>
+ * Only session bean invocations, and requests to web modules that define the persistence unit themselves, are tracked.
+ * Other callers, e.g. servlet or JAX-RS requests of a web module using a persistence unit of its enclosing ear,
+ * or threads not managed by the container, still create a new entity manager per use and gain nothing from the pool.
+ */
+public class NonTxEntityManagerPool {
+
+    static final int MAX_IDLE = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * Key = scoped persistence unit name
+     */
+    private static final ConcurrentMap<String, NonTxEntityManagerPool> pools = new ConcurrentHashMap<>();
+
+    private final String puScopedName;
+    private final EntityManagerFactory emf;
+    private final Queue<EntityManager> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    // entity managers currently leased to an invocation, compared by identity
+    private final Set<EntityManager> leased = Collections.newSetFromMap(new ConcurrentHashMap<EntityManager, Boolean>());
+    private volatile boolean closed = false;
+
+    private NonTxEntityManagerPool(String puScopedName, EntityManagerFactory emf) {
+        this.puScopedName = puScopedName;
+        this.emf = emf;
+    }
+
+    /**
+     * Return the pool for the specified persistence unit, creating it if necessary.
+     *
+     * @param puScopedName scoped persistence unit name
+     * @param emf entity manager factory of the persistence unit
+     * @return the pool, or null if the existing pool belongs to a different entity manager factory
+     */
+    static NonTxEntityManagerPool getPool(String puScopedName, EntityManagerFactory emf) {
+        NonTxEntityManagerPool pool = pools.get(puScopedName);
+        if (pool == null) {
+            NonTxEntityManagerPool newPool = new NonTxEntityManagerPool(puScopedName, emf);
+            pool = pools.putIfAbsent(puScopedName, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return (pool.emf == emf) ? pool : null;
+    }
+
+    /**
+     * Close the idle entity managers of the specified persistence unit, called before its entity manager factory is closed.
+     *
+     * @param puScopedName scoped persistence unit name
+     */
+    public static void removePool(String puScopedName) {
+        NonTxEntityManagerPool pool = pools.remove(puScopedName);
+        if (pool != null) {
+            pool.closed = true;
+            EntityManager entityManager;
+            while ((entityManager = pool.idle.poll()) != null) {
+                close(entityManager);
+            }
+        }
+    }
+
+    /**
+     * Return the entity manager leased to the current invocation, to the pool of the specified persistence unit.
+     *
+     * @param puScopedName scoped persistence unit name
+     * @param entityManager entity manager leased to the current invocation
+     * @return false if the entity manager was not leased from a pool, in which case the caller should close it
+     */
+    static boolean release(String puScopedName, EntityManager entityManager) {
+        NonTxEntityManagerPool pool = pools.get(puScopedName);
+        if (pool == null || !pool.leased.remove(entityManager)) {
+            return false;
+        }
+        if (pool.closed || !entityManager.isOpen()) {
+            close(entityManager);
+            return true;
+        }
+        try {
+            // detach all entities, as closing the entity manager would have
+            entityManager.clear();
+        } catch (RuntimeException e) {
+            close(entityManager);
+            return true;
+        }
+        if (pool.idleCount.incrementAndGet() > MAX_IDLE) {
+            pool.idleCount.decrementAndGet();
+            close(entityManager);
+            return true;
+        }
+        pool.idle.offer(entityManager);
+        // the pool may have been removed concurrently
+        if (pool.closed && pool.idle.remove(entityManager)) {
+            close(entityManager);
+        }
+        return true;
+    }
+
+    /**
+     * Lease an idle entity manager, or create a new one if none is available.
+     */
+    EntityManager acquire() {
+        EntityManager entityManager = this.idle.poll();
+        if (entityManager != null) {
+            this.idleCount.decrementAndGet();
+            EntityManagerStatistics.nonTransactionalEntityManagerReused(this.puScopedName);
+        } else {
+            entityManager = this.emf.createEntityManager();
+            EntityManagerStatistics.nonTransactionalEntityManagerCreated(this.puScopedName);
+        }
+        this.leased.add(entityManager);
+        return entityManager;
+    }
+
+    private static void close(EntityManager entityManager) {
+        try {
+            if (entityManager.isOpen()) {
+                entityManager.close();
+            }
+        } catch (RuntimeException safeToIgnore) {
+            if (ROOT_LOGGER.isTraceEnabled()) {
+                ROOT_LOGGER.trace("Could not close pooled (non-transactional) container managed entity manager.", safeToIgnore);
+            }
+        }
+    }
+}
@@ -66,6 +66,7 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
     private transient TransactionSynchronizationRegistry transactionSynchronizationRegistry;
     private transient TransactionManager transactionManager;
     private transient Boolean deferDetach;
+    private transient Boolean reuseNonTx;
 
     public TransactionScopedEntityManager(String puScopedName, Map properties, EntityManagerFactory emf, SynchronizationType synchronizationType, TransactionSynchronizationRegistry transactionSynchronizationRegistry, TransactionManager transactionManager) {
         this.puScopedName = puScopedName;
@@ -88,7 +89,7 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
         } else {
             entityManager = NonTxEmCloser.get(puScopedName);
             if (entityManager == null) {
-                entityManager = createEntityManager(emf, properties, synchronizationType);
+                entityManager = createNonTxEntityManager();
                 NonTxEmCloser.add(puScopedName, entityManager);
             }
         }
@@ -155,6 +156,7 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
         EntityManager entityManager = TransactionUtil.getTransactionScopedEntityManager(puScopedName, transactionSynchronizationRegistry);
         if (entityManager == null) {
             entityManager = createEntityManager(emf, properties, synchronizationType);
+            EntityManagerStatistics.transactionalEntityManagerCreated(puScopedName);
             if (ROOT_LOGGER.isDebugEnabled()) {
                 ROOT_LOGGER.debugf("%s: created entity manager session %s", TransactionUtil.getEntityManagerDetails(entityManager, scopedPuName),
                         TransactionUtil.getTransaction(transactionManager).toString());
@@ -172,6 +174,27 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
         return entityManager;
     }
 
+    /**
+     * create an entity manager for use without a JTA transaction, leasing it from the NonTxEntityManagerPool
+     * of the persistence unit if reuse is enabled.  Only entity managers with the default configuration are pooled,
+     * and only if the current invocation will return them (see NonTxEmCloser.popCall), i.e. within session bean
+     * invocations, and requests to web modules that define the persistence unit.  Elsewhere, e.g. in requests to
+     * other web modules, a new entity manager is still created on each use.
+     */
+    private EntityManager createNonTxEntityManager() {
+        if (reuseNonTxEntityManager()
+                && !NonTxEmCloser.nonTxStack.isEmpty()
+                && (properties == null || properties.isEmpty())
+                && !SynchronizationType.UNSYNCHRONIZED.equals(synchronizationType)) {
+            NonTxEntityManagerPool pool = NonTxEntityManagerPool.getPool(puScopedName, emf);
+            if (pool != null) {
+                return pool.acquire();
+            }
+        }
+        EntityManagerStatistics.nonTransactionalEntityManagerCreated(puScopedName);
+        return createEntityManager(emf, properties, synchronizationType);
+    }
+
     private EntityManager createEntityManager(
         EntityManagerFactory emf, Map properties, final SynchronizationType synchronizationType) {
         // only JPA 2.1 applications can specify UNSYNCHRONIZED.
@@ -198,6 +221,16 @@ public class TransactionScopedEntityManager extends AbstractEntityManager implem
         return deferDetach.booleanValue();
     }
 
+    /**
+     * return true if entity managers used by non-tx invocations should be cleared and reused by subsequent
+     * non-tx invocations, instead of being closed.
+     */
+    private boolean reuseNonTxEntityManager() {
+        if (reuseNonTx == null)
+            reuseNonTx = Configuration.reuseNonTxEntityManager(emf.getProperties());
+        return reuseNonTx.booleanValue();
+    }
+
     /**
      * throw error if jta transaction already has an UNSYNCHRONIZED persistence context and a SYNCHRONIZED persistence context
      * is requested.  We are only fussy in this test, if the target component persistence context is SYNCHRONIZED.
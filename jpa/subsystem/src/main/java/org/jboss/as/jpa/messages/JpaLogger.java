@@ -763,4 +763,13 @@ public interface JpaLogger extends BasicLogger {
     @Message(id = 72, value = "Could not obtain TransactionListenerRegistry from transaction manager")
     IllegalStateException errorGettingTransactionListenerRegistry(@Cause Throwable cause);
 
+    /**
+     * Creates an exception indicating an unknown metric was requested.
+     *
+     * @param metric the name of the metric.
+     * @return a {@link IllegalStateException} for the error.
+     */
+    @Message(id = 73, value = "Unknown metric %s")
+    IllegalStateException unknownMetric(String metric);
+
 }
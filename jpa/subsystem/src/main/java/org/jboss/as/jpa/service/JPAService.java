@@ -42,6 +42,7 @@ import org.jboss.as.jpa.management.EntityManagerFactoryLookup;
 import org.jboss.as.jpa.management.ManagementResourceDefinition;
 import org.jboss.as.jpa.processor.CacheDeploymentHelper;
 import org.jboss.as.jpa.processor.PersistenceUnitServiceHandler;
+import org.jboss.as.jpa.subsystem.EntityManagerMetricsHandler;
 import org.jboss.as.jpa.subsystem.JPAExtension;
 import org.jboss.as.jpa.util.JPAServiceNames;
 import org.jboss.as.server.deployment.DeploymentModelUtils;
@@ -165,10 +166,12 @@ public class JPAService implements Service<Void> {
                 ManagementResourceRegistration providerResource = deploymentSubsystemRegistration.registerSubModel(
                         new ManagementResourceDefinition(PathElement.pathElement(managementAdaptor.getIdentificationLabel()), resourceDescriptionResolver, statistics, entityManagerFactoryLookup));
                 providerResource.registerReadOnlyAttribute(PersistenceUnitServiceHandler.SCOPED_UNIT_NAME, null);
+                EntityManagerMetricsHandler.INSTANCE.registerMetrics(providerResource);
 
                 providerResource = subdeploymentSubsystemRegistration.registerSubModel(
                         new ManagementResourceDefinition(PathElement.pathElement(managementAdaptor.getIdentificationLabel()), resourceDescriptionResolver, statistics, entityManagerFactoryLookup));
                 providerResource.registerReadOnlyAttribute(PersistenceUnitServiceHandler.SCOPED_UNIT_NAME, null);
+                EntityManagerMetricsHandler.INSTANCE.registerMetrics(providerResource);
 
                 existingResourceDescriptionResolver.add(managementAdaptor.getVersion());
             }
@@ -37,6 +37,8 @@ import javax.validation.ValidatorFactory;
 
 import org.jboss.as.jpa.beanmanager.ProxyBeanManager;
 import org.jboss.as.jpa.classloader.TempClassLoaderFactoryImpl;
+import org.jboss.as.jpa.container.EntityManagerStatistics;
+import org.jboss.as.jpa.container.NonTxEntityManagerPool;
 import org.jboss.as.jpa.spi.PersistenceUnitService;
 import org.jboss.as.jpa.subsystem.PersistenceUnitRegistryImpl;
 import org.jboss.as.jpa.util.JPAServiceNames;
@@ -166,6 +168,7 @@ public class PersistenceUnitServiceImpl implements Service<PersistenceUnitServic
                                         }
                                         entityManagerFactory = createContainerEntityManagerFactory();
                                     }
+                                    EntityManagerStatistics.addStatistics(getScopedPersistenceUnitName());
                                     persistenceUnitRegistry.add(getScopedPersistenceUnitName(), getValue());
                                     context.complete();
                                 } catch (Throwable t) {
@@ -216,6 +219,8 @@ public class PersistenceUnitServiceImpl implements Service<PersistenceUnitServic
                                 if (entityManagerFactory != null) {
                                     WritableServiceBasedNamingStore.pushOwner(deploymentUnitServiceName);
                                     try {
+                                        // close idle non-tx entity managers before their factory
+                                        NonTxEntityManagerPool.removePool(getScopedPersistenceUnitName());
                                         if (entityManagerFactory.isOpen()) {
                                             entityManagerFactory.close();
                                         }
@@ -226,6 +231,7 @@ public class PersistenceUnitServiceImpl implements Service<PersistenceUnitServic
                                         pu.setTempClassLoaderFactory(null);
                                         WritableServiceBasedNamingStore.popOwner();
                                         persistenceUnitRegistry.remove(getScopedPersistenceUnitName());
+                                        EntityManagerStatistics.removeStatistics(getScopedPersistenceUnitName());
                                     }
                                 }
                                 if (proxyBeanManager != null) {
@@ -30,4 +30,7 @@ interface CommonAttributes {
     String DEFAULT_DATASOURCE = "default-datasource";
     String JPA = "jpa";
     String DEFAULT_EXTENDEDPERSISTENCE_INHERITANCE = "default-extended-persistence-inheritance";
+    String NUMBER_OF_TRANSACTIONAL_ENTITY_MANAGERS_CREATED = "number-of-transactional-entity-managers-created";
+    String NUMBER_OF_NON_TRANSACTIONAL_ENTITY_MANAGERS_CREATED = "number-of-non-transactional-entity-managers-created";
+    String NUMBER_OF_NON_TRANSACTIONAL_ENTITY_MANAGERS_REUSED = "number-of-non-transactional-entity-managers-reused";
 }
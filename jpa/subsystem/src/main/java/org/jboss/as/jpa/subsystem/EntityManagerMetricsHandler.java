@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.jpa.subsystem;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.SimpleAttributeDefinition;
+import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.jpa.container.EntityManagerStatistics;
+import org.jboss.as.jpa.messages.JpaLogger;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Handler for the entity manager creation metrics of the transaction scoped entity managers of a persistence unit.
+ * The metrics are registered on the per persistence unit (provider) resource, whose address value is the scoped
+ * persistence unit name.
+ */
+public class EntityManagerMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    static final SimpleAttributeDefinition TRANSACTIONAL_ENTITY_MANAGERS_CREATED =
+            new SimpleAttributeDefinitionBuilder(CommonAttributes.NUMBER_OF_TRANSACTIONAL_ENTITY_MANAGERS_CREATED, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
+    static final SimpleAttributeDefinition NON_TRANSACTIONAL_ENTITY_MANAGERS_CREATED =
+            new SimpleAttributeDefinitionBuilder(CommonAttributes.NUMBER_OF_NON_TRANSACTIONAL_ENTITY_MANAGERS_CREATED, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
+    static final SimpleAttributeDefinition NON_TRANSACTIONAL_ENTITY_MANAGERS_REUSED =
+            new SimpleAttributeDefinitionBuilder(CommonAttributes.NUMBER_OF_NON_TRANSACTIONAL_ENTITY_MANAGERS_REUSED, ModelType.LONG, true)
+                    .setStorageRuntime()
+                    .build();
+
+    public static final EntityManagerMetricsHandler INSTANCE = new EntityManagerMetricsHandler();
+
+    private EntityManagerMetricsHandler() {
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String name = operation.require(ModelDescriptionConstants.NAME).asString();
+        final String puScopedName = PathAddress.pathAddress(operation.require(ModelDescriptionConstants.OP_ADDR)).getLastElement().getValue();
+        final EntityManagerStatistics statistics = EntityManagerStatistics.getStatistics(puScopedName);
+        switch (name) {
+            case CommonAttributes.NUMBER_OF_TRANSACTIONAL_ENTITY_MANAGERS_CREATED:
+                context.getResult().set(statistics != null ? statistics.getTransactionalEntityManagersCreated() : 0L);
+                break;
+            case CommonAttributes.NUMBER_OF_NON_TRANSACTIONAL_ENTITY_MANAGERS_CREATED:
+                context.getResult().set(statistics != null ? statistics.getNonTransactionalEntityManagersCreated() : 0L);
+                break;
+            case CommonAttributes.NUMBER_OF_NON_TRANSACTIONAL_ENTITY_MANAGERS_REUSED:
+                context.getResult().set(statistics != null ? statistics.getNonTransactionalEntityManagersReused() : 0L);
+                break;
+            default:
+                throw JpaLogger.ROOT_LOGGER.unknownMetric(name);
+        }
+        context.stepCompleted();
+    }
+
+    public void registerMetrics(final ManagementResourceRegistration resourceRegistration) {
+        resourceRegistration.registerMetric(TRANSACTIONAL_ENTITY_MANAGERS_CREATED, this);
+        resourceRegistration.registerMetric(NON_TRANSACTIONAL_ENTITY_MANAGERS_CREATED, this);
+        resourceRegistration.registerMetric(NON_TRANSACTIONAL_ENTITY_MANAGERS_REUSED, this);
+    }
+}
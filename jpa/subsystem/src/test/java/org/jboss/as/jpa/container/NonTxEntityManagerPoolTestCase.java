@@ -0,0 +1,258 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2026, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.jpa.container;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NonTxEntityManagerPool}, using simple dynamic proxies for the entity manager (factory).
+ */
+public class NonTxEntityManagerPoolTestCase {
+
+    private static final String PU = "test.jar#pu";
+    private static final String OTHER_PU = "test.jar#other";
+
+    private final List<FakeEntityManager> created = new ArrayList<>();
+    private EntityManagerFactory emf;
+
+    @Before
+    public void setUp() {
+        emf = createEntityManagerFactory();
+        EntityManagerStatistics.addStatistics(PU);
+        EntityManagerStatistics.addStatistics(OTHER_PU);
+    }
+
+    @After
+    public void tearDown() {
+        NonTxEntityManagerPool.removePool(PU);
+        NonTxEntityManagerPool.removePool(OTHER_PU);
+        EntityManagerStatistics.removeStatistics(PU);
+        EntityManagerStatistics.removeStatistics(OTHER_PU);
+    }
+
+    @Test
+    public void reuseReleasedEntityManager() {
+        NonTxEntityManagerPool pool = NonTxEntityManagerPool.getPool(PU, emf);
+        EntityManager first = pool.acquire();
+        assertEquals(1, created.size());
+        assertEquals(1L, EntityManagerStatistics.getStatistics(PU).getNonTransactionalEntityManagersCreated());
+
+        assertTrue(NonTxEntityManagerPool.release(PU, first));
+        assertEquals(1, fake(first).clearCount);
+        assertTrue(first.isOpen());
+
+        EntityManager second = pool.acquire();
+        assertSame(first, second);
+        assertEquals(1, created.size());
+        assertEquals(1L, EntityManagerStatistics.getStatistics(PU).getNonTransactionalEntityManagersCreated());
+        assertEquals(1L, EntityManagerStatistics.getStatistics(PU).getNonTransactionalEntityManagersReused());
+    }
+
+    @Test
+    public void leasedEntityManagerIsNotShared() {
+        NonTxEntityManagerPool pool = NonTxEntityManagerPool.getPool(PU, emf);
+        EntityManager first = pool.acquire();
+        EntityManager second = pool.acquire();
+        assertNotSame(first, second);
+        assertEquals(2L, EntityManagerStatistics.getStatistics(PU).getNonTransactionalEntityManagersCreated());
+        assertEquals(0L, EntityManagerStatistics.getStatistics(PU).getNonTransactionalEntityManagersReused());
+    }
+
+    @Test
+    public void releaseOfEntityManagerNotLeased() {
+        NonTxEntityManagerPool pool = NonTxEntityManagerPool.getPool(PU, emf);
+        EntityManager leased = pool.acquire();
+        EntityManager notLeased = emf.createEntityManager();
+
+        assertFalse(NonTxEntityManagerPool.release(PU, notLeased));
+        assertFalse(NonTxEntityManagerPool.release(OTHER_PU, leased));
+        assertTrue(NonTxEntityManagerPool.release(PU, leased));
+        // a second release of the same lease is refused
+        assertFalse(NonTxEntityManagerPool.release(PU, leased));
+    }
+
+    @Test
+    public void closedEntityManagerIsNotPooled() {
+        NonTxEntityManagerPool pool = NonTxEntityManagerPool.getPool(PU, emf);
+        EntityManager first = pool.acquire();
+        first.close();
+        assertTrue(NonTxEntityManagerPool.release(PU, first));
+
+        EntityManager second = pool.acquire();
+        assertNotSame(first, second);
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void failedClearIsNotPooled() {
+        NonTxEntityManagerPool pool = NonTxEntityManagerPool.getPool(PU, emf);
+        EntityManager first = pool.acquire();
+        fake(first).failClear = true;
+        assertTrue(NonTxEntityManagerPool.release(PU, first));
+        assertFalse(first.isOpen());
+        assertNotSame(first, pool.acquire());
+    }
+
+    @Test
+    public void idleEntityManagersAreBounded() {
+        NonTxEntityManagerPool pool = NonTxEntityManagerPool.getPool(PU, emf);
+        List<EntityManager> leased = new ArrayList<>();
+        for (int i = 0; i < NonTxEntityManagerPool.MAX_IDLE + 1; i++) {
+            leased.add(pool.acquire());
+        }
+        for (EntityManager entityManager : leased) {
+            assertTrue(NonTxEntityManagerPool.release(PU, entityManager));
+        }
+        int open = 0;
+        for (EntityManager entityManager : leased) {
+            if (entityManager.isOpen()) {
+                open++;
+            }
+        }
+        assertEquals(NonTxEntityManagerPool.MAX_IDLE, open);
+        assertFalse(leased.get(leased.size() - 1).isOpen());
+    }
+
+    @Test
+    public void removePoolClosesEntityManagers() {
+        NonTxEntityManagerPool pool = NonTxEntityManagerPool.getPool(PU, emf);
+        EntityManager idle = pool.acquire();
+        EntityManager leased = pool.acquire();
+        assertTrue(NonTxEntityManagerPool.release(PU, idle));
+
+        NonTxEntityManagerPool.removePool(PU);
+        assertFalse(idle.isOpen());
+        assertTrue(leased.isOpen());
+        // the pool is gone, the caller closes entity managers still leased when it was removed
+        assertFalse(NonTxEntityManagerPool.release(PU, leased));
+    }
+
+    @Test
+    public void poolOfDifferentFactory() {
+        assertTrue(NonTxEntityManagerPool.getPool(PU, emf) != null);
+        assertSame(NonTxEntityManagerPool.getPool(PU, emf), NonTxEntityManagerPool.getPool(PU, emf));
+        assertNull(NonTxEntityManagerPool.getPool(PU, createEntityManagerFactory()));
+    }
+
+    @Test
+    public void statisticsArePerPersistenceUnit() {
+        NonTxEntityManagerPool pool = NonTxEntityManagerPool.getPool(PU, emf);
+        NonTxEntityManagerPool otherPool = NonTxEntityManagerPool.getPool(OTHER_PU, createEntityManagerFactory());
+        EntityManager entityManager = pool.acquire();
+        NonTxEntityManagerPool.release(PU, entityManager);
+        pool.acquire();
+        otherPool.acquire();
+        otherPool.acquire();
+        EntityManagerStatistics.transactionalEntityManagerCreated(OTHER_PU);
+
+        EntityManagerStatistics statistics = EntityManagerStatistics.getStatistics(PU);
+        assertEquals(1L, statistics.getNonTransactionalEntityManagersCreated());
+        assertEquals(1L, statistics.getNonTransactionalEntityManagersReused());
+        assertEquals(0L, statistics.getTransactionalEntityManagersCreated());
+
+        statistics = EntityManagerStatistics.getStatistics(OTHER_PU);
+        assertEquals(2L, statistics.getNonTransactionalEntityManagersCreated());
+        assertEquals(0L, statistics.getNonTransactionalEntityManagersReused());
+        assertEquals(1L, statistics.getTransactionalEntityManagersCreated());
+
+        EntityManagerStatistics.removeStatistics(OTHER_PU);
+        assertNull(EntityManagerStatistics.getStatistics(OTHER_PU));
+        // counting for a stopped persistence unit is ignored
+        otherPool.acquire();
+    }
+
+    private EntityManagerFactory createEntityManagerFactory() {
+        return (EntityManagerFactory) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {EntityManagerFactory.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        switch (method.getName()) {
+                            case "createEntityManager":
+                                FakeEntityManager entityManager = new FakeEntityManager();
+                                created.add(entityManager);
+                                return entityManager.proxy;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    }
+                });
+    }
+
+    private FakeEntityManager fake(EntityManager entityManager) {
+        return (FakeEntityManager) Proxy.getInvocationHandler(entityManager);
+    }
+
+    private static final class FakeEntityManager implements InvocationHandler {
+        final EntityManager proxy = (EntityManager) Proxy.newProxyInstance(FakeEntityManager.class.getClassLoader(), new Class<?>[] {EntityManager.class}, this);
+        boolean open = true;
+        boolean failClear;
+        int clearCount;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "isOpen":
+                    return open;
+                case "close":
+                    open = false;
+                    return null;
+                case "clear":
+                    if (failClear) {
+                        throw new IllegalStateException("clear failed");
+                    }
+                    clearCount++;
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "FakeEntityManager@" + System.identityHashCode(proxy);
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        }
+    }
+}
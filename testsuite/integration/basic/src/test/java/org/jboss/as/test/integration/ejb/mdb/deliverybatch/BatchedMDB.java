@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.test.integration.ejb.mdb.deliverybatch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Resource;
+import javax.ejb.ActivationConfigProperty;
+import javax.ejb.MessageDriven;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * A MDB whose messages are delivered in batches, as configured in the deployment descriptor.
+ * Replies to each message within the transaction of its batch, and fails upon the first delivery of a message with the
+ * {@value #FAIL} property.
+ * Each reply carries the number of the transaction it was sent in, as its {@value #BATCH} property, and its position
+ * within that transaction, as its {@value #POSITION} property.
+ * Several sessions deliver messages concurrently, so that a redelivered message may be delivered to another endpoint
+ * than the one it was first delivered to.
+ */
+@MessageDriven(activationConfig = {
+        @ActivationConfigProperty(propertyName = "destination", propertyValue = MDBDeliveryBatchTestCase.QUEUE_LOOKUP),
+        @ActivationConfigProperty(propertyName = "maxSession", propertyValue = "4")
+})
+public class BatchedMDB implements MessageListener {
+
+    static final String FAIL = "fail";
+    static final String BATCH = "batch";
+    static final String POSITION = "position";
+
+    private static final AtomicInteger batches = new AtomicInteger();
+
+    @Resource(lookup = "java:/JmsXA")
+    private ConnectionFactory factory;
+
+    @Resource
+    private TransactionSynchronizationRegistry registry;
+
+    @Override
+    public void onMessage(Message message) {
+        try {
+            if (message.propertyExists(FAIL) && message.getIntProperty("JMSXDeliveryCount") == 1) {
+                throw new IllegalStateException("First delivery of " + message.getJMSMessageID());
+            }
+        } catch (JMSException e) {
+            throw new RuntimeException(e);
+        }
+        Integer batch = (Integer) registry.getResource(BATCH);
+        if (batch == null) {
+            batch = batches.incrementAndGet();
+            registry.putResource(BATCH, batch);
+        }
+        Integer position = (Integer) registry.getResource(POSITION);
+        position = (position == null) ? 1 : position + 1;
+        registry.putResource(POSITION, position);
+        reply(message, batch, position);
+    }
+
+    private void reply(Message message, int batch, int position) {
+        try (Connection connection = factory.createConnection()) {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Destination destination = message.getJMSReplyTo();
+            MessageProducer producer = session.createProducer(destination);
+            Message reply = session.createMessage();
+            reply.setJMSCorrelationID(message.getJMSMessageID());
+            reply.setIntProperty(BATCH, batch);
+            reply.setIntProperty(POSITION, position);
+            producer.send(reply);
+        } catch (JMSException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.test.integration.ejb.mdb.deliverybatch;
+
+import static org.jboss.as.test.shared.integration.ejb.security.PermissionUtils.createPermissionsXmlAsset;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PropertyPermission;
+
+import javax.annotation.Resource;
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TemporaryQueue;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.as.arquillian.api.ServerSetup;
+import org.jboss.as.arquillian.api.ServerSetupTask;
+import org.jboss.as.arquillian.container.ManagementClient;
+import org.jboss.as.test.integration.common.jms.JMSOperations;
+import org.jboss.as.test.integration.common.jms.JMSOperationsProvider;
+import org.jboss.as.test.shared.TimeoutUtil;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Tests batched delivery of messages to a MDB, configured via the urn:delivery-batch namespace of jboss-ejb3.xml.
+ */
+@RunWith(Arquillian.class)
+@ServerSetup({MDBDeliveryBatchTestCase.JmsQueueSetup.class})
+public class MDBDeliveryBatchTestCase {
+
+    static final String QUEUE_LOOKUP = "java:jboss/deliverybatch/queue";
+
+    @Resource(mappedName = "java:/ConnectionFactory")
+    private ConnectionFactory cf;
+
+    @Resource(mappedName = QUEUE_LOOKUP)
+    private Queue queue;
+
+    private static final int TIMEOUT = TimeoutUtil.adjust(5000);
+    // as configured in jboss-ejb3.xml
+    private static final int BATCH_SIZE = 4;
+
+    static class JmsQueueSetup implements ServerSetupTask {
+
+        private JMSOperations jmsAdminOperations;
+
+        @Override
+        public void setup(ManagementClient managementClient, String containerId) throws Exception {
+            jmsAdminOperations = JMSOperationsProvider.getInstance(managementClient);
+            jmsAdminOperations.createJmsQueue("deliverybatch/queue", QUEUE_LOOKUP);
+        }
+
+        @Override
+        public void tearDown(ManagementClient managementClient, String containerId) throws Exception {
+            if (jmsAdminOperations != null) {
+                jmsAdminOperations.removeJmsQueue("deliverybatch/queue");
+                jmsAdminOperations.close();
+            }
+        }
+    }
+
+    @Deployment
+    public static Archive getDeployment() {
+        final JavaArchive ejbJar = ShrinkWrap.create(JavaArchive.class, "mdb-delivery-batch.jar")
+                .addPackage(BatchedMDB.class.getPackage())
+                .addPackage(JMSOperations.class.getPackage())
+                .addClass(TimeoutUtil.class)
+                .addAsManifestResource(BatchedMDB.class.getPackage(), "jboss-ejb3.xml", "jboss-ejb3.xml");
+        // grant necessary permissions
+        ejbJar.addAsResource(createPermissionsXmlAsset(new PropertyPermission("ts.timeout.factor", "read")), "META-INF/jboss-permissions.xml");
+        return ejbJar;
+    }
+
+    /**
+     * Verifies that each message is replied to exactly once, even though the failure of one message rolls back its whole batch,
+     * that messages share a transaction, up to the batch size, and that the redelivered failing message ends the transaction
+     * it is delivered in, whichever endpoint it is delivered to.
+     */
+    @Test
+    public void testBatchedDelivery() throws Exception {
+        final int count = 40;
+        try (Connection connection = cf.createConnection()) {
+            connection.start();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            TemporaryQueue replyQueue = session.createTemporaryQueue();
+            MessageProducer producer = session.createProducer(queue);
+            List<String> messageIds = new ArrayList<>(count);
+            String failingMessageId = null;
+            for (int i = 0; i < count; ++i) {
+                Message message = session.createMessage();
+                message.setJMSReplyTo(replyQueue);
+                if (i == count / 2) {
+                    message.setBooleanProperty(BatchedMDB.FAIL, true);
+                }
+                producer.send(message);
+                messageIds.add(message.getJMSMessageID());
+                if (i == count / 2) {
+                    failingMessageId = message.getJMSMessageID();
+                }
+            }
+
+            MessageConsumer consumer = session.createConsumer(replyQueue);
+            Map<String, Integer> replies = new HashMap<>();
+            int failingMessagePosition = 0;
+            Map<Integer, Integer> batchSizes = new HashMap<>();
+            for (int i = 0; i < count; ++i) {
+                Message reply = consumer.receive(TIMEOUT);
+                assertNotNull("Missing reply " + (i + 1) + " of " + count, reply);
+                int batch = reply.getIntProperty(BatchedMDB.BATCH);
+                assertNull("Duplicate reply to " + reply.getJMSCorrelationID(), replies.put(reply.getJMSCorrelationID(), batch));
+                batchSizes.merge(batch, 1, Integer::sum);
+                if (reply.getJMSCorrelationID().equals(failingMessageId)) {
+                    failingMessagePosition = reply.getIntProperty(BatchedMDB.POSITION);
+                }
+            }
+            assertEquals(new HashSet<>(messageIds), replies.keySet());
+            // Replies of rolled back deliveries were rolled back as well
+            assertNull(consumer.receive(TimeoutUtil.adjust(1000)));
+
+            for (Map.Entry<Integer, Integer> entry : batchSizes.entrySet()) {
+                assertTrue("Batch " + entry.getKey() + " exceeds the batch size: " + entry.getValue(), entry.getValue() <= BATCH_SIZE);
+            }
+            assertTrue("Messages were not delivered in batches: " + batchSizes, batchSizes.size() < count);
+            assertEquals("Redelivered failing message did not end its transaction", batchSizes.get(replies.get(failingMessageId)), Integer.valueOf(failingMessagePosition));
+        }
+    }
+}
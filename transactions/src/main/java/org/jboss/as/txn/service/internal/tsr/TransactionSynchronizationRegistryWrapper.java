@@ -22,6 +22,7 @@
 package org.jboss.as.txn.service.internal.tsr;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
@@ -48,12 +49,20 @@ import javax.transaction.TransactionSynchronizationRegistry;
  * One implication of this approach is that if the underlying transactions implementation has special handling for various types
  * of Synchronization that can also implement other interfaces (i.e. if interposedSync instanceof OtherInterface) these
  * behaviours cannot take effect as the underlying implementation will never directly see the actual Synchronizations.
+ *
+ * The ordered list of interposed Synchronizations of a transaction is stored as a resource of that transaction, so it is
+ * discarded along with the transaction and never needs to be looked up among the Synchronizations of other transactions.
+ * Since several threads may be associated with the same transaction, the creation of this list is guarded per transaction,
+ * for the duration of its registration only.
  */
 public class TransactionSynchronizationRegistryWrapper implements TransactionSynchronizationRegistry {
 
     private TransactionSynchronizationRegistry delegate;
     private TransactionManager transactionManager;
-    private ConcurrentHashMap<Transaction, JCAOrderedLastSynchronizationList> interposedSyncs = new ConcurrentHashMap<Transaction, JCAOrderedLastSynchronizationList>();
+    // Private key of the transaction resource holding the JCAOrderedLastSynchronizationList of a transaction
+    private final Object interposedSyncsKey = new Object();
+    // JCAOrderedLastSynchronizationLists that are being registered, which other threads of the same transaction must reuse
+    private final ConcurrentMap<Transaction, JCAOrderedLastSynchronizationList> pendingInterposedSyncs = new ConcurrentHashMap<Transaction, JCAOrderedLastSynchronizationList>();
 
     public TransactionSynchronizationRegistryWrapper(TransactionSynchronizationRegistry delegate) {
         this.delegate = delegate;
@@ -65,14 +74,23 @@ public class TransactionSynchronizationRegistryWrapper implements TransactionSyn
     public void registerInterposedSynchronization(Synchronization sync)
         throws IllegalStateException {
         try {
-            Transaction tx = transactionManager.getTransaction();
-            JCAOrderedLastSynchronizationList jcaOrderedLastSynchronization = interposedSyncs.get(tx);
+            JCAOrderedLastSynchronizationList jcaOrderedLastSynchronization = (JCAOrderedLastSynchronizationList) delegate.getResource(interposedSyncsKey);
             if (jcaOrderedLastSynchronization == null) {
-                JCAOrderedLastSynchronizationList toPut = new JCAOrderedLastSynchronizationList((com.arjuna.ats.jta.transaction.Transaction) tx, interposedSyncs);
-                jcaOrderedLastSynchronization = interposedSyncs.putIfAbsent(tx, toPut);
+                Transaction tx = transactionManager.getTransaction();
+                JCAOrderedLastSynchronizationList toPut = new JCAOrderedLastSynchronizationList((com.arjuna.ats.jta.transaction.Transaction) tx);
+                jcaOrderedLastSynchronization = pendingInterposedSyncs.putIfAbsent(tx, toPut);
                 if (jcaOrderedLastSynchronization == null) {
-                    jcaOrderedLastSynchronization = toPut;
-                    delegate.registerInterposedSynchronization(jcaOrderedLastSynchronization);
+                    try {
+                        // Another thread of this transaction may have completed its registration since we last looked
+                        jcaOrderedLastSynchronization = (JCAOrderedLastSynchronizationList) delegate.getResource(interposedSyncsKey);
+                        if (jcaOrderedLastSynchronization == null) {
+                            jcaOrderedLastSynchronization = toPut;
+                            delegate.registerInterposedSynchronization(jcaOrderedLastSynchronization);
+                            delegate.putResource(interposedSyncsKey, jcaOrderedLastSynchronization);
+                        }
+                    } finally {
+                        pendingInterposedSyncs.remove(tx, toPut);
+                    }
                 }
             }
             jcaOrderedLastSynchronization.registerInterposedSynchronization(sync);
@@ -1,13 +1,23 @@
 package org.jboss.as.txn;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.transaction.HeuristicMixedException;
 import javax.transaction.HeuristicRollbackException;
 import javax.transaction.NotSupportedException;
 import javax.transaction.RollbackException;
 import javax.transaction.Synchronization;
 import javax.transaction.SystemException;
+import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 import javax.transaction.TransactionSynchronizationRegistry;
 
@@ -51,4 +61,67 @@ public class TestWildFlyTSR {
 
         assertTrue(innerSyncCalled);
     }
+
+    @Test
+    public void concurrentRegistration() throws Exception {
+        jtaPropertyManager.getJTAEnvironmentBean().setTransactionManagerClassName("com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionManagerImple");
+        final AtomicInteger interposed = new AtomicInteger();
+        final TransactionSynchronizationRegistry tsr =
+            new TransactionSynchronizationRegistryWrapper(new com.arjuna.ats.internal.jta.transaction.arjunacore.TransactionSynchronizationRegistryImple() {
+                @Override
+                public void registerInterposedSynchronization(Synchronization sync) {
+                    interposed.incrementAndGet();
+                    super.registerInterposedSynchronization(sync);
+                }
+            });
+        final TransactionManager transactionManager = com.arjuna.ats.jta.TransactionManager.transactionManager();
+        final AtomicInteger completed = new AtomicInteger();
+        final Synchronization sync = new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                completed.incrementAndGet();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 100; ++i) {
+                interposed.set(0);
+                completed.set(0);
+                transactionManager.begin();
+                final Transaction tx = transactionManager.suspend();
+                final CyclicBarrier barrier = new CyclicBarrier(2);
+                // Both threads are associated with the same transaction, and register at the same time
+                Callable<Void> task = new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        transactionManager.resume(tx);
+                        try {
+                            barrier.await();
+                            tsr.registerInterposedSynchronization(sync);
+                        } finally {
+                            transactionManager.suspend();
+                        }
+                        return null;
+                    }
+                };
+                Future<Void> result1 = executor.submit(task);
+                Future<Void> result2 = executor.submit(task);
+                result1.get(10, TimeUnit.SECONDS);
+                result2.get(10, TimeUnit.SECONDS);
+
+                transactionManager.resume(tx);
+                transactionManager.commit();
+
+                // A single ordered list was registered with the transaction, containing both synchronizations
+                assertEquals(1, interposed.get());
+                assertEquals(2, completed.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
@@ -32,6 +32,7 @@ import org.apache.jasper.servlet.JspServlet;
  */
 public class JSPConfig {
     private final ServletInfo servletInfo;
+    private final boolean precompile;
 
 
     public JSPConfig(final boolean developmentMode,
@@ -41,7 +42,8 @@ public class JSPConfig {
                      final boolean recompileOnFail, boolean smap, boolean dumpSmap,
                      boolean genStringAsCharArray, boolean errorOnUseBeanInvalidClassAttribute,
                      String scratchDir, String sourceVm, String targetVm, String javaEncoding,
-                     boolean xPoweredBy, boolean displaySourceFragment, boolean optimizeScriptlets) {
+                     boolean xPoweredBy, boolean displaySourceFragment, boolean optimizeScriptlets, boolean precompile) {
+        this.precompile = precompile;
         if (disabled) {
             servletInfo = null;
         } else {
@@ -83,4 +85,11 @@ public class JSPConfig {
         }
         return servletInfo.clone();
     }
+
+    /**
+     * @return true, if the JSPs of a deployment should be compiled when it is deployed, rather than on first request
+     */
+    public boolean isPrecompile() {
+        return precompile;
+    }
 }
@@ -174,6 +174,13 @@ class JspDefinition extends PersistentResourceDefinition {
                     .setDefaultValue(new ModelNode(false))
                     .setAllowExpression(true)
                     .build();
+    protected static final SimpleAttributeDefinition PRECOMPILE =
+            new SimpleAttributeDefinitionBuilder(Constants.PRECOMPILE, ModelType.BOOLEAN, true)
+                    .setFlags(AttributeAccess.Flag.RESTART_ALL_SERVICES)
+                    .setValidator(new ModelTypeValidator(ModelType.BOOLEAN, true))
+                    .setDefaultValue(new ModelNode(false))
+                    .setAllowExpression(true)
+                    .build();
     protected static final SimpleAttributeDefinition[] ATTRIBUTES = {
             // IMPORTANT -- keep these in xsd order as this order controls marshalling
             DISABLED,
@@ -195,7 +202,8 @@ class JspDefinition extends PersistentResourceDefinition {
             JAVA_ENCODING,
             X_POWERED_BY,
             DISPLAY_SOURCE_FRAGMENT,
-            OPTIMIZE_SCRIPTLETS
+            OPTIMIZE_SCRIPTLETS,
+            PRECOMPILE
     };
     static final JspDefinition INSTANCE = new JspDefinition();
     static final Map<String, AttributeDefinition> ATTRIBUTES_MAP = new HashMap<>();
@@ -243,9 +251,10 @@ class JspDefinition extends PersistentResourceDefinition {
         boolean xPoweredBy = X_POWERED_BY.resolveModelAttribute(context, model).asBoolean();
         boolean displaySourceFragment = DISPLAY_SOURCE_FRAGMENT.resolveModelAttribute(context, model).asBoolean();
         boolean optimizeScriptlets = OPTIMIZE_SCRIPTLETS.resolveModelAttribute(context, model).asBoolean();
+        boolean precompile = PRECOMPILE.resolveModelAttribute(context, model).asBoolean();
         return new JSPConfig(development, disabled, keepGenerated, trimSpaces, tagPooling, mappedFile, checkInterval, modificationTestInterval,
                 recompileOnFile, snap, dumpSnap, generateStringsAsCharArrays, errorOnUseBeanInvalidClassAttribute, scratchDir,
-                sourceVm, targetVm, javaEncoding, xPoweredBy, displaySourceFragment, optimizeScriptlets);
+                sourceVm, targetVm, javaEncoding, xPoweredBy, displaySourceFragment, optimizeScriptlets, precompile);
     }
 
     private static class JSPAdd extends RestartParentResourceAddHandler {
@@ -153,7 +153,8 @@ public class UndertowSubsystemParser_3_0 extends PersistentResourceXMLParser {
                                                         JspDefinition.JAVA_ENCODING,
                                                         JspDefinition.X_POWERED_BY,
                                                         JspDefinition.DISPLAY_SOURCE_FRAGMENT,
-                                                        JspDefinition.OPTIMIZE_SCRIPTLETS)
+                                                        JspDefinition.OPTIMIZE_SCRIPTLETS,
+                                                        JspDefinition.PRECOMPILE)
                                 )
                                 .addChild(
                                         builder(SessionCookieDefinition.INSTANCE)
@@ -33,6 +33,7 @@ import java.util.Set;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import org.jboss.as.ee.metadata.DescriptorCache;
 import org.jboss.as.ee.structure.DeploymentType;
 import org.jboss.as.ee.structure.DeploymentTypeMarker;
 import org.jboss.as.server.deployment.Attachments;
@@ -141,10 +142,12 @@ public class ExternalTldParsingDeploymentProcessor implements DeploymentUnitProc
         InputStream is = null;
         try {
             is = tld.openStream();
-            final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
-            inputFactory.setXMLResolver(NoopXMLResolver.create());
-            XMLStreamReader xmlReader = inputFactory.createXMLStreamReader(is);
-            return TldMetaDataParser.parse(xmlReader);
+            return DescriptorCache.getInstance().parse("tld", is, TldMetaData.class, false, input -> {
+                final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+                inputFactory.setXMLResolver(NoopXMLResolver.create());
+                XMLStreamReader xmlReader = inputFactory.createXMLStreamReader(input);
+                return TldMetaDataParser.parse(xmlReader);
+            });
         } catch (XMLStreamException e) {
             throw new DeploymentUnitProcessingException(UndertowLogger.ROOT_LOGGER.failToParseXMLDescriptor(tld.getName(), e.getLocation().getLineNumber(),
                     e.getLocation().getColumnNumber()), e);
@@ -0,0 +1,329 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.wildfly.extension.undertow.deployment;
+
+import static java.security.AccessController.doPrivileged;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+
+import org.apache.jasper.EmbeddedServletOptions;
+import org.apache.jasper.Options;
+import org.apache.jasper.compiler.JspRuntimeContext;
+import org.apache.jasper.servlet.JspServletWrapper;
+import org.jboss.threads.JBossThreadFactory;
+import org.jboss.vfs.VirtualFile;
+import org.wildfly.extension.undertow.logging.UndertowLogger;
+import org.wildfly.security.manager.WildFlySecurityManager;
+
+/**
+ * Listener that compiles all JSPs of a deployment when it starts, rather than on their first request.
+ * <p/>
+ * JSPs are compiled concurrently, using the same options as the JSP servlet, into the same scratch directory, so that the JSP servlet
+ * finds them up to date and only needs to load them. Unless a scratch directory is configured, this is a directory keyed by the content
+ * of the deployment, which, unlike the deployment temp directory, survives restarts, and can be shared by servers with the same deployment.
+ */
+public class JspPrecompilationListener implements ServletContextListener {
+
+    public static final String CONTEXT_KEY = "org.wildfly.extension.undertow.deployment.JspPrecompilationListener.initParams";
+
+    static final String CACHE_DIRECTORY = "jsp-cache";
+
+    private static final String JSP_SERVLET_NAME = "jsp";
+    private static final String[] JSP_EXTENSIONS = { ".jsp", ".jspx" };
+    // Directories that cannot contain JSPs served by this deployment
+    private static final String[] SKIPPED_DIRECTORIES = { "/META-INF/", "/WEB-INF/classes/", "/WEB-INF/lib/" };
+    private static final String LIBRARIES = "WEB-INF/lib/";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadFactory THREAD_FACTORY = doPrivileged(new PrivilegedAction<JBossThreadFactory>() {
+        public JBossThreadFactory run() {
+            return new JBossThreadFactory(new ThreadGroup(JspPrecompilationListener.class.getSimpleName()), Boolean.TRUE, null, "%G - %t", null, null);
+        }
+    });
+
+    @Override
+    public void contextInitialized(final ServletContextEvent sce) {
+        final ServletContext context = sce.getServletContext();
+        final List<String> jsps = new ArrayList<>();
+        findJsps(context, "/", jsps);
+        if (jsps.isEmpty()) {
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        final Map<String, String> initParams = (Map<String, String>) context.getAttribute(CONTEXT_KEY);
+        final ServletConfig config = new ServletConfig() {
+            @Override
+            public String getServletName() {
+                return JSP_SERVLET_NAME;
+            }
+
+            @Override
+            public ServletContext getServletContext() {
+                return context;
+            }
+
+            @Override
+            public String getInitParameter(String name) {
+                return initParams.get(name);
+            }
+
+            @Override
+            public Enumeration<String> getInitParameterNames() {
+                return Collections.enumeration(initParams.keySet());
+            }
+        };
+        final Options options = new EmbeddedServletOptions(config, context);
+        final JspRuntimeContext runtimeContext = new JspRuntimeContext(context, options);
+        final ClassLoader loader = WildFlySecurityManager.getCurrentContextClassLoaderPrivileged();
+        final AtomicInteger failures = new AtomicInteger();
+        final long start = System.currentTimeMillis();
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(jsps.size(), Runtime.getRuntime().availableProcessors()), THREAD_FACTORY);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(jsps.size());
+            for (final String jsp : jsps) {
+                futures.add(executor.submit(() -> {
+                    WildFlySecurityManager.setCurrentContextClassLoaderPrivileged(loader);
+                    try {
+                        new JspServletWrapper(config, options, jsp, runtimeContext).getJspEngineContext().compile();
+                    } catch (Exception | LinkageError e) {
+                        // e.g. a fragment that only compiles when included - any genuine error is reported on first request
+                        failures.incrementAndGet();
+                        UndertowLogger.ROOT_LOGGER.debugf(e, "Failed to precompile %s", jsp);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            UndertowLogger.ROOT_LOGGER.debugf(e.getCause(), "Failed to precompile JSPs of %s", context.getContextPath());
+        } finally {
+            executor.shutdownNow();
+            runtimeContext.destroy();
+        }
+        UndertowLogger.ROOT_LOGGER.debugf("Precompiled %d of %d JSPs of %s in %d ms", jsps.size() - failures.get(), jsps.size(), context.getContextPath(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void contextDestroyed(final ServletContextEvent sce) {
+    }
+
+    private static void findJsps(ServletContext context, String path, List<String> jsps) {
+        final Set<String> paths = context.getResourcePaths(path);
+        if (paths == null) {
+            return;
+        }
+        for (String resource : paths) {
+            if (resource.endsWith("/")) {
+                if (!isSkipped(resource)) {
+                    findJsps(context, resource, jsps);
+                }
+            } else if (isJsp(resource)) {
+                jsps.add(resource);
+            }
+        }
+    }
+
+    /**
+     * Indicates whether a web deployment, or any of its overlays, contains a JSP that would be precompiled.
+     * Stops at the first JSP found, so is cheap for the typical deployment that has any.
+     *
+     * @param deploymentRoot the root of the web deployment
+     * @param overlays the META-INF/resources directories of the libraries of the web deployment
+     * @return true, if the deployment contains a JSP, false otherwise
+     */
+    static boolean hasJsps(VirtualFile deploymentRoot, Collection<VirtualFile> overlays) {
+        if (hasJsps(deploymentRoot, "/")) {
+            return true;
+        }
+        if (overlays != null) {
+            for (VirtualFile overlay : overlays) {
+                if (hasJsps(overlay, "/")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasJsps(VirtualFile directory, String path) {
+        for (VirtualFile file : directory.getChildren()) {
+            if (file.isDirectory()) {
+                final String resource = path + file.getName() + '/';
+                if (!isSkipped(resource) && hasJsps(file, resource)) {
+                    return true;
+                }
+            } else if (isJsp(file.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSkipped(String directory) {
+        for (String skipped : SKIPPED_DIRECTORIES) {
+            if (directory.equals(skipped)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isJsp(String resource) {
+        for (String extension : JSP_EXTENSIONS) {
+            if (resource.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the directory in which to keep the compiled JSPs of a deployment, creating it if necessary.
+     * The directory is keyed by the JSP servlet options and by the content of the web deployment, including the classes of the JSPs,
+     * since the JSP servlet only checks its compiled JSPs against their sources. Libraries are only keyed by the names and sizes of their
+     * entries, other than the resources they contribute to the deployment, as reading them would dominate the cost of deployment.
+     * Directories of previous content of the deployment are removed. This should only be called for a deployment with JSPs.
+     *
+     * @param tempDir the temp directory of the deployment
+     * @param deploymentRoot the root of the web deployment
+     * @param overlays the META-INF/resources directories of the libraries of the web deployment
+     * @param initParams the init parameters of the JSP servlet
+     * @return a directory beneath the server temp directory
+     * @throws IOException if the content of the deployment could not be read
+     */
+    static File getCacheDirectory(File tempDir, VirtualFile deploymentRoot, Collection<VirtualFile> overlays, Map<String, String> initParams) throws IOException {
+        final File directory = new File(new File(tempDir.getParentFile(), CACHE_DIRECTORY), tempDir.getName());
+        final File cache = new File(directory, digest(deploymentRoot, overlays, initParams));
+        final File[] previous = directory.listFiles();
+        if (previous != null) {
+            for (File file : previous) {
+                if (!file.equals(cache)) {
+                    recursiveDelete(file);
+                }
+            }
+        }
+        cache.mkdirs();
+        return cache;
+    }
+
+    private static String digest(VirtualFile deploymentRoot, Collection<VirtualFile> overlays, Map<String, String> initParams) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Map.Entry<String, String> entry : new TreeMap<>(initParams).entrySet()) {
+            update(digest, entry.getKey() + '=' + entry.getValue());
+        }
+        // Times are not stable across servers, nor across restarts for expanded archives, so only names and content are significant
+        final byte[] buffer = new byte[8192];
+        update(digest, deploymentRoot, buffer);
+        if (overlays != null) {
+            // Overlays are the META-INF/resources of libraries, which are unordered
+            final Map<String, VirtualFile> sorted = new TreeMap<>();
+            for (VirtualFile overlay : overlays) {
+                sorted.put(overlay.getParent().getParent().getName(), overlay);
+            }
+            for (Map.Entry<String, VirtualFile> entry : sorted.entrySet()) {
+                update(digest, entry.getKey());
+                update(digest, entry.getValue(), buffer);
+            }
+        }
+        final byte[] hash = digest.digest();
+        final char[] result = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; ++i) {
+            result[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            result[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(result);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static void update(MessageDigest digest, VirtualFile root, byte[] buffer) throws IOException {
+        // The order of children depends on the file system
+        final Map<String, VirtualFile> files = new TreeMap<>();
+        for (VirtualFile file : root.getChildrenRecursively()) {
+            if (file.isFile()) {
+                files.put(file.getPathNameRelativeTo(root), file);
+            }
+        }
+        for (Map.Entry<String, VirtualFile> entry : files.entrySet()) {
+            final String path = entry.getKey();
+            final VirtualFile file = entry.getValue();
+            update(digest, path + '|' + file.getSize());
+            if (!path.startsWith(LIBRARIES)) {
+                try (InputStream input = file.openStream()) {
+                    int read = input.read(buffer);
+                    while (read != -1) {
+                        digest.update(buffer, 0, read);
+                        read = input.read(buffer);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void recursiveDelete(File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                recursiveDelete(f);
+            }
+        }
+        if (!file.delete()) {
+            UndertowLogger.ROOT_LOGGER.couldNotDeleteTempFile(file);
+        }
+    }
+}
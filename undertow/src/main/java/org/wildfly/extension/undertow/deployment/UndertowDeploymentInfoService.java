@@ -655,6 +655,18 @@ public class UndertowDeploymentInfoService implements Service<DeploymentInfo> {
                     d.addListener(new ListenerInfo(JspInitializationListener.class));
                     d.addServletContextAttribute(JspInitializationListener.CONTEXT_KEY, expressionFactoryWrappers);
                 }
+                //compile all JSPs on deployment, into a directory that outlives the deployment unless one is configured
+                if (jspConfig.isPrecompile() && JspPrecompilationListener.hasJsps(deploymentRoot, overlays)) {
+                    if (tempDir != null && !jspServlet.getInitParams().containsKey("scratchdir")) {
+                        try {
+                            jspServlet.addInitParam("scratchdir", JspPrecompilationListener.getCacheDirectory(tempDir, deploymentRoot, overlays, jspServlet.getInitParams()).getAbsolutePath());
+                        } catch (IOException e) {
+                            throw new StartException(e);
+                        }
+                    }
+                    d.addListener(new ListenerInfo(JspPrecompilationListener.class));
+                    d.addServletContextAttribute(JspPrecompilationListener.CONTEXT_KEY, new HashMap<>(jspServlet.getInitParams()));
+                }
             }
 
             d.setClassIntrospecter(new ComponentClassIntrospector(componentRegistry));
@@ -148,6 +148,9 @@ public class WarStructureDeploymentProcessor implements DeploymentUnitProcessor
         warMetaData.setTempDir(tempDir);
 
         moduleSpecification.addPermissionFactory(new ImmediatePermissionFactory(new FilePermission(tempDir.getAbsolutePath() + File.separatorChar + "-", "read,write,delete")));
+        // JSPs precompiled on deployment are kept in a cache beneath the server temp dir
+        File jspCacheDir = new File(new File(tempDir.getParentFile(), JspPrecompilationListener.CACHE_DIRECTORY), deploymentName);
+        moduleSpecification.addPermissionFactory(new ImmediatePermissionFactory(new FilePermission(jspCacheDir.getAbsolutePath() + File.separatorChar + "-", "read,write,delete")));
 
         // Add the shared TLDs metadata
         final TldsMetaData tldsMetaData = new TldsMetaData();
@@ -33,6 +33,7 @@ import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
+import org.jboss.as.ee.metadata.DescriptorCache;
 import org.jboss.as.ee.structure.DeploymentType;
 import org.jboss.as.ee.structure.DeploymentTypeMarker;
 import org.jboss.as.ee.structure.SpecDescriptorPropertyReplacement;
@@ -77,11 +78,13 @@ public class WebFragmentParsingDeploymentProcessor implements DeploymentUnitProc
                     InputStream is = null;
                     try {
                         is = webFragment.openStream();
-                        final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
-                        inputFactory.setXMLResolver(NoopXMLResolver.create());
-                        XMLStreamReader xmlReader = inputFactory.createXMLStreamReader(is);
+                        webFragments.put(resourceRoot.getRootName(), DescriptorCache.getInstance().parse("web-fragment.xml", is, WebFragmentMetaData.class, true, input -> {
+                            final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+                            inputFactory.setXMLResolver(NoopXMLResolver.create());
+                            XMLStreamReader xmlReader = inputFactory.createXMLStreamReader(input);
 
-                        webFragments.put(resourceRoot.getRootName(), WebFragmentMetaDataParser.parse(xmlReader, SpecDescriptorPropertyReplacement.propertyReplacer(deploymentUnit)));
+                            return WebFragmentMetaDataParser.parse(xmlReader, SpecDescriptorPropertyReplacement.propertyReplacer(deploymentUnit));
+                        }));
                     } catch (XMLStreamException e) {
                         throw new DeploymentUnitProcessingException(UndertowLogger.ROOT_LOGGER.failToParseXMLDescriptor(webFragment.toString(), e.getLocation().getLineNumber(), e.getLocation().getColumnNumber()));
                     } catch (IOException e) {
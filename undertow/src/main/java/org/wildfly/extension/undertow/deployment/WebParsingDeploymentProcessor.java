@@ -29,6 +29,7 @@ import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
+import org.jboss.as.ee.metadata.DescriptorCache;
 import org.jboss.as.ee.structure.DeploymentType;
 import org.jboss.as.ee.structure.DeploymentTypeMarker;
 import org.jboss.as.ee.structure.SpecDescriptorPropertyReplacement;
@@ -84,13 +85,15 @@ public class WebParsingDeploymentProcessor implements DeploymentUnitProcessor {
             InputStream is = null;
             try {
                 is = webXml.openStream();
-                final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+                WebMetaData webMetaData = DescriptorCache.getInstance().parse("web.xml", is, WebMetaData.class, true, input -> {
+                    final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
 
-                MetaDataElementParser.DTDInfo dtdInfo = new MetaDataElementParser.DTDInfo();
-                inputFactory.setXMLResolver(dtdInfo);
-                final XMLStreamReader xmlReader = inputFactory.createXMLStreamReader(is);
+                    MetaDataElementParser.DTDInfo dtdInfo = new MetaDataElementParser.DTDInfo();
+                    inputFactory.setXMLResolver(dtdInfo);
+                    final XMLStreamReader xmlReader = inputFactory.createXMLStreamReader(input);
 
-                WebMetaData webMetaData = WebMetaDataParser.parse(xmlReader, dtdInfo, SpecDescriptorPropertyReplacement.propertyReplacer(deploymentUnit));
+                    return WebMetaDataParser.parse(xmlReader, dtdInfo, SpecDescriptorPropertyReplacement.propertyReplacer(deploymentUnit));
+                });
 
                 if (schemaValidation && webMetaData.getSchemaLocation() != null) {
                     XMLSchemaValidator validator = new XMLSchemaValidator(new XMLResourceResolver());
@@ -0,0 +1,266 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.wildfly.extension.undertow.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import io.undertow.Handlers;
+import io.undertow.Undertow;
+import io.undertow.jsp.JspServletBuilder;
+import io.undertow.server.handlers.resource.FileResourceManager;
+import io.undertow.servlet.api.DeploymentInfo;
+import io.undertow.servlet.api.DeploymentManager;
+import io.undertow.servlet.api.ListenerInfo;
+import io.undertow.servlet.api.ServletContainer;
+import io.undertow.servlet.api.ServletInfo;
+import org.apache.jasper.servlet.JspServlet;
+import org.jboss.as.web.common.WebInjectionContainer;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the compilation of the JSPs of a deployment by {@link JspPrecompilationListener}, and the directory in which they are kept.
+ */
+public class JspPrecompilationListenerTestCase {
+
+    private static final String CONTEXT_PATH = "/test";
+    private static final String JSP = "hello.jsp";
+
+    private File directory;
+    private File root;
+    private File scratch;
+    private DeploymentManager manager;
+    private Undertow server;
+    private int port;
+
+    @Before
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("jsp-precompilation").toFile();
+        this.root = new File(this.directory, "root");
+        this.scratch = new File(this.directory, "scratch");
+        this.root.mkdirs();
+        this.scratch.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (this.server != null) {
+            this.server.stop();
+        }
+        if (this.manager != null) {
+            this.manager.stop();
+            this.manager.undeploy();
+        }
+        delete(this.directory);
+    }
+
+    @Test
+    public void servedWithoutRecompiling() throws Exception {
+        File jsp = this.write(JSP, "<%= \"Hello\" + \" world\" %>");
+        this.deploy();
+
+        // Compiled on deployment, i.e. before the first request
+        assertTrue(new File(this.scratch, "org/apache/jsp/hello_jsp.class").isFile());
+
+        // Break the source without changing its timestamp, so that the JSP could not be served if the JSP servlet compiled it again
+        long lastModified = jsp.lastModified();
+        this.write(JSP, "<%= not java %>");
+        jsp.setLastModified(lastModified);
+
+        assertEquals("Hello world", this.get(JSP).trim());
+    }
+
+    @Test
+    public void hasJsps() throws IOException {
+        VirtualFile deploymentRoot = VFS.getChild(this.root.getAbsolutePath());
+        this.write("index.html", "Hello world");
+        // Not served, so not compiled
+        this.write("WEB-INF/classes/hidden.jsp", "Hello world");
+        this.write("META-INF/hidden.jsp", "Hello world");
+
+        assertFalse(JspPrecompilationListener.hasJsps(deploymentRoot, Collections.<VirtualFile>emptySet()));
+
+        this.write("WEB-INF/views/hello.jspx", "Hello world");
+
+        assertTrue(JspPrecompilationListener.hasJsps(deploymentRoot, Collections.<VirtualFile>emptySet()));
+    }
+
+    @Test
+    public void cacheDirectory() throws IOException {
+        VirtualFile deploymentRoot = VFS.getChild(this.root.getAbsolutePath());
+        File tempDir = new File(new File(this.directory, "tmp"), "test.war");
+        Map<String, String> initParams = Collections.singletonMap("development", "false");
+        File jsp = this.write(JSP, "Hello world");
+        this.write("WEB-INF/classes/Hello.class", "Hello world");
+
+        File cache = JspPrecompilationListener.getCacheDirectory(tempDir, deploymentRoot, Collections.<VirtualFile>emptySet(), initParams);
+
+        assertTrue(cache.isDirectory());
+        assertEquals(new File(new File(this.directory, "tmp"), JspPrecompilationListener.CACHE_DIRECTORY), cache.getParentFile().getParentFile());
+
+        // Timestamps differ across servers, and across restarts for expanded archives
+        jsp.setLastModified(jsp.lastModified() - 60000L);
+        assertEquals(cache, JspPrecompilationListener.getCacheDirectory(tempDir, deploymentRoot, Collections.<VirtualFile>emptySet(), initParams));
+
+        // Changed content of the same size is a different directory, and replaces the directory of the previous content
+        this.write("WEB-INF/classes/Hello.class", "Hello World");
+        File changed = JspPrecompilationListener.getCacheDirectory(tempDir, deploymentRoot, Collections.<VirtualFile>emptySet(), initParams);
+
+        assertNotEquals(cache, changed);
+        assertTrue(changed.isDirectory());
+        assertFalse(cache.exists());
+
+        // Changed options are a different directory
+        assertNotEquals(changed, JspPrecompilationListener.getCacheDirectory(tempDir, deploymentRoot, Collections.<VirtualFile>emptySet(), Collections.singletonMap("development", "true")));
+    }
+
+    @Test
+    public void cacheDirectoryOfLibraries() throws IOException {
+        VirtualFile deploymentRoot = VFS.getChild(this.root.getAbsolutePath());
+        File tempDir = new File(new File(this.directory, "tmp"), "test.war");
+        Map<String, String> initParams = Collections.singletonMap("development", "false");
+        this.write(JSP, "Hello world");
+        File cache = JspPrecompilationListener.getCacheDirectory(tempDir, deploymentRoot, Collections.<VirtualFile>emptySet(), initParams);
+
+        this.write("WEB-INF/lib/hello.jar", "Hello world");
+        File library = JspPrecompilationListener.getCacheDirectory(tempDir, deploymentRoot, Collections.<VirtualFile>emptySet(), initParams);
+
+        assertNotEquals(cache, library);
+
+        // Libraries are not read, so changed content of the same size is the same directory
+        this.write("WEB-INF/lib/hello.jar", "Hello World");
+        assertEquals(library, JspPrecompilationListener.getCacheDirectory(tempDir, deploymentRoot, Collections.<VirtualFile>emptySet(), initParams));
+
+        this.write("WEB-INF/lib/hello.jar", "Hello world!");
+        assertNotEquals(library, JspPrecompilationListener.getCacheDirectory(tempDir, deploymentRoot, Collections.<VirtualFile>emptySet(), initParams));
+    }
+
+    @Test
+    public void cacheDirectoryOfSameContent() throws IOException {
+        Map<String, String> initParams = Collections.singletonMap("development", "false");
+        String[] paths = { "a.jsp", "b/b.jsp", "c.jsp", "WEB-INF/lib/d.jar", "WEB-INF/tags/e.tag" };
+        File other = new File(this.directory, "other");
+        // Files are created in opposite orders, which some file systems list them in
+        for (int i = 0; i < paths.length; ++i) {
+            write(this.root, paths[i], paths[i]);
+            write(other, paths[paths.length - 1 - i], paths[paths.length - 1 - i]);
+        }
+
+        File cache = JspPrecompilationListener.getCacheDirectory(new File(new File(this.directory, "tmp"), "test.war"), VFS.getChild(this.root.getAbsolutePath()), Collections.<VirtualFile>emptySet(), initParams);
+        File otherCache = JspPrecompilationListener.getCacheDirectory(new File(new File(this.directory, "tmp"), "other.war"), VFS.getChild(other.getAbsolutePath()), Collections.<VirtualFile>emptySet(), initParams);
+
+        assertEquals(cache.getName(), otherCache.getName());
+    }
+
+    private void deploy() throws Exception {
+        ClassLoader loader = JspPrecompilationListenerTestCase.class.getClassLoader();
+        Map<String, String> initParams = new HashMap<>();
+        initParams.put("development", "true");
+        initParams.put("modificationTestInterval", "0");
+        initParams.put("scratchdir", this.scratch.getAbsolutePath());
+
+        ServletInfo servlet = new ServletInfo("jsp", JspServlet.class).addMapping("*.jsp");
+        for (Map.Entry<String, String> entry : initParams.entrySet()) {
+            servlet.addInitParam(entry.getKey(), entry.getValue());
+        }
+        DeploymentInfo deployment = new DeploymentInfo()
+                .setClassLoader(loader)
+                .setContextPath(CONTEXT_PATH)
+                .setDeploymentName("test.war")
+                .setResourceManager(new FileResourceManager(this.root, Long.MAX_VALUE))
+                .addServlet(servlet)
+                .addListener(new ListenerInfo(JspPrecompilationListener.class))
+                .addServletContextAttribute(JspPrecompilationListener.CONTEXT_KEY, initParams);
+        JspServletBuilder.setupDeployment(deployment, new HashMap<>(), new HashMap<>(), new UndertowJSPInstanceManager(new WebInjectionContainer(loader, null)));
+
+        this.manager = ServletContainer.Factory.newInstance().addDeployment(deployment);
+        this.manager.deploy();
+        try (ServerSocket socket = new ServerSocket(0)) {
+            this.port = socket.getLocalPort();
+        }
+        this.server = Undertow.builder()
+                .addHttpListener(this.port, "localhost")
+                .setHandler(Handlers.path().addPrefixPath(CONTEXT_PATH, this.manager.start()))
+                .build();
+        this.server.start();
+    }
+
+    private String get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", "localhost", this.port, CONTEXT_PATH + "/" + path).openConnection();
+        try {
+            assertEquals(HttpURLConnection.HTTP_OK, connection.getResponseCode());
+            try (InputStream input = connection.getInputStream()) {
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                byte[] buffer = new byte[256];
+                int read = input.read(buffer);
+                while (read != -1) {
+                    output.write(buffer, 0, read);
+                    read = input.read(buffer);
+                }
+                return new String(output.toByteArray(), StandardCharsets.UTF_8);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private File write(String path, String content) throws IOException {
+        return write(this.root, path, content);
+    }
+
+    private static File write(File root, String path, String content) throws IOException {
+        File file = new File(root, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -24,6 +24,7 @@ import java.util.concurrent.ExecutionException;
 import javax.enterprise.inject.Vetoed;
 import javax.inject.Inject;
 
+import org.jboss.as.ee.metadata.SharedModuleIndex;
 import org.jboss.as.server.deployment.annotation.CompositeIndex;
 import org.jboss.as.weld.logging.WeldLogger;
 import org.jboss.as.weld.util.Reflections;
@@ -238,9 +239,9 @@ public class WeldClassFileInfo implements ClassFileInfo {
             return false; // there's nothing assignable from Object.class except for Object.class
         }
 
-        ClassInfo fromClassInfo = index.getClassByName(name);
+        ClassInfo fromClassInfo = getClassInfo(name);
         if (fromClassInfo == null) {
-            // We reached a class that is not in the index. Let's use reflection.
+            // We reached a class that is in neither index. Let's use reflection.
             final Class<?> clazz = loadClass(name.toString());
             return to.isAssignableFrom(clazz);
         }
@@ -280,9 +281,9 @@ public class WeldClassFileInfo implements ClassFileInfo {
         final DotName superName = classInfo.superName();
 
         if (superName != null && !OBJECT_NAME.equals(superName)) {
-            final ClassInfo superClassInfo = index.getClassByName(superName);
+            final ClassInfo superClassInfo = getClassInfo(superName);
             if (superClassInfo == null) {
-                // we are accessing a class that is outside of the jandex index
+                // we are accessing a class that is outside of both jandex indexes
                 // fallback to using reflection
                 return Reflections.containsAnnotation(loadClass(superName.toString()), requiredAnnotation);
             }
@@ -293,6 +294,14 @@ public class WeldClassFileInfo implements ClassFileInfo {
         return false;
     }
 
+    /**
+     * Resolves a class from the deployment index, or, for classes outside of the deployment, from the {@link SharedModuleIndex}.
+     */
+    private ClassInfo getClassInfo(DotName name) {
+        final ClassInfo info = index.getClassByName(name);
+        return (info != null) ? info : SharedModuleIndex.getClassByName(name, classLoader);
+    }
+
     private Class<?> loadClass(String className) {
         WeldLogger.DEPLOYMENT_LOGGER.tracef("Falling back to reflection for %s", className);
         try {
@@ -19,6 +19,7 @@ package org.jboss.as.weld.discovery;
 import java.lang.annotation.Annotation;
 import java.util.Set;
 
+import org.jboss.as.ee.metadata.SharedModuleIndex;
 import org.jboss.as.server.deployment.annotation.CompositeIndex;
 import org.jboss.as.weld.logging.WeldLogger;
 import org.jboss.jandex.ClassInfo;
@@ -48,6 +49,10 @@ public class WeldClassFileServices implements ClassFileServices {
         public Set<String> load(DotName name) throws Exception {
 
             ClassInfo annotationClassInfo = index.getClassByName(name);
+            if (annotationClassInfo == null) {
+                // e.g. an annotation type provided by a static module
+                annotationClassInfo = SharedModuleIndex.getClassByName(name, moduleClassLoader);
+            }
             ImmutableSet.Builder<String> builder = ImmutableSet.builder();
 
             if (annotationClassInfo != null) {
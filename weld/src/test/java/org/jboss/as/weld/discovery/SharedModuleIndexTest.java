@@ -0,0 +1,146 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2016, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.weld.discovery;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.enterprise.inject.Vetoed;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.jboss.as.ee.metadata.SharedModuleIndex;
+import org.jboss.as.weld.discovery.InnerClasses.InnerInterface;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.modules.DependencySpec;
+import org.jboss.modules.ModuleFinder;
+import org.jboss.modules.ModuleIdentifier;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.modules.ModuleSpec;
+import org.jboss.modules.ResourceLoaderSpec;
+import org.jboss.modules.ResourceLoaders;
+import org.jboss.weld.resources.spi.ClassFileInfo;
+import org.jboss.weld.resources.spi.ClassFileServices;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests that {@link WeldClassFileServices} resolves types outside of the deployment index from the {@link SharedModuleIndex},
+ * rather than by reflection.
+ */
+public class SharedModuleIndexTest {
+
+    private static Path root;
+    private static ClassLoader moduleClassLoader;
+    private static ClassFileInfo delta;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        // A module providing the superclass and annotation type of a deployment class, but not their own dependencies,
+        // such that loading either of them via the module would fail
+        root = Files.createTempDirectory("module");
+        for (Class<?> moduleClass : Arrays.asList(ModuleBase.class, ModuleAnnotation.class)) {
+            final String resource = moduleClass.getName().replace('.', '/') + ".class";
+            final Path target = root.resolve(resource);
+            Files.createDirectories(target.getParent());
+            try (InputStream input = moduleClass.getClassLoader().getResourceAsStream(resource)) {
+                Files.copy(input, target);
+            }
+        }
+        final ModuleIdentifier identifier = ModuleIdentifier.create("test.shared-module-index");
+        final ModuleSpec.Builder builder = ModuleSpec.build(identifier);
+        builder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(ResourceLoaders.createFileResourceLoader(identifier.getName(), root.toFile())));
+        builder.addDependency(DependencySpec.createLocalDependencySpec());
+        final ModuleSpec spec = builder.create();
+        final ModuleLoader moduleLoader = new ModuleLoader(new ModuleFinder[] { new ModuleFinder() {
+            @Override
+            public ModuleSpec findModule(ModuleIdentifier id, ModuleLoader delegateLoader) {
+                return identifier.equals(id) ? spec : null;
+            }
+        } });
+        moduleClassLoader = moduleLoader.loadModule(identifier).getClassLoader();
+
+        ClassFileServices service = new WeldClassFileServices(IndexUtils.createIndex(Delta.class, InnerClasses.class), moduleClassLoader);
+        delta = service.getClassFileInfo(Delta.class.getName());
+    }
+
+    @AfterClass
+    public static void cleanup() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (File file : paths.sorted(Comparator.reverseOrder()).map(Path::toFile).collect(Collectors.toList())) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testReflectionFails() {
+        try {
+            moduleClassLoader.loadClass(ModuleBase.class.getName());
+            Assert.fail("Module classes should not be loadable without their dependencies");
+        } catch (ClassNotFoundException | LinkageError expected) {
+            // Resolving these classes must therefore not fall back to reflection
+        }
+    }
+
+    @Test
+    public void testIsAssignableTo() {
+        Assert.assertTrue(delta.isAssignableTo(ModuleBase.class));
+        // Superinterface of a module superclass
+        Assert.assertTrue(delta.isAssignableTo(InnerInterface.class));
+        Assert.assertTrue(delta.isAssignableTo(Object.class));
+        Assert.assertFalse(delta.isAssignableTo(Charlie.class));
+    }
+
+    @Test
+    public void testContainsAnnotation() {
+        // Declared by a module superclass
+        Assert.assertTrue(delta.containsAnnotation(Inject.class));
+        // Meta-annotation of a module annotation type
+        Assert.assertTrue(delta.containsAnnotation(Named.class));
+        Assert.assertFalse(delta.containsAnnotation(Vetoed.class));
+    }
+
+    @Test
+    public void testGetClassByName() {
+        final DotName name = DotName.createSimple(ModuleBase.class.getName());
+        final ClassInfo info = SharedModuleIndex.getClassByName(name, moduleClassLoader);
+        Assert.assertNotNull(info);
+        Assert.assertEquals(name.toString(), info.name().toString());
+        // Resolved once per module
+        Assert.assertSame(info, SharedModuleIndex.getClassByName(name, moduleClassLoader));
+        // Not visible to the module
+        Assert.assertNull(SharedModuleIndex.getClassByName(DotName.createSimple(Charlie.class.getName()), moduleClassLoader));
+        // Resources of class loaders other than module class loaders need not correspond to the classes they load
+        Assert.assertNull(SharedModuleIndex.getClassByName(name, SharedModuleIndexTest.class.getClassLoader()));
+    }
+}